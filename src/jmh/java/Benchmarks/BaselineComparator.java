@@ -0,0 +1,142 @@
+package Benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares a JMH JSON result file against a baseline recorded on the same machine, e.g. from the commit a change
+ * is based on.
+ * <p>
+ * Usage: {@code BaselineComparator <baseline.json> <result.json> [tolerancePercent]}.
+ * Prints one line per benchmark/parameter combination and exits with status 1
+ * if any score regressed by more than the tolerance (default 15%).
+ * Only average-time results are compared, where a lower score is better.
+ * <p>
+ * A change counts only when the two scores' error intervals (score &plusmn; scoreError) do not overlap;
+ * otherwise it is reported as NOISY. Scores are only comparable when both files were recorded on the same JDK
+ * with the same forks, warmup and measurement settings: a different JDK ends the comparison with status 2, and
+ * a benchmark recorded with different settings is reported as SETTINGS and fails it.
+ */
+public class BaselineComparator {
+    private static final double DEFAULT_TOLERANCE_PERCENT = 15.0;
+
+    /**
+     * One benchmark's primary score, with its 99.9% error margin.
+     */
+    record Score(double score, double error, String settings) {
+        double low() {
+            return score - error;
+        }
+
+        double high() {
+            return score + error;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineComparator <baseline.json> <result.json> [tolerancePercent]");
+            System.exit(2);
+        }
+        double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_TOLERANCE_PERCENT;
+        File baselineFile = new File(args[0]);
+        File resultFile = new File(args[1]);
+        String baselineJdk = readJdkVersion(baselineFile);
+        String resultJdk = readJdkVersion(resultFile);
+        if (!baselineJdk.equals(resultJdk)) {
+            System.err.printf("Not comparable: the baseline was recorded on JDK %s and the results on JDK %s%n",
+                              baselineJdk, resultJdk);
+            System.exit(2);
+        }
+        Map<String, Score> baseline = readScores(baselineFile);
+        Map<String, Score> current = readScores(resultFile);
+
+        int regressions = 0;
+        int incomparable = 0;
+        for (Map.Entry<String, Score> entry : new TreeMap<>(current).entrySet()) {
+            Score after = entry.getValue();
+            Score before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("NEW        %-90s %12.3f ± %.3f%n", entry.getKey(), after.score(), after.error());
+                continue;
+            }
+            if (!before.settings().equals(after.settings())) {
+                System.out.printf("SETTINGS   %-90s %s -> %s%n", entry.getKey(), before.settings(), after.settings());
+                incomparable++;
+                continue;
+            }
+            double changePercent = (after.score() - before.score()) / before.score() * 100.0;
+            String verdict;
+            if (changePercent > tolerance) {
+                verdict = after.low() > before.high() ? "REGRESSED" : "NOISY";
+            } else if (changePercent < -tolerance) {
+                verdict = after.high() < before.low() ? "IMPROVED" : "NOISY";
+            } else {
+                verdict = "OK";
+            }
+            if (verdict.equals("REGRESSED")) {
+                regressions++;
+            }
+            System.out.printf("%-10s %-90s %12.3f ± %.3f -> %12.3f ± %.3f (%+.1f%%)%n", verdict, entry.getKey(),
+                              before.score(), before.error(), after.score(), after.error(), changePercent);
+        }
+        for (String missing : baseline.keySet()) {
+            if (!current.containsKey(missing)) {
+                System.out.printf("MISSING    %s%n", missing);
+            }
+        }
+        if (regressions > 0) {
+            System.err.println(regressions + " benchmark(s) regressed by more than " + tolerance + "%");
+        }
+        if (incomparable > 0) {
+            System.err.println(incomparable + " benchmark(s) were recorded with different settings than their baseline");
+        }
+        if (regressions > 0 || incomparable > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Reads a JMH JSON result file into a map from "benchmark{params} unit" to primary score.
+     * A missing or NaN scoreError, as JMH writes for a single iteration, counts as no error margin.
+     */
+    static Map<String, Score> readScores(File file) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        JsonNode runs = new ObjectMapper().readTree(file);
+        for (JsonNode run : runs) {
+            if (!"avgt".equals(run.path("mode").asText())) {
+                continue;
+            }
+            StringBuilder key = new StringBuilder(run.path("benchmark").asText().replace("Benchmarks.", ""));
+            JsonNode params = run.path("params");
+            if (params.size() > 0) {
+                Map<String, String> sorted = new TreeMap<>();
+                params.fields().forEachRemaining(p -> sorted.put(p.getKey(), p.getValue().asText()));
+                key.append(sorted);
+            }
+            JsonNode metric = run.path("primaryMetric");
+            key.append(' ').append(metric.path("scoreUnit").asText());
+            double error = metric.path("scoreError").asDouble(0);
+            String settings = String.format("forks=%d warmup=%dx%s measurement=%dx%s",
+                                            run.path("forks").asInt(),
+                                            run.path("warmupIterations").asInt(), run.path("warmupTime").asText(),
+                                            run.path("measurementIterations").asInt(), run.path("measurementTime").asText());
+            scores.put(key.toString(), new Score(metric.path("score").asDouble(), Double.isNaN(error) ? 0 : error, settings));
+        }
+        return scores;
+    }
+
+    /**
+     * @return the JDK version of the file's first run, or "unknown"
+     */
+    static String readJdkVersion(File file) throws IOException {
+        JsonNode runs = new ObjectMapper().readTree(file);
+        return runs.size() > 0 ? runs.get(0).path("jdkVersion").asText("unknown") : "unknown";
+    }
+}
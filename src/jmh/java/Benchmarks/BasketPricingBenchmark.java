@@ -0,0 +1,95 @@
+package Benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Domain.Shopping.ShoppingBasket;
+import Domain.Store.Item;
+import Domain.Store.Discounts.Discount;
+import Domain.Store.Discounts.DiscountPlan;
+import Domain.Store.Discounts.ItemPriceBreakdown;
+
+/**
+ * {@link ShoppingBasket#getBestPrice} against store discount lists made of
+ * nested AND/OR/XOR trees, for growing basket sizes and tree depths.
+ * The basket caches its pricing, so {@code bestPriceWithDiscounts} measures an unchanged basket
+ * and {@code changeLineThenBestPrice} the incremental update after one cart change.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BasketPricingBenchmark {
+
+    @Param({"5", "50"})
+    public int basketLines;
+
+    @Param({"0", "2", "4"})
+    public int discountDepth;
+
+    @Param({"4"})
+    public int discountsPerStore;
+
+    private ShoppingBasket basket;
+    private List<Discount> discounts;
+    private BiFunction<String, String, Item> itemGetter;
+    private DiscountPlan.Versions versions;
+    private String changingProduct;
+    private boolean added;
+
+    @Setup
+    public void setup() {
+        BenchmarkFixtures fixtures = new BenchmarkFixtures(1, Math.max(100, basketLines), 7);
+        String storeId = fixtures.getStoreIds().get(0);
+        itemGetter = fixtures.getFacadeManager().getItemFacade()::getItem;
+        versions = fixtures.getFacadeManager().getDiscountFacade().getVersions();
+
+        basket = new ShoppingBasket(storeId, "client");
+        for (int i = 0; i < basketLines; i++) {
+            basket.addOrder(fixtures.getProductIds().get(i), 1 + fixtures.getRandom().nextInt(4));
+        }
+        discounts = new ArrayList<>();
+        for (int i = 0; i < discountsPerStore; i++) {
+            discounts.add(fixtures.discountTree(storeId, discountDepth));
+        }
+        changingProduct = fixtures.getProductIds().get(basketLines);
+    }
+
+    @Benchmark
+    public Map<String, ItemPriceBreakdown> bestPriceWithDiscounts() {
+        return basket.getBestPrice(itemGetter, discounts, versions);
+    }
+
+    @Benchmark
+    public Map<String, ItemPriceBreakdown> changeLineThenBestPrice() {
+        if (added) {
+            basket.removeItem(changingProduct);
+        } else {
+            basket.addOrder(changingProduct, 1);
+        }
+        added = !added;
+        return basket.getBestPrice(itemGetter, discounts, versions);
+    }
+
+    @Benchmark
+    public Map<String, ItemPriceBreakdown> bestPriceNoDiscounts() {
+        return basket.getBestPrice(itemGetter);
+    }
+}
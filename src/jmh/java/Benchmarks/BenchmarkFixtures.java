@@ -0,0 +1,198 @@
+package Benchmarks;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import Application.utils.Response;
+import Domain.FacadeManager;
+import Domain.Pair;
+import Domain.ExternalServices.IExternalPaymentService;
+import Domain.ExternalServices.IExternalSupplyService;
+import Domain.Store.Category;
+import Domain.Store.Item;
+import Domain.Store.Product;
+import Domain.Store.Store;
+import Domain.Store.Discounts.AndDiscount;
+import Domain.Store.Discounts.Discount;
+import Domain.Store.Discounts.Discount.MergeType;
+import Domain.Store.Discounts.OrDiscount;
+import Domain.Store.Discounts.SimpleDiscount;
+import Domain.Store.Discounts.XorDiscount;
+import Domain.Store.Discounts.Conditions.AndCondition;
+import Domain.Store.Discounts.Conditions.MinPriceCondition;
+import Domain.Store.Discounts.Conditions.MinQuantityCondition;
+import Domain.Store.Discounts.Conditions.TrueCondition;
+import Domain.Store.Discounts.Qualifiers.CategoryQualifier;
+import Domain.Store.Discounts.Qualifiers.ProductQualifier;
+import Domain.Store.Discounts.Qualifiers.StoreQualifier;
+import Domain.User.Member;
+import Infrastructure.MemoryRepoManager;
+
+/**
+ * Builds a deterministic market on the memory repositories for the benchmarks.
+ * Every store sells every product, so the catalog holds stores * products items.
+ */
+public class BenchmarkFixtures {
+    public static final String[] CATEGORY_NAMES = {"Action", "Puzzle", "Strategy", "Sports", "Horror", "Indie", "Racing", "Family"};
+    public static final int STOCK = 1_000_000_000;
+
+    private final MemoryRepoManager repoManager;
+    private final FacadeManager facadeManager;
+    private final List<String> storeIds = new ArrayList<>();
+    private final List<String> productIds = new ArrayList<>();
+    private final List<Category> categories = new ArrayList<>();
+    private final Random random;
+
+    public BenchmarkFixtures(int stores, int productsPerStore, long seed) {
+        this.random = new Random(seed);
+        this.repoManager = new MemoryRepoManager();
+        this.facadeManager = new FacadeManager(repoManager, new AcceptingPaymentService(), new AcceptingSupplyService());
+
+        for (String name : CATEGORY_NAMES) {
+            categories.add(new Category(name, name + " games"));
+        }
+        for (int p = 0; p < productsPerStore; p++) {
+            String productId = "product-" + p;
+            Product product = new Product(productId, "Game " + p, Set.of(categories.get(p % categories.size()),
+                                                                        categories.get((p * 7 + 3) % categories.size())));
+            repoManager.getProductRepository().add(productId, product);
+            productIds.add(productId);
+        }
+        for (int s = 0; s < stores; s++) {
+            String storeId = "store-" + s;
+            repoManager.getStoreRepository().add(storeId, new Store(storeId, "Store " + s, "Benchmark store", "founder"));
+            storeIds.add(storeId);
+            for (String productId : productIds) {
+                Product product = repoManager.getProductRepository().get(productId);
+                Item item = new Item(storeId, productId, 5 + random.nextInt(200), STOCK,
+                                     "Benchmark item", product.getName(), product.getCategories());
+                for (int r = 0; r < 3; r++) {
+                    item.addRating(1 + random.nextInt(5));
+                }
+                repoManager.getItemRepository().add(new Pair<>(storeId, productId), item);
+            }
+        }
+    }
+
+    public MemoryRepoManager getRepoManager() {
+        return repoManager;
+    }
+
+    public FacadeManager getFacadeManager() {
+        return facadeManager;
+    }
+
+    public List<String> getStoreIds() {
+        return storeIds;
+    }
+
+    public List<String> getProductIds() {
+        return productIds;
+    }
+
+    public List<Category> getCategories() {
+        return categories;
+    }
+
+    public Random getRandom() {
+        return random;
+    }
+
+    /**
+     * Registers an adult member and returns its id.
+     */
+    public String addMember(String username) {
+        UUID id = UUID.randomUUID();
+        Member member = new Member(id, username, "password", username + "@gamazon.test", LocalDate.of(1990, 1, 1));
+        repoManager.getUserRepository().add(id.toString(), member);
+        return id.toString();
+    }
+
+    /**
+     * Builds a discount tree like the ones store owners compose in the UI:
+     * product and category discounts under AND/OR/XOR nodes guarded by price and quantity conditions.
+     * The tree is {@code depth} levels deep below the root.
+     */
+    public Discount discountTree(String storeId, int depth) {
+        if (depth <= 0) {
+            return leafDiscount(storeId);
+        }
+        Discount left = discountTree(storeId, depth - 1);
+        Discount right = discountTree(storeId, depth - 1);
+        switch (depth % 3) {
+            case 0:
+                return new AndDiscount(UUID.randomUUID().toString(), storeId, List.of(left, right),
+                                       new MinPriceCondition(UUID.randomUUID().toString(), 10), MergeType.MUL);
+            case 1:
+                return new OrDiscount(UUID.randomUUID().toString(), storeId, List.of(left, right),
+                                      new TrueCondition(UUID.randomUUID().toString()), MergeType.MAX);
+            default:
+                return new XorDiscount(UUID.randomUUID().toString(), storeId, left, right,
+                                       new AndCondition(UUID.randomUUID().toString(), List.of(
+                                           new MinPriceCondition(UUID.randomUUID().toString(), 5),
+                                           new MinQuantityCondition(UUID.randomUUID().toString(), randomProduct(), 1))),
+                                       MergeType.MAX);
+        }
+    }
+
+    private Discount leafDiscount(String storeId) {
+        double percentage = 0.05 + random.nextInt(6) * 0.05;
+        switch (random.nextInt(3)) {
+            case 0:
+                return new SimpleDiscount(UUID.randomUUID().toString(), storeId, percentage,
+                                          new ProductQualifier(randomProduct()), new TrueCondition(UUID.randomUUID().toString()));
+            case 1:
+                return new SimpleDiscount(UUID.randomUUID().toString(), storeId, percentage,
+                                          new CategoryQualifier(categories.get(random.nextInt(categories.size()))),
+                                          new MinQuantityCondition(UUID.randomUUID().toString(), randomProduct(), 1));
+            default:
+                return new SimpleDiscount(UUID.randomUUID().toString(), storeId, percentage,
+                                          new StoreQualifier(storeId), new MinPriceCondition(UUID.randomUUID().toString(), 50));
+        }
+    }
+
+    public String randomProduct() {
+        return productIds.get(random.nextInt(productIds.size()));
+    }
+
+    public String randomStore() {
+        return storeIds.get(random.nextInt(storeIds.size()));
+    }
+
+    /**
+     * Payment gateway stub that approves every charge.
+     */
+    public static class AcceptingPaymentService implements IExternalPaymentService {
+        @Override
+        public Response<Void> updatePaymentServiceURL(String url) { return new Response<>(null); }
+        @Override
+        public Response<Boolean> handshake() { return new Response<>(true); }
+        @Override
+        public Response<Integer> processPayment(String userSSN, String cardNumber, Date expiryDate, String cvv, String holder, double amount) {
+            return new Response<>(10000);
+        }
+        @Override
+        public Response<Boolean> cancelPayment(int transactionId) { return new Response<>(true); }
+    }
+
+    /**
+     * Supply gateway stub that accepts every order.
+     */
+    public static class AcceptingSupplyService implements IExternalSupplyService {
+        @Override
+        public Response<Void> updateSupplyServiceURL(String newUrl) { return new Response<>(null); }
+        @Override
+        public Response<Boolean> handshake() { return new Response<>(true); }
+        @Override
+        public Response<Integer> supplyOrder(String name, String address, String city, String country, String zip) {
+            return new Response<>(10000);
+        }
+        @Override
+        public Response<Boolean> cancelSupply(int transactionId) { return new Response<>(true); }
+    }
+}
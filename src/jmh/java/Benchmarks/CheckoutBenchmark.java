@@ -0,0 +1,112 @@
+package Benchmarks;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Domain.FacadeManager;
+import Domain.Pair;
+import Domain.Repos.IShoppingBasketRepository;
+import Domain.Shopping.CheckoutManager;
+import Domain.Shopping.CheckoutManager.CheckoutResult;
+import Domain.Shopping.ReceiptBuilder;
+import Domain.Shopping.ShoppingBasket;
+import Domain.Shopping.ShoppingCart;
+import Infrastructure.MemoryRepoManager;
+
+/**
+ * End-to-end {@link CheckoutManager#processCheckout} on the memory repositories,
+ * with discounts and policies in every store and stubbed payment and supply gateways.
+ * The cart is refilled before every invocation, so each call does a full purchase.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CheckoutBenchmark {
+
+    @Param({"1", "5"})
+    public int storesInCart;
+
+    @Param({"3", "20"})
+    public int linesPerBasket;
+
+    private BenchmarkFixtures fixtures;
+    private CheckoutManager checkoutManager;
+    private IShoppingBasketRepository basketRepo;
+    private String clientId;
+    private ShoppingCart cart;
+    private final Date expiry = new Date(System.currentTimeMillis() + 365L * 24 * 60 * 60 * 1000);
+
+    @Setup(Level.Trial)
+    public void setup() {
+        fixtures = new BenchmarkFixtures(storesInCart, Math.max(50, linesPerBasket), 19);
+        MemoryRepoManager repos = fixtures.getRepoManager();
+        FacadeManager facades = fixtures.getFacadeManager();
+        basketRepo = repos.getShoppingBasketRepository();
+        clientId = fixtures.addMember("checkout-member");
+
+        for (String storeId : fixtures.getStoreIds()) {
+            for (int i = 0; i < 3; i++) {
+                facades.getDiscountFacade().addDiscount(storeId, fixtures.discountTree(storeId, 2));
+            }
+            facades.getPolicyFacade().createMaxQuantityAllPolicy(storeId, 100);
+            facades.getPolicyFacade().createCategoryDisallowPolicy(storeId, "Banned");
+        }
+
+        checkoutManager = new CheckoutManager(basketRepo,
+                                              facades.getPaymentService(),
+                                              facades.getItemFacade(),
+                                              repos.getProductRepository(),
+                                              new ReceiptBuilder(repos.getReceiptRepository(), facades.getItemFacade()),
+                                              facades.getDiscountFacade(),
+                                              facades.getSupplyService(),
+                                              facades.getPolicyFacade(),
+                                              repos.getReceiptRepository(),
+                                              repos.getUserRepository());
+    }
+
+    @Setup(Level.Invocation)
+    public void fillCart() {
+        List<String> storeIds = new ArrayList<>(fixtures.getStoreIds());
+        cart = new ShoppingCart(clientId);
+        for (String storeId : storeIds) {
+            Pair<String, String> basketId = new Pair<>(clientId, storeId);
+            ShoppingBasket basket = new ShoppingBasket(storeId, clientId);
+            for (int i = 0; i < linesPerBasket; i++) {
+                basket.addOrder(fixtures.getProductIds().get(i), 1);
+            }
+            if (!basketRepo.add(basketId, basket)) {
+                basketRepo.update(basketId, basket);
+            }
+            cart.addStore(storeId);
+        }
+    }
+
+    @Benchmark
+    public CheckoutResult processCheckout() {
+        CheckoutResult result = checkoutManager.processCheckout(clientId, cart, "123456789", "4111111111111111", expiry,
+                                                                "123", "Bench Mark", "1 Benchmark St", "Beer Sheva",
+                                                                "Israel", "8410501");
+        if (!result.isSuccess()) {
+            throw new IllegalStateException("Checkout failed: " + result.getErrorMessage());
+        }
+        return result;
+    }
+}
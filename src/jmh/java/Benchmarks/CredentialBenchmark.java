@@ -0,0 +1,95 @@
+package Benchmarks;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Domain.User.CredentialHasher;
+import Domain.User.GuestSessions;
+import Domain.User.Guest;
+import Domain.User.LoginManager;
+import Domain.User.Member;
+import Infrastructure.MemoryRepositories.MemoryUserRepository;
+
+/**
+ * Registration and login throughput with several callers, on the memory user repository.
+ * Each operation runs one BCrypt hash at the default cost; {@code hashThreads} bounds how many run at once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@Threads(4)
+public class CredentialBenchmark {
+
+    private static final String PASSWORD = "Benchmark1!";
+
+    @Param({"1", "4"})
+    public int hashThreads;
+
+    private MemoryUserRepository repository;
+    private LoginManager loginManager;
+    private CredentialHasher hasher;
+    private final AtomicLong registrations = new AtomicLong();
+    private final AtomicInteger callers = new AtomicInteger();
+
+    /**
+     * One member per calling thread, so logins never collide on an already logged in member.
+     */
+    @State(Scope.Thread)
+    public static class Caller {
+        String username;
+
+        @Setup
+        public void setup(CredentialBenchmark benchmark) {
+            username = "caller" + benchmark.callers.getAndIncrement();
+            Guest guest = benchmark.loginManager.createGuest();
+            benchmark.loginManager.register(guest.getId(), username, PASSWORD, username + "@example.com").join();
+            benchmark.loginManager.exit(benchmark.repository.getMemberByUsername(username).getId());
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        repository = new MemoryUserRepository();
+        hasher = new CredentialHasher(hashThreads, CredentialHasher.MIN_STRENGTH, 1024, 0);
+        loginManager = new LoginManager(repository, hasher, GuestSessions.withDefaults());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        hasher.shutdown();
+    }
+
+    @Benchmark
+    public Member register() {
+        Guest guest = loginManager.createGuest();
+        String username = "member-" + registrations.incrementAndGet() + "-" + UUID.randomUUID();
+        return loginManager.register(guest.getId(), username, PASSWORD, "member@example.com").join();
+    }
+
+    @Benchmark
+    public Member loginAndExit(Caller caller) {
+        Member member = loginManager.login(caller.username, PASSWORD).join();
+        loginManager.exit(member.getId());
+        return member;
+    }
+}
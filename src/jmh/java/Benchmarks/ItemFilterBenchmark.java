@@ -0,0 +1,81 @@
+package Benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import Domain.Store.Item;
+import Domain.Store.ItemFacade;
+import Domain.Store.ItemFilter;
+
+/**
+ * Catalog search: a single {@link ItemFilter#matchesFilter} check and a full
+ * {@link ItemFacade#filterItems} scan over catalogs of growing size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemFilterBenchmark {
+
+    @Param({"10", "100"})
+    public int stores;
+
+    @Param({"50", "500"})
+    public int productsPerStore;
+
+    private ItemFacade itemFacade;
+    private ItemFilter broadFilter;
+    private ItemFilter narrowFilter;
+    private List<Item> items;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        BenchmarkFixtures fixtures = new BenchmarkFixtures(stores, productsPerStore, 42);
+        itemFacade = fixtures.getFacadeManager().getItemFacade();
+        items = itemFacade.getAvailableItems();
+        broadFilter = new ItemFilter.Builder()
+            .minPrice(0)
+            .maxPrice(1000)
+            .build();
+        narrowFilter = new ItemFilter.Builder()
+            .addCategory(fixtures.getCategories().get(0))
+            .minPrice(20)
+            .maxPrice(120)
+            .minRating(2)
+            .itemName("Game 1")
+            .amount(1)
+            .build();
+    }
+
+    @Benchmark
+    public boolean matchesFilter() {
+        Item item = items.get(Math.floorMod(cursor++, items.size()));
+        return narrowFilter.matchesFilter(item);
+    }
+
+    @Benchmark
+    public void filterItemsBroad(Blackhole blackhole) {
+        blackhole.consume(itemFacade.filterItems(broadFilter));
+    }
+
+    @Benchmark
+    public void filterItemsNarrow(Blackhole blackhole) {
+        blackhole.consume(itemFacade.filterItems(narrowFilter));
+    }
+}
@@ -0,0 +1,74 @@
+package Benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Domain.Store.Item;
+import Infrastructure.MemoryRepositories.MemoryItemRepository;
+
+/**
+ * Point and secondary-index lookups on {@link MemoryItemRepository}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemRepositoryBenchmark {
+
+    @Param({"10", "100"})
+    public int stores;
+
+    @Param({"50", "500"})
+    public int productsPerStore;
+
+    private MemoryItemRepository repository;
+    private List<String> storeIds;
+    private List<String> productIds;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        BenchmarkFixtures fixtures = new BenchmarkFixtures(stores, productsPerStore, 3);
+        repository = (MemoryItemRepository) fixtures.getRepoManager().getItemRepository();
+        storeIds = fixtures.getStoreIds();
+        productIds = fixtures.getProductIds();
+    }
+
+    @Benchmark
+    public Item getItem() {
+        int i = cursor++;
+        return repository.getItem(storeIds.get(Math.floorMod(i, storeIds.size())), productIds.get(Math.floorMod(i * 31, productIds.size())));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Item getItemContended() {
+        int i = cursor++;
+        return repository.getItem(storeIds.get(Math.floorMod(i, storeIds.size())), productIds.get(Math.floorMod(i * 31, productIds.size())));
+    }
+
+    @Benchmark
+    public List<Item> getByStoreId() {
+        return repository.getByStoreId(storeIds.get(Math.floorMod(cursor++, storeIds.size())));
+    }
+
+    @Benchmark
+    public List<Item> getByProductId() {
+        return repository.getByProductId(productIds.get(Math.floorMod(cursor++, productIds.size())));
+    }
+}
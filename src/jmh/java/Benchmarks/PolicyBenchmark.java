@@ -0,0 +1,93 @@
+package Benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Domain.Shopping.ShoppingBasket;
+import Domain.Store.Policy;
+import Domain.Store.PolicyPlan;
+import Domain.User.Member;
+import Domain.management.PolicyFacade;
+
+/**
+ * Evaluates a store's full policy set against a basket: policy by policy,
+ * and through the store's compiled {@link PolicyPlan} as checkout does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PolicyBenchmark {
+
+    @Param({"5", "50"})
+    public int basketLines;
+
+    @Param({"1", "8"})
+    public int policyRounds;
+
+    private ShoppingBasket basket;
+    private List<Policy> policies;
+    private PolicyPlan plan;
+    private Member member;
+    private String churnProduct;
+
+    @Setup
+    public void setup() {
+        BenchmarkFixtures fixtures = new BenchmarkFixtures(1, Math.max(100, basketLines), 11);
+        String storeId = fixtures.getStoreIds().get(0);
+        PolicyFacade policyFacade = fixtures.getFacadeManager().getPolicyFacade();
+        member = fixtures.getRepoManager().getUserRepository().getMember(fixtures.addMember("policy-member"));
+
+        basket = new ShoppingBasket(storeId, member.getId());
+        for (int i = 0; i < basketLines; i++) {
+            basket.addOrder(fixtures.getProductIds().get(i), 1 + fixtures.getRandom().nextInt(4));
+        }
+
+        String[] categories = BenchmarkFixtures.CATEGORY_NAMES;
+        for (int r = 0; r < policyRounds; r++) {
+            policyFacade.createMaxQuantityAllPolicy(storeId, 100);
+            policyFacade.createMaxQuantityProductPolicy(storeId, fixtures.randomProduct(), 100);
+            policyFacade.createMaxQuantityCategoryPolicy(storeId, categories[r % categories.length], 100);
+            policyFacade.createCategoryDisallowPolicy(storeId, "Banned-" + r);
+            policyFacade.createCategoryAgePolicy(storeId, categories[(r + 1) % categories.length], 18);
+        }
+        policies = policyFacade.getAllStorePolicies(storeId);
+        plan = policyFacade.getStorePlan(storeId);
+        churnProduct = fixtures.getProductIds().get(0);
+    }
+
+    @Benchmark
+    public boolean evaluateAll() {
+        boolean applicable = true;
+        for (Policy policy : policies) {
+            applicable &= policy.isApplicable(basket, member);
+        }
+        return applicable;
+    }
+
+    @Benchmark
+    public boolean evaluatePlan() {
+        return plan.isApplicable(basket, member);
+    }
+
+    @Benchmark
+    public boolean changeLineThenEvaluatePlan() {
+        basket.addOrder(churnProduct, 1);
+        basket.removeItem(churnProduct, 1);
+        return plan.isApplicable(basket, member);
+    }
+}
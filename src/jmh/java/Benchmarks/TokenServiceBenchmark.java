@@ -0,0 +1,59 @@
+package Benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Application.TokenService;
+
+/**
+ * JWT work done on every service call: validating and decoding a session token.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenServiceBenchmark {
+
+    private TokenService tokenService;
+    private String validToken;
+    private String foreignToken;
+
+    @Setup
+    public void setup() {
+        tokenService = new TokenService();
+        validToken = tokenService.generateToken("benchmark-user");
+        foreignToken = new TokenService().generateToken("benchmark-user");
+    }
+
+    @Benchmark
+    public boolean validateValid() {
+        return tokenService.validateToken(validToken);
+    }
+
+    @Benchmark
+    public boolean validateForeign() {
+        return tokenService.validateToken(foreignToken);
+    }
+
+    @Benchmark
+    public String validateAndExtractId() {
+        return tokenService.validateToken(validToken) ? tokenService.extractId(validToken) : null;
+    }
+
+    @Benchmark
+    public String generate() {
+        return tokenService.generateToken("benchmark-user");
+    }
+}
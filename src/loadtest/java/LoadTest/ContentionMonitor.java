@@ -0,0 +1,203 @@
+package LoadTest;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import Domain.Repos.StripedLocks;
+
+/**
+ * Measures lock contention among the load workers.
+ * Blocked counts and times come from the JVM's per-thread contention accounting, which covers monitors only.
+ * A sampler additionally records, for every worker found BLOCKED on a monitor or parked on a
+ * {@code java.util.concurrent.locks} lock (the stripes' StampedLocks, the offers' ReentrantLocks), the lock and the
+ * frame it is stuck in, which points at the hot critical sections. The counters of the watched lock stripes are
+ * reported as they moved since the last reset.
+ */
+public class ContentionMonitor {
+    private static final long SAMPLE_INTERVAL_MILLIS = 5;
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final Set<Long> workerIds = ConcurrentHashMap.newKeySet();
+    private final Map<Long, long[]> baseline = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> blockedSites = new ConcurrentHashMap<>();
+    private final AtomicLong samples = new AtomicLong();
+    private final AtomicLong blockedSamples = new AtomicLong();
+    private final AtomicLong parkedSamples = new AtomicLong();
+    private final Map<String, Supplier<StripedLocks.Stats>> stripes = new LinkedHashMap<>();
+    private final Map<String, StripedLocks.Stats> stripesBaseline = new ConcurrentHashMap<>();
+    private volatile boolean running;
+    private Thread sampler;
+
+    public ContentionMonitor() {
+        if (threads.isThreadContentionMonitoringSupported()) {
+            threads.setThreadContentionMonitoringEnabled(true);
+        }
+    }
+
+    public void registerWorker(Thread thread) {
+        workerIds.add(thread.threadId());
+    }
+
+    /**
+     * Reports the counters of a set of lock stripes under the given name; called before the run starts.
+     */
+    public void watchStripes(String name, Supplier<StripedLocks.Stats> stats) {
+        stripes.put(name, stats);
+        stripesBaseline.put(name, stats.get());
+    }
+
+    public void start() {
+        running = true;
+        sampler = new Thread(this::sampleLoop, "loadtest-contention-sampler");
+        sampler.setDaemon(true);
+        sampler.start();
+    }
+
+    public void stop() throws InterruptedException {
+        running = false;
+        if (sampler != null) {
+            sampler.join();
+        }
+    }
+
+    /**
+     * Discards everything observed so far; used at the end of the warmup.
+     */
+    public void reset() {
+        blockedSites.clear();
+        samples.set(0);
+        blockedSamples.set(0);
+        parkedSamples.set(0);
+        stripes.forEach((name, stats) -> stripesBaseline.put(name, stats.get()));
+        for (ThreadInfo info : threads.getThreadInfo(ids())) {
+            if (info != null) {
+                baseline.put(info.getThreadId(), new long[] {info.getBlockedCount(), info.getBlockedTime()});
+            }
+        }
+    }
+
+    private void sampleLoop() {
+        while (running) {
+            for (ThreadInfo info : threads.getThreadInfo(ids(), 1)) {
+                if (info == null) {
+                    continue;
+                }
+                samples.incrementAndGet();
+                String lock = info.getLockName() == null ? "?" : info.getLockName().replaceAll("@[0-9a-f]+$", "");
+                if (info.getThreadState() == Thread.State.BLOCKED) {
+                    blockedSamples.incrementAndGet();
+                    recordSite(lock, info);
+                } else if (isParkedOnLock(info, lock)) {
+                    parkedSamples.incrementAndGet();
+                    recordSite(lock, info);
+                }
+            }
+            try {
+                Thread.sleep(SAMPLE_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * A parked thread's lock name is its park blocker, as LockSupport.getBlocker would return it. Waiting on a
+     * condition or for a queue, future or sleep is not contention.
+     */
+    private static boolean isParkedOnLock(ThreadInfo info, String lock) {
+        Thread.State state = info.getThreadState();
+        return (state == Thread.State.WAITING || state == Thread.State.TIMED_WAITING)
+               && lock.startsWith("java.util.concurrent.locks.") && !lock.contains("ConditionObject");
+    }
+
+    private void recordSite(String lock, ThreadInfo info) {
+        StackTraceElement frame = callerOf(info.getStackTrace());
+        String site = frame == null ? "?" : frame.getClassName() + "." + frame.getMethodName();
+        blockedSites.computeIfAbsent(lock + " in " + site, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * The first frame outside the JDK's lock and park machinery, so that parked threads are told apart by where
+     * they asked for the lock.
+     */
+    private static StackTraceElement callerOf(StackTraceElement[] stack) {
+        for (StackTraceElement frame : stack) {
+            String type = frame.getClassName();
+            if (!type.startsWith("java.util.concurrent.locks.") && !type.startsWith("jdk.internal.misc.")) {
+                return frame;
+            }
+        }
+        return stack.length > 0 ? stack[0] : null;
+    }
+
+    private long[] ids() {
+        return workerIds.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /** Times workers entered a contended monitor since the last reset. */
+    public long getBlockedCount() {
+        return sumSinceBaseline(0, ThreadInfo::getBlockedCount);
+    }
+
+    /** Milliseconds workers spent waiting to enter monitors since the last reset, or -1 if the JVM does not track it. */
+    public long getBlockedMillis() {
+        if (!threads.isThreadContentionMonitoringEnabled()) {
+            return -1;
+        }
+        return sumSinceBaseline(1, ThreadInfo::getBlockedTime);
+    }
+
+    private long sumSinceBaseline(int index, java.util.function.ToLongFunction<ThreadInfo> value) {
+        long total = 0;
+        for (ThreadInfo info : threads.getThreadInfo(ids())) {
+            if (info != null) {
+                long[] base = baseline.getOrDefault(info.getThreadId(), new long[2]);
+                total += value.applyAsLong(info) - base[index];
+            }
+        }
+        return total;
+    }
+
+    /** Share of worker samples that were BLOCKED on a monitor. */
+    public double getBlockedRatio() {
+        long total = samples.get();
+        return total == 0 ? 0 : (double) blockedSamples.get() / total;
+    }
+
+    /** Share of worker samples that were parked on a java.util.concurrent lock. */
+    public double getParkedRatio() {
+        long total = samples.get();
+        return total == 0 ? 0 : (double) parkedSamples.get() / total;
+    }
+
+    /** How each watched set of stripes' counters moved since the last reset, by name. */
+    public Map<String, StripedLocks.Stats> getStripeStats() {
+        Map<String, StripedLocks.Stats> moved = new LinkedHashMap<>();
+        stripes.forEach((name, stats) -> {
+            StripedLocks.Stats now = stats.get();
+            StripedLocks.Stats base = stripesBaseline.get(name);
+            moved.put(name, new StripedLocks.Stats(now.getOptimisticReads() - base.getOptimisticReads(),
+                                                   now.getOptimisticFailures() - base.getOptimisticFailures(),
+                                                   now.getWrites() - base.getWrites(),
+                                                   now.getContendedWrites() - base.getContendedWrites()));
+        });
+        return moved;
+    }
+
+    /** The lock/frame pairs workers were most often found blocked or parked in, with their sample counts. */
+    public Map<String, Long> getTopBlockedSites(int limit) {
+        return blockedSites.entrySet().stream()
+            .sorted((a, b) -> Long.compare(b.getValue().get(), a.getValue().get()))
+            .limit(limit)
+            .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().get(), (a, b) -> a, LinkedHashMap::new));
+    }
+}
@@ -0,0 +1,180 @@
+package LoadTest;
+
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import Application.ItemService;
+import Application.ShoppingService;
+import Application.StoreService;
+import Application.UserService;
+import Application.DTOs.ItemDTO;
+import Application.DTOs.PaymentDetailsDTO;
+import Application.DTOs.SupplyDetailsDTO;
+import Application.DTOs.UserDTO;
+import Application.metrics.MetricsRegistry;
+import Application.metrics.OperationMetrics;
+import Application.utils.Response;
+import Domain.Store.ItemFilter;
+
+/**
+ * The scripted user journeys. Every service call is timed and recorded as a step;
+ * a journey stops at the first step it cannot continue without.
+ * <p>
+ * Guest journey: enter, browse, search, add to cart, checkout, exit.
+ * Member journey: login, browse, search, add to cart, checkout, bid on an auction, make an offer, exit.
+ * A member is only ever driven by one worker at a time, since the domain rejects a second concurrent login.
+ */
+public class Journeys {
+    private static final String CARD = "4111111111111111";
+    private static final String CVV = "123";
+    private static final String SSN = "123456789";
+
+    private final LoadTestWorld world;
+    private final MetricsRegistry metrics;
+    private final UserService userService;
+    private final ShoppingService shoppingService;
+    private final ItemService itemService;
+    private final StoreService storeService;
+    private final BlockingQueue<String> idleMembers;
+    private final double memberShare;
+    private final ConcurrentHashMap<String, AtomicInteger> bidCents = new ConcurrentHashMap<>();
+
+    public Journeys(LoadTestWorld world, LoadTestConfig config, MetricsRegistry metrics) {
+        this.world = world;
+        this.metrics = metrics;
+        this.userService = world.getServiceManager().getUserService();
+        this.shoppingService = world.getServiceManager().getShoppingService();
+        this.itemService = world.getServiceManager().getItemService();
+        this.storeService = world.getServiceManager().getStoreService();
+        this.idleMembers = new LinkedBlockingQueue<>(world.getMemberNames());
+        this.memberShare = (double) config.getMembers() / (config.getMembers() + config.getGuests());
+    }
+
+    /**
+     * Runs one journey, picking a member or a guest by the configured population mix.
+     * Falls back to a guest journey when every member is already busy.
+     *
+     * @return true if the journey reached its last step
+     */
+    public boolean runOne() {
+        if (ThreadLocalRandom.current().nextDouble() < memberShare) {
+            String member = idleMembers.poll();
+            if (member != null) {
+                try {
+                    return memberJourney(member);
+                } finally {
+                    idleMembers.add(member);
+                }
+            }
+        }
+        return guestJourney();
+    }
+
+    private boolean guestJourney() {
+        UserDTO guest = step("guestEntry", userService::guestEntry);
+        if (guest == null) {
+            return false;
+        }
+        String token = guest.getSessionToken();
+        try {
+            return shop(token);
+        } finally {
+            step("exit", () -> userService.exit(token));
+        }
+    }
+
+    private boolean memberJourney(String username) {
+        UserDTO member = step("login", () -> userService.login(username, LoadTestWorld.MEMBER_PASSWORD));
+        if (member == null) {
+            return false;
+        }
+        String token = member.getSessionToken();
+        try {
+            if (!shop(token)) {
+                return false;
+            }
+            bid(token);
+            return offer(token, member);
+        } finally {
+            step("exit", () -> userService.exit(token));
+        }
+    }
+
+    private boolean shop(String token) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String storeId = pick(world.getStoreIds());
+        if (step("getItemsByStoreId", () -> itemService.getItemsByStoreId(token, storeId)) == null) {
+            return false;
+        }
+        ItemFilter filter = new ItemFilter.Builder()
+            .itemName("Load Game " + random.nextInt(10))
+            .maxPrice(20 + random.nextInt(80))
+            .build();
+        List<ItemDTO> found = step("filterItems", () -> itemService.filterItems(token, filter));
+        if (found == null) {
+            return false;
+        }
+        int lines = 1 + random.nextInt(3);
+        for (int i = 0; i < lines; i++) {
+            String productId = found.isEmpty() || random.nextBoolean() ? pick(world.getProductIds()) : pick(found).getProductId();
+            String targetStore = found.isEmpty() || random.nextBoolean() ? storeId : pick(found).getStoreId();
+            if (step("addProductToCart", () -> shoppingService.addProductToCart(targetStore, token, productId, 1 + random.nextInt(2))) == null) {
+                return false;
+            }
+        }
+        step("viewCart", () -> shoppingService.viewCart(token));
+        Date expiry = new Date(System.currentTimeMillis() + 365L * 24 * 60 * 60 * 1000);
+        return step("checkout", () -> shoppingService.checkout(token, SSN, CARD, expiry, CVV, "Load Tester",
+                                                             "1 Load St", "Beer Sheva", "Israel", "8410501")) != null;
+    }
+
+    private void bid(String token) {
+        String auctionId = pick(world.getAuctionIds());
+        // Prices climb per auction; bids that arrive out of order are rejected by the domain, as they would be live.
+        float price = 2 + bidCents.computeIfAbsent(auctionId, k -> new AtomicInteger()).incrementAndGet() / 100f;
+        Date expiry = new Date(System.currentTimeMillis() + 365L * 24 * 60 * 60 * 1000);
+        step("makeBid", () -> shoppingService.makeBid(auctionId, token, price, CARD, expiry, CVV, 0,
+                                                      "Load Tester", "1 Load St", "Beer Sheva", "Israel", "8410501"));
+    }
+
+    private boolean offer(String token, UserDTO member) {
+        String storeId = pick(world.getStoreIds());
+        String productId = pick(world.getProductIds());
+        PaymentDetailsDTO payment = new PaymentDetailsDTO(member.getId(), CARD, LocalDate.now().plusYears(1), CVV, "Load Tester");
+        SupplyDetailsDTO supply = new SupplyDetailsDTO("1 Load St", "Beer Sheva", "Israel", "8410501", "Load Tester");
+        return step("makeOffer", () -> shoppingService.makeOffer(token, storeId, productId, 5.0, payment, supply)) != null;
+    }
+
+    /**
+     * Times a service call and records it under {@code name}.
+     * Returns the call's value, or null if it failed.
+     * Calls that succeed with no value return {@link Boolean#TRUE} so callers can tell them apart from failures.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T step(String name, Supplier<Response<T>> call) {
+        long start = System.nanoTime();
+        try {
+            Response<T> response = call.get();
+            if (response.errorOccurred()) {
+                metrics.recordOperation(name, System.nanoTime() - start, OperationMetrics.errorKindOf(response.getErrorMessage()));
+                return null;
+            }
+            metrics.recordOperation(name, System.nanoTime() - start, null);
+            return response.getValue() != null ? response.getValue() : (T) Boolean.TRUE;
+        } catch (RuntimeException e) {
+            metrics.recordOperation(name, System.nanoTime() - start, "exception: " + e.getClass().getSimpleName());
+            return null;
+        }
+    }
+
+    private static <T> T pick(List<T> values) {
+        return values.get(ThreadLocalRandom.current().nextInt(values.size()));
+    }
+}
@@ -0,0 +1,105 @@
+package LoadTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import Application.metrics.MetricsRegistry;
+
+/**
+ * Drives journeys from a fixed set of worker threads.
+ * <p>
+ * With a target rate the schedule is open-loop: journey n is due at {@code start + n / rate},
+ * and its latency is measured from that due time rather than from when a worker got to it,
+ * so a stalled system shows up as latency instead of silently lowering the offered load.
+ * Without a rate every worker starts its next journey as soon as the previous one ends.
+ */
+public class LoadGenerator {
+    public static final String JOURNEY = "journey";
+
+    private final LoadTestConfig config;
+    private final Journeys journeys;
+    private final MetricsRegistry metrics;
+    private final ContentionMonitor contention;
+    private final AtomicLong ticket = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile boolean stopping;
+    private long scheduleStart;
+
+    public LoadGenerator(LoadTestConfig config, Journeys journeys, MetricsRegistry metrics, ContentionMonitor contention) {
+        this.config = config;
+        this.journeys = journeys;
+        this.metrics = metrics;
+        this.contention = contention;
+    }
+
+    /**
+     * Runs the warmup and the measured period and returns the length of the measured period in nanoseconds.
+     */
+    public long run() throws InterruptedException {
+        CountDownLatch ready = new CountDownLatch(config.getConcurrency());
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < config.getConcurrency(); i++) {
+            Thread worker = new Thread(() -> {
+                ready.countDown();
+                workLoop();
+            }, "loadtest-worker-" + i);
+            contention.registerWorker(worker);
+            workers.add(worker);
+        }
+        contention.start();
+        scheduleStart = System.nanoTime();
+        workers.forEach(Thread::start);
+        ready.await();
+
+        TimeUnit.SECONDS.sleep(config.getWarmupSeconds());
+        metrics.reset();
+        contention.reset();
+        completed.set(0);
+        failed.set(0);
+        long measureStart = System.nanoTime();
+
+        TimeUnit.SECONDS.sleep(config.getDurationSeconds());
+        long measured = System.nanoTime() - measureStart;
+        stopping = true;
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        contention.stop();
+        return measured;
+    }
+
+    private void workLoop() {
+        double rate = config.getJourneysPerSecond();
+        while (!stopping) {
+            long due;
+            if (rate > 0) {
+                due = scheduleStart + (long) (ticket.getAndIncrement() * 1_000_000_000L / rate);
+                long wait;
+                while ((wait = due - System.nanoTime()) > 0 && !stopping) {
+                    LockSupport.parkNanos(wait);
+                }
+                if (stopping) {
+                    return;
+                }
+            } else {
+                due = System.nanoTime();
+            }
+            boolean ok = journeys.runOne();
+            metrics.recordOperation(JOURNEY, System.nanoTime() - due, ok ? null : "incomplete");
+            (ok ? completed : failed).incrementAndGet();
+        }
+    }
+
+    public long getCompleted() {
+        return completed.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+}
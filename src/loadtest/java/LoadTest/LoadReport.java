@@ -0,0 +1,105 @@
+package LoadTest;
+
+import java.io.PrintStream;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import Application.metrics.LatencyHistogram;
+import Application.metrics.MetricsRegistry;
+import Application.metrics.OperationMetrics;
+import Domain.Repos.StripedLocks;
+
+/**
+ * Prints the outcome of a load test run: throughput, per-step latency percentiles and errors, and lock contention.
+ */
+public class LoadReport {
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final LoadTestConfig config;
+    private final MetricsRegistry metrics;
+    private final ContentionMonitor contention;
+    private final LoadGenerator generator;
+    private final long measuredNanos;
+
+    public LoadReport(LoadTestConfig config, MetricsRegistry metrics, ContentionMonitor contention,
+                      LoadGenerator generator, long measuredNanos) {
+        this.config = config;
+        this.metrics = metrics;
+        this.contention = contention;
+        this.generator = generator;
+        this.measuredNanos = measuredNanos;
+    }
+
+    public void print(PrintStream out) {
+        double seconds = measuredNanos / NANOS_PER_SECOND;
+        out.println("=== Load test: " + config + " ===");
+        out.printf("Measured %.1fs: %d journeys completed, %d incomplete, %.1f journeys/s%n",
+                   seconds, generator.getCompleted(), generator.getFailed(), generator.getCompleted() / seconds);
+        out.println();
+        out.printf("%-20s %9s %9s %8s %9s %9s %9s %9s %9s%n",
+                   "step", "calls", "calls/s", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+
+        List<OperationMetrics> operations = metrics.getOperations().stream()
+            .sorted(Comparator.comparing(OperationMetrics::getName))
+            .toList();
+        for (OperationMetrics operation : operations) {
+            LatencyHistogram latency = operation.getLatency();
+            out.printf("%-20s %9d %9.1f %7.2f%% %9.3f %9.3f %9.3f %9.3f %9.3f%n",
+                       operation.getName(),
+                       operation.getCalls(),
+                       operation.getCalls() / seconds,
+                       operation.getCalls() == 0 ? 0 : 100.0 * operation.getErrors() / operation.getCalls(),
+                       latency.getValueAtPercentile(50) / NANOS_PER_MILLI,
+                       latency.getValueAtPercentile(90) / NANOS_PER_MILLI,
+                       latency.getValueAtPercentile(99) / NANOS_PER_MILLI,
+                       latency.getValueAtPercentile(99.9) / NANOS_PER_MILLI,
+                       latency.getMax() / NANOS_PER_MILLI);
+        }
+
+        out.println();
+        out.println("Errors by kind:");
+        boolean anyErrors = false;
+        for (OperationMetrics operation : operations) {
+            if (operation.getErrors() == 0) {
+                continue;
+            }
+            anyErrors = true;
+            String kinds = operation.getErrorKinds().entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(5)
+                .map(e -> e.getKey() + " x" + e.getValue())
+                .collect(Collectors.joining("; "));
+            out.printf("  %-20s %s%n", operation.getName(), kinds);
+        }
+        if (!anyErrors) {
+            out.println("  none");
+        }
+
+        out.println();
+        long blockedMillis = contention.getBlockedMillis();
+        out.printf("Lock contention: %d monitor waits, %s blocked, %.2f%% of worker samples blocked on a monitor,"
+                   + " %.2f%% parked on a lock%n",
+                   contention.getBlockedCount(),
+                   blockedMillis < 0 ? "n/a" : blockedMillis + " ms",
+                   contention.getBlockedRatio() * 100,
+                   contention.getParkedRatio() * 100);
+        Map<String, StripedLocks.Stats> stripes = contention.getStripeStats();
+        if (!stripes.isEmpty()) {
+            out.println("Lock stripes (writes, contended writes, optimistic reads, failed optimistic reads):");
+            stripes.forEach((name, stats) -> {
+                if (stats.getWrites() > 0 || stats.getOptimisticReads() > 0) {
+                    out.printf("  %-16s %10d %10d %12d %10d%n", name, stats.getWrites(), stats.getContendedWrites(),
+                               stats.getOptimisticReads(), stats.getOptimisticFailures());
+                }
+            });
+        }
+        Map<String, Long> sites = contention.getTopBlockedSites(10);
+        if (!sites.isEmpty()) {
+            out.println("Most contended sites (samples):");
+            sites.forEach((site, count) -> out.printf("  %6d  %s%n", count, site));
+        }
+    }
+}
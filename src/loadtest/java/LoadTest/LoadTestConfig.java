@@ -0,0 +1,73 @@
+package LoadTest;
+
+/**
+ * Load test settings, read from system properties so they can be passed with -D on the command line.
+ */
+public class LoadTestConfig {
+    private final int members;
+    private final int guests;
+    private final int concurrency;
+    private final double journeysPerSecond;
+    private final int durationSeconds;
+    private final int warmupSeconds;
+    private final int stores;
+    private final int productsPerStore;
+
+    private LoadTestConfig(int members, int guests, int concurrency, double journeysPerSecond, int durationSeconds,
+                           int warmupSeconds, int stores, int productsPerStore) {
+        if (members < 1 || concurrency < 1 || durationSeconds < 1 || stores < 1 || productsPerStore < 1) {
+            throw new IllegalArgumentException("members, concurrency, duration, stores and products must be positive");
+        }
+        if (guests < 0 || journeysPerSecond < 0 || warmupSeconds < 0) {
+            throw new IllegalArgumentException("guests, rate and warmup cannot be negative");
+        }
+        this.members = members;
+        this.guests = guests;
+        this.concurrency = concurrency;
+        this.journeysPerSecond = journeysPerSecond;
+        this.durationSeconds = durationSeconds;
+        this.warmupSeconds = warmupSeconds;
+        this.stores = stores;
+        this.productsPerStore = productsPerStore;
+    }
+
+    public static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(Integer.getInteger("loadtest.members", 200),
+                                  Integer.getInteger("loadtest.guests", 2000),
+                                  Integer.getInteger("loadtest.concurrency", 32),
+                                  Double.parseDouble(System.getProperty("loadtest.rate", "0")),
+                                  Integer.getInteger("loadtest.duration", 30),
+                                  Integer.getInteger("loadtest.warmup", 5),
+                                  Integer.getInteger("loadtest.stores", 20),
+                                  Integer.getInteger("loadtest.products", 50));
+    }
+
+    /** Number of registered members that run member journeys. */
+    public int getMembers() { return members; }
+
+    /** Number of distinct guest identities that run guest journeys. */
+    public int getGuests() { return guests; }
+
+    /** Number of worker threads issuing journeys concurrently. */
+    public int getConcurrency() { return concurrency; }
+
+    /** Target journey start rate across all workers; 0 runs closed-loop as fast as the workers can. */
+    public double getJourneysPerSecond() { return journeysPerSecond; }
+
+    public int getDurationSeconds() { return durationSeconds; }
+
+    /** Seconds of load before measurement starts; results from this period are discarded. */
+    public int getWarmupSeconds() { return warmupSeconds; }
+
+    public int getStores() { return stores; }
+
+    public int getProductsPerStore() { return productsPerStore; }
+
+    @Override
+    public String toString() {
+        return "members=" + members + ", guests=" + guests + ", concurrency=" + concurrency
+            + ", rate=" + (journeysPerSecond == 0 ? "unbounded" : journeysPerSecond + "/s")
+            + ", duration=" + durationSeconds + "s, warmup=" + warmupSeconds + "s"
+            + ", stores=" + stores + ", productsPerStore=" + productsPerStore;
+    }
+}
@@ -0,0 +1,29 @@
+package LoadTest;
+
+import Application.metrics.MetricsRegistry;
+
+/**
+ * In-process load test of the service layer on the memory repositories.
+ * <p>
+ * Settings are system properties (see {@link LoadTestConfig}), e.g.
+ * {@code -Dloadtest.concurrency=64 -Dloadtest.rate=500 -Dloadtest.duration=60}.
+ */
+public class LoadTestMain {
+
+    public static void main(String[] args) throws InterruptedException {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        System.out.println("Seeding: " + config);
+        long seedStart = System.nanoTime();
+        LoadTestWorld world = new LoadTestWorld(config);
+        System.out.printf("Seeded %d stores, %d products, %d members in %.1fs%n",
+                          world.getStoreIds().size(), world.getProductIds().size(), world.getMemberNames().size(),
+                          (System.nanoTime() - seedStart) / 1e9);
+
+        MetricsRegistry metrics = new MetricsRegistry();
+        ContentionMonitor contention = new ContentionMonitor();
+        world.watchLocks(contention);
+        LoadGenerator generator = new LoadGenerator(config, new Journeys(world, config, metrics), metrics, contention);
+        long measured = generator.run();
+        new LoadReport(config, metrics, contention, generator, measured).print(System.out);
+    }
+}
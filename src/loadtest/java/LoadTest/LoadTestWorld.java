@@ -0,0 +1,121 @@
+package LoadTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import Application.ItemService;
+import Application.ProductService;
+import Application.ServiceManager;
+import Application.StoreService;
+import Application.UserService;
+import Application.DTOs.UserDTO;
+import Application.utils.Response;
+import Benchmarks.BenchmarkFixtures.AcceptingPaymentService;
+import Benchmarks.BenchmarkFixtures.AcceptingSupplyService;
+import Domain.FacadeManager;
+import Domain.IRepoManager;
+import Infrastructure.MemoryRepoManager;
+
+/**
+ * The system under load: the service layer wired over the memory repositories,
+ * exactly as the dev profile runs it, with payment and supply gateways that accept everything.
+ * Seeds stores, a catalog with effectively unlimited stock, one open auction per store and the member accounts.
+ */
+public class LoadTestWorld {
+    public static final String MEMBER_PASSWORD = "LoadTest1!";
+    private static final String AUCTION_END = "2077-01-01 07:00";
+    private static final int STOCK = 1_000_000_000;
+
+    private final FacadeManager facadeManager;
+    private final ServiceManager serviceManager;
+    private final List<String> storeIds = new ArrayList<>();
+    private final List<String> productIds = new ArrayList<>();
+    private final List<String> auctionIds = new ArrayList<>();
+    private final List<String> memberNames = new ArrayList<>();
+
+    public LoadTestWorld(LoadTestConfig config) {
+        facadeManager = new FacadeManager(new MemoryRepoManager(),
+                                          new AcceptingPaymentService(),
+                                          new AcceptingSupplyService());
+        serviceManager = new ServiceManager(facadeManager);
+        serviceManager.injectINotificationService((userId, message) -> new Response<>(true));
+
+        UserService userService = serviceManager.getUserService();
+        ProductService productService = serviceManager.getProductService();
+        StoreService storeService = serviceManager.getStoreService();
+        ItemService itemService = serviceManager.getItemService();
+
+        String founderToken = registerMember("loadtest-founder");
+        for (int p = 0; p < config.getProductsPerStore(); p++) {
+            String category = "Category " + (p % 8);
+            productIds.add(require(productService.addProduct(founderToken, "Load Game " + p,
+                                                             List.of(category), List.of(category + " games"))).getId());
+        }
+        for (int s = 0; s < config.getStores(); s++) {
+            String storeId = require(storeService.addStore(founderToken, "Load Store " + s, "Load test store")).getId();
+            storeIds.add(storeId);
+            for (int p = 0; p < productIds.size(); p++) {
+                require(itemService.add(founderToken, storeId, productIds.get(p), 10 + (p * 7 + s) % 90, STOCK, "Load test item"));
+            }
+            auctionIds.add(require(storeService.addAuction(founderToken, storeId, productIds.get(0), AUCTION_END, 1.0)).getAuctionId());
+        }
+        for (int m = 0; m < config.getMembers(); m++) {
+            String username = "loadtest-member-" + m;
+            registerMember(username);
+            memberNames.add(username);
+        }
+        userService.logOutAllUsers();
+    }
+
+    /**
+     * Has the monitor report the counters of the repositories' lock stripes and of the store mutation locks.
+     */
+    public void watchLocks(ContentionMonitor contention) {
+        IRepoManager repositories = facadeManager.getRepositoryManager();
+        contention.watchStripes("items", repositories.getItemRepository()::getLockStats);
+        contention.watchStripes("stores", repositories.getStoreRepository()::getLockStats);
+        contention.watchStripes("store-mutations", facadeManager.getStoreLocks()::getStats);
+        contention.watchStripes("products", repositories.getProductRepository()::getLockStats);
+        contention.watchStripes("users", repositories.getUserRepository()::getLockStats);
+        contention.watchStripes("permissions", repositories.getPermissionRepository()::getLockStats);
+        contention.watchStripes("carts", repositories.getShoppingCartRepository()::getLockStats);
+        contention.watchStripes("baskets", repositories.getShoppingBasketRepository()::getLockStats);
+        contention.watchStripes("offers", repositories.getOfferRepository()::getLockStats);
+        contention.watchStripes("auctions", repositories.getAuctionRepository()::getLockStats);
+    }
+
+    private String registerMember(String username) {
+        UserService userService = serviceManager.getUserService();
+        UserDTO guest = require(userService.guestEntry());
+        return require(userService.register(guest.getSessionToken(), username, MEMBER_PASSWORD,
+                                            username + "@gamazon.com", LocalDate.of(1990, 1, 1))).getSessionToken();
+    }
+
+    private static <T> T require(Response<T> response) {
+        if (response.errorOccurred()) {
+            throw new IllegalStateException("Load test setup failed: " + response.getErrorMessage());
+        }
+        return response.getValue();
+    }
+
+    public ServiceManager getServiceManager() {
+        return serviceManager;
+    }
+
+    public List<String> getStoreIds() {
+        return storeIds;
+    }
+
+    public List<String> getProductIds() {
+        return productIds;
+    }
+
+    public List<String> getAuctionIds() {
+        return auctionIds;
+    }
+
+    public List<String> getMemberNames() {
+        return memberNames;
+    }
+}
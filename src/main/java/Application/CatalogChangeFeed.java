@@ -0,0 +1,272 @@
+package Application;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import Application.DTOs.CategoryDTO;
+import Application.DTOs.ItemDTO;
+import Application.DTOs.StoreDTO;
+import Application.utils.TradingLogger;
+import Domain.Events.DomainEvent;
+import Domain.Events.DomainEventBus;
+import Domain.Store.Category;
+import Domain.Store.ItemFilter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Tells open views which catalog items changed, so they can update the rows they show instead of reloading.
+ * <p>
+ * Whenever items or stock change on the {@link DomainEventBus}, and at the latest every
+ * {@code app.catalog.push-interval-ms}, the feed compares the {@link CatalogSnapshots} of the stores some
+ * subscriber watches with the snapshots it saw last time, and hands each subscriber the differences it cares
+ * about. Changes made between two comparisons are coalesced into one delta per item, and stores nobody watches
+ * are not looked at. Listeners are called on a background thread: a view must hand the deltas to its UI, for
+ * example with {@code UI.access}, which pushes them to the browser.
+ */
+@Component
+public class CatalogChangeFeed {
+    private static final String CLASS_NAME = CatalogChangeFeed.class.getSimpleName();
+
+    private final CatalogSnapshots catalogSnapshots;
+    private final DomainEventBus eventBus;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    // Guarded by this
+    private final Map<String, CatalogSnapshots.StoreCatalog> seen = new HashMap<>();
+    private DomainEventBus.Subscription events;
+
+    @Value("${app.events.batch-size:256}")
+    private int batchSize = 256;
+
+    /**
+     * A change to one item, as one subscriber sees it.
+     */
+    public static final class CatalogDelta {
+        public enum Type {
+            /** The item is new to the subscriber or changed; show it in place of any older version. */
+            UPSERT,
+            /** The item is gone, or no longer matches the subscriber's filter. */
+            REMOVE
+        }
+
+        private final Type type;
+        private final String storeId;
+        private final String productId;
+        private final ItemDTO item;
+
+        CatalogDelta(Type type, String storeId, String productId, ItemDTO item) {
+            this.type = type;
+            this.storeId = storeId;
+            this.productId = productId;
+            this.item = item;
+        }
+
+        public Type getType() { return type; }
+        public String getStoreId() { return storeId; }
+        public String getProductId() { return productId; }
+        /** @return the item as it is now; null for {@link Type#REMOVE} */
+        public ItemDTO getItem() { return item; }
+    }
+
+    /**
+     * The stores and items a listener watches. The stores and filter can be changed while subscribed.
+     */
+    public final class Subscription {
+        private volatile Set<String> storeIds;
+        private volatile Predicate<ItemDTO> filter;
+        private final Consumer<List<CatalogDelta>> listener;
+
+        private Subscription(Set<String> storeIds, Predicate<ItemDTO> filter, Consumer<List<CatalogDelta>> listener) {
+            this.storeIds = storeIds;
+            this.filter = filter;
+            this.listener = listener;
+        }
+
+        /** Watches only the given stores, or every store if the set is empty. */
+        public void setStores(Set<String> storeIds) {
+            this.storeIds = Set.copyOf(storeIds);
+        }
+
+        /** Watches only items matching the filter. */
+        public void setFilter(Predicate<ItemDTO> filter) {
+            this.filter = filter == null ? item -> true : filter;
+        }
+
+        public void close() {
+            subscriptions.remove(this);
+        }
+
+        boolean watches(String storeId) {
+            return storeIds.isEmpty() || storeIds.contains(storeId);
+        }
+    }
+
+    public CatalogChangeFeed(CatalogSnapshots catalogSnapshots, DomainEventBus eventBus) {
+        this.catalogSnapshots = catalogSnapshots;
+        this.eventBus = eventBus;
+    }
+
+    @PostConstruct
+    public void start() {
+        events = eventBus.subscribe("catalog-feed", batchSize, batch -> {
+            for (DomainEvent event : batch) {
+                if (event instanceof DomainEvent.ItemChanged || event instanceof DomainEvent.ItemsUpdated
+                        || event instanceof DomainEvent.StockChanged) {
+                    publish();
+                    return;
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (events != null) {
+            events.close();
+        }
+    }
+
+    /**
+     * Starts delivering changes to items of the given stores, or of all stores if the set is empty,
+     * that match the filter before or after the change.
+     */
+    public Subscription subscribe(Set<String> storeIds, Predicate<ItemDTO> filter, Consumer<List<CatalogDelta>> listener) {
+        Subscription subscription = new Subscription(Set.copyOf(storeIds), filter == null ? item -> true : filter, listener);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    int getSubscriptionCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Compares the watched stores with their last seen snapshots and delivers the differences.
+     */
+    @Scheduled(fixedDelayString = "${app.catalog.push-interval-ms:500}")
+    public synchronized void publish() {
+        if (subscriptions.isEmpty()) {
+            seen.clear();
+            return;
+        }
+        Set<String> watched = new HashSet<>();
+        for (Subscription subscription : subscriptions) {
+            if (subscription.storeIds.isEmpty()) {
+                for (StoreDTO store : catalogSnapshots.getStores()) {
+                    watched.add(store.getId());
+                }
+                break;
+            }
+            watched.addAll(subscription.storeIds);
+        }
+        // Stores first seen now are only remembered: their current items were loaded by the views themselves
+        List<Change> changes = new ArrayList<>();
+        for (String storeId : watched) {
+            CatalogSnapshots.StoreCatalog current;
+            try {
+                current = catalogSnapshots.getStoreCatalog(storeId);
+            } catch (NoSuchElementException e) {
+                current = null;
+            }
+            CatalogSnapshots.StoreCatalog previous = current == null ? seen.remove(storeId) : seen.put(storeId, current);
+            if (previous != null && previous != current) {
+                diff(previous, current, changes);
+            }
+        }
+        seen.keySet().retainAll(watched);
+        if (changes.isEmpty()) {
+            return;
+        }
+        for (Subscription subscription : subscriptions) {
+            List<CatalogDelta> deltas = new ArrayList<>();
+            for (Change change : changes) {
+                if (!subscription.watches(change.storeId)) {
+                    continue;
+                }
+                if (change.after != null && subscription.filter.test(change.after)) {
+                    deltas.add(new CatalogDelta(CatalogDelta.Type.UPSERT, change.storeId, change.productId, change.after));
+                } else if (change.before != null && subscription.filter.test(change.before)) {
+                    deltas.add(new CatalogDelta(CatalogDelta.Type.REMOVE, change.storeId, change.productId, null));
+                }
+            }
+            if (deltas.isEmpty()) {
+                continue;
+            }
+            try {
+                subscription.listener.accept(deltas);
+            } catch (RuntimeException e) {
+                TradingLogger.logError(CLASS_NAME, "publish", "Listener failed: %s", e.getMessage());
+            }
+        }
+    }
+
+    private record Change(String storeId, String productId, ItemDTO before, ItemDTO after) {
+    }
+
+    private static void diff(CatalogSnapshots.StoreCatalog previous, CatalogSnapshots.StoreCatalog current, List<Change> changes) {
+        String storeId = previous.getStore().getId();
+        Map<String, ItemDTO> before = new HashMap<>();
+        for (ItemDTO item : previous.getItems()) {
+            before.put(item.getProductId(), item);
+        }
+        if (current != null) {
+            for (ItemDTO item : current.getItems()) {
+                ItemDTO old = before.remove(item.getProductId());
+                if (old == null || !sameListing(old, item)) {
+                    changes.add(new Change(storeId, item.getProductId(), old, item));
+                }
+            }
+        }
+        for (ItemDTO removed : before.values()) {
+            changes.add(new Change(storeId, removed.getProductId(), removed, null));
+        }
+    }
+
+    // Whether two versions of an item would be shown the same
+    private static boolean sameListing(ItemDTO a, ItemDTO b) {
+        return a.getAmount() == b.getAmount()
+                && a.getPrice() == b.getPrice()
+                && a.getRating() == b.getRating()
+                && Objects.equals(a.getDescription(), b.getDescription())
+                && Objects.equals(a.getProductName(), b.getProductName());
+    }
+
+    /**
+     * @return a filter for item DTOs with the same criteria as the given item filter
+     */
+    public static Predicate<ItemDTO> matching(ItemFilter filter) {
+        Set<String> categories = new HashSet<>();
+        for (Category category : filter.getCategories()) {
+            categories.add(category.getName());
+        }
+        return item -> {
+            if (filter.getMinPrice() >= 0 && item.getPrice() < filter.getMinPrice()) return false;
+            if (filter.getMaxPrice() >= 0 && item.getPrice() > filter.getMaxPrice()) return false;
+            if (filter.getMinRating() >= 0 && item.getRating() < filter.getMinRating()) return false;
+            if (filter.getMaxRating() >= 0 && item.getRating() > filter.getMaxRating()) return false;
+            if (!filter.getItemName().equals("") && !item.getProductName().contains(filter.getItemName())) return false;
+            if (filter.getAmount() >= 0 && item.getAmount() < filter.getAmount()) return false;
+            if (!categories.isEmpty()) {
+                Set<String> names = new HashSet<>();
+                for (CategoryDTO category : item.getCategories()) {
+                    names.add(category.getName());
+                }
+                if (!names.containsAll(categories)) return false;
+            }
+            return true;
+        };
+    }
+}
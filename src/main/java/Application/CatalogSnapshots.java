@@ -0,0 +1,217 @@
+package Application;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import Application.DTOs.ItemDTO;
+import Application.DTOs.StoreDTO;
+import Application.metrics.MetricsRegistry;
+import Domain.Repos.DatabaseUnavailableException;
+import Domain.Store.CatalogVersions;
+import Domain.Store.Item;
+import Domain.Store.ItemFacade;
+import Domain.Store.Store;
+import Domain.Store.StoreFacade;
+
+/**
+ * Keeps the catalog as immutable DTO snapshots that every UI session shares, instead of each session
+ * building its own copy of it on every refresh.
+ * <p>
+ * There is one snapshot per store, holding its {@link StoreDTO} and its items, and one listing of all stores and
+ * all available items, put together from the store snapshots. A snapshot is rebuilt on the first read after its
+ * {@link CatalogVersions} version moved, so a change to one store rebuilds that store only. Snapshots are also
+ * rebuilt once they are older than {@code app.catalog.snapshot-max-age-ms}, which bounds how long changes made
+ * around the facades, such as new store owners, stay unseen.
+ * <p>
+ * When a rebuild fails because the database is unavailable, the last snapshot is served instead, however old, so
+ * the catalog can still be browsed and searched during an outage.
+ * <p>
+ * The returned lists and DTOs are shared: callers must not modify them.
+ */
+@Component
+public class CatalogSnapshots {
+
+    static final long DEFAULT_MAX_AGE_MILLIS = 30_000;
+
+    private final ItemFacade itemFacade;
+    private final StoreFacade storeFacade;
+    private final Map<String, StoreCatalog> stores = new ConcurrentHashMap<>();
+    private final AtomicReference<Listing> listing = new AtomicReference<>();
+    private LongAdder rebuilds = new LongAdder();
+    private LongAdder staleReads = new LongAdder();
+
+    @Value("${app.catalog.snapshot-max-age-ms:30000}")
+    private long maxAgeMillis = DEFAULT_MAX_AGE_MILLIS;
+
+    private LongSupplier clock = System::currentTimeMillis;
+
+    /**
+     * The catalog of one store at one version.
+     */
+    public static final class StoreCatalog {
+        private final long version;
+        private final long builtAt;
+        private final StoreDTO store;
+        private final List<ItemDTO> items;
+        private final List<ItemDTO> available;
+
+        StoreCatalog(long version, long builtAt, StoreDTO store, List<ItemDTO> items) {
+            this.version = version;
+            this.builtAt = builtAt;
+            this.store = store;
+            this.items = Collections.unmodifiableList(items);
+            this.available = items.stream().filter(item -> item.getAmount() > 0).toList();
+        }
+
+        public long getVersion() { return version; }
+        public StoreDTO getStore() { return store; }
+        public List<ItemDTO> getItems() { return items; }
+        public List<ItemDTO> getAvailableItems() { return available; }
+    }
+
+    // All stores and their available items at one version of the whole catalog
+    private static final class Listing {
+        final long version;
+        final long builtAt;
+        final List<StoreDTO> stores;
+        final List<ItemDTO> availableItems;
+
+        Listing(long version, long builtAt, List<StoreDTO> stores, List<ItemDTO> availableItems) {
+            this.version = version;
+            this.builtAt = builtAt;
+            this.stores = Collections.unmodifiableList(stores);
+            this.availableItems = Collections.unmodifiableList(availableItems);
+        }
+    }
+
+    public CatalogSnapshots(ItemFacade itemFacade, StoreFacade storeFacade) {
+        this.itemFacade = itemFacade;
+        this.storeFacade = storeFacade;
+    }
+
+    @Autowired(required = false)
+    public void setMetricsRegistry(MetricsRegistry metricsRegistry) {
+        this.rebuilds = metricsRegistry.counter("catalog.snapshot.rebuilds");
+        this.staleReads = metricsRegistry.counter("catalog.snapshot.stale-reads");
+    }
+
+    /**
+     * Returns the snapshot of a store's catalog.
+     *
+     * @throws NoSuchElementException if the store does not exist
+     */
+    public StoreCatalog getStoreCatalog(String storeId) {
+        StoreCatalog current = stores.get(storeId);
+        if (current != null && isCurrent(current.version, current.builtAt, CatalogVersions.ofStore(storeId))) {
+            return current;
+        }
+        // Read the version first, so that a change made during the build leaves the snapshot stale
+        long version = CatalogVersions.ofStore(storeId);
+        Store store;
+        List<ItemDTO> items = new ArrayList<>();
+        try {
+            store = storeFacade.getStore(storeId);
+            if (store != null) {
+                for (Item item : itemFacade.getItemsByStoreId(storeId)) {
+                    items.add(ItemDTO.fromItem(item));
+                }
+            }
+        } catch (DatabaseUnavailableException e) {
+            if (current == null) {
+                throw e;
+            }
+            staleReads.increment();
+            return current;
+        }
+        if (store == null) {
+            stores.remove(storeId);
+            throw new NoSuchElementException("Store not found for storeId: " + storeId);
+        }
+        StoreCatalog built = new StoreCatalog(version, clock.getAsLong(), new StoreDTO(store), items);
+        rebuilds.increment();
+        return stores.merge(storeId, built, (old, fresh) -> old.version > fresh.version ? old : fresh);
+    }
+
+    /** @return all items of a store; shared, must not be modified */
+    public List<ItemDTO> getStoreItems(String storeId) {
+        return getStoreCatalog(storeId).getItems();
+    }
+
+    /** @return all stores; shared, must not be modified */
+    public List<StoreDTO> getStores() {
+        return listing().stores;
+    }
+
+    /** @return the items in stock across all stores; shared, must not be modified */
+    public List<ItemDTO> getAvailableItems() {
+        return listing().availableItems;
+    }
+
+    private Listing listing() {
+        Listing current = listing.get();
+        if (current != null && isCurrent(current.version, current.builtAt, CatalogVersions.total())) {
+            return current;
+        }
+        long version = CatalogVersions.total();
+        List<StoreDTO> storeList = new ArrayList<>();
+        List<ItemDTO> items = new ArrayList<>();
+        List<Store> allStores;
+        boolean stale = false;
+        try {
+            allStores = storeFacade.getAllStores();
+        } catch (DatabaseUnavailableException e) {
+            if (current == null) {
+                throw e;
+            }
+            staleReads.increment();
+            return current;
+        }
+        for (Store store : allStores) {
+            StoreCatalog catalog;
+            try {
+                catalog = getStoreCatalog(store.getId());
+            } catch (NoSuchElementException removed) {
+                continue;
+            }
+            storeList.add(catalog.store);
+            items.addAll(catalog.available);
+            if (catalog.version != CatalogVersions.ofStore(store.getId())) {
+                stale = true;
+            }
+        }
+        // A listing with stale stores in it is served once and rebuilt on the next read
+        Listing built = new Listing(version, stale ? Long.MIN_VALUE / 2 : clock.getAsLong(), storeList, items);
+        return listing.accumulateAndGet(built, (old, fresh) -> old != null && old.version > fresh.version ? old : fresh);
+    }
+
+    private boolean isCurrent(long snapshotVersion, long builtAt, long version) {
+        return snapshotVersion == version && clock.getAsLong() - builtAt < maxAgeMillis;
+    }
+
+    long getRebuilds() {
+        return rebuilds.sum();
+    }
+
+    long getStaleReads() {
+        return staleReads.sum();
+    }
+
+    void setMaxAgeMillis(long maxAgeMillis) {
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    void setClock(LongSupplier clock) {
+        this.clock = clock;
+    }
+}
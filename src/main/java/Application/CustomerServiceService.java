@@ -12,6 +12,9 @@ import Application.utils.Response;
 import Application.utils.TradingLogger;
 import Domain.Store.Feedback;
 import Domain.Store.FeedbackDTO;
+import Domain.Store.FeedbackIndex;
+import Domain.Store.FeedbackPage;
+import Domain.Store.FeedbackPageDTO;
 import Domain.Store.StoreFacade;
 import Domain.management.PermissionManager;
 
@@ -152,4 +155,53 @@ public class CustomerServiceService {
             return new Response<>(new Error(ex.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns a page of the feedback of a product, store or customer, newest first.
+     * @param before the next-before value of the previous page, or 0 for the newest page
+     */
+    @Transactional
+    public Response<FeedbackPageDTO> getFeedbackPage(String sessionToken, FeedbackIndex index, String key, long before, int limit) {
+        String method = "getFeedbackPage";
+        try {
+            if(!this.isInitialized()) {
+                TradingLogger.logError(CLASS_NAME, method, "CustomerServiceService is not initialized.");
+                return new Response<>(new Error("CustomerServiceService is not initialized."));
+            }
+
+            if (!tokenService.validateToken(sessionToken)) {
+                TradingLogger.logError(CLASS_NAME, method, "Invalid token");
+                return Response.error("Invalid token");
+            }
+            FeedbackPage page = this.storeFacade.getFeedbackPage(index, key, before, limit);
+            TradingLogger.logEvent(CLASS_NAME, method, "Retrieved " + page.getFeedbacks().size() + " feedbacks for " + index + " " + key);
+            return new Response<>(new FeedbackPageDTO(page));
+        } catch (Exception ex) {
+            TradingLogger.logError(CLASS_NAME, method, ex.getMessage());
+            return new Response<>(new Error(ex.getMessage()));
+        }
+    }
+
+    /**
+     * Returns the feedback count of a product, store or customer, with its newest feedback.
+     */
+    @Transactional
+    public Response<FeedbackPageDTO> getFeedbackSummary(String sessionToken, FeedbackIndex index, String key) {
+        String method = "getFeedbackSummary";
+        try {
+            if(!this.isInitialized()) {
+                TradingLogger.logError(CLASS_NAME, method, "CustomerServiceService is not initialized.");
+                return new Response<>(new Error("CustomerServiceService is not initialized."));
+            }
+
+            if (!tokenService.validateToken(sessionToken)) {
+                TradingLogger.logError(CLASS_NAME, method, "Invalid token");
+                return Response.error("Invalid token");
+            }
+            return new Response<>(new FeedbackPageDTO(this.storeFacade.getFeedbackSummary(index, key)));
+        } catch (Exception ex) {
+            TradingLogger.logError(CLASS_NAME, method, ex.getMessage());
+            return new Response<>(new Error(ex.getMessage()));
+        }
+    }
+}
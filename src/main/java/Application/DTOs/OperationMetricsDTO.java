@@ -0,0 +1,86 @@
+package Application.DTOs;
+
+import java.util.Map;
+
+import Application.metrics.LatencyHistogram;
+import Application.metrics.OperationMetrics;
+
+public class OperationMetricsDTO {
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final String operation;
+    private final long calls;
+    private final long errors;
+    private final double meanMillis;
+    private final double p50Millis;
+    private final double p99Millis;
+    private final double p999Millis;
+    private final double maxMillis;
+    private final Map<String, Long> errorKinds;
+
+    public OperationMetricsDTO(String operation, long calls, long errors, double meanMillis, double p50Millis,
+                               double p99Millis, double p999Millis, double maxMillis, Map<String, Long> errorKinds) {
+        this.operation = operation;
+        this.calls = calls;
+        this.errors = errors;
+        this.meanMillis = meanMillis;
+        this.p50Millis = p50Millis;
+        this.p99Millis = p99Millis;
+        this.p999Millis = p999Millis;
+        this.maxMillis = maxMillis;
+        this.errorKinds = errorKinds;
+    }
+
+    public static OperationMetricsDTO fromOperationMetrics(OperationMetrics metrics) {
+        LatencyHistogram latency = metrics.getLatency();
+        return new OperationMetricsDTO(metrics.getName(),
+                                       metrics.getCalls(),
+                                       metrics.getErrors(),
+                                       latency.getMean() / NANOS_PER_MILLI,
+                                       latency.getValueAtPercentile(50) / NANOS_PER_MILLI,
+                                       latency.getValueAtPercentile(99) / NANOS_PER_MILLI,
+                                       latency.getValueAtPercentile(99.9) / NANOS_PER_MILLI,
+                                       latency.getMax() / NANOS_PER_MILLI,
+                                       metrics.getErrorKinds());
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public long getCalls() {
+        return calls;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public double getErrorRate() {
+        return calls == 0 ? 0 : (double) errors / calls;
+    }
+
+    public double getMeanMillis() {
+        return meanMillis;
+    }
+
+    public double getP50Millis() {
+        return p50Millis;
+    }
+
+    public double getP99Millis() {
+        return p99Millis;
+    }
+
+    public double getP999Millis() {
+        return p999Millis;
+    }
+
+    public double getMaxMillis() {
+        return maxMillis;
+    }
+
+    public Map<String, Long> getErrorKinds() {
+        return errorKinds;
+    }
+}
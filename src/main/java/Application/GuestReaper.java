@@ -0,0 +1,147 @@
+package Application;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import Application.metrics.MetricsRegistry;
+import Application.utils.TradingLogger;
+import Domain.Shopping.CartFootprint;
+import Domain.Shopping.IShoppingCartFacade;
+import Domain.User.LoginManager;
+import Domain.User.Member;
+
+/**
+ * Evicts guests that have been idle for longer than the session timeout, together with their carts and baskets,
+ * and publishes how many sessions of each kind are live and roughly how much memory they hold.
+ * <p>
+ * Visitors that never exit, such as crawlers and abandoned tabs, would otherwise stay in the users table
+ * for good. Eviction runs in batches of {@code app.sessions.eviction-batch} guests.
+ * <p>
+ * Memory figures are estimates from per-object sizes on a 64-bit JVM with compressed references,
+ * counting the session itself, its cart, its baskets and their order lines. Carts, baskets and lines come from the
+ * counts the cart facade keeps as they change, so a scrape does not read the carts.
+ */
+@Component
+public class GuestReaper {
+    private static final String CLASS_NAME = GuestReaper.class.getSimpleName();
+
+    static final long SESSION_BYTES = 240;
+    static final long CART_BYTES = 160;
+    static final long BASKET_BYTES = 280;
+    static final long ORDER_LINE_BYTES = 96;
+    private static final long FOOTPRINT_MAX_AGE_MILLIS = 10_000;
+
+    private final LoginManager loginManager;
+    private final IShoppingCartFacade shoppingCartFacade;
+    private final LongAdder evicted;
+
+    @Value("${app.sessions.eviction-batch:500}")
+    private int batchSize = 500;
+
+    private volatile Footprint footprint;
+
+    /**
+     * Live sessions of one kind, what their carts hold, and the estimated bytes of all of it.
+     */
+    public static final class SessionClass {
+        private long sessions;
+        private long carts;
+        private long baskets;
+        private long orderLines;
+
+        public long getSessions() { return sessions; }
+        public long getCarts() { return carts; }
+        public long getBaskets() { return baskets; }
+        public long getOrderLines() { return orderLines; }
+
+        public long getEstimatedBytes() {
+            return sessions * SESSION_BYTES + carts * CART_BYTES + baskets * BASKET_BYTES + orderLines * ORDER_LINE_BYTES;
+        }
+
+        private void setCarts(CartFootprint.Totals totals) {
+            carts = totals.getCarts();
+            baskets = totals.getBaskets();
+            orderLines = totals.getOrderLines();
+        }
+    }
+
+    /**
+     * Sessions and cart contents of guests and of logged in members at one point in time.
+     */
+    public static final class Footprint {
+        private final SessionClass guests = new SessionClass();
+        private final SessionClass members = new SessionClass();
+        private final long takenAt = System.currentTimeMillis();
+
+        public SessionClass getGuests() { return guests; }
+        public SessionClass getMembers() { return members; }
+    }
+
+    public GuestReaper(LoginManager loginManager, IShoppingCartFacade shoppingCartFacade, MetricsRegistry metricsRegistry) {
+        this.loginManager = loginManager;
+        this.shoppingCartFacade = shoppingCartFacade;
+        this.evicted = metricsRegistry.counter("sessions.guest.evicted");
+        metricsRegistry.registerGauge("sessions.guest.live", loginManager::getGuestCount);
+        metricsRegistry.registerGauge("sessions.guest.estimated.bytes", () -> getFootprint().getGuests().getEstimatedBytes());
+        metricsRegistry.registerGauge("sessions.guest.baskets", () -> getFootprint().getGuests().getBaskets());
+        metricsRegistry.registerGauge("sessions.member.live", () -> getFootprint().getMembers().getSessions());
+        metricsRegistry.registerGauge("sessions.member.estimated.bytes", () -> getFootprint().getMembers().getEstimatedBytes());
+        metricsRegistry.registerGauge("sessions.member.baskets", () -> getFootprint().getMembers().getBaskets());
+    }
+
+    /**
+     * Evicts every guest that is due, one batch at a time.
+     * @return the number of guests evicted
+     */
+    @Scheduled(fixedDelayString = "${app.sessions.reaper-interval-ms:30000}")
+    public int sweep() {
+        int total = 0;
+        List<String> batch;
+        do {
+            batch = loginManager.evictIdleGuests(batchSize);
+            for (String guestId : batch) {
+                try {
+                    shoppingCartFacade.removeCart(guestId);
+                } catch (RuntimeException e) {
+                    TradingLogger.logError(CLASS_NAME, "sweep", "Failed to discard cart of guest %s: %s", guestId, e.getMessage());
+                }
+            }
+            evicted.add(batch.size());
+            total += batch.size();
+        } while (batch.size() >= batchSize);
+        if (total > 0) {
+            TradingLogger.logEvent(CLASS_NAME, "sweep", "Evicted " + total + " idle guests.");
+        }
+        return total;
+    }
+
+    /**
+     * Returns the current footprint, recounted when the last count is more than a few seconds old.
+     */
+    public Footprint getFootprint() {
+        Footprint current = footprint;
+        if (current == null || System.currentTimeMillis() - current.takenAt > FOOTPRINT_MAX_AGE_MILLIS) {
+            current = countFootprint();
+            footprint = current;
+        }
+        return current;
+    }
+
+    Footprint countFootprint() {
+        Footprint counted = new Footprint();
+        counted.guests.sessions = loginManager.getGuestCount();
+        for (Member member : loginManager.getAllMembers()) {
+            if (member.isLoggedIn()) {
+                counted.members.sessions++;
+            }
+        }
+        CartFootprint carts = shoppingCartFacade.getCartFootprint();
+        counted.guests.setCarts(carts.getGuests());
+        counted.members.setCarts(carts.getMembers());
+        return counted;
+    }
+}
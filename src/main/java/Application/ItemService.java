@@ -1,19 +1,28 @@
 package Application;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import Application.DTOs.ItemDTO;
+import Application.seed.CatalogImporter;
+import Application.seed.CatalogRows;
 import Application.utils.Error;
 import Application.utils.Response;
 import Application.utils.TradingLogger;
 import Domain.Pair;
+import Domain.Repos.DatabaseUnavailableException;
 import Domain.Store.Item;
 import Domain.Store.ItemFacade;
 import Domain.Store.ItemFilter;
+import Domain.Store.ItemUpdate;
 import Domain.management.PermissionManager;
 import Domain.management.PermissionType;
 
@@ -23,6 +32,8 @@ public class ItemService {
     private final ItemFacade itemFacade;
     private TokenService tokenService;
     private PermissionManager permissionManager;
+    private CatalogSnapshots catalogSnapshots;
+    private CatalogImporter catalogImporter;
 
     public ItemService(ItemFacade itemFacade, TokenService tokenService, PermissionManager permissionManager) {
         this.tokenService = tokenService;
@@ -30,6 +41,23 @@ public class ItemService {
         this.permissionManager = permissionManager;
     }
 
+    /**
+     * Serves unfiltered listings from shared catalog snapshots instead of building them per call, and
+     * searches the snapshots while the database is unavailable.
+     */
+    @Autowired(required = false)
+    public void setCatalogSnapshots(CatalogSnapshots catalogSnapshots) {
+        this.catalogSnapshots = catalogSnapshots;
+    }
+
+    /**
+     * Enables bulk catalog imports.
+     */
+    @Autowired(required = false)
+    public void setCatalogImporter(CatalogImporter catalogImporter) {
+        this.catalogImporter = catalogImporter;
+    }
+
     @Transactional
     public Response<Boolean> changePrice(String sessionToken, String storeId, String productId, float newPrice) {
         String method = "changePrice";
@@ -47,7 +75,7 @@ public class ItemService {
             if(permissionManager.isBanned(userId)){
                 throw new Exception("User is banned from changing price.");
             }
-            itemFacade.getItem(storeId, productId).setPrice(newPrice);
+            itemFacade.changePrice(storeId, productId, newPrice);
             TradingLogger.logEvent("ItemService", method, "Price changed successfully.");
             return new Response<>(true);
         } catch (Exception ex) {
@@ -73,15 +101,25 @@ public class ItemService {
         }
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     public Response<List<ItemDTO>> filterItems(String sessionToken, ItemFilter filter) {
         String method = "filterItems";
         try {
             if (!tokenService.validateToken(sessionToken)) {
                 return Response.error("Invalid token");
             }
-            List<ItemDTO> dtos = itemFacade.filterItems(filter).stream()
-                .map(ItemDTO::fromItem).collect(Collectors.toList());
+            List<ItemDTO> dtos;
+            if (catalogSnapshots != null && filter.isEmpty()) {
+                dtos = catalogSnapshots.getAvailableItems();
+            } else {
+                try {
+                    dtos = itemFacade.filterItems(filter).stream().map(ItemDTO::fromItem).collect(Collectors.toList());
+                } catch (DatabaseUnavailableException e) {
+                    if (catalogSnapshots == null) throw e;
+                    // Search the snapshots instead; they hold what the database last had
+                    dtos = catalogSnapshots.getAvailableItems().stream().filter(CatalogChangeFeed.matching(filter)).toList();
+                }
+            }
             TradingLogger.logEvent("ItemService", method, "Items filtered.");
             return new Response<>(dtos);
         } catch (Exception ex) {
@@ -90,31 +128,41 @@ public class ItemService {
         }
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     public Response<ItemDTO> getItem(String sessionToken, String storeId, String productId) {
         String method = "getItem";
         try {
             if (!tokenService.validateToken(sessionToken)) {
                 return Response.error("Invalid token");
             }
-            Item item = itemFacade.getItem(storeId, productId);
+            ItemDTO dto;
+            try {
+                dto = ItemDTO.fromItem(itemFacade.getItem(storeId, productId));
+            } catch (DatabaseUnavailableException e) {
+                if (catalogSnapshots == null) throw e;
+                dto = catalogSnapshots.getStoreItems(storeId).stream()
+                    .filter(item -> item.getProductId().equals(productId))
+                    .findFirst()
+                    .orElseThrow(() -> e);
+            }
             TradingLogger.logEvent("ItemService", method, "Item retrieved successfully.");
-            return new Response<>(ItemDTO.fromItem(item));
+            return new Response<>(dto);
         } catch (Exception ex) {
             TradingLogger.logError("ItemService", method, ex.getMessage());
             return new Response<>(new Error(ex.getMessage()));
         }
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     public Response<List<ItemDTO>> getItemsByStoreId(String sessionToken, String storeId) {
         String method = "getItemsByStoreId";
         try {
             if (!tokenService.validateToken(sessionToken)) {
                 return Response.error("Invalid token");
             }
-            List<ItemDTO> dtos = itemFacade.getItemsByStoreId(storeId).stream()
-                .map(ItemDTO::fromItem).collect(Collectors.toList());
+            List<ItemDTO> dtos = catalogSnapshots != null
+                ? catalogSnapshots.getStoreItems(storeId)
+                : itemFacade.getItemsByStoreId(storeId).stream().map(ItemDTO::fromItem).collect(Collectors.toList());
             TradingLogger.logEvent("ItemService", method, "Fetched items for storeId: " + storeId);
             return new Response<>(dtos);
         } catch (Exception ex) {
@@ -123,15 +171,16 @@ public class ItemService {
         }
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     public Response<List<ItemDTO>> getAvailableItems(String sessionToken) {
         String method = "getAvailableItems";
         try {
             if (!tokenService.validateToken(sessionToken)) {
                 return Response.error("Invalid token");
             }
-            List<ItemDTO> dtos = itemFacade.getAvailableItems().stream()
-                .map(ItemDTO::fromItem).collect(Collectors.toList());
+            List<ItemDTO> dtos = catalogSnapshots != null
+                ? catalogSnapshots.getAvailableItems()
+                : itemFacade.getAvailableItems().stream().map(ItemDTO::fromItem).collect(Collectors.toList());
             TradingLogger.logEvent("ItemService", method, "Fetched available items.");
             return new Response<>(dtos);
         } catch (Exception ex) {
@@ -250,5 +299,72 @@ public class ItemService {
         }
     }
 
+    /**
+     * Changes the prices and stock of many items of a store at once, checking the caller once.
+     * The updates are applied all together or not at all.
+     */
+    @Transactional
+    public Response<List<ItemDTO>> updateItems(String sessionToken, String storeId, List<ItemUpdate> updates) {
+        String method = "updateItems";
+        try {
+            if (!tokenService.validateToken(sessionToken)) {
+                return Response.error("Invalid token");
+            }
+            String userId = this.tokenService.extractId(sessionToken);
+            permissionManager.checkPermission(userId, storeId, PermissionType.HANDLE_INVENTORY);
+            if (permissionManager.isBanned(userId)) {
+                throw new Exception("User is banned from updating items.");
+            }
+            List<Item> items = itemFacade.updateItems(storeId, updates);
+            TradingLogger.logEvent("ItemService", method, items.size() + " items updated in " + storeId);
+            return new Response<>(items.stream().map(ItemDTO::fromItem).collect(Collectors.toList()));
+        } catch (Exception ex) {
+            TradingLogger.logError("ItemService", method, ex.getMessage());
+            rollbackOnly();
+            return new Response<>(new Error(ex.getMessage()));
+        }
+    }
+
+    /**
+     * Rolls back the current transaction, if any, when this method returns an error instead of throwing.
+     * A repository that threw inside it already marked it for rollback; marking it here too makes the rollback
+     * expected, so that the commit does not fail with an UnexpectedRollbackException in place of the error.
+     */
+    private static void rollbackOnly() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+        }
+    }
 
+    /**
+     * Adds a file of products and items to a store, checking the caller once instead of per item.
+     * Not one transaction: rows are written in batches, each committed on its own, so a long import neither holds
+     * a connection throughout nor loses the batches written before a failure.
+     *
+     * @param progress told how far the import got after every batch; may be null
+     */
+    public Response<CatalogImporter.Result> importCatalog(String sessionToken, String storeId, InputStream input,
+                                                          CatalogRows.Format format,
+                                                          Consumer<CatalogImporter.Result> progress) {
+        String method = "importCatalog";
+        try {
+            if (!tokenService.validateToken(sessionToken)) {
+                return Response.error("Invalid token");
+            }
+            if (catalogImporter == null) {
+                return Response.error("Catalog imports are not available");
+            }
+            String userId = this.tokenService.extractId(sessionToken);
+            permissionManager.checkPermission(userId, storeId, PermissionType.HANDLE_INVENTORY);
+            if (permissionManager.isBanned(userId)) {
+                throw new Exception("User is banned from adding items.");
+            }
+            CatalogImporter.Result result = catalogImporter.importCatalog(storeId, input, format, progress);
+            TradingLogger.logEvent("ItemService", method, "Catalog imported into " + storeId + ": " + result);
+            return new Response<>(result);
+        } catch (Exception ex) {
+            TradingLogger.logError("ItemService", method, ex.getMessage());
+            return new Response<>(new Error(ex.getMessage()));
+        }
+    }
 }
@@ -7,6 +7,7 @@ import org.springframework.stereotype.Service;
 import Application.utils.Error;
 import Application.utils.Response;
 import Domain.Notification.INotificationRepository;
+import Domain.Notification.NotificationPage;
 import jakarta.transaction.Transactional;
 
 @Service
@@ -28,4 +29,35 @@ public class MessageService {
             return new Response<>(new Error(e.getMessage()));
         }
     }
+
+    /**
+     * Returns a page of the user's notifications, newest first, without marking them read.
+     * @param before the next-before value of the previous page, or 0 for the newest page
+     */
+    public Response<NotificationPage> getNotificationPage(String userId, long before, int limit) {
+        try {
+            return new Response<>(notificationRepository.getNotificationPage(userId, before, limit));
+        } catch (Exception e) {
+            return new Response<>(new Error(e.getMessage()));
+        }
+    }
+
+    public Response<Long> getUnreadCount(String userId) {
+        try {
+            return new Response<>(notificationRepository.getUnreadCount(userId));
+        } catch (Exception e) {
+            return new Response<>(new Error(e.getMessage()));
+        }
+    }
+
+    /**
+     * Marks the user's notifications up to and including the given sequence as read.
+     */
+    public Response<Boolean> markRead(String userId, long sequence) {
+        try {
+            return new Response<>(notificationRepository.markRead(userId, sequence));
+        } catch (Exception e) {
+            return new Response<>(new Error(e.getMessage()));
+        }
+    }
 }
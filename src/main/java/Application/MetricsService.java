@@ -0,0 +1,78 @@
+package Application;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.stereotype.Service;
+
+import Application.DTOs.OperationMetricsDTO;
+import Application.metrics.MetricsRegistry;
+import Application.utils.Error;
+import Application.utils.Response;
+import Application.utils.TradingLogger;
+import Domain.management.IMarketFacade;
+import Domain.management.PermissionType;
+
+/**
+ * Exposes the in-process service metrics to trading managers.
+ */
+@Service
+public class MetricsService {
+    private static final String CLASS_NAME = MetricsService.class.getSimpleName();
+
+    private final MetricsRegistry metricsRegistry;
+    private final IMarketFacade marketFacade;
+    private final TokenService tokenService;
+
+    public MetricsService(MetricsRegistry metricsRegistry, IMarketFacade marketFacade, TokenService tokenService) {
+        this.metricsRegistry = metricsRegistry;
+        this.marketFacade = marketFacade;
+        this.tokenService = tokenService;
+    }
+
+    private void checkAdmin(String sessionToken) {
+        if (!tokenService.validateToken(sessionToken)) {
+            throw new IllegalArgumentException("Invalid session token");
+        }
+        String userId = tokenService.extractId(sessionToken);
+        marketFacade.checkPermission(userId, "1", PermissionType.BAN_USERS);
+    }
+
+    public Response<List<OperationMetricsDTO>> getOperationMetrics(String sessionToken) {
+        try {
+            checkAdmin(sessionToken);
+            List<OperationMetricsDTO> metrics = metricsRegistry.getOperations().stream()
+                .map(OperationMetricsDTO::fromOperationMetrics)
+                .toList();
+            return new Response<>(metrics);
+        } catch (Exception e) {
+            TradingLogger.logError(CLASS_NAME, "getOperationMetrics", "Failed to get operation metrics: %s", e.getMessage());
+            return new Response<>(new Error(e.getMessage()));
+        }
+    }
+
+    public Response<Map<String, Number>> getCountersAndGauges(String sessionToken) {
+        try {
+            checkAdmin(sessionToken);
+            Map<String, Number> values = new TreeMap<>(metricsRegistry.getGauges());
+            values.putAll(metricsRegistry.getCounters());
+            return new Response<>(values);
+        } catch (Exception e) {
+            TradingLogger.logError(CLASS_NAME, "getCountersAndGauges", "Failed to get counters and gauges: %s", e.getMessage());
+            return new Response<>(new Error(e.getMessage()));
+        }
+    }
+
+    public Response<Void> resetMetrics(String sessionToken) {
+        try {
+            checkAdmin(sessionToken);
+            metricsRegistry.reset();
+            TradingLogger.logEvent(CLASS_NAME, "resetMetrics", "Metrics reset");
+            return new Response<>(null);
+        } catch (Exception e) {
+            TradingLogger.logError(CLASS_NAME, "resetMetrics", "Failed to reset metrics: %s", e.getMessage());
+            return new Response<>(new Error(e.getMessage()));
+        }
+    }
+}
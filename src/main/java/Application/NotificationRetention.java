@@ -0,0 +1,44 @@
+package Application;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import Application.utils.TradingLogger;
+import Domain.Notification.INotificationRepository;
+
+/**
+ * Removes notifications older than {@code app.notifications.retention-days} days, and keeps at most
+ * {@code app.notifications.max-per-user} notifications of each user.
+ */
+@Component
+public class NotificationRetention {
+    private static final String CLASS_NAME = NotificationRetention.class.getSimpleName();
+
+    private final INotificationRepository notificationRepository;
+
+    @Value("${app.notifications.retention-days:90}")
+    private int retentionDays = 90;
+
+    @Value("${app.notifications.max-per-user:1000}")
+    private int maxPerUser = 1000;
+
+    public NotificationRetention(INotificationRepository notificationRepository) {
+        this.notificationRepository = notificationRepository;
+    }
+
+    /**
+     * @return the number of notifications removed
+     */
+    @Scheduled(fixedDelayString = "${app.notifications.retention-interval-ms:3600000}")
+    public int prune() {
+        long createdBefore = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retentionDays);
+        int removed = notificationRepository.prune(createdBefore, maxPerUser);
+        if (removed > 0) {
+            TradingLogger.logEvent(CLASS_NAME, "prune", "Removed " + removed + " old notifications.");
+        }
+        return removed;
+    }
+}
@@ -0,0 +1,60 @@
+package Application;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import Application.metrics.MetricsRegistry;
+import Application.utils.NotificationFanout;
+import Application.utils.TradingLogger;
+import Domain.ExternalServices.INotificationService;
+import Domain.Shopping.Offer;
+import Domain.Shopping.OfferManager;
+
+/**
+ * Closes offers that went unanswered for longer than {@code app.offers.ttl-ms} and tells their members.
+ * Expiry runs in batches of {@code app.offers.expiry-batch} offers.
+ */
+@Component
+public class OfferExpiry {
+    private static final String CLASS_NAME = OfferExpiry.class.getSimpleName();
+
+    private final OfferManager offerManager;
+    private final INotificationService notificationService;
+    private final LongAdder expired;
+
+    @Value("${app.offers.expiry-batch:500}")
+    private int batchSize = 500;
+
+    public OfferExpiry(OfferManager offerManager, INotificationService notificationService, MetricsRegistry metricsRegistry) {
+        this.offerManager = offerManager;
+        this.notificationService = notificationService;
+        this.expired = metricsRegistry.counter("offers.expired");
+    }
+
+    /**
+     * Expires every offer that is due, one batch at a time.
+     * @return the number of offers expired
+     */
+    @Scheduled(fixedDelayString = "${app.offers.expiry-interval-ms:60000}")
+    public int sweep() {
+        int total = 0;
+        List<Offer> batch;
+        do {
+            batch = offerManager.expireOffers(batchSize);
+            for (Offer offer : batch) {
+                NotificationFanout.shared().send(notificationService, offer.getMemberId(),
+                        "⌛ Your offer of $" + offer.getLastPrice() + " expired before every approver answered it.");
+            }
+            expired.add(batch.size());
+            total += batch.size();
+        } while (batch.size() >= batchSize);
+        if (total > 0) {
+            TradingLogger.logEvent(CLASS_NAME, "sweep", "Expired " + total + " idle offers.");
+        }
+        return total;
+    }
+}
@@ -1,9 +1,11 @@
 package Application;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -11,6 +13,7 @@ import Application.DTOs.ProductDTO;
 import Application.utils.Error;
 import Application.utils.Response;
 import Application.utils.TradingLogger;
+import Domain.Repos.DatabaseUnavailableException;
 import Domain.Store.Product;
 import Domain.Store.ProductFacade;
 import Domain.management.PermissionManager;
@@ -20,7 +23,7 @@ public class ProductService {
     private final ProductFacade productFacade;
     private PermissionManager permissionManager;
     private TokenService tokenService;
-
+    private ReadReplica readReplica;
 
     public ProductService(ProductFacade productFacade, TokenService tokenService, PermissionManager permissionManager) {
         this.productFacade = productFacade;
@@ -28,6 +31,14 @@ public class ProductService {
         this.permissionManager = permissionManager;
     }
 
+    /**
+     * Lists products from the replica while the database is unavailable.
+     */
+    @Autowired(required = false)
+    public void setReadReplica(ReadReplica readReplica) {
+        this.readReplica = readReplica;
+    }
+
     @Transactional
     public Response<ProductDTO> addProduct(String sessionToken, String name, List<String> categories, List<String> catDesc) {
         String method = "addProduct";
@@ -65,7 +76,7 @@ public class ProductService {
         }
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     public Response<Set<ProductDTO>> getAllProducts(String sessionToken) {
         String method = "getAllProducts";
         try {
@@ -74,10 +85,16 @@ public class ProductService {
             }
             // String userId = this.tokenService.extractId(sessionToken);
 
-            Set<Product> products = productFacade.getAllProducts();
+            Set<ProductDTO> products;
+            try {
+                products = productFacade.getAllProducts().stream().map(ProductDTO::new).collect(Collectors.toSet());
+            } catch (DatabaseUnavailableException e) {
+                if (readReplica == null) throw e;
+                products = new HashSet<>(readReplica.getProducts());
+            }
 
             TradingLogger.logEvent("ProductService", method, "Fetched all products.");
-            return new Response<>(products.stream().map(ProductDTO::new).collect(Collectors.toSet()));
+            return new Response<>(products);
         } catch (Exception ex) {
             TradingLogger.logError("ProductService", method, ex.getMessage());
             return new Response<>(new Error(ex.getMessage()));
@@ -0,0 +1,119 @@
+package Application;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import Application.DTOs.DiscountDTO;
+import Application.DTOs.ProductDTO;
+import Application.DTOs.StoreDTO;
+import Application.utils.TradingLogger;
+import Domain.Events.DomainEvent;
+import Domain.Events.DomainEventBus;
+import Domain.Store.ProductFacade;
+import Domain.Store.Discounts.Discount;
+import Domain.Store.Discounts.DiscountFacade;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Copies of the catalog held in memory, to serve browsing, search and price quotes while the database is down.
+ * <p>
+ * Stores and items are the {@link CatalogSnapshots}, which keep serving their last snapshot when a rebuild fails.
+ * Products and each store's discounts are copied here: all of them every {@code app.replica.refresh-interval-ms},
+ * and a store's discounts again as soon as a {@link DomainEvent.DiscountChanged} for it arrives. A refresh that
+ * fails keeps the copies it had.
+ */
+@Component
+public class ReadReplica {
+    private static final String CLASS_NAME = ReadReplica.class.getSimpleName();
+
+    private final CatalogSnapshots catalogSnapshots;
+    private final ProductFacade productFacade;
+    private final DiscountFacade discountFacade;
+    private final DomainEventBus eventBus;
+    private volatile Set<ProductDTO> products = Set.of();
+    private final Map<String, List<DiscountDTO>> discounts = new ConcurrentHashMap<>();
+    private DomainEventBus.Subscription events;
+
+    @Value("${app.events.batch-size:256}")
+    private int batchSize = 256;
+
+    public ReadReplica(CatalogSnapshots catalogSnapshots, ProductFacade productFacade, DiscountFacade discountFacade,
+                       DomainEventBus eventBus) {
+        this.catalogSnapshots = catalogSnapshots;
+        this.productFacade = productFacade;
+        this.discountFacade = discountFacade;
+        this.eventBus = eventBus;
+    }
+
+    @PostConstruct
+    public void start() {
+        events = eventBus.subscribe("read-replica", batchSize, batch -> {
+            Set<String> changed = new HashSet<>();
+            for (DomainEvent event : batch) {
+                if (event instanceof DomainEvent.DiscountChanged) {
+                    changed.add(event.storeId());
+                }
+            }
+            changed.forEach(this::refreshDiscounts);
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (events != null) {
+            events.close();
+        }
+    }
+
+    /**
+     * Copies products and discounts again, and rebuilds the catalog snapshots that are out of date.
+     */
+    @Scheduled(fixedDelayString = "${app.replica.refresh-interval-ms:300000}")
+    public void refresh() {
+        try {
+            products = productFacade.getAllProducts().stream().map(ProductDTO::new).collect(Collectors.toUnmodifiableSet());
+            List<StoreDTO> stores = catalogSnapshots.getStores();
+            Set<String> storeIds = new HashSet<>();
+            for (StoreDTO store : stores) {
+                storeIds.add(store.getId());
+                refreshDiscounts(store.getId());
+            }
+            discounts.keySet().retainAll(storeIds);
+            catalogSnapshots.getAvailableItems();
+        } catch (RuntimeException e) {
+            TradingLogger.logError(CLASS_NAME, "refresh", "Keeping the previous copies: %s", e.getMessage());
+        }
+    }
+
+    private void refreshDiscounts(String storeId) {
+        try {
+            List<DiscountDTO> copy = new ArrayList<>();
+            for (Discount discount : discountFacade.getStoreDiscounts(storeId)) {
+                copy.add(DiscountDTO.fromDiscount(discount));
+            }
+            discounts.put(storeId, List.copyOf(copy));
+        } catch (RuntimeException e) {
+            TradingLogger.logError(CLASS_NAME, "refreshDiscounts", "Keeping the previous discounts of %s: %s", storeId, e.getMessage());
+        }
+    }
+
+    /** @return the products as last copied */
+    public Set<ProductDTO> getProducts() {
+        return products;
+    }
+
+    /** @return the discounts of a store as last copied, or an empty list if they never were */
+    public List<DiscountDTO> getStoreDiscounts(String storeId) {
+        return discounts.getOrDefault(storeId, List.of());
+    }
+}
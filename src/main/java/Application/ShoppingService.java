@@ -23,6 +23,7 @@ import Application.DTOs.ShoppingBasketDTO;
 import Application.DTOs.SupplyDetailsDTO;
 import Application.DTOs.UserDTO;
 import Application.utils.Error;
+import Application.utils.NotificationFanout;
 import Application.utils.Response;
 import Application.utils.TradingLogger;
 import Domain.Pair;
@@ -411,9 +412,8 @@ public class ShoppingService{
             
             Offer offer = offerManager.makeOffer(clientId, storeId, productId, newPrice, paymentDetailsDTO.toPaymentDetails(), supplyDetailsDTO.toSupplyDetails());
             OfferDTO offerDTO = convertOfferToDTO(offer);
-            offerDTO.getEmployeeApprovers().stream().forEach(e -> {
-                notificationService.sendNotification(e.getId(), "🔔 You've received a new offer from " + offerDTO.getMember().getUsername() + " for a " + offerDTO.getItem().getProductName() + " in store " + storeFacade.getStoreName(storeId) + "!");
-            });
+            String message = "🔔 You've received a new offer from " + offerDTO.getMember().getUsername() + " for a " + offerDTO.getItem().getProductName() + " in store " + storeFacade.getStoreName(storeId) + "!";
+            NotificationFanout.shared().send(notificationService, offerDTO.getEmployeeApprovers().stream().map(UserDTO::getId).toList(), message);
             TradingLogger.logEvent(CLASS_NAME, method, "Offer made by " + member.getUsername() + " on " + item.getProductName() + " for " + newPrice + "$");
             return Response.success(offerDTO);
         } catch (Exception ex) {
@@ -538,9 +538,8 @@ public class ShoppingService{
 
             Offer counteredOffer = offerManager.counterOfferByMember(userId, offerId, newPrice);
             OfferDTO offerDTO = convertOfferToDTO(counteredOffer);
-            offerDTO.getEmployeeApprovers().stream().forEach(e -> {
-                notificationService.sendNotification(e.getId(), "🔔 You've received a new counter offer from " + offerDTO.getMember().getUsername() + " for a " + offerDTO.getItem().getProductName() + " in store " + storeFacade.getStoreName(offerDTO.getItem().getStoreId()) + "!");
-            });
+            String message = "🔔 You've received a new counter offer from " + offerDTO.getMember().getUsername() + " for a " + offerDTO.getItem().getProductName() + " in store " + storeFacade.getStoreName(offerDTO.getItem().getStoreId()) + "!";
+            NotificationFanout.shared().send(notificationService, offerDTO.getEmployeeApprovers().stream().map(UserDTO::getId).toList(), message);
 
             TradingLogger.logEvent(CLASS_NAME, method, "Counter offer made by " + offerDTO.getMember().getUsername() + " on " + offerDTO.getItem().getProductName() + " for " + newPrice + "$");
             return Response.success(offerDTO);
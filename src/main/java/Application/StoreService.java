@@ -20,11 +20,13 @@ import Application.DTOs.OfferDTO;
 import Application.DTOs.StoreDTO;
 import Application.DTOs.UserDTO;
 import Application.utils.Error;
+import Application.utils.NotificationFanout;
 import Application.utils.Response;
 import Application.utils.TradingLogger;
 import Domain.ExternalServices.IExternalPaymentService;
 import Domain.ExternalServices.IExternalSupplyService;
 import Domain.ExternalServices.INotificationService;
+import Domain.Repos.DatabaseUnavailableException;
 import Domain.Shopping.IShoppingCartFacade;
 import Domain.Shopping.Offer;
 import Domain.Shopping.OfferManager;
@@ -57,6 +59,8 @@ public class StoreService {
     private final LoginManager loginManager;
     private IExternalPaymentService externalPaymentService;
     private IExternalSupplyService externalSupplyService;
+    private CatalogSnapshots catalogSnapshots;
+    private ReadReplica readReplica;
 
     public StoreService() {
         this.storeFacade = null;
@@ -96,6 +100,23 @@ public class StoreService {
         TradingLogger.logEvent(CLASS_NAME, "Constructor", "StoreService initialized with dependencies");
     }
 
+    /**
+     * Serves the store listing from shared catalog snapshots instead of building it per call, and single stores
+     * while the database is unavailable.
+     */
+    @Autowired(required = false)
+    public void setCatalogSnapshots(CatalogSnapshots catalogSnapshots) {
+        this.catalogSnapshots = catalogSnapshots;
+    }
+
+    /**
+     * Serves store discounts from the replica while the database is unavailable.
+     */
+    @Autowired(required = false)
+    public void setReadReplica(ReadReplica readReplica) {
+        this.readReplica = readReplica;
+    }
+
     @Transactional
     private boolean isInitialized() {
         return this.storeFacade != null 
@@ -414,7 +435,7 @@ public class StoreService {
                         "🎉 Your offer to " + storeName + " been accepted!\n" + 
                         "💳 You’ve been successfully billed $" + offerDTO.getLastPrice() + " for your purchase.\n" + //
                         "🛍️ Get ready to enjoy your new " + offerDTO.getItem().getProductName() + "!";
-                notificationService.sendNotification(offerDTO.getMember().getId(), message);
+                NotificationFanout.shared().send(notificationService, offerDTO.getMember().getId(), message);
                             TradingLogger.logEvent(CLASS_NAME, method, "Offer " + offerId + " on product " + offerDTO.getItem().getProductName() + " in store " + storeName + " was accepted by " + employeeName);
             }
             else {
@@ -460,7 +481,7 @@ public class StoreService {
 
 
             String message = "❌ Your offer to " + storeName + " has been rejected. womp womp :(";
-            notificationService.sendNotification(offerDTO.getMember().getId(), message);
+            NotificationFanout.shared().send(notificationService, offerDTO.getMember().getId(), message);
 
             String employeeName = loginManager.getUser(userId).getName();
             TradingLogger.logEvent(CLASS_NAME, method, "Offer " + offerId + " on product " + offerDTO.getItem().getProductName() + " in store " + storeName + " was rejected by " + employeeName);
@@ -522,20 +543,24 @@ public class StoreService {
                 return new Response<>(new Error("Invalid token"));
             }
 
-            // Check if store exists
-            Store store = this.storeFacade.getStore(storeID);
-            if (store == null) {
-                TradingLogger.logError(CLASS_NAME, method, "Store not found with id %s", storeID);
-                return new Response<>(new Error("Store not found."));
-            }
-
-            List<Discount> discounts = this.discountFacade.getStoreDiscounts(storeID);
-            
             List<DiscountDTO> output = new ArrayList<>();
+            try {
+                // Check if store exists
+                Store store = this.storeFacade.getStore(storeID);
+                if (store == null) {
+                    TradingLogger.logError(CLASS_NAME, method, "Store not found with id %s", storeID);
+                    return new Response<>(new Error("Store not found."));
+                }
 
-            for (Discount discount : discounts) {
-                DiscountDTO dto = DiscountDTO.fromDiscount(discount);
-                output.add(dto);
+                List<Discount> discounts = this.discountFacade.getStoreDiscounts(storeID);
+
+                for (Discount discount : discounts) {
+                    DiscountDTO dto = DiscountDTO.fromDiscount(discount);
+                    output.add(dto);
+                }
+            } catch (DatabaseUnavailableException e) {
+                if (readReplica == null) throw e;
+                output.addAll(readReplica.getStoreDiscounts(storeID));
             }
 
             return new Response<>(output);
@@ -616,13 +641,20 @@ public class StoreService {
                 TradingLogger.logError(CLASS_NAME, method, "Invalid token");
                 return Response.error("Invalid token");
             }
-            Store store = this.storeFacade.getStore(storeId);
-            if(store == null) {
-                TradingLogger.logError(CLASS_NAME, method, "Store not found with id %s", storeId);
-                return new Response<>(new Error("Store not found."));
+            StoreDTO dto;
+            try {
+                Store store = this.storeFacade.getStore(storeId);
+                if(store == null) {
+                    TradingLogger.logError(CLASS_NAME, method, "Store not found with id %s", storeId);
+                    return new Response<>(new Error("Store not found."));
+                }
+                dto = new StoreDTO(store);
+            } catch (DatabaseUnavailableException e) {
+                if (catalogSnapshots == null) throw e;
+                dto = catalogSnapshots.getStoreCatalog(storeId).getStore();
             }
             TradingLogger.logEvent(CLASS_NAME, method, "Retrieved store with id: " + storeId);
-            return new Response<>(new StoreDTO(store));
+            return new Response<>(dto);
         } catch (Exception ex) {
             TradingLogger.logError(CLASS_NAME, method, "Error retrieving store by name %s: %s", storeId, ex.getMessage());
             return new Response<>(new Error(ex.getMessage()));
@@ -722,7 +754,7 @@ public class StoreService {
             Item item = itemFacade.getItem(offer.getStoreId(), offer.getProductId());
             String productName = item.getProductName();
             String storeName = storeFacade.getStoreName(offer.getStoreId());
-            notificationService.sendNotification(offer.getMemberId(), "You have a new counter offer for " + productName + " for " + newPrice + "!");
+            NotificationFanout.shared().send(notificationService, offer.getMemberId(), "You have a new counter offer for " + productName + " for " + newPrice + "!");
 
             TradingLogger.logEvent(CLASS_NAME, method, "Counter offer made for offer " + offerId + " on product " + productName + " in store " + storeName);
             return Response.success(new OfferDTO(offerId, 
@@ -754,7 +786,9 @@ public class StoreService {
 
 
             
-            List<StoreDTO> stores = storeFacade.getAllStores().stream().map(StoreDTO::new).toList();
+            List<StoreDTO> stores = catalogSnapshots != null
+                    ? catalogSnapshots.getStores()
+                    : storeFacade.getAllStores().stream().map(StoreDTO::new).toList();
 
             return Response.success(stores);
         } catch (Exception ex) {
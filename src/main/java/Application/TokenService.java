@@ -2,6 +2,7 @@ package Application;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -10,6 +11,8 @@ import java.util.function.Function;
 
 import javax.crypto.SecretKey;
 
+import Domain.User.LoginManager;
+
 @Service
 public class TokenService {
 
@@ -19,6 +22,14 @@ public class TokenService {
     private final long expirationTime = 1000 * 60 * 60 * 24; // 24 hours
     private SecretKey key = Keys.secretKeyFor(SignatureAlgorithm.HS256);
 
+    // Every call that presents a token counts as activity of its session.
+    private LoginManager loginManager;
+
+    @Autowired(required = false)
+    public void setLoginManager(LoginManager loginManager) {
+        this.loginManager = loginManager;
+    }
+
 
     /***
      * Generates a JWT token for the given user ID.
@@ -56,7 +67,11 @@ public class TokenService {
      * @return The user ID extracted from the token.
      */
     public String extractId(String token) {
-        return extractClaim(token, Claims::getSubject);
+        String id = extractClaim(token, Claims::getSubject);
+        if (loginManager != null) {
+            loginManager.touch(id);
+        }
+        return id;
     }
 
 
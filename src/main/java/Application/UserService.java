@@ -2,6 +2,8 @@ package Application;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
@@ -72,8 +74,8 @@ public class UserService {
         try {
             User user = loginManager.exit(id);
             if (user instanceof Guest){
-                shoppingCartFacade.clearCart(id);
-                TradingLogger.logEvent(CLASS_NAME, "exit", "Guest user " + user.getName() + " has exited and cleared the shopping cart.");
+                shoppingCartFacade.removeCart(id);
+                TradingLogger.logEvent(CLASS_NAME, "exit", "Guest user " + user.getName() + " has exited and discarded the shopping cart.");
             } else {
                 TradingLogger.logEvent(CLASS_NAME, "exit", user.getName() + " has exited."); 
             }
@@ -95,36 +97,36 @@ public class UserService {
      * @param password The desired password for the new user.
      * @param email The email address of the new user.
      * @param birthDate The birth date of the new user.
-     * @return {@link Response} of {@link UserDTO} containing the token and user name.
+     * @return {@link Response} of {@link UserDTO} containing the token and user name, once the password is hashed.
      *         If an error occurs, returns an error message.
      */
     @Transactional
-    public Response<UserDTO> register(String sessionToken, String username, String password, String email, LocalDate birthDate) {
+    public CompletableFuture<Response<UserDTO>> registerAsync(String sessionToken, String username, String password, String email, LocalDate birthDate) {
         if (!tokenService.validateToken(sessionToken)) {
             TradingLogger.logError(CLASS_NAME, "register", "Received invalid session token", sessionToken);
-            return Response.error("Invalid token");
+            return CompletableFuture.completedFuture(Response.error("Invalid token"));
         }
 
         String id = tokenService.extractId(sessionToken);
 
         try {
-            Member member = loginManager.register(id, username, password, email, birthDate);
-            TradingLogger.logEvent(CLASS_NAME, "register", "Guest has registed as " + username +".");
-            return Response.success(new UserDTO(sessionToken, member));
-        } catch (IllegalStateException e) {
-            TradingLogger.logError(CLASS_NAME, "register", "Failed to register " + username + ": " + e.getMessage());
-            return Response.error("Failed to register " + username + ": " + e.getMessage());
-        }
-        catch (IllegalArgumentException | NoSuchElementException e) {
-            TradingLogger.logError(CLASS_NAME, "register", "Failed to register " + username + ": " + e.getMessage());
-            return Response.error(e.getMessage());
-        }
-        catch (Exception e) {
-            TradingLogger.logError(CLASS_NAME, "register", "Failed to register " + username + ": " + e.getMessage());
-            return Response.error("An unexpected error occurred: " + e.getMessage());
+            return loginManager.register(id, username, password, email, birthDate)
+                    .thenApply(member -> registered(sessionToken, member))
+                    .exceptionally(e -> registerFailed(username, e));
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(registerFailed(username, e));
         }
     }
 
+    /***
+     * Registers a new user like {@link #registerAsync(String, String, String, String, LocalDate)}, waiting for the
+     * password to be hashed. For callers that run off the request threads, such as initialization scripts.
+     */
+    @Transactional
+    public Response<UserDTO> register(String sessionToken, String username, String password, String email, LocalDate birthDate) {
+        return registerAsync(sessionToken, username, password, email, birthDate).join();
+    }
+
     /***
      * *THIS IS A LEGACY FUNCTION*
      * Registers a new user with the given username, password, and email.
@@ -145,21 +147,32 @@ public class UserService {
         String id = tokenService.extractId(sessionToken);
 
         try {
-            Member member = loginManager.register(id, username, password, email);
-            TradingLogger.logEvent(CLASS_NAME, "register", "Guest has registed as " + username +".");
-            return Response.success(new UserDTO(sessionToken, member));
-        } catch (IllegalStateException e) {
-            TradingLogger.logError(CLASS_NAME, "register", "Failed to register " + username + ": " + e.getMessage());
+            return loginManager.register(id, username, password, email)
+                    .thenApply(member -> registered(sessionToken, member))
+                    .exceptionally(e -> registerFailed(username, e))
+                    .join();
+        } catch (Exception e) {
+            return registerFailed(username, e);
+        }
+    }
+
+    private Response<UserDTO> registered(String sessionToken, Member member) {
+        // The guest's cart is a member's now
+        shoppingCartFacade.ownerChanged(member.getId());
+        TradingLogger.logEvent(CLASS_NAME, "register", "Guest has registed as " + member.getName() +".");
+        return Response.success(new UserDTO(sessionToken, member));
+    }
+
+    private Response<UserDTO> registerFailed(String username, Throwable failure) {
+        Throwable e = unwrap(failure);
+        TradingLogger.logError(CLASS_NAME, "register", "Failed to register " + username + ": " + e.getMessage());
+        if (e instanceof IllegalStateException) {
             return Response.error("Failed to register " + username + ": " + e.getMessage());
         }
-        catch (IllegalArgumentException | NoSuchElementException e) {
-            TradingLogger.logError(CLASS_NAME, "register", "Failed to register " + username + ": " + e.getMessage());
+        if (e instanceof IllegalArgumentException || e instanceof NoSuchElementException) {
             return Response.error(e.getMessage());
         }
-        catch (Exception e) {
-            TradingLogger.logError(CLASS_NAME, "register", "Failed to register " + username + ": " + e.getMessage());
-            return Response.error("An unexpected error occurred: " + e.getMessage());
-        }
+        return Response.error("An unexpected error occurred: " + e.getMessage());
     }
 
 
@@ -167,25 +180,46 @@ public class UserService {
      * Logs in a user with the given username and password.
      * @param username The username of the user to log in.
      * @param password The password of the user to log in.
-     * @return {@link Response} of {@link UserDTO} containing the token and user name.
+     * @return {@link Response} of {@link UserDTO} containing the token and user name, once the password is checked.
      *         If an error occurs, returns an error message.
      */
     @Transactional
-    public Response<UserDTO> login(String username, String password) {
+    public CompletableFuture<Response<UserDTO>> loginAsync(String username, String password) {
         try {
-            Member member = loginManager.login(username, password);
-            String token = tokenService.generateToken(member.getId());
-            TradingLogger.logEvent(CLASS_NAME, "login", username + " has logged in.");
-            return Response.success(new UserDTO(token, member));
-        } catch (IllegalArgumentException | NoSuchElementException e) {
-            TradingLogger.logError(CLASS_NAME, "login", "Attempted login has failed. Username: " + username + " Password: " + password, e.getMessage());
-            return Response.error("Invalid username or password: " + e.getMessage());
+            return loginManager.login(username, password)
+                    .thenApply(member -> {
+                        String token = tokenService.generateToken(member.getId());
+                        TradingLogger.logEvent(CLASS_NAME, "login", username + " has logged in.");
+                        return Response.success(new UserDTO(token, member));
+                    })
+                    .exceptionally(e -> loginFailed(username, password, e));
         } catch (Exception e) {
-            TradingLogger.logError(CLASS_NAME, "login", "Attempted login has failed. Username: " + username + " Password: " + password, e.getMessage());
-            return Response.error("An unexpected error occurred: " + e.getMessage());
+            return CompletableFuture.completedFuture(loginFailed(username, password, e));
         }
     }
 
+    /***
+     * Logs in a user like {@link #loginAsync(String, String)}, waiting for the password to be checked.
+     * For callers that run off the request threads, such as initialization scripts.
+     */
+    @Transactional
+    public Response<UserDTO> login(String username, String password) {
+        return loginAsync(username, password).join();
+    }
+
+    private Response<UserDTO> loginFailed(String username, String password, Throwable failure) {
+        Throwable e = unwrap(failure);
+        TradingLogger.logError(CLASS_NAME, "login", "Attempted login has failed. Username: " + username + " Password: " + password, e.getMessage());
+        if (e instanceof IllegalArgumentException || e instanceof NoSuchElementException) {
+            return Response.error("Invalid username or password: " + e.getMessage());
+        }
+        return Response.error("An unexpected error occurred: " + e.getMessage());
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+
 
     /***
      * Retrieves all members of the system.
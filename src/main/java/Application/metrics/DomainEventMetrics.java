@@ -0,0 +1,60 @@
+package Application.metrics;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import Domain.Events.DomainEvent;
+import Domain.Events.DomainEventBus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Counts the domain events of each type, and publishes how far the slowest subscriber of the bus is behind.
+ * Counting happens on the bus, off the threads that publish.
+ */
+@Component
+public class DomainEventMetrics {
+    private final MetricsRegistry metricsRegistry;
+    private final DomainEventBus bus;
+    private final Map<Class<?>, LongAdder> counters = new ConcurrentHashMap<>();
+    private DomainEventBus.Subscription subscription;
+
+    @Value("${app.events.batch-size:256}")
+    private int batchSize = 256;
+
+    @Autowired
+    public DomainEventMetrics(MetricsRegistry metricsRegistry, DomainEventBus bus) {
+        this.metricsRegistry = metricsRegistry;
+        this.bus = bus;
+        metricsRegistry.registerGauge("events.bus.lag", bus::getLag);
+        metricsRegistry.registerGauge("events.bus.published", bus::getPublished);
+        metricsRegistry.registerGauge("events.bus.full-waits", bus::getFullWaits);
+        metricsRegistry.registerGauge("events.bus.dropped", bus::getDropped);
+        metricsRegistry.registerGauge("events.bus.overflows", bus::getOverflows);
+    }
+
+    @PostConstruct
+    public void start() {
+        subscription = bus.subscribe("metrics", batchSize, this::count);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.close();
+        }
+    }
+
+    void count(List<DomainEvent> events) {
+        for (DomainEvent event : events) {
+            counters.computeIfAbsent(event.getClass(),
+                    type -> metricsRegistry.counter("events." + type.getSimpleName())).increment();
+        }
+    }
+}
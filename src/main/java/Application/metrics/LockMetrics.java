@@ -0,0 +1,49 @@
+package Application.metrics;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import Domain.Repos.ILockbasedRepository;
+import Domain.Repos.StripedLocks;
+import Domain.Store.StoreLocks;
+
+/**
+ * Publishes the counters of every set of lock stripes: those of each repository, as
+ * {@code locks.<entity>.*} after the repository's base type (e.g. {@code locks.item.contended-writes}),
+ * and the store mutation locks as {@code locks.store-mutations.*}.
+ */
+@Component
+public class LockMetrics {
+
+    @Autowired
+    public LockMetrics(MetricsRegistry metricsRegistry, List<ILockbasedRepository<?, ?>> repositories,
+                       StoreLocks storeLocks) {
+        for (ILockbasedRepository<?, ?> repository : repositories) {
+            register(metricsRegistry, "locks." + entityName(repository), repository::getLockStats);
+        }
+        register(metricsRegistry, "locks.store-mutations", storeLocks::getStats);
+    }
+
+    static void register(MetricsRegistry metricsRegistry, String prefix, Supplier<StripedLocks.Stats> stats) {
+        metricsRegistry.registerGauge(prefix + ".writes", () -> stats.get().getWrites());
+        metricsRegistry.registerGauge(prefix + ".contended-writes", () -> stats.get().getContendedWrites());
+        metricsRegistry.registerGauge(prefix + ".optimistic-reads", () -> stats.get().getOptimisticReads());
+        metricsRegistry.registerGauge(prefix + ".optimistic-failures", () -> stats.get().getOptimisticFailures());
+    }
+
+    /**
+     * @return "item" for an IItemRepository, whichever implementation or proxy it is
+     */
+    static String entityName(ILockbasedRepository<?, ?> repository) {
+        Class<?> type = repository.getClass();
+        while (type.getSuperclass() != null && type.getSuperclass() != ILockbasedRepository.class) {
+            type = type.getSuperclass();
+        }
+        String name = type.getSimpleName().replaceFirst("^I(?=[A-Z])", "").replaceFirst("Repository$", "");
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
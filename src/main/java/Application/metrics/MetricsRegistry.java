@@ -0,0 +1,100 @@
+package Application.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * In-process registry of operation latencies, counters and gauges.
+ * Operations are recorded automatically by {@link ServiceMetricsAspect};
+ * counters and gauges can be registered by any component that wants to publish them.
+ */
+@Component
+public class MetricsRegistry {
+    private final Map<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, Supplier<? extends Number>> gauges = new ConcurrentHashMap<>();
+
+    public MetricsRegistry() {
+        registerGauge("jvm.heap.used.bytes",
+            () -> ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+        registerGauge("jvm.threads.live",
+            () -> ManagementFactory.getThreadMXBean().getThreadCount());
+    }
+
+    /**
+     * Returns the metrics of the given operation, creating them on first use.
+     */
+    public OperationMetrics operation(String name) {
+        return operations.computeIfAbsent(name, OperationMetrics::new);
+    }
+
+    /**
+     * Records one call of an operation.
+     *
+     * @param name the operation name
+     * @param nanos the call latency in nanoseconds
+     * @param errorKind the normalized error kind, or null if the call succeeded
+     */
+    public void recordOperation(String name, long nanos, String errorKind) {
+        operation(name).record(nanos, errorKind);
+    }
+
+    /**
+     * Returns the counter with the given name, creating it on first use.
+     */
+    public LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, n -> new LongAdder());
+    }
+
+    /**
+     * Registers a gauge that is sampled whenever the metrics are read.
+     * Registering a gauge under an existing name replaces it.
+     */
+    public void registerGauge(String name, Supplier<? extends Number> gauge) {
+        gauges.put(name, gauge);
+    }
+
+    /**
+     * Returns all operations sorted by name.
+     */
+    public List<OperationMetrics> getOperations() {
+        List<OperationMetrics> result = new ArrayList<>(operations.values());
+        result.sort(Comparator.comparing(OperationMetrics::getName));
+        return result;
+    }
+
+    public Map<String, Long> getCounters() {
+        Map<String, Long> result = new TreeMap<>();
+        counters.forEach((name, counter) -> result.put(name, counter.sum()));
+        return result;
+    }
+
+    public Map<String, Number> getGauges() {
+        Map<String, Number> result = new TreeMap<>();
+        gauges.forEach((name, gauge) -> {
+            try {
+                result.put(name, gauge.get());
+            } catch (Exception e) {
+                // A failing gauge must not break the whole snapshot
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Drops all recorded operations and counters. Gauges stay registered.
+     */
+    public void reset() {
+        operations.clear();
+        counters.clear();
+    }
+}
@@ -0,0 +1,90 @@
+package Application.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Latency histogram, call count and error breakdown of a single operation,
+ * e.g. {@code ShoppingService.addProductToCart}.
+ */
+public class OperationMetrics {
+    static final int MAX_ERROR_KINDS = 32;
+    static final String OTHER_ERROR_KIND = "other";
+
+    private static final Pattern UUID_PATTERN =
+        Pattern.compile("[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+    private static final Pattern NUMBER_PATTERN = Pattern.compile("\\d+(\\.\\d+)?");
+    private static final int MAX_KIND_LENGTH = 80;
+
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final Map<String, LongAdder> errorKinds = new ConcurrentHashMap<>();
+
+    public OperationMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Records one call of the operation.
+     *
+     * @param nanos the call latency in nanoseconds
+     * @param errorKind the normalized error kind, or null if the call succeeded
+     */
+    public void record(long nanos, String errorKind) {
+        latency.record(nanos);
+        calls.increment();
+        if (errorKind != null) {
+            errors.increment();
+            String kind = errorKinds.size() >= MAX_ERROR_KINDS && !errorKinds.containsKey(errorKind)
+                ? OTHER_ERROR_KIND : errorKind;
+            errorKinds.computeIfAbsent(kind, k -> new LongAdder()).increment();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public Map<String, Long> getErrorKinds() {
+        Map<String, Long> result = new HashMap<>();
+        errorKinds.forEach((kind, count) -> result.put(kind, count.sum()));
+        return result;
+    }
+
+    /**
+     * Turns a free-text error message into a low-cardinality error kind.
+     * Only the text before the first colon is kept and ids and numbers are masked,
+     * so "Item not found: 3f2a..." and "Item not found: 9b1c..." count as one kind.
+     */
+    public static String errorKindOf(String message) {
+        if (message == null || message.isBlank()) {
+            return "unknown";
+        }
+        String kind = message;
+        int colon = kind.indexOf(':');
+        if (colon > 0) {
+            kind = kind.substring(0, colon);
+        }
+        kind = UUID_PATTERN.matcher(kind).replaceAll("<id>");
+        kind = NUMBER_PATTERN.matcher(kind).replaceAll("<n>");
+        kind = kind.replace('\n', ' ').trim();
+        return kind.length() > MAX_KIND_LENGTH ? kind.substring(0, MAX_KIND_LENGTH) : kind;
+    }
+}
@@ -0,0 +1,45 @@
+package Application.metrics;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import Application.utils.Response;
+
+/**
+ * Records latency and errors of every public method of the Application services
+ * and of the domain facades under them.
+ * A call counts as failed if it throws or returns a {@link Response} with an error.
+ */
+@Aspect
+@Component
+public class ServiceMetricsAspect {
+    private final MetricsRegistry registry;
+
+    public ServiceMetricsAspect(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("execution(public * *(..)) && ("
+        + "(within(Application..*) && @within(org.springframework.stereotype.Service))"
+        + " || within(Domain..*Facade))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        String operation = joinPoint.getSignature().getDeclaringType().getSimpleName()
+            + "." + joinPoint.getSignature().getName();
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            String errorKind = null;
+            if (result instanceof Response<?> response && response.errorOccurred()) {
+                errorKind = OperationMetrics.errorKindOf(response.getErrorMessage());
+            }
+            registry.recordOperation(operation, System.nanoTime() - start, errorKind);
+            return result;
+        } catch (Throwable t) {
+            registry.recordOperation(operation, System.nanoTime() - start,
+                "exception: " + t.getClass().getSimpleName());
+            throw t;
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package Application.seed;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import Domain.Pair;
+import Domain.Repos.IItemRepository;
+import Domain.Repos.IPermissionRepository;
+import Domain.Repos.IProductRepository;
+import Domain.Repos.IStoreRepository;
+import Domain.Repos.IUserRepository;
+import Domain.Store.CatalogVersions;
+import Domain.Store.Category;
+import Domain.Store.Item;
+import Domain.Store.Product;
+import Domain.Store.Store;
+import Domain.User.CredentialHasher;
+import Domain.User.Member;
+import Domain.User.User;
+import Domain.management.Permission;
+import Domain.management.PermissionFactory;
+import Domain.management.RoleType;
+
+/**
+ * Loads a large {@link SeedFile} straight into the repositories, bypassing the services that
+ * {@code AppInitializer} replays one command at a time.
+ * <p>
+ * The whole file is validated before anything is written, including its references to existing members, stores
+ * and products. Records are then built and written in batches through {@code addAll}, with batches of
+ * the same kind running in parallel: members and products first, then stores with their founder permissions,
+ * then items. Members are created logged out.
+ * <p>
+ * Validation is all-or-nothing, but the writes are not: batches run on several threads, each in its own
+ * repository calls, so if one fails mid-load the batches already written stay. Such a failure leaves a partial
+ * seed behind, which has to be cleared before the file is loaded again, since its names then already exist.
+ * <p>
+ * Passwords are hashed with the application's {@link CredentialHasher}, so seeded members get the same BCrypt cost
+ * as registered ones. BCrypt dominates the cost of seeding users; large seeds should carry a {@code passwordHash}
+ * per user.
+ */
+@Component
+public class BulkSeedLoader {
+
+    private final IUserRepository userRepository;
+    private final IStoreRepository storeRepository;
+    private final IProductRepository productRepository;
+    private final IItemRepository itemRepository;
+    private final IPermissionRepository permissionRepository;
+    private final CredentialHasher credentials;
+
+    @Value("${app.init.seed-batch-size:1000}")
+    private int batchSize = 1000;
+
+    @Value("${app.init.seed-threads:0}")
+    private int threads;
+
+    /**
+     * What one load wrote, and how long it took.
+     */
+    public static final class Result {
+        private final int users;
+        private final int products;
+        private final int stores;
+        private final int items;
+        private final long elapsedMillis;
+
+        Result(int users, int products, int stores, int items, long elapsedMillis) {
+            this.users = users;
+            this.products = products;
+            this.stores = stores;
+            this.items = items;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public int getUsers() { return users; }
+        public int getProducts() { return products; }
+        public int getStores() { return stores; }
+        public int getItems() { return items; }
+        public long getElapsedMillis() { return elapsedMillis; }
+
+        @Override
+        public String toString() {
+            return users + " users, " + products + " products, " + stores + " stores and " + items
+                    + " items in " + elapsedMillis + " ms";
+        }
+    }
+
+    public BulkSeedLoader(IUserRepository userRepository,
+                          IStoreRepository storeRepository,
+                          IProductRepository productRepository,
+                          IItemRepository itemRepository,
+                          IPermissionRepository permissionRepository,
+                          CredentialHasher credentials) {
+        this.userRepository = userRepository;
+        this.storeRepository = storeRepository;
+        this.productRepository = productRepository;
+        this.itemRepository = itemRepository;
+        this.permissionRepository = permissionRepository;
+        this.credentials = credentials;
+    }
+
+    /**
+     * Parses, validates and writes a seed file.
+     *
+     * @throws IllegalArgumentException if the file is invalid; nothing is written in that case
+     * @throws IllegalStateException if a batch fails to be written; the batches written before it remain
+     */
+    public Result load(InputStream input) throws IOException {
+        long start = System.nanoTime();
+        SeedFile seed = SeedFile.parse(input);
+
+        Map<String, String> memberIds = new HashMap<>();
+        for (Member member : userRepository.getAllMembers()) {
+            memberIds.put(member.getName(), member.getId());
+        }
+        Map<String, Product> products = new HashMap<>();
+        for (Product product : productRepository.getAll()) {
+            products.put(product.getName(), product);
+        }
+        Map<String, String> storeIds = new HashMap<>();
+        for (Store store : storeRepository.getAllStores()) {
+            storeIds.put(store.getName(), store.getId());
+        }
+        checkAgainstRepositories(seed, memberIds, products, storeIds);
+
+        for (SeedFile.UserRecord user : seed.getUsers()) {
+            memberIds.put(user.username, UUID.randomUUID().toString());
+        }
+        for (SeedFile.ProductRecord record : seed.getProducts()) {
+            products.put(record.name, newProduct(record));
+        }
+        for (SeedFile.StoreRecord store : seed.getStores()) {
+            storeIds.put(store.name, UUID.randomUUID().toString());
+        }
+
+        ExecutorService workers = Executors.newFixedThreadPool(threadCount(), task -> {
+            Thread thread = new Thread(task, "seed-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> phase = new ArrayList<>();
+            submitBatches(workers, phase, seed.getUsers(),
+                    user -> new Pair<>(memberIds.get(user.username), newMember(user, memberIds)),
+                    userRepository::addAll);
+            submitBatches(workers, phase, seed.getProducts(),
+                    record -> new Pair<>(products.get(record.name).getProductId(), products.get(record.name)),
+                    productRepository::addAll);
+            await(phase);
+
+            submitBatches(workers, phase, seed.getStores(),
+                    record -> new Pair<>(storeIds.get(record.name), newStore(record, storeIds, memberIds)),
+                    storeRepository::addAll);
+            await(phase);
+            submitBatches(workers, phase, seed.getStores(),
+                    record -> newFounderPermission(storeIds.get(record.name), memberIds.get(record.founder)),
+                    permissionRepository::addAll);
+            submitBatches(workers, phase, seed.getItems(),
+                    record -> newItem(record, storeIds, products),
+                    itemRepository::addAll);
+            await(phase);
+        } finally {
+            workers.shutdownNow();
+            // Written straight to the repositories, so catalog snapshots cannot see which stores changed
+            CatalogVersions.changedAll();
+        }
+        return new Result(seed.getUsers().size(), seed.getProducts().size(), seed.getStores().size(),
+                seed.getItems().size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Names the file defines must be new, and names it only references must already exist.
+     */
+    private void checkAgainstRepositories(SeedFile seed, Map<String, String> memberIds,
+                                          Map<String, Product> products, Map<String, String> storeIds) {
+        for (SeedFile.UserRecord user : seed.getUsers()) {
+            if (memberIds.containsKey(user.username)) {
+                seed.error("users: username '" + user.username + "' already exists");
+            }
+        }
+        for (SeedFile.ProductRecord product : seed.getProducts()) {
+            if (products.containsKey(product.name)) {
+                seed.error("products: product '" + product.name + "' already exists");
+            }
+        }
+        for (SeedFile.StoreRecord store : seed.getStores()) {
+            if (storeIds.containsKey(store.name)) {
+                seed.error("stores: store '" + store.name + "' already exists");
+            }
+            if (!seed.hasUser(store.founder) && !memberIds.containsKey(store.founder)) {
+                seed.error("stores: store '" + store.name + "' has unknown founder '" + store.founder + "'");
+            }
+        }
+        for (SeedFile.ItemRecord item : seed.getItems()) {
+            boolean existingStore = !seed.hasStore(item.store);
+            boolean existingProduct = !seed.hasProduct(item.product);
+            if (existingStore && !storeIds.containsKey(item.store)) {
+                seed.error("items: unknown store '" + item.store + "'");
+            } else if (existingProduct && !products.containsKey(item.product)) {
+                seed.error("items: unknown product '" + item.product + "'");
+            } else if (existingStore && existingProduct && itemRepository.get(
+                    new Pair<>(storeIds.get(item.store), products.get(item.product).getProductId())) != null) {
+                seed.error("items: store '" + item.store + "' already sells '" + item.product + "'");
+            }
+        }
+        seed.failOnErrors();
+    }
+
+    private <R, K, V> void submitBatches(ExecutorService workers, List<Future<?>> futures, List<R> records,
+                                         Function<R, Pair<K, V>> build, Consumer<Map<K, V>> write) {
+        for (int from = 0; from < records.size(); from += batchSize) {
+            List<R> batch = records.subList(from, Math.min(records.size(), from + batchSize));
+            futures.add(workers.submit(() -> {
+                Map<K, V> values = new LinkedHashMap<>();
+                for (R record : batch) {
+                    Pair<K, V> entry = build.apply(record);
+                    values.put(entry.getFirst(), entry.getSecond());
+                }
+                write.accept(values);
+            }));
+        }
+    }
+
+    private static void await(List<Future<?>> futures) throws IOException {
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Seed load interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Seed load failed, earlier batches stay written: " + e.getCause().getMessage(),
+                    e.getCause());
+        } finally {
+            futures.clear();
+        }
+    }
+
+    private int threadCount() {
+        return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    private User newMember(SeedFile.UserRecord record, Map<String, String> memberIds) {
+        String encoded = record.passwordHash != null ? record.passwordHash : credentials.encodeNow(record.password);
+        UUID id = UUID.fromString(memberIds.get(record.username));
+        Member member = record.birthDate == null
+                ? new Member(id, record.username, encoded, record.email)
+                : new Member(id, record.username, encoded, record.email, record.birthDate);
+        member.logout(null);
+        return member;
+    }
+
+    private static Product newProduct(SeedFile.ProductRecord record) {
+        Product product = new Product(UUID.randomUUID().toString(), record.name);
+        for (int i = 0; i < record.categories.size(); i++) {
+            product.addCategory(new Category(record.categories.get(i), record.keywords.get(i)));
+        }
+        return product;
+    }
+
+    private static Store newStore(SeedFile.StoreRecord record, Map<String, String> storeIds,
+                                  Map<String, String> memberIds) {
+        return new Store(storeIds.get(record.name), record.name, record.description, memberIds.get(record.founder));
+    }
+
+    private static Pair<Pair<String, String>, Permission> newFounderPermission(String storeId, String founderId) {
+        Permission permission = new Permission(founderId, storeId, founderId);
+        PermissionFactory.initPermissionAsRole(permission, RoleType.STORE_FOUNDER);
+        return new Pair<>(new Pair<>(storeId, founderId), permission);
+    }
+
+    private static Pair<Pair<String, String>, Item> newItem(SeedFile.ItemRecord record, Map<String, String> storeIds,
+                                                            Map<String, Product> products) {
+        String storeId = storeIds.get(record.store);
+        Product product = products.get(record.product);
+        Item item = new Item(storeId, product.getProductId(), record.price, record.quantity, record.description,
+                product.getName(), product.getCategories());
+        return new Pair<>(new Pair<>(storeId, product.getProductId()), item);
+    }
+}
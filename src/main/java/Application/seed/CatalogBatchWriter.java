@@ -0,0 +1,48 @@
+package Application.seed;
+
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import Domain.Pair;
+import Domain.Repos.IItemRepository;
+import Domain.Repos.IProductRepository;
+import Domain.Store.Item;
+import Domain.Store.Product;
+
+/**
+ * Writes one batch of a {@link CatalogImporter} run: its new products and its items, together or not at all.
+ * <p>
+ * With a database the batch is one transaction, so a failure rolls the products back with the items. Without
+ * one, as in the dev profile, each {@code addAll} undoes its own part on failure, and the products are removed
+ * here if the items fail, so that no product is left that the import reports as not written.
+ */
+@Component
+public class CatalogBatchWriter {
+    private final IProductRepository productRepository;
+    private final IItemRepository itemRepository;
+
+    public CatalogBatchWriter(IProductRepository productRepository, IItemRepository itemRepository) {
+        this.productRepository = productRepository;
+        this.itemRepository = itemRepository;
+    }
+
+    @Transactional
+    public void write(Map<String, Product> products, Map<Pair<String, String>, Item> items) {
+        if (!products.isEmpty()) {
+            productRepository.addAll(products);
+        }
+        try {
+            itemRepository.addAll(items);
+        } catch (RuntimeException e) {
+            if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+                for (String productId : products.keySet()) {
+                    productRepository.remove(productId);
+                }
+            }
+            throw e;
+        }
+    }
+}
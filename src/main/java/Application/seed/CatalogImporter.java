@@ -0,0 +1,248 @@
+package Application.seed;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import Domain.Pair;
+import Domain.Events.DomainEvent;
+import Domain.Events.DomainEvent.ItemChanged.Change;
+import Domain.Events.DomainEventBus;
+import Domain.Repos.DatabaseUnavailableException;
+import Domain.Repos.IItemRepository;
+import Domain.Repos.IProductRepository;
+import Domain.Repos.IStoreRepository;
+import Domain.Store.CatalogVersions;
+import Domain.Store.Category;
+import Domain.Store.Item;
+import Domain.Store.Product;
+
+/**
+ * Imports a store's catalog from a {@link CatalogRows} stream: each row names a product, which is created if no
+ * product has that name yet, and the store's item of it.
+ * <p>
+ * Rows are checked as they are read and written in batches of {@code app.catalog.import-batch-size} by the
+ * {@link CatalogBatchWriter}, which writes a batch's new products and its items together or not at all. Only one
+ * batch is held at a time; besides it the import remembers the ids of the products the store sells, to reject
+ * items it already has. An invalid row is reported and skipped, and so is every row of a batch that fails to be
+ * written, none of which is then kept, while the rest of the file is imported.
+ */
+@Component
+public class CatalogImporter {
+    private static final int MAX_ERRORS = 100;
+
+    private final IStoreRepository storeRepository;
+    private final IProductRepository productRepository;
+    private final IItemRepository itemRepository;
+    private final CatalogBatchWriter batchWriter;
+    private final DomainEventBus eventBus;
+
+    @Value("${app.catalog.import-batch-size:1000}")
+    private int batchSize = 1000;
+
+    /**
+     * A row that was not imported, by its line in the file.
+     */
+    public static final class RowError {
+        private final int line;
+        private final String message;
+
+        RowError(int line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public int getLine() { return line; }
+        public String getMessage() { return message; }
+
+        @Override
+        public String toString() {
+            return "line " + line + ": " + message;
+        }
+    }
+
+    /**
+     * How far an import got. Reported after every batch, and returned once the file has been read.
+     */
+    public static final class Result {
+        private final int rowsRead;
+        private final int imported;
+        private final int productsCreated;
+        private final int failed;
+        private final List<RowError> errors;
+        private final long elapsedMillis;
+
+        Result(int rowsRead, int imported, int productsCreated, int failed, List<RowError> errors, long elapsedMillis) {
+            this.rowsRead = rowsRead;
+            this.imported = imported;
+            this.productsCreated = productsCreated;
+            this.failed = failed;
+            this.errors = errors;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public int getRowsRead() { return rowsRead; }
+        public int getImported() { return imported; }
+        public int getProductsCreated() { return productsCreated; }
+        public int getFailed() { return failed; }
+        /** @return the first errors found; {@link #getFailed()} counts them all */
+        public List<RowError> getErrors() { return errors; }
+        public long getElapsedMillis() { return elapsedMillis; }
+
+        @Override
+        public String toString() {
+            return imported + " of " + rowsRead + " rows imported (" + productsCreated + " new products, "
+                    + failed + " failed) in " + elapsedMillis + " ms";
+        }
+    }
+
+    public CatalogImporter(IStoreRepository storeRepository, IProductRepository productRepository,
+                           IItemRepository itemRepository, CatalogBatchWriter batchWriter, DomainEventBus eventBus) {
+        this.storeRepository = storeRepository;
+        this.productRepository = productRepository;
+        this.itemRepository = itemRepository;
+        this.batchWriter = batchWriter;
+        this.eventBus = eventBus;
+    }
+
+    void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Imports rows into a store until the input ends.
+     *
+     * @param progress told how far the import got after every batch
+     * @throws NoSuchElementException if the store does not exist
+     * @throws IllegalArgumentException if the file cannot be read as a whole; batches before the error are kept
+     */
+    public Result importCatalog(String storeId, InputStream input, CatalogRows.Format format,
+                                Consumer<Result> progress) throws IOException {
+        if (storeRepository.get(storeId) == null) {
+            throw new NoSuchElementException("Store not found for storeId: " + storeId);
+        }
+        Run run = new Run(storeId, progress);
+        try (CatalogRows rows = CatalogRows.open(input, format)) {
+            for (CatalogRows.Row row = rows.next(); row != null; row = rows.next()) {
+                run.add(row);
+            }
+        }
+        run.flush();
+        return run.result();
+    }
+
+    /**
+     * The state of one import.
+     */
+    private final class Run {
+        private final String storeId;
+        private final Consumer<Result> progress;
+        private final long start = System.nanoTime();
+        private final Set<String> soldProductIds = new HashSet<>();
+        private final Map<String, Product> newProducts = new LinkedHashMap<>();
+        private final Map<Pair<String, String>, Item> items = new LinkedHashMap<>();
+        private final Map<Pair<String, String>, Integer> lines = new LinkedHashMap<>();
+        private final List<RowError> errors = new ArrayList<>();
+        private int rowsRead;
+        private int imported;
+        private int productsCreated;
+        private int failed;
+
+        Run(String storeId, Consumer<Result> progress) {
+            this.storeId = storeId;
+            this.progress = progress;
+            for (Item item : itemRepository.getByStoreId(storeId)) {
+                soldProductIds.add(item.getProductId());
+            }
+        }
+
+        void add(CatalogRows.Row row) {
+            rowsRead++;
+            if (row.error != null) {
+                fail(row.line, row.error);
+                return;
+            }
+            Product product = productRepository.getByName(row.name);
+            if (product == null) {
+                product = newProducts.get(row.name);
+            }
+            if (product == null) {
+                product = new Product(UUID.randomUUID().toString(), row.name);
+                for (int i = 0; i < row.categories.size(); i++) {
+                    product.addCategory(new Category(row.categories.get(i), row.keywords.get(i)));
+                }
+                newProducts.put(row.name, product);
+            }
+            if (!soldProductIds.add(product.getProductId())) {
+                fail(row.line, "the store already sells '" + row.name + "'");
+                return;
+            }
+            Pair<String, String> id = new Pair<>(storeId, product.getProductId());
+            items.put(id, new Item(storeId, product.getProductId(), row.price, row.quantity, row.description,
+                    product.getName(), product.getCategories()));
+            lines.put(id, row.line);
+            if (items.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (!items.isEmpty() || !newProducts.isEmpty()) {
+                write();
+            }
+            if (progress != null) {
+                progress.accept(result());
+            }
+        }
+
+        private void write() {
+            Map<String, Product> productsById = new LinkedHashMap<>();
+            for (Product product : newProducts.values()) {
+                productsById.put(product.getProductId(), product);
+            }
+            try {
+                batchWriter.write(productsById, items);
+                productsCreated += productsById.size();
+                imported += items.size();
+                CatalogVersions.changed(storeId);
+                for (Pair<String, String> id : items.keySet()) {
+                    eventBus.publish(new DomainEvent.ItemChanged(storeId, id.getSecond(), Change.ADDED));
+                }
+            } catch (DatabaseUnavailableException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                for (Map.Entry<Pair<String, String>, Integer> entry : lines.entrySet()) {
+                    soldProductIds.remove(entry.getKey().getSecond());
+                    fail(entry.getValue(), "not written: " + e.getMessage());
+                }
+            } finally {
+                newProducts.clear();
+                items.clear();
+                lines.clear();
+            }
+        }
+
+        private void fail(int line, String message) {
+            failed++;
+            if (errors.size() < MAX_ERRORS) {
+                errors.add(new RowError(line, message));
+            }
+        }
+
+        Result result() {
+            return new Result(rowsRead, imported, productsCreated, failed, List.copyOf(errors),
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package Application.seed;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * Reads the rows of a store catalog import one at a time, so that a file of any size is read in constant memory.
+ * Each row is a product and the store's item of it:
+ * <pre>
+ * CSV:  name,categories,keywords,price,quantity,description
+ *       Chess,Strategy|Family,board game|all ages,49.5,7,wooden set
+ * JSON: [{"name": "Chess", "categories": ["Strategy"], "keywords": ["board game"], "price": 49.5, "quantity": 7,
+ *         "description": "wooden set"}]
+ * </pre>
+ * CSV files start with a header naming their columns, in any order; only {@code name} is required, and categories
+ * and keywords are separated by {@code |}. A row that is invalid is still returned, with {@link Row#error} set,
+ * so that the import can report it and go on. A file that cannot be read as a whole throws
+ * {@link IllegalArgumentException}.
+ */
+public abstract class CatalogRows implements Closeable {
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final List<String> CSV_COLUMNS =
+            List.of("name", "categories", "keywords", "price", "quantity", "description");
+
+    public enum Format {
+        CSV, JSON;
+
+        /**
+         * @return the format named by a file's extension
+         * @throws IllegalArgumentException if the extension is neither .csv nor .json
+         */
+        public static Format ofFileName(String fileName) {
+            String lower = fileName == null ? "" : fileName.toLowerCase(Locale.ROOT);
+            if (lower.endsWith(".csv")) {
+                return CSV;
+            }
+            if (lower.endsWith(".json")) {
+                return JSON;
+            }
+            throw new IllegalArgumentException("Catalog imports must be .csv or .json files: " + fileName);
+        }
+    }
+
+    public static final class Row {
+        public int line;
+        public String name;
+        public List<String> categories = List.of();
+        public List<String> keywords = List.of();
+        public double price;
+        public int quantity;
+        public String description;
+        // Why the row cannot be imported, or null if it is valid
+        public String error;
+
+        void invalid(String message) {
+            if (error == null) {
+                error = message;
+            }
+        }
+    }
+
+    public static CatalogRows open(InputStream input, Format format) throws IOException {
+        return switch (format) {
+            case CSV -> new Csv(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)));
+            case JSON -> new Json(JSON.createParser(input));
+        };
+    }
+
+    /**
+     * @return the next row, or null after the last one
+     */
+    public abstract Row next() throws IOException;
+
+    static void validate(Row row) {
+        if (row.name == null || row.name.isBlank()) {
+            row.invalid("name is required");
+        }
+        if (row.keywords.isEmpty() && !row.categories.isEmpty()) {
+            row.keywords = row.categories.stream().map(category -> "").toList();
+        }
+        if (row.keywords.size() != row.categories.size()) {
+            row.invalid("categories and keywords must have the same length");
+        }
+        if (!Double.isFinite(row.price)) {
+            row.invalid("price must be a finite number");
+        }
+        if (row.price < 0 || row.quantity < 0) {
+            row.invalid("price and quantity cannot be negative");
+        }
+    }
+
+    private static final class Csv extends CatalogRows {
+        private final BufferedReader reader;
+        private final int[] columns;
+        private int line = 1;
+
+        Csv(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            List<String> header = readRecord();
+            if (header == null) {
+                throw new IllegalArgumentException("Invalid catalog file: the CSV header is missing");
+            }
+            columns = new int[header.size()];
+            Map<String, Integer> known = new HashMap<>();
+            for (int i = 0; i < CSV_COLUMNS.size(); i++) {
+                known.put(CSV_COLUMNS.get(i), i);
+            }
+            for (int i = 0; i < header.size(); i++) {
+                // Spreadsheets often save UTF-8 with a byte order mark
+                String name = (i == 0 ? header.get(i).replace("\uFEFF", "") : header.get(i)).trim();
+                Integer column = known.remove(name.toLowerCase(Locale.ROOT));
+                if (column == null) {
+                    throw new IllegalArgumentException("Invalid catalog file: unknown or repeated column '"
+                            + header.get(i) + "'");
+                }
+                columns[i] = column;
+            }
+            if (known.containsKey("name")) {
+                throw new IllegalArgumentException("Invalid catalog file: the name column is required");
+            }
+        }
+
+        @Override
+        public Row next() throws IOException {
+            List<String> fields;
+            int start;
+            do {
+                start = line;
+                fields = readRecord();
+                if (fields == null) {
+                    return null;
+                }
+            } while (fields.size() == 1 && fields.get(0).isBlank());
+            Row row = new Row();
+            row.line = start;
+            if (fields.size() != columns.length) {
+                row.invalid("expected " + columns.length + " fields but found " + fields.size());
+                return row;
+            }
+            for (int i = 0; i < fields.size(); i++) {
+                String value = fields.get(i).trim();
+                switch (columns[i]) {
+                    case 0 -> row.name = value;
+                    case 1 -> row.categories = split(value);
+                    case 2 -> row.keywords = split(value);
+                    case 3 -> row.price = parse(row, value, "price", Double::parseDouble, 0.0);
+                    case 4 -> row.quantity = parse(row, value, "quantity", Integer::parseInt, 0);
+                    default -> row.description = value;
+                }
+            }
+            validate(row);
+            return row;
+        }
+
+        private static List<String> split(String value) {
+            return value.isEmpty() ? List.of() : Arrays.stream(value.split("\\|", -1)).map(String::trim).toList();
+        }
+
+        private static <T> T parse(Row row, String value, String field, Function<String, T> parser, T empty) {
+            if (value.isEmpty()) {
+                return empty;
+            }
+            try {
+                return parser.apply(value);
+            } catch (NumberFormatException e) {
+                row.invalid(field + " must be a number");
+                return empty;
+            }
+        }
+
+        /**
+         * Reads one record of RFC 4180 CSV: fields may be quoted, and quoted fields may hold commas, doubled
+         * quotes and line breaks.
+         */
+        private List<String> readRecord() throws IOException {
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        throw new IllegalArgumentException("Invalid catalog file: unclosed quote at line " + line);
+                    }
+                    if (c == '"') {
+                        reader.mark(1);
+                        if (reader.read() == '"') {
+                            field.append('"');
+                        } else {
+                            reader.reset();
+                            quoted = false;
+                        }
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c == -1) {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    fields.add(field.toString());
+                    return fields;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = reader.read();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    private static final class Json extends CatalogRows {
+        private final JsonParser parser;
+
+        Json(JsonParser parser) throws IOException {
+            this.parser = parser;
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Invalid catalog file: expected an array of rows");
+            }
+        }
+
+        @Override
+        public Row next() throws IOException {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.END_ARRAY) {
+                return null;
+            }
+            Row row = new Row();
+            row.line = parser.getCurrentLocation().getLineNr();
+            if (token != JsonToken.START_OBJECT) {
+                if (token == null) {
+                    throw new IllegalArgumentException("Invalid catalog file: the array of rows is not closed");
+                }
+                parser.skipChildren();
+                row.invalid("expected an object");
+                return row;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "name" -> row.name = parser.getValueAsString();
+                    case "categories" -> row.categories = readStrings(row, field);
+                    case "keywords" -> row.keywords = readStrings(row, field);
+                    case "price" -> row.price = readNumber(row, value, field).doubleValue();
+                    case "quantity" -> row.quantity = readNumber(row, value, field).intValue();
+                    case "description" -> row.description = parser.getValueAsString();
+                    default -> {
+                        row.invalid("unknown field '" + field + "'");
+                        parser.skipChildren();
+                    }
+                }
+            }
+            validate(row);
+            return row;
+        }
+
+        private Number readNumber(Row row, JsonToken value, String field) throws IOException {
+            if (value != JsonToken.VALUE_NUMBER_INT && value != JsonToken.VALUE_NUMBER_FLOAT) {
+                row.invalid(field + " must be a number");
+                parser.skipChildren();
+                return 0;
+            }
+            return parser.getNumberValue();
+        }
+
+        private List<String> readStrings(Row row, String field) throws IOException {
+            if (parser.currentToken() != JsonToken.START_ARRAY) {
+                row.invalid(field + " must be an array");
+                parser.skipChildren();
+                return List.of();
+            }
+            List<String> values = new ArrayList<>();
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                values.add(parser.getValueAsString());
+            }
+            return values;
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+    }
+}
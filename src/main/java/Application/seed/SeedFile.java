@@ -0,0 +1,313 @@
+package Application.seed;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.validator.routines.EmailValidator;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import Domain.Pair;
+import Domain.User.PasswordChecker;
+
+/**
+ * The contents of a bulk seed file, read with Jackson's streaming parser and checked record by record as it is read.
+ * <pre>
+ * {
+ *   "users":    [{"username": "alice", "password": "Secret123!", "email": "alice@example.com", "birthDate": "1990-05-01"}],
+ *   "products": [{"name": "Chess", "categories": ["Strategy"], "keywords": ["board game"]}],
+ *   "stores":   [{"name": "Board Games", "description": "tabletop", "founder": "alice"}],
+ *   "items":    [{"store": "Board Games", "product": "Chess", "price": 49.5, "quantity": 7, "description": "wooden set"}]
+ * }
+ * </pre>
+ * Sections may come in any order. A user may give an already encoded {@code passwordHash} instead of a password.
+ * Stores name their founder by username and items name their store and product, since ids are generated on load.
+ * References to names that are not in the file are resolved against the repositories by {@link BulkSeedLoader}.
+ */
+public class SeedFile {
+    private static final int MAX_ERRORS = 50;
+    private static final JsonFactory JSON = new JsonFactory();
+
+    public static final class UserRecord {
+        public String username;
+        public String password;
+        public String passwordHash;
+        public String email;
+        public LocalDate birthDate;
+    }
+
+    public static final class ProductRecord {
+        public String name;
+        public List<String> categories = List.of();
+        public List<String> keywords = List.of();
+    }
+
+    public static final class StoreRecord {
+        public String name;
+        public String description;
+        public String founder;
+    }
+
+    public static final class ItemRecord {
+        public String store;
+        public String product;
+        public double price;
+        public int quantity;
+        public String description;
+    }
+
+    private final List<UserRecord> users = new ArrayList<>();
+    private final List<ProductRecord> products = new ArrayList<>();
+    private final List<StoreRecord> stores = new ArrayList<>();
+    private final List<ItemRecord> items = new ArrayList<>();
+    private final List<String> errors = new ArrayList<>();
+
+    private final Set<String> usernames = new HashSet<>();
+    private final Set<String> productNames = new HashSet<>();
+    private final Set<String> storeNames = new HashSet<>();
+    private final Set<Pair<String, String>> itemKeys = new HashSet<>();
+
+    private SeedFile() {
+    }
+
+    /**
+     * Reads and checks a whole seed file.
+     *
+     * @throws IllegalArgumentException listing the problems found, if the file is malformed or any record is invalid
+     */
+    public static SeedFile parse(InputStream input) throws IOException {
+        SeedFile seed = new SeedFile();
+        try (JsonParser parser = JSON.createParser(input)) {
+            seed.read(parser);
+        }
+        seed.failOnErrors();
+        return seed;
+    }
+
+    public List<UserRecord> getUsers() {
+        return users;
+    }
+
+    public List<ProductRecord> getProducts() {
+        return products;
+    }
+
+    public List<StoreRecord> getStores() {
+        return stores;
+    }
+
+    public List<ItemRecord> getItems() {
+        return items;
+    }
+
+    public boolean hasUser(String username) {
+        return usernames.contains(username);
+    }
+
+    public boolean hasProduct(String name) {
+        return productNames.contains(name);
+    }
+
+    public boolean hasStore(String name) {
+        return storeNames.contains(name);
+    }
+
+    void error(String message) {
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(message);
+        }
+    }
+
+    void failOnErrors() {
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException("Invalid seed file:\n" + String.join("\n", errors));
+        }
+    }
+
+    private void read(JsonParser parser) throws IOException {
+        expect(parser, parser.nextToken(), JsonToken.START_OBJECT);
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String section = parser.getCurrentName();
+            expect(parser, parser.nextToken(), JsonToken.START_ARRAY);
+            int index = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                String where = section + "[" + index++ + "] (line " + parser.getCurrentLocation().getLineNr() + ")";
+                switch (section) {
+                    case "users" -> readUser(parser, where);
+                    case "products" -> readProduct(parser, where);
+                    case "stores" -> readStore(parser, where);
+                    case "items" -> readItem(parser, where);
+                    default -> throw new IllegalArgumentException("Invalid seed file: unknown section '" + section + "'");
+                }
+            }
+            expect(parser, parser.currentToken(), JsonToken.END_ARRAY);
+        }
+        expect(parser, parser.currentToken(), JsonToken.END_OBJECT);
+    }
+
+    private static void expect(JsonParser parser, JsonToken actual, JsonToken expected) {
+        if (actual != expected) {
+            throw new IllegalArgumentException("Invalid seed file: expected " + expected + " but found " + actual
+                    + " at line " + parser.getCurrentLocation().getLineNr());
+        }
+    }
+
+    private void readUser(JsonParser parser, String where) throws IOException {
+        UserRecord user = new UserRecord();
+        String birthDate = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            switch (field) {
+                case "username" -> user.username = parser.getValueAsString();
+                case "password" -> user.password = parser.getValueAsString();
+                case "passwordHash" -> user.passwordHash = parser.getValueAsString();
+                case "email" -> user.email = parser.getValueAsString();
+                case "birthDate" -> birthDate = parser.getValueAsString();
+                default -> skipUnknown(parser, where, field);
+            }
+        }
+        if (isBlank(user.username)) {
+            error(where + ": username is required");
+            return;
+        }
+        if (!usernames.add(user.username)) {
+            error(where + ": duplicate username '" + user.username + "'");
+        }
+        if (user.passwordHash == null) {
+            try {
+                PasswordChecker.check(user.password);
+            } catch (RuntimeException e) {
+                error(where + ": " + e.getMessage());
+            }
+        }
+        if (!EmailValidator.getInstance().isValid(user.email)) {
+            error(where + ": invalid email '" + user.email + "'");
+        }
+        if (birthDate != null) {
+            try {
+                user.birthDate = LocalDate.parse(birthDate);
+                if (Period.between(user.birthDate, LocalDate.now()).getYears() < 1) {
+                    error(where + ": user must be at least 1-years-old");
+                }
+            } catch (DateTimeParseException e) {
+                error(where + ": invalid birth date '" + birthDate + "'");
+            }
+        }
+        users.add(user);
+    }
+
+    private void readProduct(JsonParser parser, String where) throws IOException {
+        ProductRecord product = new ProductRecord();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            switch (field) {
+                case "name" -> product.name = parser.getValueAsString();
+                case "categories" -> product.categories = readStrings(parser, where, field);
+                case "keywords" -> product.keywords = readStrings(parser, where, field);
+                default -> skipUnknown(parser, where, field);
+            }
+        }
+        if (isBlank(product.name)) {
+            error(where + ": name is required");
+            return;
+        }
+        if (!productNames.add(product.name)) {
+            error(where + ": duplicate product '" + product.name + "'");
+        }
+        if (product.keywords.size() != product.categories.size()) {
+            error(where + ": categories and keywords must have the same length");
+        }
+        products.add(product);
+    }
+
+    private void readStore(JsonParser parser, String where) throws IOException {
+        StoreRecord store = new StoreRecord();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            switch (field) {
+                case "name" -> store.name = parser.getValueAsString();
+                case "description" -> store.description = parser.getValueAsString();
+                case "founder" -> store.founder = parser.getValueAsString();
+                default -> skipUnknown(parser, where, field);
+            }
+        }
+        if (isBlank(store.name) || isBlank(store.founder)) {
+            error(where + ": name and founder are required");
+            return;
+        }
+        if (!storeNames.add(store.name)) {
+            error(where + ": duplicate store '" + store.name + "'");
+        }
+        stores.add(store);
+    }
+
+    private void readItem(JsonParser parser, String where) throws IOException {
+        ItemRecord item = new ItemRecord();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "store" -> item.store = parser.getValueAsString();
+                case "product" -> item.product = parser.getValueAsString();
+                case "price" -> item.price = readNumber(parser, value, where, field).doubleValue();
+                case "quantity" -> item.quantity = readNumber(parser, value, where, field).intValue();
+                case "description" -> item.description = parser.getValueAsString();
+                default -> skipUnknown(parser, where, field);
+            }
+        }
+        if (isBlank(item.store) || isBlank(item.product)) {
+            error(where + ": store and product are required");
+            return;
+        }
+        if (item.price < 0 || item.quantity < 0) {
+            error(where + ": price and quantity cannot be negative");
+        }
+        if (!itemKeys.add(new Pair<>(item.store, item.product))) {
+            error(where + ": duplicate item '" + item.product + "' in store '" + item.store + "'");
+        }
+        items.add(item);
+    }
+
+    private Number readNumber(JsonParser parser, JsonToken value, String where, String field) throws IOException {
+        if (value != JsonToken.VALUE_NUMBER_INT && value != JsonToken.VALUE_NUMBER_FLOAT) {
+            error(where + ": " + field + " must be a number");
+            parser.skipChildren();
+            return 0;
+        }
+        return parser.getNumberValue();
+    }
+
+    private List<String> readStrings(JsonParser parser, String where, String field) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            error(where + ": " + field + " must be an array");
+            parser.skipChildren();
+            return List.of();
+        }
+        List<String> values = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            values.add(parser.getValueAsString());
+        }
+        return values;
+    }
+
+    private void skipUnknown(JsonParser parser, String where, String field) throws IOException {
+        error(where + ": unknown field '" + field + "'");
+        parser.skipChildren();
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,111 @@
+package Application.utils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Stops calls to a dependency that keeps failing, so callers fail at once instead of each waiting for a timeout.
+ * <p>
+ * The breaker is closed while calls succeed. After {@code failureThreshold} failures in a row it opens, and
+ * {@link #allowRequest()} refuses calls for {@code openMillis}. Then it is half open: one thread may try the
+ * dependency, and its first failure opens the breaker for another period while its first success closes it. Other
+ * threads are refused meanwhile, unless the trial thread reports nothing for {@code openMillis}, in which case
+ * the next caller takes over the trial. The trial thread may make several calls, such as starting a transaction
+ * and then querying in it.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final LongSupplier clock;
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger failures = new AtomicInteger();
+    private volatile long openedAt;
+    // The thread allowed to try the dependency while half open, and since when
+    private final AtomicReference<Thread> trial = new AtomicReference<>();
+    private volatile long trialStartedAt;
+    // When the breaker last left the closed state; 0 while closed
+    private volatile long unavailableSince;
+
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this(failureThreshold, openMillis, System::currentTimeMillis);
+    }
+
+    public CircuitBreaker(int failureThreshold, long openMillis, LongSupplier clock) {
+        if (failureThreshold < 1)
+            throw new IllegalArgumentException("Failure threshold must be at least 1");
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * @return whether a call may be made now; moves an open breaker whose period passed to half open
+     */
+    public boolean allowRequest() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+        long now = clock.getAsLong();
+        if (current == State.OPEN) {
+            if (now - openedAt < openMillis) {
+                return false;
+            }
+            state.compareAndSet(State.OPEN, State.HALF_OPEN);
+        }
+        Thread caller = Thread.currentThread();
+        Thread owner = trial.get();
+        if (owner == caller) {
+            return true;
+        }
+        if (owner != null && now - trialStartedAt < openMillis) {
+            return false;
+        }
+        if (!trial.compareAndSet(owner, caller)) {
+            return false;
+        }
+        trialStartedAt = now;
+        return true;
+    }
+
+    public void recordSuccess() {
+        failures.set(0);
+        trial.set(null);
+        if (state.getAndSet(State.CLOSED) != State.CLOSED) {
+            unavailableSince = 0;
+        }
+    }
+
+    public void recordFailure() {
+        if (state.get() == State.HALF_OPEN || failures.incrementAndGet() >= failureThreshold) {
+            trip();
+        }
+    }
+
+    /**
+     * Opens the breaker now, whatever its state.
+     */
+    public void trip() {
+        long now = clock.getAsLong();
+        openedAt = now;
+        trial.set(null);
+        if (state.getAndSet(State.OPEN) == State.CLOSED) {
+            unavailableSince = now;
+        }
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    /**
+     * @return when the breaker last opened after being closed, or 0 if it is closed
+     */
+    public long getUnavailableSince() {
+        return unavailableSince;
+    }
+}
@@ -0,0 +1,86 @@
+package Application.utils;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import Domain.ExternalServices.INotificationService;
+
+/**
+ * Sends notifications off the calling thread.
+ * <p>
+ * Notifying every employee of a store one after the other, each through a WebSocket push or a stored message,
+ * would hold the request that caused it for as long as all of them take. Here they are queued and sent by one
+ * background thread, which keeps the messages to each recipient in order. When the queue is full the caller
+ * sends its notifications itself, which slows down producers instead of dropping messages.
+ */
+public class NotificationFanout {
+    private static final String CLASS_NAME = NotificationFanout.class.getSimpleName();
+    private static final int DEFAULT_QUEUE_CAPACITY = 10_000;
+
+    private final ThreadPoolExecutor sender;
+
+    private static final class SharedHolder {
+        static final NotificationFanout SHARED = new NotificationFanout(DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public NotificationFanout(int queueCapacity) {
+        this.sender = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), task -> {
+                    Thread thread = new Thread(task, "notification-fanout");
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * The process-wide fan-out used by the services.
+     */
+    public static NotificationFanout shared() {
+        return SharedHolder.SHARED;
+    }
+
+    public void send(INotificationService notificationService, String recipientId, String message) {
+        send(notificationService, List.of(recipientId), message);
+    }
+
+    /**
+     * Queues one message for each recipient. Failures are logged, never thrown.
+     */
+    public void send(INotificationService notificationService, Collection<String> recipientIds, String message) {
+        if (notificationService == null || recipientIds.isEmpty()) {
+            return;
+        }
+        List<String> recipients = List.copyOf(recipientIds);
+        sender.execute(() -> {
+            for (String recipientId : recipients) {
+                try {
+                    notificationService.sendNotification(recipientId, message);
+                } catch (RuntimeException e) {
+                    TradingLogger.logError(CLASS_NAME, "send", "Failed to notify %s: %s", recipientId, e.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * Notifications queued and not sent yet.
+     */
+    public int getQueued() {
+        return sender.getQueue().size();
+    }
+
+    /**
+     * Waits until everything queued so far has been sent, or the timeout passed. With a full queue it returns
+     * right away, as the marker it waits for runs on the caller.
+     * @return whether everything was sent
+     */
+    public boolean awaitIdle(long timeoutMillis) throws InterruptedException {
+        CountDownLatch sent = new CountDownLatch(1);
+        sender.execute(sent::countDown);
+        return sent.await(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+}
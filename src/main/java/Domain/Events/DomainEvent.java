@@ -0,0 +1,47 @@
+package Domain.Events;
+
+import java.util.List;
+
+/**
+ * Something that happened in the market, published on the {@link DomainEventBus} once the change is committed.
+ * Events carry ids, not entities: a subscriber that needs more reads it from the facades.
+ */
+public interface DomainEvent {
+
+    /** @return the store the event belongs to */
+    String storeId();
+
+    /** An item was added to, changed in or removed from a store's catalog. */
+    record ItemChanged(String storeId, String productId, Change change) implements DomainEvent {
+        public enum Change { ADDED, UPDATED, REMOVED }
+    }
+
+    /** Prices or stock of several items of a store were changed by one batch update. */
+    record ItemsUpdated(String storeId, List<String> productIds) implements DomainEvent {
+    }
+
+    /** The stock of an item went up or, with a negative delta, down. */
+    record StockChanged(String storeId, String productId, int delta) implements DomainEvent {
+    }
+
+    /** A discount of a store was added, changed or removed. */
+    record DiscountChanged(String storeId, String discountId) implements DomainEvent {
+    }
+
+    /** A purchase policy of a store was added or removed. */
+    record PolicyChanged(String storeId, String policyId) implements DomainEvent {
+    }
+
+    /** A bid was placed on an auction. The previous bidder is null if there was none. */
+    record BidPlaced(String storeId, String auctionId, String productId, String bidderId, String previousBidderId,
+                     double bid) implements DomainEvent {
+    }
+
+    /** A purchase was recorded. */
+    record ReceiptCreated(String storeId, String receiptId, String clientId, double totalPrice) implements DomainEvent {
+    }
+
+    /** A user's role or permissions in a store changed. */
+    record PermissionChanged(String storeId, String userId) implements DomainEvent {
+    }
+}
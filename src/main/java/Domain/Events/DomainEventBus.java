@@ -0,0 +1,319 @@
+package Domain.Events;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import Application.utils.TradingLogger;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Hands domain events from the facades to subscribers running on their own threads.
+ * <p>
+ * Events go into a ring of slots allocated once. A publisher claims the next sequence number with one atomic
+ * increment, writes the event into its slot and marks the slot published; it neither locks nor allocates, and it
+ * does not wait for the handlers to run. Each subscription has a thread that reads the published slots in order and hands them to its
+ * handler in batches, so a slow handler catches up with one call instead of one per event. A slot is reused only
+ * after every subscription read it: if the ring is full the publisher waits a short, bounded time for the slowest
+ * subscription and then drops the event and counts it as an overflow, so a stalled subscriber costs publishers at
+ * most that wait instead of blocking them. Handlers must not publish to the bus they are subscribed to; such
+ * events are dropped, counted and logged.
+ * <p>
+ * An event published inside a transaction is held until the transaction commits, so that subscribers reading the
+ * repositories see the change, and is dropped if it rolls back.
+ * <p>
+ * While nobody is subscribed, publishing does nothing. The application context owns one bus and closes its
+ * subscriptions when it shuts down.
+ */
+@Component
+public class DomainEventBus {
+    private static final String CLASS_NAME = DomainEventBus.class.getSimpleName();
+    private static final int DEFAULT_CAPACITY = 1 << 14;
+    private static final int SPINS_BEFORE_PARKING = 100;
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long DEFAULT_MAX_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final DomainEvent[] slots;
+    // The sequence number of the event each slot holds, written after the event
+    private final AtomicLongArray published;
+    private final int mask;
+    private final long maxWaitNanos;
+    private final AtomicLong claimed = new AtomicLong(-1);
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    // Lowest sequence all subscriptions had read when last looked at, so a publisher rarely has to look
+    private volatile long gatingSequence = -1;
+    private final LongAdder fullWaits = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final AtomicLong overflows = new AtomicLong();
+
+    public DomainEventBus() {
+        this(DEFAULT_CAPACITY, DEFAULT_MAX_WAIT_NANOS);
+    }
+
+    /**
+     * @param capacity the number of slots, rounded up to a power of two
+     * @param maxWaitNanos how long a publisher waits for a slot when the ring is full before dropping its event
+     */
+    public DomainEventBus(int capacity, long maxWaitNanos) {
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new DomainEvent[size];
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            published.set(i, -1);
+        }
+        this.mask = size - 1;
+        this.maxWaitNanos = maxWaitNanos;
+    }
+
+    /**
+     * Reads the events published from now on and hands them to the handler, at most {@code maxBatch} at a time.
+     */
+    public Subscription subscribe(String name, int maxBatch, DomainEventHandler handler) {
+        Subscription subscription = new Subscription(name, Math.max(1, maxBatch), handler, claimed.get());
+        subscriptions.add(subscription);
+        subscription.thread.start();
+        return subscription;
+    }
+
+    /**
+     * Stops every subscription and its thread.
+     */
+    @PreDestroy
+    public void close() {
+        for (Subscription subscription : subscriptions) {
+            subscription.close();
+        }
+    }
+
+    /**
+     * Publishes the event now, or once the caller's transaction commits if it is in one.
+     */
+    public void publish(DomainEvent event) {
+        Objects.requireNonNull(event, "event");
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publishNow(event);
+                }
+            });
+            return;
+        }
+        publishNow(event);
+    }
+
+    private void publishNow(DomainEvent event) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        if (Thread.currentThread() instanceof SubscriberThread subscriber && subscriber.bus == this) {
+            dropped.increment();
+            TradingLogger.logError(CLASS_NAME, "publish", "Dropped %s published by subscriber %s",
+                    event.getClass().getSimpleName(), subscriber.getName());
+            return;
+        }
+        long sequence = claim();
+        if (sequence < 0) {
+            long count = overflows.incrementAndGet();
+            // Logged at powers of two so that a stalled subscriber does not flood the log
+            if ((count & (count - 1)) == 0) {
+                TradingLogger.logError(CLASS_NAME, "publish", "Dropped %s, the ring is full behind %s (%d overflows so far)",
+                        event.getClass().getSimpleName(), slowestSubscription(), count);
+            }
+            return;
+        }
+        int index = (int) (sequence & mask);
+        slots[index] = event;
+        published.set(index, sequence);
+        for (Subscription subscription : subscriptions) {
+            if (subscription.idle) {
+                LockSupport.unpark(subscription.thread);
+            }
+        }
+    }
+
+    // Claims the next sequence once every subscription read the event that was in its slot before,
+    // or returns -1 if that did not happen within the bounded wait
+    private long claim() {
+        long deadline = 0;
+        int spins = 0;
+        boolean waited = false;
+        while (true) {
+            long current = claimed.get();
+            long next = current + 1;
+            long wrapPoint = next - slots.length;
+            if (wrapPoint > gatingSequence) {
+                long minimum = minimumSequence();
+                if (minimum != Long.MAX_VALUE) {
+                    gatingSequence = minimum;
+                }
+                if (wrapPoint > minimum) {
+                    if (!waited) {
+                        waited = true;
+                        fullWaits.increment();
+                        deadline = System.nanoTime() + maxWaitNanos;
+                    } else if (System.nanoTime() - deadline > 0) {
+                        return -1;
+                    }
+                    if (++spins < SPINS_BEFORE_PARKING) {
+                        Thread.onSpinWait();
+                    } else {
+                        LockSupport.parkNanos(FULL_PARK_NANOS);
+                    }
+                    continue;
+                }
+            }
+            if (claimed.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    private String slowestSubscription() {
+        Subscription slowest = null;
+        for (Subscription subscription : subscriptions) {
+            if (slowest == null || subscription.sequence < slowest.sequence) {
+                slowest = subscription;
+            }
+        }
+        return slowest != null ? slowest.name : "nobody";
+    }
+
+    private long minimumSequence() {
+        long minimum = Long.MAX_VALUE;
+        for (Subscription subscription : subscriptions) {
+            minimum = Math.min(minimum, subscription.sequence);
+        }
+        return minimum;
+    }
+
+    /** @return how many events were published and not yet read by the slowest subscription */
+    public long getLag() {
+        long minimum = minimumSequence();
+        return minimum == Long.MAX_VALUE ? 0 : Math.max(0, claimed.get() - minimum);
+    }
+
+    /** @return how many events were published since the bus was created */
+    public long getPublished() {
+        return claimed.get() + 1;
+    }
+
+    /** @return how many times a publisher found the ring full and had to wait, whether or not it got a slot */
+    public long getFullWaits() {
+        return fullWaits.sum();
+    }
+
+    /** @return how many events handlers published to their own bus */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /** @return how many events were dropped because the ring stayed full for the whole bounded wait */
+    public long getOverflows() {
+        return overflows.get();
+    }
+
+    /**
+     * Waits until every subscription handled the events published so far, or the timeout passed.
+     * @return whether they were all handled
+     */
+    public boolean awaitIdle(long timeoutMillis) throws InterruptedException {
+        long target = claimed.get();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (minimumSequence() < target) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(1);
+        }
+        return true;
+    }
+
+    private static final class SubscriberThread extends Thread {
+        private final DomainEventBus bus;
+
+        SubscriberThread(DomainEventBus bus, Runnable task, String name) {
+            super(task, name);
+            this.bus = bus;
+            setDaemon(true);
+        }
+    }
+
+    /**
+     * A handler reading the bus on its own thread.
+     */
+    public final class Subscription {
+        private final String name;
+        private final int maxBatch;
+        private final DomainEventHandler handler;
+        private final Thread thread;
+        // The last sequence this subscription read; the slots up to it may be reused
+        private volatile long sequence;
+        private volatile boolean idle;
+        private volatile boolean running = true;
+
+        private Subscription(String name, int maxBatch, DomainEventHandler handler, long sequence) {
+            this.name = name;
+            this.maxBatch = maxBatch;
+            this.handler = handler;
+            this.sequence = sequence;
+            this.thread = new SubscriberThread(DomainEventBus.this, this::read, "domain-events-" + name);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Stops reading. Events not handled yet are not handed to the handler.
+         */
+        public void close() {
+            running = false;
+            subscriptions.remove(this);
+            LockSupport.unpark(thread);
+        }
+
+        private void read() {
+            List<DomainEvent> batch = new ArrayList<>(maxBatch);
+            List<DomainEvent> view = Collections.unmodifiableList(batch);
+            long next = sequence + 1;
+            while (running) {
+                int index = (int) (next & mask);
+                while (batch.size() < maxBatch && published.get(index) == next) {
+                    batch.add(slots[index]);
+                    index = (int) (++next & mask);
+                }
+                if (batch.isEmpty()) {
+                    idle = true;
+                    if (running && published.get(index) != next) {
+                        LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    }
+                    idle = false;
+                    continue;
+                }
+                try {
+                    handler.onEvents(view);
+                } catch (RuntimeException e) {
+                    TradingLogger.logError(CLASS_NAME, name, "Handler failed on %d events: %s", batch.size(), e.getMessage());
+                }
+                batch.clear();
+                sequence = next - 1;
+            }
+        }
+    }
+}
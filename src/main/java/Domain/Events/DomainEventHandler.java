@@ -0,0 +1,15 @@
+package Domain.Events;
+
+import java.util.List;
+
+/**
+ * Receives the events of a {@link DomainEventBus} subscription, in publishing order and in batches.
+ */
+@FunctionalInterface
+public interface DomainEventHandler {
+
+    /**
+     * Handles the next events. Called on the subscription's own thread; the list is only valid during the call.
+     */
+    void onEvents(List<DomainEvent> events);
+}
@@ -11,6 +11,9 @@ import Domain.Store.Discounts.DiscountFacade;
 import Domain.Store.ItemFacade;
 import Domain.Store.ProductFacade;
 import Domain.Store.StoreFacade;
+import Domain.Store.StoreLocks;
+import Domain.User.CredentialHasher;
+import Domain.User.GuestSessions;
 import Domain.User.LoginManager;
 import Domain.management.IMarketFacade;
 import Domain.management.MarketFacade;
@@ -27,11 +30,13 @@ public class FacadeManager {
     private IExternalPaymentService paymentService;
     private IExternalSupplyService supplyService;
     private LoginManager loginManager;
+    private CredentialHasher credentialHasher;
     private PermissionManager permissionManager;
     private OfferManager offerManager;
     private INotificationService notificationService;
     private DiscountFacade discountFacade;
     private PolicyFacade policyFacade;
+    private StoreLocks storeLocks;
 
     public FacadeManager(IRepoManager repoManager, IExternalPaymentService paymentService, IExternalSupplyService supplyService) {
         this.repoManager = repoManager;
@@ -79,34 +84,46 @@ public class FacadeManager {
                                         repoManager.getAuctionRepository(),
                                         getNotificationService(),
                                         repoManager.getReceiptRepository(),
-                                        repoManager.getProductRepository());
+                                        repoManager.getProductRepository(),
+                                        repoManager.getEventBus(),
+                                        getStoreLocks());
         }
         return storeFacade;
     }
 
+    public StoreLocks getStoreLocks() {
+        if (storeLocks == null) {
+            storeLocks = new StoreLocks();
+        }
+        return storeLocks;
+    }
+
     public ItemFacade getItemFacade() {
         if (itemFacade == null) {
             itemFacade = new ItemFacade(repoManager.getItemRepository(),
                                         repoManager.getProductRepository(),
-                                        repoManager.getStoreRepository());
+                                        repoManager.getStoreRepository(),
+                                        repoManager.getEventBus());
         }
         return itemFacade;
     }
 
     public IShoppingCartFacade getShoppingCartFacade() {
         if (CartFacade == null) {
-            CartFacade = new ShoppingCartFacade(repoManager.getShoppingCartRepository(),
-                                                repoManager.getShoppingBasketRepository(),
-                                                getPaymentService(),
-                                                getItemFacade(),
-                                                getStoreFacade(),
-                                                repoManager.getReceiptRepository(),
-                                                repoManager.getProductRepository(),
-                                                getDiscountFacade(),
-                                                getPolicyFacade(),
-                                                getRepositoryManager().getUserRepository(),
-                                                getSupplyService(),
-                                                getRepositoryManager().getReceiptRepository());
+            ShoppingCartFacade cartFacade = new ShoppingCartFacade(repoManager.getShoppingCartRepository(),
+                                                                   repoManager.getShoppingBasketRepository(),
+                                                                   getPaymentService(),
+                                                                   getItemFacade(),
+                                                                   getStoreFacade(),
+                                                                   repoManager.getReceiptRepository(),
+                                                                   repoManager.getProductRepository(),
+                                                                   getDiscountFacade(),
+                                                                   getPolicyFacade(),
+                                                                   getRepositoryManager().getUserRepository(),
+                                                                   getSupplyService(),
+                                                                   getRepositoryManager().getReceiptRepository());
+            cartFacade.countStoredCarts();
+            CartFacade = cartFacade;
         }
         return CartFacade;
     }
@@ -118,15 +135,23 @@ public class FacadeManager {
         return productFacade;
     }
 
+    public CredentialHasher getCredentialHasher() {
+        if (credentialHasher == null) {
+            credentialHasher = CredentialHasher.withDefaults();
+        }
+        return credentialHasher;
+    }
+
     public LoginManager getLoginManager() {
         if (loginManager == null) {
-            loginManager = new LoginManager(repoManager.getUserRepository());
+            loginManager = new LoginManager(repoManager.getUserRepository(), getCredentialHasher(), GuestSessions.withDefaults());
+            loginManager.trackStoredGuests();
         }
         return loginManager;
     }
     public PermissionManager getPermissionManager() {
         if (permissionManager == null) {
-            permissionManager = new PermissionManager(repoManager.getPermissionRepository());
+            permissionManager = new PermissionManager(repoManager.getPermissionRepository(), repoManager.getEventBus());
         }
         return permissionManager;
     }
@@ -134,14 +159,16 @@ public class FacadeManager {
     public DiscountFacade getDiscountFacade() {
         if (discountFacade == null) {
             discountFacade = new DiscountFacade(repoManager.getDiscountRepository(),
-                                                getItemFacade());
+                                                getItemFacade(),
+                                                repoManager.getEventBus());
         }
         return discountFacade;
     }
     
     public OfferManager getOfferManager() {
         if (offerManager == null) {
-            offerManager = new OfferManager(repoManager.getOfferRepository(), getPermissionManager(), repoManager.getItemRepository(), getStoreFacade(), getPaymentService(), getRepositoryManager().getReceiptRepository(), getRepositoryManager().getProductRepository(), getSupplyService());
+            offerManager = new OfferManager(repoManager.getOfferRepository(), getPermissionManager(), repoManager.getItemRepository(), getStoreFacade(), getPaymentService(), getRepositoryManager().getReceiptRepository(), getRepositoryManager().getProductRepository(), getSupplyService(), repoManager.getEventBus());
+            offerManager.start();
         }
         return offerManager;
     }
@@ -151,7 +178,8 @@ public class FacadeManager {
             policyFacade = new PolicyFacade(repoManager.getPolicyRepository(),
                                             repoManager.getUserRepository(),
                                             getItemFacade(),
-                                            getProductFacade());
+                                            getProductFacade(),
+                                            repoManager.getEventBus());
         }
         return policyFacade;
     }
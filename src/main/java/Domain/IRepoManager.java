@@ -1,5 +1,6 @@
 package Domain;
 
+import Domain.Events.DomainEventBus;
 import Domain.Repos.IAuctionRepository;
 import Domain.Repos.IFeedbackRepository;
 import Domain.Repos.IItemRepository;
@@ -29,5 +30,6 @@ public interface IRepoManager {
     // public IConditionRepository getConditionRepository();
     public IPolicyRepository getPolicyRepository();
     public IOfferRepository getOfferRepository();
+    public DomainEventBus getEventBus();
 }
 
@@ -6,26 +6,86 @@ import Domain.Repos.ILockbasedRepository;
 
 /**
  * Abstract repository class for managing notifications.
- * Extends the lock-based repository pattern for thread-safe operations on notifications.
- * Uses a String as the unique identifier for notifications.
+ * Keeps an append-only, time-ordered log of notifications per user together with a read cursor,
+ * so that pages of the log and unread counts are found without loading a user's whole history.
+ * The inherited map-style methods treat a user's unread notifications as the stored value.
  */
 public abstract class INotificationRepository extends ILockbasedRepository<List<String>, String> {
 
+    /** Unread notifications handed out at most by one {@link #getNotifications} call. */
+    public static final int DELIVERY_LIMIT = 100;
+
+    /**
+     * Appends a notification to the end of a user's log.
+     *
+     * @param userId  The ID of the user to whom the notification belongs.
+     * @param content The content of the notification.
+     * @return the sequence number of the notification in the user's log
+     */
+    public abstract long append(String userId, String content);
+
+    /**
+     * Returns up to {@code limit} notifications of a user with a sequence below {@code before}, newest first.
+     */
+    public abstract List<Notification> getPage(String userId, long before, int limit);
+
+    /**
+     * Returns up to {@code limit} notifications of a user after the read cursor, oldest first.
+     */
+    public abstract List<Notification> getUnread(String userId, int limit);
+
+    /**
+     * Moves a user's read cursor forward to {@code sequence}.
+     *
+     * @return whether the cursor moved
+     */
+    public abstract boolean markRead(String userId, long sequence);
+
+    public abstract long getUnreadCount(String userId);
+
+    /**
+     * Removes notifications created before {@code createdBefore}, and all but the newest {@code keepPerUser}
+     * notifications of each user. Removed notifications that were unread count as read.
+     *
+     * @return the number of notifications removed
+     */
+    public abstract int prune(long createdBefore, int keepPerUser);
+
     /**
      * Adds a notification to the repository.
-     * This method should handle the logic for adding a notification to the repository.
      *
      * @param userId  The ID of the user to whom the notification belongs.
      * @param content The content of the notification.
      */
-    public abstract void addNotification(String userId, String content);
+    public void addNotification(String userId, String content) {
+        append(userId, content);
+    }
+
+    /**
+     * Returns a page of a user's notifications, newest first.
+     *
+     * @param before the {@link NotificationPage#getNextBefore()} of the previous page, or 0 for the newest page
+     */
+    public NotificationPage getNotificationPage(String userId, long before, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        List<Notification> page = getPage(userId, before > 0 ? before : Long.MAX_VALUE, limit);
+        long nextBefore = page.size() < limit ? 0 : page.get(page.size() - 1).getSequence();
+        return new NotificationPage(page, nextBefore, getUnreadCount(userId));
+    }
 
     /**
-     * Retrieves notifications for a specific user.
-     * This method should handle the logic for retrieving notifications from the repository.
+     * Retrieves the oldest unread notifications of a user, at most {@link #DELIVERY_LIMIT}, and marks them read.
      *
      * @param userId The ID of the user whose notifications are to be retrieved.
      * @return A list of notifications for the specified user.
      */
-    public abstract List<String> getNotifications(String userId);
+    public List<String> getNotifications(String userId) {
+        List<Notification> unread = getUnread(userId, DELIVERY_LIMIT);
+        if (!unread.isEmpty()) {
+            markRead(userId, unread.get(unread.size() - 1).getSequence());
+        }
+        return unread.stream().map(Notification::getContent).toList();
+    }
 }
@@ -1,21 +1,40 @@
 package Domain.Notification;
 
+import java.io.Serializable;
+import java.util.Objects;
+
+import org.springframework.data.domain.Persistable;
+
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 
 /**
  * Represents a notification in the system.
- * This entity stores notifications for users.
+ * Notifications form an append-only log per user: each gets the next sequence number of its user, so a user's
+ * notifications are ordered by their key and a page of them is a range of it.
+ * New notifications report themselves as new, so that saving them inserts without looking them up first.
  */
 @Entity
-@Table(name = "notifications")
-public class Notification {
-    
+@Table(name = "notification_log", indexes = @Index(name = "idx_notification_created_at", columnList = "createdAt"))
+@IdClass(Notification.Key.class)
+public class Notification implements Persistable<Notification.Key> {
+
     @Id
-    private String id;
     private String userId;
+    @Id
+    private long sequence;
+    private long createdAt;
+    @Column(length = 2048)
     private String content;
+    @Transient
+    private boolean stored;
 
     protected Notification() {
         // Required by JPA
@@ -24,29 +43,76 @@ public class Notification {
     /**
      * Creates a new notification.
      *
-     * @param id      The unique identifier for the notification
-     * @param userId  The ID of the user to whom the notification belongs
-     * @param content The content of the notification
+     * @param userId    The ID of the user to whom the notification belongs
+     * @param sequence  The position of the notification in the user's log, starting at 1
+     * @param createdAt When the notification was created, in epoch milliseconds
+     * @param content   The content of the notification
      */
-    public Notification(String id, String userId, String content) {
-        this.id = id;
+    public Notification(String userId, long sequence, long createdAt, String content) {
         this.userId = userId;
+        this.sequence = sequence;
+        this.createdAt = createdAt;
         this.content = content;
     }
 
-    public String getId() {
-        return id;
-    }
-
     public String getUserId() {
         return userId;
     }
 
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
     public String getContent() {
         return content;
     }
 
-    public void setContent(String content) {
-        this.content = content;
+    @Override
+    public Key getId() {
+        return new Key(userId, sequence);
+    }
+
+    @Override
+    public boolean isNew() {
+        return !stored;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markStored() {
+        this.stored = true;
+    }
+
+    /**
+     * Primary key of a notification: its user and its position in the user's log.
+     */
+    public static class Key implements Serializable {
+        private String userId;
+        private long sequence;
+
+        public Key() {
+        }
+
+        public Key(String userId, long sequence) {
+            this.userId = userId;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return sequence == other.sequence && Objects.equals(userId, other.userId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, sequence);
+        }
     }
-} 
\ No newline at end of file
+}
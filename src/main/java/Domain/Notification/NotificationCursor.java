@@ -0,0 +1,77 @@
+package Domain.Notification;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Where a user's notification log stands: the last sequence appended, the last one read,
+ * and the last one removed by retention. Unread counts follow from these without counting rows.
+ */
+@Entity
+@Table(name = "notification_cursors")
+public class NotificationCursor {
+
+    @Id
+    private String userId;
+    private long lastSequence;
+    private long readSequence;
+    private long prunedSequence;
+
+    protected NotificationCursor() {
+        // Required by JPA
+    }
+
+    public NotificationCursor(String userId) {
+        this.userId = userId;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    /**
+     * Reserves the sequence of the next notification.
+     */
+    public synchronized long next() {
+        return ++lastSequence;
+    }
+
+    public synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    public synchronized long getReadSequence() {
+        return readSequence;
+    }
+
+    public synchronized long getPrunedSequence() {
+        return prunedSequence;
+    }
+
+    public synchronized long getUnreadCount() {
+        return lastSequence - readSequence;
+    }
+
+    /**
+     * Moves the read cursor forward to {@code sequence}; it never moves back or past the last notification.
+     * @return whether the cursor moved
+     */
+    public synchronized boolean markRead(long sequence) {
+        long target = Math.min(sequence, lastSequence);
+        if (target <= readSequence) {
+            return false;
+        }
+        readSequence = target;
+        return true;
+    }
+
+    /**
+     * Records that notifications up to {@code sequence} were removed. Unread ones among them count as read.
+     */
+    public synchronized void pruned(long sequence) {
+        long target = Math.min(sequence, lastSequence);
+        prunedSequence = Math.max(prunedSequence, target);
+        readSequence = Math.max(readSequence, prunedSequence);
+    }
+}
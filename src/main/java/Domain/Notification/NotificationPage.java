@@ -0,0 +1,37 @@
+package Domain.Notification;
+
+import java.util.List;
+
+/**
+ * One page of a user's notifications, newest first.
+ */
+public class NotificationPage {
+    private final List<Notification> notifications;
+    private final long nextBefore;
+    private final long unreadCount;
+
+    public NotificationPage(List<Notification> notifications, long nextBefore, long unreadCount) {
+        this.notifications = List.copyOf(notifications);
+        this.nextBefore = nextBefore;
+        this.unreadCount = unreadCount;
+    }
+
+    public List<Notification> getNotifications() {
+        return notifications;
+    }
+
+    /**
+     * The value to pass as {@code before} for the next, older page; 0 when this is the oldest page.
+     */
+    public long getNextBefore() {
+        return nextBefore;
+    }
+
+    public boolean hasMore() {
+        return nextBefore > 0;
+    }
+
+    public long getUnreadCount() {
+        return unreadCount;
+    }
+}
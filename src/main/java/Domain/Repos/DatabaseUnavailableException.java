@@ -0,0 +1,17 @@
+package Domain.Repos;
+
+/**
+ * Thrown by a repository when the database cannot be reached, either because a call failed to connect or because
+ * recent calls did and the database is given time to recover. Readers may fall back to copies they hold in memory;
+ * a write that fails with it was not made.
+ */
+public class DatabaseUnavailableException extends RuntimeException {
+
+    public DatabaseUnavailableException(String message) {
+        super(message);
+    }
+
+    public DatabaseUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -3,14 +3,57 @@ package Domain.Repos;
 import java.util.List;
 
 import Domain.Store.Feedback;
+import Domain.Store.FeedbackIndex;
+import Domain.Store.FeedbackPage;
 
 
+/**
+ * Abstract repository class for managing feedback.
+ * Feedback is indexed by product, store and customer in order of its sequence number, so that pages of it
+ * and counts are found without loading everything a popular product was ever given.
+ */
 public abstract class IFeedbackRepository extends ILockbasedRepository<Feedback, String> {
+
+    /** Feedback shown in a summary: the newest of a product, store or customer. */
+    public static final int SUMMARY_SIZE = 5;
+
     public IFeedbackRepository() {
         super();
     }
-    
+
     abstract public List<Feedback> getAllFeedbacksByStoreId(String storeId);
     abstract public List<Feedback> getAllFeedbacksByProductId(String productId);
     abstract public List<Feedback> getAllFeedbacksByUserId(String userId);
+
+    /**
+     * Returns up to {@code limit} feedbacks filed under {@code key} in an index with a sequence below
+     * {@code before}, newest first.
+     */
+    abstract public List<Feedback> getPage(FeedbackIndex index, String key, long before, int limit);
+
+    /**
+     * @return how many feedbacks are filed under {@code key} in an index
+     */
+    abstract public long count(FeedbackIndex index, String key);
+
+    /**
+     * Returns a page of the feedback filed under {@code key} in an index, newest first.
+     *
+     * @param before the {@link FeedbackPage#getNextBefore()} of the previous page, or 0 for the newest page
+     */
+    public FeedbackPage getFeedbackPage(FeedbackIndex index, String key, long before, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        List<Feedback> page = getPage(index, key, before > 0 ? before : Long.MAX_VALUE, limit);
+        long nextBefore = page.size() < limit ? 0 : page.get(page.size() - 1).getSequence();
+        return new FeedbackPage(page, nextBefore, count(index, key));
+    }
+
+    /**
+     * Returns the count and the newest {@link #SUMMARY_SIZE} feedbacks filed under {@code key} in an index.
+     */
+    public FeedbackPage getSummary(FeedbackIndex index, String key) {
+        return getFeedbackPage(index, key, 0, SUMMARY_SIZE);
+    }
 }
@@ -1,9 +1,15 @@
 package Domain.Repos;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 
 import Domain.Pair;
 import Domain.Store.Item;
+import Domain.Store.ItemUpdate;
 
 /**
  * Abstract repository interface for managing items.
@@ -16,6 +22,21 @@ public abstract class IItemRepository extends ILockbasedRepository<Item, Pair<St
      */
     public abstract Item getItem(String storeId, String productId);
 
+    /**
+     * Retrieves the items a store sells of the given products, by product id. Products the store does not sell
+     * are left out. Stores backed by a database override this to read them in one query.
+     */
+    public Map<String, Item> getItems(String storeId, Collection<String> productIds) {
+        Map<String, Item> items = new HashMap<>();
+        for (String productId : productIds) {
+            Item item = getItem(storeId, productId);
+            if (item != null) {
+                items.put(productId, item);
+            }
+        }
+        return items;
+    }
+
     /**
      * Returns all items belonging to a specific store.
      */
@@ -35,4 +56,68 @@ public abstract class IItemRepository extends ILockbasedRepository<Item, Pair<St
      * Updates an existing item.
      */
     public abstract Item update(Pair<String, String> id, Item item);
+
+    /**
+     * Stores a rating that was already added to the item with {@link Item#addRating(int)}.
+     * Repositories may write ratings in batches, so that other readers see them a little later;
+     * by default the item is saved right away.
+     */
+    public void ratingAdded(Item item, int rating) {
+        update(new Pair<>(item.getStoreId(), item.getProductId()), item);
+    }
+
+    /**
+     * Applies a batch of price and stock changes to the items of one store, all of them or none.
+     * By default the items are changed holding all their write locks, taken together in the stripes' order, and
+     * saved with {@link #update}; if one cannot be changed, the items changed before it are restored. Stores backed
+     * by a database override this to write the batch at once.
+     *
+     * @return the updated items, in the order of the updates
+     * @throws NoSuchElementException if the store does not sell one of the products
+     * @throws IllegalArgumentException if an update would take an item's stock below zero
+     */
+    public List<Item> updateAll(String storeId, List<ItemUpdate> updates) {
+        List<Item> items = new ArrayList<>(updates.size());
+        for (ItemUpdate update : updates) {
+            Item item = get(new Pair<>(storeId, update.getProductId()));
+            if (item == null)
+                throw new NoSuchElementException("Item not found for storeId: " + storeId + ", productId: " + update.getProductId());
+            items.add(item);
+        }
+        List<Pair<String, String>> ids = new ArrayList<>(updates.size());
+        for (ItemUpdate update : updates) {
+            ids.add(new Pair<>(storeId, update.getProductId()));
+        }
+        double[] previousPrices = new double[items.size()];
+        withWriteLocks(ids, () -> {
+            int applied = 0;
+            try {
+                for (; applied < items.size(); applied++) {
+                    previousPrices[applied] = items.get(applied).getPrice();
+                    updates.get(applied).applyTo(items.get(applied));
+                }
+            } catch (RuntimeException e) {
+                for (int i = applied - 1; i >= 0; i--) {
+                    Item item = items.get(i);
+                    ItemUpdate update = updates.get(i);
+                    // Relative, so that stock sold meanwhile without the lock stays sold;
+                    // of stock added, only what was not sold since can be taken back
+                    if (update.getAmountDelta() < 0) {
+                        item.increaseAmount(-update.getAmountDelta());
+                    } else if (update.getAmountDelta() > 0) {
+                        item.decreaseAmountUpTo(update.getAmountDelta());
+                    }
+                    if (update.getPrice() != null) {
+                        item.setPrice((float) previousPrices[i]);
+                    }
+                }
+                throw e;
+            }
+            return null;
+        });
+        for (Item item : items) {
+            update(new Pair<>(storeId, item.getProductId()), item);
+        }
+        return items;
+    }
 }
@@ -1,31 +1,53 @@
 package Domain.Repos;
 
-import java.util.Map;
+import java.util.Collection;
+import java.util.function.Supplier;
 
 public abstract class ILockbasedRepository<V, K> implements IRepository<V, K> {
-    private Map<K, Object> locks = new java.util.concurrent.ConcurrentHashMap<>();
-    
+    private final StripedLocks locks;
+
     public ILockbasedRepository() {
-        this.locks = new java.util.concurrent.ConcurrentHashMap<>();
+        this(new StripedLocks(StripedLocks.DEFAULT_STRIPES));
     }
 
-    public Object getLock(K id) {
-        return locks.get(id);
+    /**
+     * @param locks the stripes guarding this repository's entities; not shared with other repositories
+     */
+    protected ILockbasedRepository(StripedLocks locks) {
+        this.locks = locks;
     }
-    
-    public boolean addLock(K id) {
-        return locks.putIfAbsent(id, new Object()) == null;
+
+    /**
+     * Runs the action holding the id's write lock exclusively.
+     * Do not nest calls for different ids; take several ids at once with {@link #withWriteLocks}.
+     */
+    public final <T> T withWriteLock(K id, Supplier<T> action) {
+        return locks.write(id, action);
     }
-    
-    protected void removeLock(K id) {
-        locks.remove(id);
+
+    public final void withWriteLock(K id, Runnable action) {
+        locks.write(id, action);
     }
-    
-    protected boolean isIdValid(K id) {
-        return id != null && !id.toString().trim().isEmpty();
+
+    /**
+     * Runs the action holding the write locks of all the ids, taken in the stripes' order.
+     */
+    public final <T> T withWriteLocks(Collection<K> ids, Supplier<T> action) {
+        return locks.writeAll(ids, action);
     }
 
-    protected void deleteAllLocks() {
-        locks.clear();
+    /**
+     * Runs a side-effect free read without locking, repeating it under the read lock if a writer interfered.
+     */
+    public final <T> T readOptimistically(K id, Supplier<T> read) {
+        return locks.optimisticRead(id, read);
+    }
+
+    public final StripedLocks.Stats getLockStats() {
+        return locks.getStats();
+    }
+
+    protected boolean isIdValid(K id) {
+        return id != null && !id.toString().trim().isEmpty();
     }
-}
\ No newline at end of file
+}
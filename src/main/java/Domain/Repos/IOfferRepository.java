@@ -8,4 +8,6 @@ public abstract class IOfferRepository extends ILockbasedRepository<Offer, Strin
     public abstract List<Offer> getOffersOfStore(String storeId);
 
     public abstract List<Offer> getOffersOfMember(String memberId);
+
+    public abstract List<Offer> getAllOffers();
 }
@@ -1,5 +1,8 @@
 package Domain.Repos;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 
 import Domain.Store.Product;
@@ -7,4 +10,19 @@ import Domain.Store.Product;
 public abstract class IProductRepository extends ILockbasedRepository<Product, String> {
     public abstract Product getByName(String name);
     public abstract Set<Product> getAll();
-}
\ No newline at end of file
+
+    /**
+     * Retrieves the products with the given ids, by id; ids of no product are left out.
+     * Stores backed by a database override this to read them in one query.
+     */
+    public Map<String, Product> getAll(Collection<String> ids) {
+        Map<String, Product> products = new HashMap<>();
+        for (String id : ids) {
+            Product product = get(id);
+            if (product != null) {
+                products.put(id, product);
+            }
+        }
+        return products;
+    }
+}
@@ -3,6 +3,8 @@ package Domain.Repos;
 import java.util.List;
 import java.util.Map;
 
+import Domain.Events.DomainEvent;
+import Domain.Events.DomainEventBus;
 import Domain.Pair;
 import Domain.Shopping.Receipt;
 import Domain.Store.Product;
@@ -11,6 +13,15 @@ import Domain.Store.Product;
  * Interface for repository that manages purchase receipts.
  */
 public abstract class IReceiptRepository extends ILockbasedRepository<Receipt, String> {
+    private final DomainEventBus eventBus;
+
+    /**
+     * @param eventBus the bus told about every saved receipt
+     */
+    protected IReceiptRepository(DomainEventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
     /**
      * Save a purchase receipt.
      * 
@@ -69,4 +80,12 @@ public abstract class IReceiptRepository extends ILockbasedRepository<Receipt, S
      * Clear all stored receipts
      */
     public abstract void clear();
-}
\ No newline at end of file
+
+    /**
+     * Tells the subscribers of the domain event bus that a receipt was saved.
+     */
+    protected void publishCreated(Receipt receipt) {
+        eventBus.publish(new DomainEvent.ReceiptCreated(receipt.getStoreId(), receipt.getReceiptId(),
+                receipt.getClientId(), receipt.getTotalPrice()));
+    }
+}
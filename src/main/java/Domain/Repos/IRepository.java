@@ -1,5 +1,9 @@
 package Domain.Repos;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 public interface IRepository<V, K> {
     // Generic methods for repository
     // V - the type of the value
@@ -10,4 +14,27 @@ public interface IRepository<V, K> {
     V update(K id, V value);
     void deleteAll();
 
+    /**
+     * Adds a batch of new values, all or none of them. Stores backed by a database override this to write the
+     * batch at once, and leave undoing a failed one to the transaction.
+     *
+     * @throws IllegalStateException if one of the keys already exists; the values added before it are removed
+     */
+    default void addAll(Map<K, V> values) {
+        List<K> added = new ArrayList<>(values.size());
+        try {
+            for (Map.Entry<K, V> entry : values.entrySet()) {
+                if (!add(entry.getKey(), entry.getValue())) {
+                    throw new IllegalStateException("Entity already exists: " + entry.getKey());
+                }
+                added.add(entry.getKey());
+            }
+        } catch (RuntimeException e) {
+            for (K key : added) {
+                remove(key);
+            }
+            throw e;
+        }
+    }
+
 }
\ No newline at end of file
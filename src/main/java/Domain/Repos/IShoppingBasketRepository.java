@@ -14,4 +14,11 @@ public abstract class IShoppingBasketRepository extends ILockbasedRepository<Sho
      * This method should clear the entire repository state.
      */
     abstract public void clear();
+
+    /**
+     * Writes pending basket changes to the underlying store.
+     * Repositories that persist synchronously have nothing to flush.
+     */
+    public void flush() {
+    }
 }
\ No newline at end of file
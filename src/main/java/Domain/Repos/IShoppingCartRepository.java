@@ -22,4 +22,11 @@ public abstract class IShoppingCartRepository extends ILockbasedRepository<IShop
      * @return A map of client IDs to their shopping carts
      */
     abstract public Map<String, IShoppingCart> getAll();
+
+    /**
+     * Writes pending cart changes to the underlying store.
+     * Repositories that persist synchronously have nothing to flush.
+     */
+    public void flush() {
+    }
 }
\ No newline at end of file
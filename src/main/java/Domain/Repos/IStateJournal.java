@@ -0,0 +1,11 @@
+package Domain.Repos;
+
+/**
+ * A durable copy of repository state kept outside the database.
+ */
+public interface IStateJournal {
+    /**
+     * @return true if the repositories were restored from the journal at startup and not wiped since
+     */
+    boolean hasRestoredState();
+}
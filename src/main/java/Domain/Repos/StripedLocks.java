@@ -0,0 +1,277 @@
+package Domain.Repos;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * A fixed set of lock stripes shared by all keys of a repository.
+ * <p>
+ * Keys are hashed onto a power-of-two number of stripes, so memory stays bounded no matter how many
+ * entities the repository holds and no lock ever has to be created or removed alongside an entity.
+ * Two keys on the same stripe serialize against each other; with enough stripes that is rare.
+ * <p>
+ * Each stripe is a {@link StampedLock} used by {@link #write} and {@link #optimisticRead}. A thread holding a
+ * stripe's write lock may write or read any key of that stripe again; it runs inline instead of waiting on itself.
+ * <p>
+ * Unrelated keys can share stripes, so two threads each holding one key and waiting for another can deadlock even
+ * though their keys differ. Stripes are therefore ordered by index: a thread that needs several keys at once takes
+ * them together with {@link #writeAll}, which locks their stripes in ascending index order, and does not nest
+ * {@link #write} calls for different keys. Callers that hold stripes past a single call use {@link #hold}, which
+ * keeps to the same order and refuses to wait indefinitely for a stripe taken out of it.
+ */
+public class StripedLocks {
+    public static final int DEFAULT_STRIPES = 256;
+
+    private final StampedLock[] locks;
+    // The thread holding each stripe's write lock. Only that thread sets or clears its entry,
+    // so a thread reading its own identity there knows it holds the lock
+    private final Thread[] owners;
+    private final int mask;
+    // The highest stripe each thread took with hold(), or -1
+    private final ThreadLocal<int[]> highestHeld = ThreadLocal.withInitial(() -> new int[] {-1});
+
+    private final LongAdder optimisticReads = new LongAdder();
+    private final LongAdder optimisticFailures = new LongAdder();
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder contendedWrites = new LongAdder();
+
+    /**
+     * @param stripes the minimum number of stripes; rounded up to a power of two
+     */
+    public StripedLocks(int stripes) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Stripe count must be positive");
+        }
+        int size = Integer.highestOneBit(stripes);
+        if (size < stripes) {
+            size <<= 1;
+        }
+        this.locks = new StampedLock[size];
+        this.owners = new Thread[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new StampedLock();
+        }
+        this.mask = size - 1;
+    }
+
+    public int getStripeCount() {
+        return locks.length;
+    }
+
+    int stripeOf(Object key) {
+        int h = Objects.hashCode(key);
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * Runs the action holding the key's stripe exclusively. Reentrant: if the calling thread already holds the
+     * stripe, the action just runs.
+     */
+    public <T> T write(Object key, Supplier<T> action) {
+        int stripe = stripeOf(key);
+        Thread caller = Thread.currentThread();
+        if (owners[stripe] == caller) {
+            return action.get();
+        }
+        StampedLock lock = locks[stripe];
+        long stamp = lock.tryWriteLock();
+        if (stamp == 0L) {
+            contendedWrites.increment();
+            stamp = lock.writeLock();
+        }
+        owners[stripe] = caller;
+        writes.increment();
+        try {
+            return action.get();
+        } finally {
+            owners[stripe] = null;
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void write(Object key, Runnable action) {
+        write(key, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs the action holding the stripes of all the keys exclusively, taking them in ascending index order so that
+     * two callers locking overlapping sets of keys cannot deadlock. Stripes the calling thread already holds are not
+     * taken again; a caller holding a stripe should only add keys on higher stripes.
+     */
+    public <T> T writeAll(Collection<?> keys, Supplier<T> action) {
+        Thread caller = Thread.currentThread();
+        int[] stripes = keys.stream().mapToInt(this::stripeOf).filter(stripe -> owners[stripe] != caller)
+                .distinct().toArray();
+        Arrays.sort(stripes);
+        long[] stamps = new long[stripes.length];
+        int held = 0;
+        try {
+            for (; held < stripes.length; held++) {
+                StampedLock lock = locks[stripes[held]];
+                long stamp = lock.tryWriteLock();
+                if (stamp == 0L) {
+                    contendedWrites.increment();
+                    stamp = lock.writeLock();
+                }
+                stamps[held] = stamp;
+                owners[stripes[held]] = caller;
+            }
+            writes.increment();
+            return action.get();
+        } finally {
+            unlock(stripes, stamps, held);
+        }
+    }
+
+    /**
+     * Takes the stripes of all the keys exclusively and returns the action that releases them, for a caller that has
+     * to hold them past the end of a call, such as until its transaction completes. The release must run on the
+     * calling thread, after the releases of anything it took with this method later.
+     * <p>
+     * Stripes are taken in ascending index order, and ones the calling thread holds already are skipped. A thread
+     * that already took a higher stripe this way breaks that order; for each busy stripe below it, it waits at most
+     * {@code outOfOrderWaitNanos} and then gets an {@link IllegalStateException}, so that it cannot deadlock with a
+     * thread waiting in order.
+     */
+    public Runnable hold(Collection<?> keys, long outOfOrderWaitNanos) {
+        Thread caller = Thread.currentThread();
+        int[] stripes = keys.stream().mapToInt(this::stripeOf).filter(stripe -> owners[stripe] != caller)
+                .distinct().toArray();
+        if (stripes.length == 0) {
+            return () -> { };
+        }
+        Arrays.sort(stripes);
+        int[] highest = highestHeld.get();
+        int previous = highest[0];
+        long[] stamps = new long[stripes.length];
+        int held = 0;
+        try {
+            for (; held < stripes.length; held++) {
+                StampedLock lock = locks[stripes[held]];
+                long stamp = lock.tryWriteLock();
+                if (stamp == 0L) {
+                    contendedWrites.increment();
+                    stamp = stripes[held] > previous ? lock.writeLock()
+                            : lock.tryWriteLock(outOfOrderWaitNanos, TimeUnit.NANOSECONDS);
+                    if (stamp == 0L) {
+                        throw new IllegalStateException("Stripe " + stripes[held]
+                                + " is busy and was asked for out of order, after stripe " + previous);
+                    }
+                }
+                stamps[held] = stamp;
+                owners[stripes[held]] = caller;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            unlock(stripes, stamps, held);
+            throw new IllegalStateException("Interrupted waiting for stripe " + stripes[held], e);
+        } catch (RuntimeException e) {
+            unlock(stripes, stamps, held);
+            throw e;
+        }
+        writes.increment();
+        highest[0] = Math.max(previous, stripes[stripes.length - 1]);
+        return () -> {
+            unlock(stripes, stamps, stripes.length);
+            highest[0] = previous;
+        };
+    }
+
+    private void unlock(int[] stripes, long[] stamps, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            owners[stripes[i]] = null;
+            locks[stripes[i]].unlockWrite(stamps[i]);
+        }
+    }
+
+    /**
+     * Runs the read without taking a lock and keeps its result if no writer held the key's stripe meanwhile.
+     * Otherwise, or if the read failed on state a writer was changing, it runs again under the read lock.
+     * The read must have no side effects, since it may run twice.
+     */
+    public <T> T optimisticRead(Object key, Supplier<T> read) {
+        int stripe = stripeOf(key);
+        if (owners[stripe] == Thread.currentThread()) {
+            return read.get();
+        }
+        StampedLock lock = locks[stripe];
+        optimisticReads.increment();
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            try {
+                T result = read.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                if (lock.validate(stamp)) {
+                    throw e;
+                }
+            }
+        }
+        optimisticFailures.increment();
+        stamp = lock.readLock();
+        try {
+            return read.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public Stats getStats() {
+        return new Stats(optimisticReads.sum(), optimisticFailures.sum(), writes.sum(), contendedWrites.sum());
+    }
+
+    /**
+     * Counters since the stripes were created.
+     */
+    public static final class Stats {
+        private final long optimisticReads;
+        private final long optimisticFailures;
+        private final long writes;
+        private final long contendedWrites;
+
+        public Stats(long optimisticReads, long optimisticFailures, long writes, long contendedWrites) {
+            this.optimisticReads = optimisticReads;
+            this.optimisticFailures = optimisticFailures;
+            this.writes = writes;
+            this.contendedWrites = contendedWrites;
+        }
+
+        public long getOptimisticReads() {
+            return optimisticReads;
+        }
+
+        /**
+         * Optimistic reads that had to be repeated under the read lock.
+         */
+        public long getOptimisticFailures() {
+            return optimisticFailures;
+        }
+
+        public long getWrites() {
+            return writes;
+        }
+
+        /**
+         * Writes that found their stripe held and had to wait.
+         */
+        public long getContendedWrites() {
+            return contendedWrites;
+        }
+
+        @Override
+        public String toString() {
+            return "optimisticReads=" + optimisticReads + ", optimisticFailures=" + optimisticFailures
+                    + ", writes=" + writes + ", contendedWrites=" + contendedWrites;
+        }
+    }
+}
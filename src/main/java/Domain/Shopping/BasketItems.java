@@ -0,0 +1,51 @@
+package Domain.Shopping;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+import Domain.Store.Item;
+import Domain.Store.ItemFacade;
+
+/**
+ * Looks up the items of one store's basket. The first lookup reads the items of all the basket's products with
+ * {@link ItemFacade#getItems}; later ones are answered from that read. Nothing is read if nothing is looked up,
+ * as when a basket's cached prices are still current.
+ */
+class BasketItems implements BiFunction<String, String, Item> {
+    private final ItemFacade itemFacade;
+    private final String storeId;
+    private final Collection<String> productIds;
+    private Set<String> loadedIds;
+    private Map<String, Item> items;
+
+    BasketItems(ItemFacade itemFacade, String storeId, Collection<String> productIds) {
+        this.itemFacade = itemFacade;
+        this.storeId = storeId;
+        this.productIds = productIds;
+    }
+
+    /**
+     * @throws NoSuchElementException if the store does not sell the product, like {@link ItemFacade#getItem}
+     */
+    @Override
+    public Item apply(String storeId, String productId) {
+        if (!this.storeId.equals(storeId)) {
+            return itemFacade.getItem(storeId, productId);
+        }
+        if (items == null) {
+            loadedIds = Set.copyOf(productIds);
+            items = itemFacade.getItems(storeId, loadedIds);
+        }
+        if (!loadedIds.contains(productId)) {
+            // Added to the basket after the read
+            return itemFacade.getItem(storeId, productId);
+        }
+        Item item = items.get(productId);
+        if (item == null)
+            throw new NoSuchElementException("Item not found for storeId: " + storeId + ", productId: " + productId);
+        return item;
+    }
+}
@@ -0,0 +1,156 @@
+package Domain.Shopping;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Counts the carts, baskets and basket lines that guests and members keep, as the cart facade stores and removes
+ * them, so that reading the totals costs the same however many sessions there are.
+ * <p>
+ * A client is counted as a guest or as a member when its first cart or basket is recorded, and moved to the other
+ * side when {@link #ownerChanged} is told, for instance after a guest registered. The line count of every basket is
+ * kept, so a basket stored again moves the totals only by the difference.
+ */
+public class CartFootprint {
+    private final Predicate<String> isGuest;
+    private final Map<String, Client> clients = new ConcurrentHashMap<>();
+    private final Totals guests = new Totals();
+    private final Totals members = new Totals();
+
+    /**
+     * The carts, baskets and order lines of one kind of client.
+     */
+    public static final class Totals {
+        private final LongAdder carts = new LongAdder();
+        private final LongAdder baskets = new LongAdder();
+        private final LongAdder orderLines = new LongAdder();
+
+        public long getCarts() { return carts.sum(); }
+        public long getBaskets() { return baskets.sum(); }
+        public long getOrderLines() { return orderLines.sum(); }
+
+        private void add(Client client, int sign) {
+            carts.add(sign * (client.cart ? 1 : 0));
+            baskets.add(sign * client.basketLines.size());
+            for (int lines : client.basketLines.values()) {
+                orderLines.add(sign * lines);
+            }
+        }
+    }
+
+    // Changed only inside the client map's compute methods, which hold the client's entry
+    private static final class Client {
+        boolean guest;
+        boolean cart;
+        final Map<String, Integer> basketLines = new HashMap<>();
+
+        Client(boolean guest) {
+            this.guest = guest;
+        }
+
+        boolean isEmpty() {
+            return !cart && basketLines.isEmpty();
+        }
+    }
+
+    /**
+     * @param isGuest tells whether a client id belongs to a guest
+     */
+    public CartFootprint(Predicate<String> isGuest) {
+        this.isGuest = isGuest;
+    }
+
+    public Totals getGuests() {
+        return guests;
+    }
+
+    public Totals getMembers() {
+        return members;
+    }
+
+    public void cartStored(String clientId) {
+        change(clientId, (client, totals) -> {
+            if (!client.cart) {
+                client.cart = true;
+                totals.carts.increment();
+            }
+        });
+    }
+
+    public void cartRemoved(String clientId) {
+        changeKnown(clientId, (client, totals) -> {
+            if (client.cart) {
+                client.cart = false;
+                totals.carts.decrement();
+            }
+        });
+    }
+
+    /**
+     * Records a basket that was added or written again with the given number of lines.
+     */
+    public void basketStored(String clientId, String storeId, int lines) {
+        change(clientId, (client, totals) -> {
+            Integer previous = client.basketLines.put(storeId, lines);
+            if (previous == null) {
+                totals.baskets.increment();
+            }
+            totals.orderLines.add(lines - (previous == null ? 0 : previous));
+        });
+    }
+
+    public void basketRemoved(String clientId, String storeId) {
+        changeKnown(clientId, (client, totals) -> {
+            Integer previous = client.basketLines.remove(storeId);
+            if (previous != null) {
+                totals.baskets.decrement();
+                totals.orderLines.add(-previous);
+            }
+        });
+    }
+
+    /**
+     * Counts the client on the side it belongs to now, if that changed.
+     */
+    public void ownerChanged(String clientId) {
+        if (!clients.containsKey(clientId)) {
+            return;
+        }
+        boolean guest = isGuest.test(clientId);
+        clients.computeIfPresent(clientId, (id, client) -> {
+            if (client.guest != guest) {
+                totalsOf(client).add(client, -1);
+                client.guest = guest;
+                totalsOf(client).add(client, 1);
+            }
+            return client;
+        });
+    }
+
+    private void change(String clientId, BiConsumer<Client, Totals> change) {
+        // Looked up outside the map's lock, since it may read the user repository
+        boolean guest = !clients.containsKey(clientId) && isGuest.test(clientId);
+        clients.compute(clientId, (id, client) -> {
+            if (client == null) {
+                client = new Client(guest);
+            }
+            change.accept(client, totalsOf(client));
+            return client.isEmpty() ? null : client;
+        });
+    }
+
+    private void changeKnown(String clientId, BiConsumer<Client, Totals> change) {
+        clients.computeIfPresent(clientId, (id, client) -> {
+            change.accept(client, totalsOf(client));
+            return client.isEmpty() ? null : client;
+        });
+    }
+
+    private Totals totalsOf(Client client) {
+        return client.guest ? guests : members;
+    }
+}
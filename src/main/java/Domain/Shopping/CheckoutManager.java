@@ -21,7 +21,6 @@ import Domain.Repos.IShoppingBasketRepository;
 import Domain.Repos.IUserRepository;
 import Domain.Store.Item;
 import Domain.Store.ItemFacade;
-import Domain.Store.Policy;
 import Domain.Store.Product;
 import Domain.Store.Discounts.Discount;
 import Domain.Store.Discounts.DiscountFacade;
@@ -106,12 +105,9 @@ public class CheckoutManager {
                     if (basket != null && !basket.isEmpty()) {
                         CheckoutStoreResult storeResult = processStoreBasket(storeId, basket, itemsRollbackData, basketsRollbackData);
                         // Check if cart abids by policies
-                        List<Policy> policies = policyFacade.getAllStorePolicies(storeId);
                         Member member = memberLookup.apply(clientId);
-                        for (Policy policy : policies) {
-                            if (!policy.isApplicable(basket, member)) {
-                                throw new RuntimeException("Checkout failed: Basket does not comply with store policies");
-                            }
+                        if (!policyFacade.getViolatedPolicies(storeId, basket, member).isEmpty()) {
+                            throw new RuntimeException("Checkout failed: Basket does not comply with store policies");
                         }
                         if (storeResult.isSuccess()) {
                             purchaseSuccess = true;
@@ -214,15 +210,18 @@ public class CheckoutManager {
         
         // Calculate discounted prices for all products in the basket
         Map<String, ItemPriceBreakdown> priceBreakdowns = null;
+        Map<String, Integer> orders = basket.getOrders();
+        // The basket's items and products are each read once, not once per line
+        BasketItems items = new BasketItems(itemFacade, storeId, orders != null ? orders.keySet() : Set.of());
         try {
             List<Discount> discounts = this.discountFacade.getStoreDiscounts(storeId);
-            priceBreakdowns = basket.getBestPrice(itemFacade::getItem, discounts);
+            priceBreakdowns = basket.getBestPrice(items, discounts, discountFacade.getVersions());
         } catch (Exception e) {
             throw new RuntimeException("Failed to calculate best prices for store " + storeId + ": " + e.getMessage());
         }
         
-        Map<String, Integer> orders = basket.getOrders();
         if (orders != null) {
+            Map<String, Product> products = productRepo.getAll(orders.keySet());
             try {
                 for (Map.Entry<String, Integer> entry : orders.entrySet()) {
                     if (entry != null) {
@@ -236,10 +235,10 @@ public class CheckoutManager {
                             itemFacade.decreaseAmount(new Pair<>(storeId, productId), quantity);
                             
                             // Get product and calculate discounted price
-                            Product product = productRepo.get(productId);
+                            Product product = products.get(productId);
                             if (product != null) {
                                 Product productCopy = new Product(product);
-                                Item item = itemFacade.getItem(storeId, productCopy.getProductId());
+                                Item item = items.apply(storeId, productCopy.getProductId());
                                 if (item != null) {
                                     double unitPrice;
                                     
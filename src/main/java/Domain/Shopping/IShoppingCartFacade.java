@@ -126,6 +126,28 @@ public interface IShoppingCartFacade {
      * @return true if the cart was successfully cleared
      */
     boolean clearCart(String clientId);
+
+    /**
+     * Discards the client's cart and all its baskets, for a session that has ended
+     * 
+     * @param clientId The client ID
+     * @return true if the client had a cart
+     */
+    boolean removeCart(String clientId);
+
+    /**
+     * Gets the carts, baskets and order lines of guests and of members, counted as they change
+     * 
+     * @return The live counts
+     */
+    CartFootprint getCartFootprint();
+
+    /**
+     * Counts the client's cart as a member's or a guest's again, after the client registered
+     * 
+     * @param clientId The client ID
+     */
+    void ownerChanged(String clientId);
     
     /**
      * Clears all items from a specific store in the client's cart
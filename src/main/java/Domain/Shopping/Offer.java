@@ -16,6 +16,8 @@ public class Offer {
     private String productId;
     private boolean counterOffer;
     private boolean isAccepted;
+    // Epoch millis of the offer's last price; null for offers stored before it was recorded.
+    private Long lastActivityAt;
 
     @Embedded
     private PaymentDetails paymentDetails;
@@ -61,6 +63,9 @@ public class Offer {
         }
     }
 
+    public Long getLastActivityAt() { return lastActivityAt; }
+    public void setLastActivityAt(long lastActivityAt) { this.lastActivityAt = lastActivityAt; }
+
     public boolean isCounterOffer() { return counterOffer; }
     public boolean isAccepted() { return isAccepted; }
     public void setAccepted(boolean accepted) { this.isAccepted = accepted; }
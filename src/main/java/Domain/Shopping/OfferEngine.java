@@ -0,0 +1,155 @@
+package Domain.Shopping;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Runs the events of each offer one at a time, tracks which approvers each offer still waits for,
+ * and indexes offers by when they were last active so that idle ones can be expired.
+ * <p>
+ * Every offer with events in flight has a fair lock. Each event runs on the thread that submitted it, inside that
+ * caller's transaction, once the offer's earlier events are done; so the events of one offer apply in arrival
+ * order, and a caller's result, including its payment and stock changes, commits or rolls back with its own
+ * transaction only. Different offers proceed in parallel. An event submitted from within an event of the same
+ * offer runs inline.
+ * <p>
+ * Approvals are tracked per negotiation round: each approval crosses its approver off the round's pending set.
+ * A round remembers the version of its store's permissions it was started with. Once the store's permissions
+ * changed, the next approval starts the round over with the current approvers, keeping the approvals already
+ * given, so the round never waits for someone who can no longer approve.
+ */
+class OfferEngine {
+
+    private final Map<String, Gate> gates = new ConcurrentHashMap<>();
+    private final Map<String, Round> rounds = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastActive = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> permissionsVersions = new ConcurrentHashMap<>();
+    private final NavigableSet<Activity> byActivity = new ConcurrentSkipListSet<>(
+            Comparator.comparingLong(Activity::at).thenComparing(Activity::offerId));
+
+    private static final class Gate {
+        final ReentrantLock lock = new ReentrantLock(true);
+        // Callers holding or waiting for the lock; only changed inside compute on the gates map
+        int users;
+    }
+
+    private record Activity(long at, String offerId) {}
+
+    /**
+     * The approvers of one negotiation round and those of them that have not approved yet.
+     */
+    static final class Round {
+        private final long permissionsVersion;
+        private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+        Round(Set<String> approvers, Set<String> approvedBy, long permissionsVersion) {
+            this.permissionsVersion = permissionsVersion;
+            this.pending.addAll(approvers);
+            this.pending.removeAll(approvedBy);
+        }
+
+        long getPermissionsVersion() { return permissionsVersion; }
+
+        void approved(String userId) { pending.remove(userId); }
+
+        boolean isComplete() { return pending.isEmpty(); }
+    }
+
+    /**
+     * Runs an event of an offer on the calling thread after the offer's earlier events.
+     * Exceptions thrown by the event reach the caller unchanged.
+     */
+    <T> T execute(String offerId, Supplier<T> event) {
+        Gate gate = gates.compute(offerId, (id, current) -> {
+            Gate entered = current != null ? current : new Gate();
+            entered.users++;
+            return entered;
+        });
+        gate.lock.lock();
+        try {
+            return event.get();
+        } finally {
+            gate.lock.unlock();
+            gates.computeIfPresent(offerId, (id, current) -> --current.users == 0 ? null : current);
+        }
+    }
+
+    int getBusyOffers() {
+        return gates.size();
+    }
+
+    /**
+     * Starts a new round of approvals for an offer.
+     * @param permissionsVersion the version of the store's permissions read before the approvers were
+     */
+    Round startRound(String offerId, Set<String> approvers, Set<String> approvedBy, long permissionsVersion) {
+        Round round = new Round(approvers, approvedBy, permissionsVersion);
+        rounds.put(offerId, round);
+        return round;
+    }
+
+    Round getRound(String offerId) {
+        return rounds.get(offerId);
+    }
+
+    /**
+     * The version of a store's permissions, which changes whenever someone gains or loses one of them.
+     */
+    long getPermissionsVersion(String storeId) {
+        AtomicLong version = permissionsVersions.get(storeId);
+        return version != null ? version.get() : 0;
+    }
+
+    void permissionsChanged(String storeId) {
+        permissionsVersions.computeIfAbsent(storeId, id -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * Records that an offer was active at the given time.
+     */
+    void touch(String offerId, long at) {
+        Long previous = lastActive.put(offerId, at);
+        if (previous != null) {
+            byActivity.remove(new Activity(previous, offerId));
+        }
+        byActivity.add(new Activity(at, offerId));
+    }
+
+    boolean isTracked(String offerId) {
+        return lastActive.containsKey(offerId);
+    }
+
+    /**
+     * Drops everything known about an offer that was accepted, rejected or expired.
+     */
+    void forget(String offerId) {
+        rounds.remove(offerId);
+        Long previous = lastActive.remove(offerId);
+        if (previous != null) {
+            byActivity.remove(new Activity(previous, offerId));
+        }
+    }
+
+    /**
+     * Up to {@code limit} offers, least recently active first, that have been idle for at least {@code ttlMillis}.
+     */
+    List<String> idleSince(long now, long ttlMillis, int limit) {
+        List<String> idle = new ArrayList<>();
+        for (Activity activity : byActivity) {
+            if (idle.size() >= limit || now - activity.at() < ttlMillis) {
+                break;
+            }
+            idle.add(activity.offerId());
+        }
+        return idle;
+    }
+}
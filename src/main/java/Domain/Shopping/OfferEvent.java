@@ -0,0 +1,57 @@
+package Domain.Shopping;
+
+/**
+ * Something that happens to an open offer. Events of one offer are applied one at a time, in the order they
+ * were submitted, by {@link OfferManager}.
+ */
+public final class OfferEvent {
+
+    public enum Type {
+        /** A participant agrees to the current price. The offer is accepted once every approver agreed. */
+        APPROVE,
+        /** A participant proposes a new price, which starts a new round of approvals. */
+        COUNTER,
+        /** A participant ends the negotiation. */
+        REJECT,
+        /** The offer has been idle for too long and is dropped. */
+        EXPIRE
+    }
+
+    private final Type type;
+    private final String offerId;
+    private final String userId;
+    private final double price;
+
+    private OfferEvent(Type type, String offerId, String userId, double price) {
+        this.type = type;
+        this.offerId = offerId;
+        this.userId = userId;
+        this.price = price;
+    }
+
+    public static OfferEvent approve(String offerId, String userId) {
+        return new OfferEvent(Type.APPROVE, offerId, userId, 0);
+    }
+
+    public static OfferEvent counter(String offerId, String userId, double price) {
+        return new OfferEvent(Type.COUNTER, offerId, userId, price);
+    }
+
+    public static OfferEvent reject(String offerId, String userId) {
+        return new OfferEvent(Type.REJECT, offerId, userId, 0);
+    }
+
+    public static OfferEvent expire(String offerId) {
+        return new OfferEvent(Type.EXPIRE, offerId, null, 0);
+    }
+
+    public Type getType() { return type; }
+    public String getOfferId() { return offerId; }
+    public String getUserId() { return userId; }
+    public double getPrice() { return price; }
+
+    @Override
+    public String toString() {
+        return type + " " + offerId + (userId != null ? " by " + userId : "");
+    }
+}
@@ -2,20 +2,25 @@ package Domain.Shopping;
 
 
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.function.LongSupplier;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import Application.utils.Response;
 import Domain.ExternalServices.IExternalPaymentService;
 import Domain.ExternalServices.IExternalSupplyService;
 import Domain.ExternalServices.INotificationService;
+import Domain.Events.DomainEvent;
+import Domain.Events.DomainEventBus;
 import Domain.Pair;
 import Domain.Repos.IItemRepository;
 import Domain.Repos.IOfferRepository;
@@ -25,9 +30,24 @@ import Domain.Store.Item;
 import Domain.Store.StoreFacade;
 import Domain.management.PermissionManager;
 import Domain.management.PermissionType;
-
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Negotiates offers: members propose a price for an item, employees that oversee offers counter or approve it,
+ * and once every approver agreed the member is charged.
+ * <p>
+ * Each offer is a small state machine driven by {@link OfferEvent}s. An event runs on the caller's thread and in
+ * the caller's transaction, behind the offer's fair lock in {@link OfferEngine}, so the events of one offer apply
+ * in arrival order while different offers proceed in parallel. An offer stays open until it is accepted,
+ * rejected, or expires after {@code app.offers.ttl-ms} without a new price.
+ * <p>
+ * The approvers of a round are looked up once and kept until a {@link DomainEvent.PermissionChanged} event of
+ * the offer's store arrives from the bus.
+ */
 @Component
 public class OfferManager {
+    public static final long DEFAULT_OFFER_TTL_MILLIS = 7L * 24 * 60 * 60 * 1000;
 
     private final IOfferRepository offerRepository;
     private final PermissionManager permissionManager;
@@ -36,7 +56,18 @@ public class OfferManager {
     private final IExternalSupplyService supplyService;
     private final IReceiptRepository receiptRepository;
     private final IProductRepository productRepository;
+    private final DomainEventBus eventBus;
+    private final OfferEngine engine = new OfferEngine();
+    private DomainEventBus.Subscription permissionEvents;
+
+    @Value("${app.events.batch-size:256}")
+    private int batchSize = 256;
 
+    @Value("${app.offers.ttl-ms:604800000}")
+    private long offerTtlMillis = DEFAULT_OFFER_TTL_MILLIS;
+
+    private LongSupplier clock = System::currentTimeMillis;
+    private volatile boolean expiryIndexed;
 
     @Autowired
     public OfferManager(IOfferRepository offerRepository, 
@@ -45,7 +76,8 @@ public class OfferManager {
     StoreFacade storeFacade,
     IExternalPaymentService paymentService,
     IReceiptRepository receiptRepository,
-    IProductRepository productRepository, IExternalSupplyService supplyService) {
+    IProductRepository productRepository, IExternalSupplyService supplyService,
+    DomainEventBus eventBus) {
         this.offerRepository = offerRepository;
         this.permissionManager = permissionManager;
         this.itemRepository = itemRepository;
@@ -53,12 +85,35 @@ public class OfferManager {
         this.receiptRepository = receiptRepository;
         this.productRepository = productRepository;
         this.supplyService = supplyService;
+        this.eventBus = eventBus;
+    }
+
+    @PostConstruct
+    public void start() {
+        permissionEvents = eventBus.subscribe("offers", batchSize, this::permissionsChanged);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (permissionEvents != null) {
+            permissionEvents.close();
+        }
+    }
+
+    void permissionsChanged(List<DomainEvent> events) {
+        for (DomainEvent event : events) {
+            if (event instanceof DomainEvent.PermissionChanged) {
+                engine.permissionsChanged(event.storeId());
+            }
+        }
     }
 
     
     public Offer makeOffer(String memberId, String storeId, String productId, double newPrice, PaymentDetails paymentDetails, SupplyDetails supplyDetails) {
         Offer offer = new Offer(memberId, storeId, productId, newPrice, paymentDetails, supplyDetails);
+        offer.setLastActivityAt(clock.getAsLong());
         offerRepository.add(offer.getId(), offer);
+        engine.touch(offer.getId(), offer.getLastActivityAt());
         return offer;
     }
 
@@ -91,24 +146,150 @@ public class OfferManager {
             throw new IllegalArgumentException("Supply service is not set");
         }
 
-        synchronized (offerRepository.getLock(offer.getId())) {        
-            offer.approveOffer(userId); 
+        return handle(OfferEvent.approve(offer.getId(), userId));
+    }
+
+    /**
+     * Applies an event to its offer after the offer's earlier events, and waits for it.
+     * Callers are expected to have checked that the event's user may act on the offer.
+     * @return the offer after the event, or null for an expiry that no longer applies
+     */
+    public Offer handle(OfferEvent event) {
+        return engine.execute(event.getOfferId(), () -> apply(event));
+    }
 
-            Set<String> offerApprovers  = new HashSet<>(permissionManager.getUsersWithPermission(offer.getStoreId(), PermissionType.OVERSEE_OFFERS));
-            offerApprovers.add(offer.getMemberId()); // Include the member who made the offer
-            if (offer.getApprovedBy().equals(offerApprovers)) {
-                // Process payment
-                Offer acceptedOffer = processOrder(offer);
-                offerRepository.remove(offer.getId());
-                return acceptedOffer;
+    /**
+     * Open offer --APPROVE--> open, or accepted and closed once every approver agreed;
+     * open --COUNTER--> open with a new price and a new round of approvals;
+     * open --REJECT or EXPIRE--> closed. Closed offers are removed from the repository.
+     */
+    private Offer apply(OfferEvent event) {
+        Offer offer = offerRepository.get(event.getOfferId());
+        if (offer == null) {
+            engine.forget(event.getOfferId());
+            if (event.getType() == OfferEvent.Type.EXPIRE) {
+                return null;
             }
-            else {
-                offerRepository.update(offer.getId(), offer);
-                return offer;
+            throw new NoSuchElementException("Offer not found");
+        }
+        return switch (event.getType()) {
+            case APPROVE -> approve(offer, event.getUserId());
+            case COUNTER -> counter(offer, event.getUserId(), event.getPrice());
+            case REJECT -> close(offer);
+            case EXPIRE -> expire(offer);
+        };
+    }
+
+    private Offer approve(Offer offer, String userId) {
+        offer.approveOffer(userId);
+
+        // Users gain and lose the permission to oversee offers at any time. Once the store's permissions changed the
+        // round starts over with the current approvers: one who lost it is no longer waited for, and one who gained
+        // it must approve too. The change arrives from the bus after its transaction commits, so an approval given
+        // right after it may still be counted against the approvers from before.
+        OfferEngine.Round round = engine.getRound(offer.getId());
+        long permissionsVersion = engine.getPermissionsVersion(offer.getStoreId());
+        if (round == null || round.getPermissionsVersion() != permissionsVersion) {
+            round = engine.startRound(offer.getId(), getApprovers(offer), offer.getApprovedBy(), permissionsVersion);
+        } else {
+            round.approved(userId);
+        }
+        if (round.isComplete()) {
+            // Process payment
+            Offer acceptedOffer = processOrder(offer);
+            close(offer);
+            return acceptedOffer;
+        }
+        offerRepository.update(offer.getId(), offer);
+        return offer;
+    }
+
+    private Offer counter(Offer offer, String userId, double newPrice) {
+        offer.counterOffer(userId, newPrice);
+        offer.setLastActivityAt(clock.getAsLong());
+        offerRepository.update(offer.getId(), offer);
+        engine.touch(offer.getId(), offer.getLastActivityAt());
+
+        // The new price needs the approval of everyone who oversees offers now
+        if (engine.getRound(offer.getId()) != null) {
+            long permissionsVersion = engine.getPermissionsVersion(offer.getStoreId());
+            engine.startRound(offer.getId(), getApprovers(offer), offer.getApprovedBy(), permissionsVersion);
+        }
+        return offer;
+    }
+
+    private Offer close(Offer offer) {
+        offerRepository.remove(offer.getId());
+        engine.forget(offer.getId());
+        return offer;
+    }
+
+    private Offer expire(Offer offer) {
+        Long lastActivityAt = offer.getLastActivityAt();
+        if (lastActivityAt != null && clock.getAsLong() - lastActivityAt < offerTtlMillis) {
+            // A new price came in after the offer was found idle.
+            engine.touch(offer.getId(), lastActivityAt);
+            return null;
+        }
+        return close(offer);
+    }
+
+    private Set<String> getApprovers(Offer offer) {
+        Set<String> offerApprovers = new HashSet<>(permissionManager.getUsersWithPermission(offer.getStoreId(), PermissionType.OVERSEE_OFFERS));
+        offerApprovers.add(offer.getMemberId()); // Include the member who made the offer
+        return offerApprovers;
+    }
+
+    /**
+     * Expires up to {@code limit} offers that went without a new price for longer than the offer TTL.
+     * @return the expired offers, which are no longer in the repository
+     */
+    public List<Offer> expireOffers(int limit) {
+        indexStoredOffers();
+        List<Offer> expired = new ArrayList<>();
+        for (String offerId : engine.idleSince(clock.getAsLong(), offerTtlMillis, limit)) {
+            Offer offer = handle(OfferEvent.expire(offerId));
+            if (offer != null) {
+                expired.add(offer);
             }
         }
+        return expired;
+    }
 
-        
+    // Offers stored before a restart are only known to the repository. Those without a last activity expire one TTL after this.
+    private void indexStoredOffers() {
+        if (expiryIndexed) {
+            return;
+        }
+        synchronized (engine) {
+            if (expiryIndexed) {
+                return;
+            }
+            long now = clock.getAsLong();
+            for (Offer offer : offerRepository.getAllOffers()) {
+                if (!engine.isTracked(offer.getId())) {
+                    Long lastActivityAt = offer.getLastActivityAt();
+                    engine.touch(offer.getId(), lastActivityAt != null ? lastActivityAt : now);
+                }
+            }
+            expiryIndexed = true;
+        }
+    }
+
+    public long getOfferTtlMillis() {
+        return offerTtlMillis;
+    }
+
+    void setOfferTtlMillis(long offerTtlMillis) {
+        this.offerTtlMillis = offerTtlMillis;
+    }
+
+    void setClock(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    OfferEngine getEngine() {
+        return engine;
     }
 
     public Offer acceptOfferByMember(String userId, String offerId){
@@ -129,7 +310,7 @@ public class OfferManager {
 
 
     private Offer rejectOffer(String userId, String offerId) {
-        return offerRepository.remove(offerId);
+        return handle(OfferEvent.reject(offerId, userId));
     }
 
     public Offer rejectOfferByMember(String memberId, String offerId) {
@@ -151,8 +332,7 @@ public class OfferManager {
         
         Pair<String, String> itemId = new Pair<>(offer.getStoreId(), offer.getProductId());
 
-        Object itemLock = itemRepository.getLock(itemId);
-        synchronized(itemLock) {
+        itemRepository.withWriteLock(itemId, () -> {
             Item item = itemRepository.getItem(offer.getStoreId(), offer.getProductId());
             int currentAmount = item.getAmount();
             if (currentAmount <= 0) {
@@ -181,7 +361,8 @@ public class OfferManager {
             item.decreaseAmount(1);
             itemRepository.update(itemId, item);
             offer.setAccepted(true);
-        }
+        });
+        eventBus.publish(new DomainEvent.StockChanged(offer.getStoreId(), offer.getProductId(), -1));
         
         try{
         this.receiptRepository.savePurchase(
@@ -225,8 +406,6 @@ public class OfferManager {
     }
 
     private Offer counterOffer(String userId, Offer offer, double newPrice) {
-        offer.counterOffer(userId, newPrice);
-        offerRepository.update(offer.getId(), offer);
-        return offer;
+        return handle(OfferEvent.counter(offer.getId(), userId, newPrice));
     }
 }
@@ -1,13 +1,14 @@
 package Domain.Shopping;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.BiFunction;
 
 import Domain.Store.Item;
+import Domain.Store.PolicyPlan;
 import Domain.Store.Discounts.Discount;
+import Domain.Store.Discounts.DiscountPlan;
 import Domain.Store.Discounts.ItemPriceBreakdown;
 import jakarta.persistence.CollectionTable;
 import jakarta.persistence.Column;
@@ -19,6 +20,7 @@ import jakarta.persistence.IdClass;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.MapKeyColumn;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 
 /**
  * Represents a collection of products from a specific store in a client's shopping cart.
@@ -44,6 +46,23 @@ public class ShoppingBasket {
     @Id
     private String clientId;
 
+    // Written under the basket's monitor, read without it by the threads reporting line changes
+    @Transient
+    private transient volatile PolicyPlan.Tracker policyTracker;
+
+    @Transient
+    private transient volatile DiscountPlan.Pricing pricing;
+
+    // Guards orders, which request threads change while the write-behind flush copies them. Never held while
+    // taking another lock, so the pricing and policy trackers can read the basket under their own.
+    @Transient
+    private final transient Object ordersLock = new Object();
+
+    // Counts the changes to orders, under ordersLock. Line changes reach the pricing and the policy tracker after
+    // the lock is released, so they carry the version they were made at and both drop the ones they already have.
+    @Transient
+    private transient long linesVersion;
+
     protected ShoppingBasket() {
         // Required by JPA
         this.orders = new HashMap<>();
@@ -68,7 +87,30 @@ public class ShoppingBasket {
      */
     public Map<String, Integer> getOrders() {
         // clone the set to prevent external modification
-        return orders != null ? new HashMap<>(orders) : new HashMap<>();
+        synchronized (ordersLock) {
+            return orders != null ? new HashMap<>(orders) : new HashMap<>();
+        }
+    }
+
+    /**
+     * Copies the orders into {@code lines} and returns the lines version they were read at.
+     */
+    private long snapshot(Map<String, Integer> lines) {
+        synchronized (ordersLock) {
+            if (orders != null) {
+                lines.putAll(orders);
+            }
+            return linesVersion;
+        }
+    }
+
+    /**
+     * @return a detached copy of the basket's ids and lines, for writing it while it keeps changing
+     */
+    public ShoppingBasket copy() {
+        ShoppingBasket copy = new ShoppingBasket(storeId, clientId);
+        copy.orders = getOrders();
+        return copy;
     }
 
     /**
@@ -78,12 +120,16 @@ public class ShoppingBasket {
      * @param quantity The quantity of the product to add
      */
     public void addOrder(String productId, Integer quantity) {
-        if (orders.containsKey(productId)) {
-            orders.put(productId,orders.get(productId) + quantity); 
-        } 
-        else {
-            orders.put(productId, quantity);
+        Integer previous;
+        Integer current;
+        long version;
+        synchronized (ordersLock) {
+            previous = orders.get(productId);
+            current = previous != null ? previous + quantity : quantity;
+            orders.put(productId, current);
+            version = ++linesVersion;
         }
+        lineChanged(productId, current, version);
     }
 
     /**
@@ -93,10 +139,21 @@ public class ShoppingBasket {
      * @param quantity The quantity to remove
      */
     public void removeItem(String productId, int quantity) {
-        orders.put(productId, orders.get(productId) - quantity);
-        if (orders.get(productId) <= 0) {
-            orders.remove(productId);
+        Integer previous;
+        Integer current;
+        long version;
+        synchronized (ordersLock) {
+            previous = orders.get(productId);
+            current = previous - quantity;
+            if (current <= 0) {
+                orders.remove(productId);
+                current = null;
+            } else {
+                orders.put(productId, current);
+            }
+            version = ++linesVersion;
         }
+        lineChanged(productId, current, version);
     }
 
     /**
@@ -105,7 +162,12 @@ public class ShoppingBasket {
      * @param productId The ID of the product to remove
      */
     public void removeItem(String productId){
-        orders.remove(productId);
+        long version;
+        synchronized (ordersLock) {
+            orders.remove(productId);
+            version = ++linesVersion;
+        }
+        lineChanged(productId, null, version);
     }
 
     /**
@@ -114,14 +176,71 @@ public class ShoppingBasket {
      * @return true if the basket has no products, false otherwise
      */
     public boolean isEmpty() {
-        return orders.isEmpty();
+        synchronized (ordersLock) {
+            return orders.isEmpty();
+        }
     }
 
     /**
      * Removes all products from the basket.
      */
     public void clear() {
-        orders.clear();
+        List<String> removed;
+        long version;
+        synchronized (ordersLock) {
+            removed = List.copyOf(orders.keySet());
+            orders.clear();
+            version = ++linesVersion;
+        }
+        for (String productId : removed) {
+            lineChanged(productId, null, version);
+        }
+    }
+
+    /**
+     * Returns this basket's running policy counters for the given plan,
+     * seeding new ones from the current lines if the plan changed since they were built.
+     */
+    public synchronized PolicyPlan.Tracker getPolicyTracker(PolicyPlan plan) {
+        PolicyPlan.Tracker tracker = policyTracker;
+        if (tracker != null && tracker.getPlan() == plan) {
+            return tracker;
+        }
+        // Published before it is seeded, as the pricing is
+        tracker = plan.newTracker();
+        policyTracker = tracker;
+        Map<String, Integer> lines = new HashMap<>();
+        long version = snapshot(lines);
+        try {
+            tracker.seed(lines, version);
+        } catch (RuntimeException e) {
+            policyTracker = null;
+            throw e;
+        }
+        return tracker;
+    }
+
+    private void lineChanged(String productId, Integer current, long version) {
+        DiscountPlan.Pricing currentPricing = pricing;
+        if (currentPricing != null) {
+            currentPricing.lineChanged(productId, current, version);
+        }
+        PolicyPlan.Tracker tracker = policyTracker;
+        if (tracker != null) {
+            try {
+                tracker.lineChanged(productId, current, version);
+            } catch (RuntimeException e) {
+                // The line could not be resolved (e.g. unknown product); rebuild on the next policy check,
+                // which reports the problem where the uncompiled evaluation would have.
+                dropPolicyTracker(tracker);
+            }
+        }
+    }
+
+    private synchronized void dropPolicyTracker(PolicyPlan.Tracker stale) {
+        if (policyTracker == stale) {
+            policyTracker = null;
+        }
     }
 
     /**
@@ -132,7 +251,9 @@ public class ShoppingBasket {
      * @return The quantity of the product in the basket, or 0 if not present
      */
     public int getProduct(String productId) {
-        return orders.getOrDefault(productId, 0);
+        synchronized (ordersLock) {
+            return orders.getOrDefault(productId, 0);
+        }
     }
 
     /**
@@ -142,17 +263,22 @@ public class ShoppingBasket {
      */
     public int getQuantity(){
         int total = 0;
-        for(int quantity : orders.values()){
+        for(int quantity : getOrders().values()){
             total += quantity;
         }  
         return total;
     }
 
     public int getQuantity(String productId) {
-        if (orders.containsKey(productId)) {
-            return orders.get(productId);
-        } else {
-            return 0; // Return 0 if the product is not in the basket
+        return getProduct(productId); // 0 if the product is not in the basket
+    }
+
+    /**
+     * @return the number of products in the basket, without copying its lines
+     */
+    public int getLineCount() {
+        synchronized (ordersLock) {
+            return orders != null ? orders.size() : 0;
         }
     }
 
@@ -174,40 +300,64 @@ public class ShoppingBasket {
         return clientId;
     }
 
+    /**
+     * Returns the undiscounted price breakdown of every line.
+     */
     public Map<String, ItemPriceBreakdown> getBestPrice(BiFunction<String, String, Item> itemGetter){
-        return getBestPrice(itemGetter, new ArrayList<Discount>());
+        if (itemGetter == null) {
+            throw new IllegalArgumentException("Item getter function cannot be null");
+        }
+        Map<String, ItemPriceBreakdown> prices = new HashMap<>();
+        for (String productId : getOrders().keySet()) {
+            prices.put(productId, new ItemPriceBreakdown(itemGetter.apply(storeId, productId)));
+        }
+        return prices;
     }
 
-    public Map<String, ItemPriceBreakdown> getBestPrice(BiFunction<String, String, Item> itemGetter, List<Discount> discounts) {
-        Map<String, ItemPriceBreakdown> bestPrices = new HashMap<>();
-        Map<String, ItemPriceBreakdown> currPriceBreakdowns = null;
-        
-        double bestPrice = Double.MAX_VALUE;
-        double currPrice = 0;
-
+    /**
+     * Returns the price breakdowns of the discount that gives this basket the lowest total,
+     * or the undiscounted prices if there are no discounts.
+     * The result is cached between calls and updated only for what changed since the last call:
+     * the basket's lines, item prices, or the discounts themselves, as the versions tell.
+     */
+    public Map<String, ItemPriceBreakdown> getBestPrice(BiFunction<String, String, Item> itemGetter, List<Discount> discounts,
+                                                        DiscountPlan.Versions versions) {
         if (itemGetter == null) {
             throw new IllegalArgumentException("Item getter function cannot be null");
         }
-        if( discounts == null || discounts.isEmpty()) {
-            for (String productId : orders.keySet()) {
-                ItemPriceBreakdown priceBreakdown = new ItemPriceBreakdown(itemGetter.apply(storeId, productId)); // Placeholder, should be replaced with actual price retrieval logic
-                bestPrices.put(productId, priceBreakdown);
-            }
-            return bestPrices; // Return the best prices without any discounts
-        }
-
-        // Iterate through all discounts and calculate the best price breakdowns
-        for (Discount discount : discounts) {
-                currPriceBreakdowns = discount.calculatePrice(this, itemGetter);
-                if (currPriceBreakdowns == null || currPriceBreakdowns.isEmpty()) {
-                    continue; // Skip this discount if it doesn't provide any price breakdowns
-                }
-                currPrice = ItemPriceBreakdown.calculateFinalPrice(currPriceBreakdowns);
-                if( currPrice < bestPrice) {
-                    bestPrice = currPrice;
-                    bestPrices = currPriceBreakdowns; // Update best prices with the current breakdowns
-                }
-            }
-        return bestPrices;
+        if (discounts == null || discounts.isEmpty()) {
+            return getBestPrice(itemGetter);
+        }
+        DiscountPlan.Pricing current = getPricing(discounts, versions);
+        try {
+            return current.getBestPrice(this, itemGetter);
+        } catch (RuntimeException e) {
+            // Leave no half-updated prices behind; the next call starts over from the basket's lines.
+            dropPricing(current);
+            throw e;
+        }
+    }
+
+    private synchronized DiscountPlan.Pricing getPricing(List<Discount> discounts, DiscountPlan.Versions versions) {
+        DiscountPlan.Pricing current = pricing;
+        if (current != null && current.getPlan().matches(discounts)) {
+            return current;
+        }
+        // Only the discounts that changed are priced again
+        current = current == null ? new DiscountPlan(storeId, discounts, versions).newPricing()
+                                  : current.rebase(new DiscountPlan(storeId, discounts, versions));
+        // Seeded once published: a change made after the snapshot reaches the new pricing itself, and one made
+        // before it is in the snapshot, even if it was reported only to the pricing this one replaces.
+        pricing = current;
+        Map<String, Integer> lines = new HashMap<>();
+        long version = snapshot(lines);
+        current.seed(lines, version);
+        return current;
+    }
+
+    private synchronized void dropPricing(DiscountPlan.Pricing stale) {
+        if (pricing == stale) {
+            pricing = null;
+        }
     }
-}
\ No newline at end of file
+}
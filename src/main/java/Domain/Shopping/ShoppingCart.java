@@ -8,6 +8,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 
 /**
  * Implementation of the IShoppingCart interface.
@@ -22,6 +23,10 @@ public class ShoppingCart implements IShoppingCart {
 
     @ElementCollection(fetch = FetchType.EAGER)
     private Set<String> baskets;
+
+    // Guards baskets, which request threads change while the write-behind flush copies them
+    @Transient
+    private final transient Object basketsLock = new Object();
     
     protected ShoppingCart() {
         // Required by JPA
@@ -66,7 +71,16 @@ public class ShoppingCart implements IShoppingCart {
      */
     @Override
     public Set<String> getCart() {
-        return baskets != null ? new HashSet<>(baskets) : new HashSet<>(); // return a copy for safety
+        synchronized (basketsLock) {
+            return baskets != null ? new HashSet<>(baskets) : new HashSet<>(); // return a copy for safety
+        }
+    }
+
+    /**
+     * @return a detached copy of the cart, for writing it while it keeps changing
+     */
+    public ShoppingCart copy() {
+        return new ShoppingCart(clientId, getCart());
     }
 
     /**
@@ -76,10 +90,12 @@ public class ShoppingCart implements IShoppingCart {
      */
     @Override
     public void addStore(String storeId) {
-        if (baskets == null) {
-            baskets = new HashSet<>();
+        synchronized (basketsLock) {
+            if (baskets == null) {
+                baskets = new HashSet<>();
+            }
+            baskets.add(storeId);
         }
-        baskets.add(storeId);
     }
 
     /**
@@ -89,7 +105,9 @@ public class ShoppingCart implements IShoppingCart {
      */
     @Override
     public void removeStore(String storeId) {
-        baskets.remove(storeId);
+        synchronized (basketsLock) {
+            baskets.remove(storeId);
+        }
     }
 
     /**
@@ -100,7 +118,9 @@ public class ShoppingCart implements IShoppingCart {
      */
     @Override
     public boolean hasStore(String storeId) {
-        return baskets.contains(storeId);
+        synchronized (basketsLock) {
+            return baskets.contains(storeId);
+        }
     }
 
     /**
@@ -108,7 +128,9 @@ public class ShoppingCart implements IShoppingCart {
      */
     @Override
     public void clear() {
-        baskets.clear();
+        synchronized (basketsLock) {
+            baskets.clear();
+        }
     }
 
     /**
@@ -118,6 +140,8 @@ public class ShoppingCart implements IShoppingCart {
      */
     @Override
     public boolean isEmpty() {
-        return baskets.isEmpty();
+        synchronized (basketsLock) {
+            return baskets.isEmpty();
+        }
     }
 }
\ No newline at end of file
@@ -28,6 +28,7 @@ import Domain.Store.Policy;
 import Domain.Store.StoreFacade;
 import Domain.User.Member;
 import Domain.management.PolicyFacade;
+import jakarta.annotation.PostConstruct;
 
 
 /**
@@ -47,6 +48,7 @@ public class ShoppingCartFacade implements IShoppingCartFacade {
     private final DiscountFacade discountFacade;
     private final Function<String, Member> memberLookup;
     private final PolicyFacade policyFacade;
+    private final CartFootprint footprint;
 
     /**
      * Constructor to initialize the ShoppingCartFacade with required repositories and services.
@@ -74,17 +76,64 @@ public class ShoppingCartFacade implements IShoppingCartFacade {
         this.discountFacade = discountFacade;
         this.policyFacade = policyFacade;
         this.memberLookup = userRepository::getMember; // Assuming userRepository has a method to get Member by ID
+        this.footprint = new CartFootprint(clientId -> userRepository.getGuest(clientId) != null);
         this.checkoutManager = new CheckoutManager(basketRepo, paymentService, itemFacade, productRepository,
 
          new ReceiptBuilder(receiptRepo, itemFacade), discountFacade, supplyService, policyFacade, receiptRepository, userRepository);
     }
 
+    /**
+     * Counts the carts and baskets already in the repositories, such as those left from before a restart.
+     * Runs once at startup, before clients change them.
+     */
+    @PostConstruct
+    public void countStoredCarts() {
+        for (Map.Entry<String, IShoppingCart> entry : cartRepo.getAll().entrySet()) {
+            String clientId = entry.getKey();
+            footprint.cartStored(clientId);
+            Set<String> storeIds = entry.getValue().getCart();
+            if (storeIds != null) {
+                for (String storeId : Set.copyOf(storeIds)) {
+                    recordBasket(clientId, storeId, basketRepo.get(new Pair<>(clientId, storeId)));
+                }
+            }
+        }
+    }
+
+    @Override
+    public CartFootprint getCartFootprint() {
+        return footprint;
+    }
+
+    @Override
+    public void ownerChanged(String clientId) {
+        footprint.ownerChanged(clientId);
+    }
+
+    /**
+     * Counts the baskets again after the checkout emptied them, or its rollback filled them again.
+     */
+    private void recordBaskets(String clientId, Set<String> storeIds) {
+        for (String storeId : storeIds) {
+            recordBasket(clientId, storeId, basketRepo.get(new Pair<>(clientId, storeId)));
+        }
+    }
+
+    private void recordBasket(String clientId, String storeId, ShoppingBasket basket) {
+        if (basket == null) {
+            footprint.basketRemoved(clientId, storeId);
+        } else {
+            footprint.basketStored(clientId, storeId, basket.getLineCount());
+        }
+    }
+
     @Override
     public IShoppingCart getCart(String clientId) {
         IShoppingCart cart = cartRepo.get(clientId);
         if (cart == null) {
             cart = new ShoppingCart(clientId);
             cartRepo.add(clientId, cart);
+            footprint.cartStored(clientId);
         }
         return cart;
     }
@@ -102,6 +151,7 @@ public class ShoppingCartFacade implements IShoppingCartFacade {
         if (basket == null) {
             basket = new ShoppingBasket(storeId, clientId);
             basketRepo.add(new Pair<>(clientId, storeId), basket);
+            recordBasket(clientId, storeId, basket);
         }
         return basket;
     }
@@ -145,6 +195,7 @@ public class ShoppingCartFacade implements IShoppingCartFacade {
             // Add the product to the basket
             basket.addOrder(productId, quantity);
             basketRepo.update(new Pair<>(clientId, storeId), basket);
+            recordBasket(clientId, storeId, basket);
 
             // Add the store to the cart if it's not already there
             if (!cart.hasStore(storeId)) {
@@ -178,7 +229,8 @@ public class ShoppingCartFacade implements IShoppingCartFacade {
         
         ShoppingBasket basket = getBasket(clientId, storeId);
         basket.removeItem(productId, quantity);
-        basketRepo.add(new Pair<>(clientId, storeId), basket);
+        basketRepo.update(new Pair<>(clientId, storeId), basket);
+        recordBasket(clientId, storeId, basket);
         
         if (basket.isEmpty()) {
             cart.removeStore(storeId);
@@ -206,7 +258,8 @@ public class ShoppingCartFacade implements IShoppingCartFacade {
         
         ShoppingBasket basket = getBasket(clientId, storeId);
         basket.removeItem(productId);
-        basketRepo.add(new Pair<>(clientId, storeId), basket);
+        basketRepo.update(new Pair<>(clientId, storeId), basket);
+        recordBasket(clientId, storeId, basket);
         
         if (basket.isEmpty()) {
             cart.removeStore(storeId);
@@ -274,6 +327,7 @@ public class ShoppingCartFacade implements IShoppingCartFacade {
         }
 
         IShoppingCart cart = getCart(clientId);
+        Set<String> storeIds = cart.getCart() != null ? Set.copyOf(cart.getCart()) : Set.of();
         
         // Process checkout using CheckoutManager
         CheckoutManager.CheckoutResult result = checkoutManager.processCheckout(
@@ -282,8 +336,10 @@ public class ShoppingCartFacade implements IShoppingCartFacade {
         );
         
         if (result.isSuccess()) {
-            // Update cart in repository
+            // Update cart in repository and persist the emptied cart right away
             cartRepo.update(clientId, cart);
+            flushCartChanges();
+            recordBaskets(clientId, storeIds);
             return true;
         } else {
             // Perform rollback and throw exception
@@ -304,12 +360,22 @@ public class ShoppingCartFacade implements IShoppingCartFacade {
             }
             checkoutManager.performRollback(clientId, cart, result);
             cartRepo.update(clientId, cart);
+            flushCartChanges();
+            recordBaskets(clientId, storeIds);
             throw new RuntimeException("Checkout failed: " + result.getErrorMessage());
         }
     }
 
 
 
+    /**
+     * Writes pending basket and cart changes of write-behind repositories.
+     */
+    private void flushCartChanges() {
+        basketRepo.flush();
+        cartRepo.flush();
+    }
+
     @Override
     public int getTotalItems(String clientId) {
         IShoppingCart cart = getCart(clientId);
@@ -370,6 +436,29 @@ public class ShoppingCartFacade implements IShoppingCartFacade {
         return true; // Always return true since we always have a cart (even if empty)
     }
 
+    /**
+     * Discards the client's cart and its baskets instead of leaving them behind empty.
+     * 
+     * @param clientId The ID of the client whose session ended
+     * @return true if the client had a cart
+     */
+    @Override
+    public boolean removeCart(String clientId) {
+        IShoppingCart cart = cartRepo.remove(clientId);
+        if (cart == null) {
+            return false;
+        }
+        footprint.cartRemoved(clientId);
+        Set<String> storeIds = cart.getCart();
+        if (storeIds != null) {
+            for (String storeId : storeIds) {
+                basketRepo.remove(new Pair<>(clientId, storeId));
+                footprint.basketRemoved(clientId, storeId);
+            }
+        }
+        return true;
+    }
+
     /**
      * Removes all items from a specific store in the client's cart.
      * 
@@ -385,6 +474,7 @@ public class ShoppingCartFacade implements IShoppingCartFacade {
         
         basket.clear();
         basketRepo.update(new Pair<>(clientId, storeId), basket);
+        recordBasket(clientId, storeId, basket);
         
         return true; // Always return true since we always have a basket (even if empty)
     }
@@ -413,12 +503,14 @@ public class ShoppingCartFacade implements IShoppingCartFacade {
                 // Add null check for basket.getOrders()
                 Map<String, Integer> orders = basket.getOrders();
                 if (orders != null) {
+                    // One read for the basket's items rather than one per line
+                    BasketItems items = new BasketItems(itemFacade, storeId, orders.keySet());
                     for (Map.Entry<String, Integer> entry : orders.entrySet()) {
                         String productId = entry.getKey();
                         int quantity = entry.getValue();
                         
                         // Get the item from the store
-                        Item item = itemFacade.getItem(storeId, productId);
+                        Item item = items.apply(storeId, productId);
                         if (item != null && quantity > 0) {
                             viewCart.add(new Pair<>(item, quantity));
                         }
@@ -499,16 +591,14 @@ public class ShoppingCartFacade implements IShoppingCartFacade {
             return new HashMap<>(); // Return empty map if no basket exists
         }
         List<Discount> discounts = discountFacade.getStoreDiscounts(storeId);
-        return basket.getBestPrice(itemFacade::getItem, discounts);
+        return basket.getBestPrice(new BasketItems(itemFacade, storeId, basket.getOrders().keySet()), discounts,
+                                   discountFacade.getVersions());
     }
     
     public List<Policy> getViolatedPolicies(String memberId) {
         Member member = memberLookup.apply(memberId);
-        return this.getCart(memberId) .getCart().stream() // get stores ids
-            .flatMap(storeId -> policyFacade.getAllStorePolicies(storeId).stream()) // get all policies for all stores
-            .filter(p -> !p.isApplicable( // check if basket is a applicable
-                this.getBasket(memberId, p.getStoreId()), // get basket
-                member)
-            ).toList();
+        return this.getCart(memberId).getCart().stream() // get stores ids
+            .flatMap(storeId -> policyFacade.getViolatedPolicies(storeId, this.getBasket(memberId, storeId), member).stream())
+            .toList();
     }
 }
\ No newline at end of file
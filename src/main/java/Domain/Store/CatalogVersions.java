@@ -0,0 +1,91 @@
+package Domain.Store;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts changes to the catalog, per store and in total, so that views built from it can tell when they are stale.
+ * Item mutators and the store and item facades report changes here; a version only ever grows.
+ * <p>
+ * Every sale is a change, so the counts are {@link LongAdder}s: concurrent sales add to separate cells instead of
+ * contending on one word, and the sums are only taken by readers checking a version. Items keep their store's
+ * counter, so a sale does not look it up either.
+ * <p>
+ * A store's own fields, such as its name and whether it is open, have a version of their own, which only the store's
+ * changes move; views of them are not made stale by every sale.
+ */
+public final class CatalogVersions {
+
+    private static final Map<String, LongAdder> STORES = new ConcurrentHashMap<>();
+    private static final Map<String, AtomicLong> STORE_FIELDS = new ConcurrentHashMap<>();
+    private static final LongAdder TOTAL = new LongAdder();
+    // Bumped by changes that cannot name their stores; counted into every store version
+    private static final AtomicLong EPOCH = new AtomicLong();
+
+    private CatalogVersions() {
+    }
+
+    /**
+     * Records a change to a store or to one of its items.
+     */
+    public static void changed(String storeId) {
+        if (storeId == null) {
+            return;
+        }
+        changed(counterOf(storeId));
+    }
+
+    /**
+     * Records a change to a store's own fields, which is also a change to its catalog.
+     */
+    public static void storeChanged(String storeId) {
+        if (storeId == null) {
+            return;
+        }
+        STORE_FIELDS.computeIfAbsent(storeId, id -> new AtomicLong()).incrementAndGet();
+        changed(storeId);
+    }
+
+    /**
+     * @return the counter of a store's changes, for callers that report many of them
+     */
+    static LongAdder counterOf(String storeId) {
+        LongAdder counter = STORES.get(storeId);
+        return counter != null ? counter : STORES.computeIfAbsent(storeId, id -> new LongAdder());
+    }
+
+    /**
+     * Records a change to the store whose counter this is.
+     */
+    static void changed(LongAdder store) {
+        store.increment();
+        TOTAL.increment();
+    }
+
+    /**
+     * Records a change that may touch any store, such as a bulk load that wrote to the repositories directly.
+     */
+    public static void changedAll() {
+        EPOCH.incrementAndGet();
+        TOTAL.increment();
+    }
+
+    /** @return the version of a store's catalog */
+    public static long ofStore(String storeId) {
+        LongAdder version = STORES.get(storeId);
+        return EPOCH.get() + (version == null ? 0 : version.sum());
+    }
+
+    /** @return the version of a store's own fields, which sales and item changes do not move */
+    public static long ofStoreFields(String storeId) {
+        AtomicLong version = STORE_FIELDS.get(storeId);
+        return EPOCH.get() + (version == null ? 0 : version.get());
+    }
+
+    /** @return the version of the whole catalog, which moves with every store's */
+    public static long total() {
+        return TOTAL.sum();
+    }
+}
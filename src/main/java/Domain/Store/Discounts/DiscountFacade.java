@@ -1,12 +1,17 @@
 package Domain.Store.Discounts;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import Application.DTOs.DiscountDTO;
+import Domain.Events.DomainEvent;
+import Domain.Events.DomainEventBus;
 import Domain.Store.ItemFacade;
 import Domain.Store.Discounts.Discount.MergeType;
 import Domain.Store.Discounts.Conditions.Condition;
@@ -26,9 +31,24 @@ public class DiscountFacade {
     private final ItemFacade itemFacade;
     private final DiscountBuilder discountBuilder;
     private final ConditionBuilder conditionBuilder;
+    private final DomainEventBus eventBus;
+    // Edits per discount id, so cached basket prices built from a discount can tell it changed
+    private final Map<String, AtomicLong> discountVersions = new ConcurrentHashMap<>();
+    private final DiscountPlan.Versions versions = new DiscountPlan.Versions() {
+        @Override
+        public long ofDiscount(String discountId) {
+            AtomicLong version = discountVersions.get(discountId);
+            return version == null ? 0 : version.get();
+        }
+
+        @Override
+        public long ofPrices(String storeId) {
+            return itemFacade.getPriceVersion(storeId);
+        }
+    };
     
     @Autowired
-    public DiscountFacade(IDiscountRepository discountRepository, ItemFacade itemFacade) {
+    public DiscountFacade(IDiscountRepository discountRepository, ItemFacade itemFacade, DomainEventBus eventBus) {
         if (discountRepository == null) {
             throw new IllegalArgumentException("DiscountRepository cannot be null");
         }
@@ -40,6 +60,7 @@ public class DiscountFacade {
         this.discountRepository = discountRepository;
         this.conditionBuilder = new ConditionBuilder();
         this.discountBuilder = new DiscountBuilder(conditionBuilder);
+        this.eventBus = eventBus;
     }
     
     // ===========================================
@@ -151,6 +172,7 @@ public class DiscountFacade {
         
         SimpleDiscount discount = new SimpleDiscount(UUID.randomUUID().toString(), storeId, discountPercentage, qualifier, condition);
         discountRepository.add(discount.getId(), discount);
+        discountChanged(discount.getId());
         return discount;
     }
     
@@ -163,6 +185,7 @@ public class DiscountFacade {
         
         AndDiscount discount = new AndDiscount(UUID.randomUUID().toString(), storeId, discounts, condition, mergeType);
         discountRepository.add(discount.getId(), discount);
+        discountChanged(discount.getId());
         return discount;
     }
     
@@ -173,6 +196,7 @@ public class DiscountFacade {
     public OrDiscount createOrDiscount(String storeId, List<Discount> discounts, Condition condition, MergeType mergeType) {
         OrDiscount orDiscount = new OrDiscount(UUID.randomUUID().toString(), storeId, discounts, condition, mergeType);
         discountRepository.add(orDiscount.getId(), orDiscount);
+        discountChanged(orDiscount.getId());
         return orDiscount;
     }
     
@@ -186,6 +210,7 @@ public class DiscountFacade {
         
         XorDiscount discount = new XorDiscount(UUID.randomUUID().toString(), storeId, discount1, discount2, condition, mergeType);
         discountRepository.add(discount.getId(), discount);
+        discountChanged(discount.getId());
         return discount;
     }
     
@@ -198,7 +223,12 @@ public class DiscountFacade {
      */
     public boolean addDiscount(String storeId, Discount discount) {
         validateDiscount(discount);
-        return discountRepository.add(discount.getId(), discount);
+        if (!discountRepository.add(discount.getId(), discount)) {
+            return false;
+        }
+        discountChanged(discount.getId());
+        eventBus.publish(new DomainEvent.DiscountChanged(storeId, discount.getId()));
+        return true;
     }
 
     public Discount addDiscount(String storeId, DiscountDTO discountDTO) throws IllegalArgumentException {
@@ -260,6 +290,8 @@ public class DiscountFacade {
         }
         
         discountRepository.add(discount.getId(), discount);
+        discountChanged(discount.getId());
+        eventBus.publish(new DomainEvent.DiscountChanged(storeId, discount.getId()));
     }
     
     /**
@@ -277,6 +309,8 @@ public class DiscountFacade {
         }
         
         discountRepository.remove(discountId);
+        discountChanged(discountId);
+        eventBus.publish(new DomainEvent.DiscountChanged(storeId, discountId));
         return true;
     }
     
@@ -316,7 +350,11 @@ public class DiscountFacade {
      */
     public void removeDiscount(String id) {
         validateDiscountId(id);
-        discountRepository.remove(id);
+        Discount removed = discountRepository.remove(id);
+        if (removed != null) {
+            discountChanged(id);
+            eventBus.publish(new DomainEvent.DiscountChanged(removed.getStoreId(), id));
+        }
     }
 
     /**
@@ -328,6 +366,24 @@ public class DiscountFacade {
     }
     
     
+    /**
+     * The change counters of the discounts and item prices this facade and its item facade hand out,
+     * for pricing baskets with {@link DiscountPlan}.
+     */
+    public DiscountPlan.Versions getVersions() {
+        return versions;
+    }
+
+    /**
+     * Records that a discount was added, edited or removed, so that plans built from it go stale.
+     */
+    private void discountChanged(String discountId) {
+        if (discountId != null) {
+            discountVersions.computeIfAbsent(discountId, id -> new AtomicLong()).incrementAndGet();
+        }
+    }
+    
+    
     // ===========================================
     // GLOBAL REPOSITORY OPERATIONS - CONDITIONS
     // ===========================================
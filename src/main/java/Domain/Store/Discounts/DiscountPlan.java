@@ -0,0 +1,660 @@
+package Domain.Store.Discounts;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiFunction;
+
+import Domain.Shopping.ShoppingBasket;
+import Domain.Store.Item;
+import Domain.Store.Discounts.Discount.MergeType;
+import Domain.Store.Discounts.Conditions.AndCondition;
+import Domain.Store.Discounts.Conditions.CompositeCondition;
+import Domain.Store.Discounts.Conditions.Condition;
+import Domain.Store.Discounts.Conditions.MaxPriceCondition;
+import Domain.Store.Discounts.Conditions.MaxQuantityCondition;
+import Domain.Store.Discounts.Conditions.MinPriceCondition;
+import Domain.Store.Discounts.Conditions.MinQuantityCondition;
+import Domain.Store.Discounts.Conditions.OrCondition;
+import Domain.Store.Discounts.Conditions.TrueCondition;
+import Domain.Store.Discounts.Qualifiers.DiscountQualifier;
+
+/**
+ * A store's discounts compiled for incremental pricing of a basket.
+ * <p>
+ * Under fixed condition outcomes, the price a discount tree gives a basket line depends only on that line's item,
+ * so a {@link Pricing} keeps every discount node's price for every line and, after a basket change, prices only
+ * the lines that were added, removed or repriced. When a condition's outcome flips, only the nodes above it are
+ * re-priced, for every line; the rest of the tree and the other discounts keep their cached prices.
+ * Conditions are evaluated against the line quantities and prices the pricing already holds,
+ * so no condition looks items up again.
+ * <p>
+ * Discount and condition types the plan does not know are evaluated through
+ * {@link Discount#calculatePrice} and {@link Condition#isSatisfied} on every change.
+ * <p>
+ * A plan remembers the ids of the discounts it was built from, and their {@link Versions}, which the facade that
+ * stores the discounts moves whenever one is edited. A database hands out new instances of unchanged discounts on
+ * every read, so these, not the instances, tell whether a cached plan is still current; and when some discounts
+ * changed, {@link Pricing#rebase} keeps the cached prices of the others.
+ */
+public class DiscountPlan {
+
+    /**
+     * Change counters kept by the facades that own discounts and item prices.
+     */
+    public interface Versions {
+        /** @return how many times the discount was edited or removed */
+        long ofDiscount(String discountId);
+
+        /** @return how many times prices of the store's items changed */
+        long ofPrices(String storeId);
+    }
+
+    private enum TestKind { TRUE, MIN_QUANTITY, MAX_QUANTITY, MIN_PRICE, MAX_PRICE, AND, OR, INTERPRETED }
+
+    /**
+     * One compiled condition. Top-level tests (the conditions of discount nodes) have a slot in the outcome array.
+     */
+    private static final class Test {
+        final Condition condition;
+        final TestKind kind;
+        final String productId;
+        final int quantity;
+        final double price;
+        final List<Test> children = new ArrayList<>();
+        int slot = -1;
+
+        Test(Condition condition, TestKind kind, String productId, int quantity, double price) {
+            this.condition = condition;
+            this.kind = kind;
+            this.productId = productId;
+            this.quantity = quantity;
+            this.price = price;
+        }
+    }
+
+    private enum NodeKind { SIMPLE, AND, OR, XOR }
+
+    private static final class Node {
+        final NodeKind kind;
+        final Test test;
+        final List<Node> children = new ArrayList<>();
+        DiscountQualifier qualifier;
+        double percentage;
+        MergeType mergeType;
+        int index;
+
+        Node(NodeKind kind, Test test) {
+            this.kind = kind;
+            this.test = test;
+        }
+    }
+
+    /**
+     * A store discount and its compiled tree, or a null root when it must be interpreted.
+     */
+    private static final class Entry {
+        final Discount discount;
+        final Node root;
+        // The tree's nodes are registered one after the other, from this index up to the root's
+        final int firstNode;
+        // Every discount of the tree, root first, and its version when the plan was built
+        final List<Discount> tree;
+        final long[] versions;
+
+        Entry(Discount discount, Node root, int firstNode, Versions versions) {
+            this.discount = discount;
+            this.root = root;
+            this.firstNode = firstNode;
+            this.tree = flatten(discount, new ArrayList<>());
+            this.versions = new long[tree.size()];
+            for (int i = 0; i < tree.size(); i++) {
+                this.versions[i] = versionOf(tree.get(i), versions);
+            }
+        }
+
+        /**
+         * Whether the discount is the one this entry was built from, unchanged since.
+         */
+        boolean isCurrent(Discount discount, Versions versions) {
+            List<Discount> current = flatten(discount, new ArrayList<>());
+            if (current.size() != tree.size()) {
+                return false;
+            }
+            for (int i = 0; i < tree.size(); i++) {
+                Discount built = tree.get(i);
+                Discount now = current.get(i);
+                if (built != now && (built.getId() == null || !Objects.equals(built.getId(), now.getId()))) {
+                    return false;
+                }
+                if (this.versions[i] != versionOf(now, versions)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        int nodeCount() {
+            return root == null ? 0 : root.index - firstNode + 1;
+        }
+
+        private static List<Discount> flatten(Discount discount, List<Discount> into) {
+            into.add(discount);
+            if (discount instanceof CompositeDiscount) {
+                for (Discount child : ((CompositeDiscount) discount).getDiscounts()) {
+                    flatten(child, into);
+                }
+            }
+            return into;
+        }
+    }
+
+    private final String storeId;
+    private final List<Discount> discounts;
+    private final Versions versions;
+    private final List<Entry> entries = new ArrayList<>();
+    private final List<Test> slots = new ArrayList<>();
+    private final List<Node> nodes = new ArrayList<>();
+    private final Map<Condition, Test> compiledTests = new IdentityHashMap<>();
+
+    /**
+     * @param versions where the discounts' and the store's prices' change counters are read
+     */
+    public DiscountPlan(String storeId, List<Discount> discounts, Versions versions) {
+        this.storeId = storeId;
+        this.discounts = List.copyOf(discounts);
+        this.versions = versions;
+        for (Discount discount : this.discounts) {
+            int firstNode = nodes.size();
+            entries.add(new Entry(discount, compile(discount), firstNode, versions));
+        }
+    }
+
+    private static long versionOf(Discount discount, Versions versions) {
+        String id = discount.getId();
+        return id == null ? 0 : versions.ofDiscount(id);
+    }
+
+    private Node compile(Discount discount) {
+        Node node;
+        if (discount instanceof SimpleDiscount) {
+            SimpleDiscount simple = (SimpleDiscount) discount;
+            node = new Node(NodeKind.SIMPLE, topLevelTest(simple.getCondition()));
+            node.qualifier = simple.getQualifier();
+            node.percentage = simple.getDiscountPercentage();
+            return register(node);
+        }
+        if (discount instanceof AndDiscount) {
+            node = new Node(NodeKind.AND, topLevelTest(discount.getCondition()));
+        } else if (discount instanceof OrDiscount) {
+            node = new Node(NodeKind.OR, topLevelTest(discount.getCondition()));
+        } else if (discount instanceof XorDiscount) {
+            node = new Node(NodeKind.XOR, topLevelTest(discount.getCondition()));
+        } else {
+            return null;
+        }
+        CompositeDiscount composite = (CompositeDiscount) discount;
+        node.mergeType = composite.getMergeType();
+        for (Discount child : composite.getDiscounts()) {
+            Node compiledChild = compile(child);
+            if (compiledChild == null) {
+                return null;
+            }
+            node.children.add(compiledChild);
+        }
+        return register(node);
+    }
+
+    /**
+     * Numbers nodes children-first, so a pass over {@link #nodes} sees every child before its parent.
+     */
+    private Node register(Node node) {
+        node.index = nodes.size();
+        nodes.add(node);
+        return node;
+    }
+
+    private Test topLevelTest(Condition condition) {
+        Test test = compileTest(condition);
+        if (test.slot < 0) {
+            test.slot = slots.size();
+            slots.add(test);
+        }
+        return test;
+    }
+
+    private Test compileTest(Condition condition) {
+        Test compiled = compiledTests.get(condition);
+        if (compiled != null) {
+            return compiled;
+        }
+        if (condition == null || condition instanceof TrueCondition) {
+            compiled = new Test(condition, TestKind.TRUE, null, 0, 0);
+        } else if (condition instanceof MinQuantityCondition) {
+            MinQuantityCondition min = (MinQuantityCondition) condition;
+            compiled = new Test(condition, TestKind.MIN_QUANTITY, min.getProductId(), min.getMinQuantity(), 0);
+        } else if (condition instanceof MaxQuantityCondition) {
+            MaxQuantityCondition max = (MaxQuantityCondition) condition;
+            compiled = new Test(condition, TestKind.MAX_QUANTITY, max.getProductId(), max.getMaxQuantity(), 0);
+        } else if (condition instanceof MinPriceCondition) {
+            compiled = new Test(condition, TestKind.MIN_PRICE, null, 0, ((MinPriceCondition) condition).getMinPrice());
+        } else if (condition instanceof MaxPriceCondition) {
+            compiled = new Test(condition, TestKind.MAX_PRICE, null, 0, ((MaxPriceCondition) condition).getMaxPrice());
+        } else if (condition instanceof AndCondition || condition instanceof OrCondition) {
+            compiled = new Test(condition, condition instanceof AndCondition ? TestKind.AND : TestKind.OR, null, 0, 0);
+            for (Condition child : ((CompositeCondition) condition).getConditions()) {
+                compiled.children.add(compileTest(child));
+            }
+        } else {
+            compiled = new Test(condition, TestKind.INTERPRETED, null, 0, 0);
+        }
+        if (condition != null) {
+            compiledTests.put(condition, compiled);
+        }
+        return compiled;
+    }
+
+    public String getStoreId() {
+        return storeId;
+    }
+
+    public List<Discount> getDiscounts() {
+        return discounts;
+    }
+
+    /**
+     * Whether this plan was built from these discounts, in this order, and none of them changed since.
+     */
+    public boolean matches(List<Discount> storeDiscounts) {
+        if (storeDiscounts == null || storeDiscounts.size() != entries.size()) {
+            return false;
+        }
+        for (int i = 0; i < entries.size(); i++) {
+            if (!entries.get(i).isCurrent(storeDiscounts.get(i), versions)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creates a pricing without lines, to be published to the basket and then {@linkplain Pricing#seed seeded}.
+     */
+    public Pricing newPricing() {
+        return new Pricing(this);
+    }
+
+    /**
+     * Marks the nodes whose price for a line may differ under the new condition outcomes:
+     * those whose own condition flipped, and everything above them.
+     * A parent that is gated by its children's conditions is covered, since those children are marked too.
+     */
+    private boolean[] changedNodes(boolean[] before, boolean[] after) {
+        boolean[] changed = new boolean[nodes.size()];
+        for (Node node : nodes) {
+            boolean nodeChanged = before[node.test.slot] != after[node.test.slot];
+            for (Node child : node.children) {
+                nodeChanged |= changed[child.index];
+            }
+            changed[node.index] = nodeChanged;
+        }
+        return changed;
+    }
+
+    /**
+     * An AND discount needs every sub-discount's condition, an OR discount at least one.
+     */
+    private static boolean childrenApply(Node node, boolean[] outcomes) {
+        for (Node child : node.children) {
+            boolean holds = outcomes[child.test.slot];
+            if (node.kind == NodeKind.AND && !holds) {
+                return false;
+            }
+            if (node.kind == NodeKind.OR && holds) {
+                return true;
+            }
+        }
+        return node.kind == NodeKind.AND;
+    }
+
+    /**
+     * The cached best price of one basket under one plan.
+     * The basket reports every line change; the next price request re-reads only those lines, and re-evaluates
+     * a discount subtree for every line only when one of its conditions flipped.
+     * <p>
+     * Changes are stamped with the basket's lines version and may arrive late or out of order, so each line keeps
+     * the version it was last changed at and older changes are ignored, as are changes the seed already holds.
+     */
+    public static final class Pricing {
+        private final DiscountPlan plan;
+        private final Map<String, Integer> changedLines = new HashMap<>();
+        private final Map<String, Long> lineVersions = new HashMap<>();
+        private long seedVersion = Long.MIN_VALUE;
+        private final Map<String, Line> lines = new HashMap<>();
+        private final List<Map<String, ItemPriceBreakdown>> breakdowns = new ArrayList<>();
+        private final double[] totals;
+        private final boolean[] outcomes;
+        // Discounts whose prices are not cached, because they are new to a rebased pricing
+        private final boolean[] stale;
+        private double basketTotal;
+        private long priceChanges = Long.MIN_VALUE;
+        private boolean evaluated;
+
+        /**
+         * A basket line with its item, the price it was read at, and every node's price for it.
+         */
+        private static final class Line {
+            final Item item;
+            final double price;
+            final ItemPriceBreakdown[] nodePrices;
+            int quantity;
+
+            Line(Item item, int quantity, int nodeCount) {
+                this(item, item.getPrice(), quantity, nodeCount);
+            }
+
+            Line(Item item, double price, int quantity, int nodeCount) {
+                this.item = item;
+                this.price = price;
+                this.quantity = quantity;
+                this.nodePrices = new ItemPriceBreakdown[nodeCount];
+            }
+
+            double amount() {
+                return price * quantity;
+            }
+        }
+
+        Pricing(DiscountPlan plan) {
+            this.plan = plan;
+            this.outcomes = new boolean[plan.slots.size()];
+            this.totals = new double[plan.entries.size()];
+            this.stale = new boolean[plan.entries.size()];
+            for (int i = 0; i < plan.entries.size(); i++) {
+                breakdowns.add(new HashMap<>());
+            }
+        }
+
+        public DiscountPlan getPlan() {
+            return plan;
+        }
+
+        /**
+         * Moves the pricing to a new plan of the same store. The discounts both plans share unchanged keep their
+         * cached prices and condition outcomes; only the others are priced again, for every line.
+         */
+        public synchronized Pricing rebase(DiscountPlan newPlan) {
+            Pricing rebased = new Pricing(newPlan);
+            rebased.changedLines.putAll(changedLines);
+            rebased.lineVersions.putAll(lineVersions);
+            rebased.seedVersion = seedVersion;
+            rebased.basketTotal = basketTotal;
+            rebased.priceChanges = priceChanges;
+            rebased.evaluated = evaluated;
+            for (Map.Entry<String, Line> line : lines.entrySet()) {
+                Line old = line.getValue();
+                rebased.lines.put(line.getKey(), new Line(old.item, old.price, old.quantity, newPlan.nodes.size()));
+            }
+            for (int j = 0; j < newPlan.entries.size(); j++) {
+                Entry target = newPlan.entries.get(j);
+                int source = target.root == null ? -1 : sameEntry(target);
+                if (source < 0) {
+                    rebased.stale[j] = true;
+                    continue;
+                }
+                Entry kept = plan.entries.get(source);
+                for (int k = 0; k < target.nodeCount(); k++) {
+                    Node from = plan.nodes.get(kept.firstNode + k);
+                    Node to = newPlan.nodes.get(target.firstNode + k);
+                    rebased.outcomes[to.test.slot] = outcomes[from.test.slot];
+                    for (Map.Entry<String, Line> line : lines.entrySet()) {
+                        rebased.lines.get(line.getKey()).nodePrices[to.index] = line.getValue().nodePrices[from.index];
+                    }
+                }
+                rebased.breakdowns.set(j, new HashMap<>(breakdowns.get(source)));
+                rebased.totals[j] = totals[source];
+                rebased.stale[j] = stale[source];
+            }
+            return rebased;
+        }
+
+        private int sameEntry(Entry target) {
+            for (int i = 0; i < plan.entries.size(); i++) {
+                Entry entry = plan.entries.get(i);
+                if (entry.root != null && entry.nodeCount() == target.nodeCount() && entry.isCurrent(target.discount, plan.versions)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Records that a basket line has {@code newQuantity} as of the basket's {@code linesVersion};
+         * null means the line was removed.
+         */
+        public synchronized void lineChanged(String productId, Integer newQuantity, long linesVersion) {
+            if (linesVersion > seedVersion) {
+                record(productId, newQuantity, linesVersion);
+            }
+        }
+
+        /**
+         * Brings every line up to the basket's lines as of {@code linesVersion}, except lines a later change
+         * already reached. Called once the pricing is published, so every change after the snapshot reaches it.
+         */
+        public synchronized void seed(Map<String, Integer> basketLines, long linesVersion) {
+            List<String> productIds = new ArrayList<>(basketLines.keySet());
+            productIds.addAll(lines.keySet());
+            productIds.addAll(changedLines.keySet());
+            for (String productId : productIds) {
+                record(productId, basketLines.get(productId), linesVersion);
+            }
+            seedVersion = Math.max(seedVersion, linesVersion);
+        }
+
+        private void record(String productId, Integer newQuantity, long linesVersion) {
+            Long last = lineVersions.get(productId);
+            if (last == null || linesVersion > last) {
+                lineVersions.put(productId, linesVersion);
+                changedLines.put(productId, newQuantity);
+            }
+        }
+
+        /**
+         * Returns the best price breakdown per line, as {@link ShoppingBasket#getBestPrice} defines it.
+         */
+        public synchronized Map<String, ItemPriceBreakdown> getBestPrice(ShoppingBasket basket,
+                                                                      BiFunction<String, String, Item> itemGetter) {
+            refresh(basket, itemGetter);
+            Map<String, ItemPriceBreakdown> best = null;
+            double bestTotal = Double.MAX_VALUE;
+            for (int i = 0; i < breakdowns.size(); i++) {
+                Map<String, ItemPriceBreakdown> candidate = breakdowns.get(i);
+                if (candidate == null || candidate.isEmpty()) {
+                    continue;
+                }
+                if (totals[i] < bestTotal) {
+                    best = candidate;
+                    bestTotal = totals[i];
+                }
+            }
+            return best == null ? new HashMap<>() : new HashMap<>(best);
+        }
+
+        private void refresh(ShoppingBasket basket, BiFunction<String, String, Item> itemGetter) {
+            long currentPriceChanges = plan.versions.ofPrices(plan.storeId);
+            boolean pricesChanged = currentPriceChanges != priceChanges;
+            if (pricesChanged) {
+                for (Map.Entry<String, Line> line : lines.entrySet()) {
+                    changedLines.putIfAbsent(line.getKey(), line.getValue().quantity);
+                }
+                priceChanges = currentPriceChanges;
+            }
+            if (evaluated && changedLines.isEmpty() && !anyStale()) {
+                return;
+            }
+
+            List<String> repriced = new ArrayList<>();
+            for (Map.Entry<String, Integer> change : changedLines.entrySet()) {
+                String productId = change.getKey();
+                Line line = lines.get(productId);
+                if (change.getValue() == null) {
+                    if (lines.remove(productId) != null) {
+                        repriced.add(productId);
+                    }
+                    continue;
+                }
+                Item item = line != null && !pricesChanged ? line.item : itemGetter.apply(plan.storeId, productId);
+                if (line == null || line.item != item || line.price != item.getPrice()) {
+                    line = new Line(item, change.getValue(), plan.nodes.size());
+                    lines.put(productId, line);
+                    repriced.add(productId);
+                } else {
+                    line.quantity = change.getValue();
+                }
+            }
+            changedLines.clear();
+            basketTotal = 0;
+            for (Line line : lines.values()) {
+                basketTotal += line.amount();
+            }
+
+            boolean[] previous = outcomes.clone();
+            for (Test test : plan.slots) {
+                outcomes[test.slot] = holds(test, basket, itemGetter);
+            }
+            boolean[] changedNodes = plan.changedNodes(previous, outcomes);
+
+            for (int i = 0; i < plan.entries.size(); i++) {
+                Entry entry = plan.entries.get(i);
+                if (entry.root == null) {
+                    Map<String, ItemPriceBreakdown> interpreted = entry.discount.calculatePrice(basket, itemGetter);
+                    breakdowns.set(i, interpreted);
+                    totals[i] = interpreted == null ? 0 : sum(interpreted);
+                } else if (!evaluated || stale[i] || changedNodes[entry.root.index]) {
+                    stale[i] = false;
+                    Map<String, ItemPriceBreakdown> recomputed = new HashMap<>();
+                    for (Map.Entry<String, Line> line : lines.entrySet()) {
+                        recomputed.put(line.getKey(), price(entry.root, line.getValue(), changedNodes));
+                    }
+                    breakdowns.set(i, recomputed);
+                    totals[i] = sum(recomputed);
+                } else {
+                    updateLines(i, entry, repriced, changedNodes);
+                }
+            }
+            evaluated = true;
+        }
+
+        private boolean anyStale() {
+            for (boolean entry : stale) {
+                if (entry) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void updateLines(int index, Entry entry, List<String> productIds, boolean[] changedNodes) {
+            Map<String, ItemPriceBreakdown> current = breakdowns.get(index);
+            for (String productId : productIds) {
+                current.remove(productId);
+                Line line = lines.get(productId);
+                if (line != null) {
+                    current.put(productId, price(entry.root, line, changedNodes));
+                }
+            }
+            totals[index] = sum(current);
+        }
+
+        /**
+         * A node's price for a line, reusing the cached one unless the node changed or the line is new.
+         * Children are always brought up to date, even ones the node does not use now,
+         * so that a cached price is never older than the last refresh.
+         */
+        private ItemPriceBreakdown price(Node node, Line line, boolean[] changedNodes) {
+            ItemPriceBreakdown cached = line.nodePrices[node.index];
+            if (cached != null && !changedNodes[node.index]) {
+                return cached;
+            }
+            ItemPriceBreakdown[] childPrices = new ItemPriceBreakdown[node.children.size()];
+            for (int i = 0; i < childPrices.length; i++) {
+                childPrices[i] = price(node.children.get(i), line, changedNodes);
+            }
+            ItemPriceBreakdown result;
+            switch (node.kind) {
+                case SIMPLE:
+                    double discount = outcomes[node.test.slot] && node.qualifier.isQualified(line.item) ? node.percentage : 0;
+                    result = new ItemPriceBreakdown(line.price, discount, null);
+                    break;
+                case XOR:
+                    result = childPrices[outcomes[node.test.slot] ? 1 : 0];
+                    break;
+                default:
+                    if (!outcomes[node.test.slot] || !childrenApply(node, outcomes)) {
+                        result = new ItemPriceBreakdown(line.price, 0, null);
+                        break;
+                    }
+                    result = childPrices[0];
+                    for (int i = 1; i < childPrices.length; i++) {
+                        result = node.mergeType == MergeType.MAX
+                                ? ItemPriceBreakdown.combineMax(result, childPrices[i])
+                                : ItemPriceBreakdown.combineMultiplicate(result, childPrices[i]);
+                    }
+            }
+            line.nodePrices[node.index] = result;
+            return result;
+        }
+
+        /**
+         * Sums final prices in map order, as {@link ItemPriceBreakdown#calculateFinalPrice} does,
+         * so totals are summed the same way the uncached pricing sums them.
+         */
+        private static double sum(Map<String, ItemPriceBreakdown> lineBreakdowns) {
+            double total = 0;
+            for (ItemPriceBreakdown breakdown : lineBreakdowns.values()) {
+                total += breakdown.getFinalPrice();
+            }
+            return total;
+        }
+
+        private boolean holds(Test test, ShoppingBasket basket, BiFunction<String, String, Item> itemGetter) {
+            switch (test.kind) {
+                case TRUE:
+                    return true;
+                case MIN_QUANTITY:
+                    return quantityOf(test.productId) >= test.quantity;
+                case MAX_QUANTITY:
+                    return quantityOf(test.productId) <= test.quantity;
+                case MIN_PRICE:
+                    return basketTotal >= test.price;
+                case MAX_PRICE:
+                    return basketTotal <= test.price;
+                case AND:
+                    for (Test child : test.children) {
+                        if (!holds(child, basket, itemGetter)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                case OR:
+                    for (Test child : test.children) {
+                        if (holds(child, basket, itemGetter)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                default:
+                    return test.condition.isSatisfied(basket, itemGetter);
+            }
+        }
+
+        private int quantityOf(String productId) {
+            Line line = lines.get(productId);
+            return line == null ? 0 : line.quantity;
+        }
+    }
+}
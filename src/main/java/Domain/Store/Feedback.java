@@ -2,8 +2,17 @@ package Domain.Store;
 
 import jakarta.persistence.*;
 
+/**
+ * A customer's review of an item.
+ * Each feedback gets a sequence number from its repository when added, increasing with every addition, so
+ * that the feedback of a product, store or customer is ordered by it and a page of it is a range of it.
+ */
 @Entity
-@Table(name = "feedback")
+@Table(name = "feedback", indexes = {
+        @Index(name = "idx_feedback_product", columnList = "productId, sequence"),
+        @Index(name = "idx_feedback_store", columnList = "storeId, sequence"),
+        @Index(name = "idx_feedback_customer", columnList = "customerId, sequence")
+})
 public class Feedback {
 
     @Id
@@ -13,6 +22,8 @@ public class Feedback {
     private String storeId;
     private String productId;
     private String comment;
+    // Nullable so that the column can be added to an existing table; rows from before it are numbered on startup
+    private Long sequence;
 
     protected Feedback() {} // Required by JPA
 
@@ -44,6 +55,13 @@ public class Feedback {
         return comment;
     }
 
+    /**
+     * @return the position of the feedback among all feedback, or 0 if it was not added to a repository yet
+     */
+    public long getSequence() {
+        return sequence == null ? 0 : sequence;
+    }
+
     // Setters for JPA
     public void setFeedbackId(String feedbackId) {
         this.feedbackId = feedbackId;
@@ -65,6 +83,10 @@ public class Feedback {
         this.comment = comment;
     }
 
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,23 @@
+package Domain.Store;
+
+import java.util.function.Function;
+
+/**
+ * The ways feedback is looked up: by product, by store and by the customer who wrote it.
+ */
+public enum FeedbackIndex {
+    PRODUCT(Feedback::getProductId),
+    STORE(Feedback::getStoreId),
+    CUSTOMER(Feedback::getCustomerId);
+
+    private final Function<Feedback, String> key;
+
+    FeedbackIndex(Function<Feedback, String> key) {
+        this.key = key;
+    }
+
+    /** @return the key under which the feedback is found in this index */
+    public String keyOf(Feedback feedback) {
+        return key.apply(feedback);
+    }
+}
@@ -0,0 +1,40 @@
+package Domain.Store;
+
+import java.util.List;
+
+/**
+ * One page of the feedback of a product, store or customer, newest first.
+ */
+public class FeedbackPage {
+    private final List<Feedback> feedbacks;
+    private final long nextBefore;
+    private final long totalCount;
+
+    public FeedbackPage(List<Feedback> feedbacks, long nextBefore, long totalCount) {
+        this.feedbacks = List.copyOf(feedbacks);
+        this.nextBefore = nextBefore;
+        this.totalCount = totalCount;
+    }
+
+    public List<Feedback> getFeedbacks() {
+        return feedbacks;
+    }
+
+    /**
+     * The value to pass as {@code before} for the next, older page; 0 when this is the oldest page.
+     */
+    public long getNextBefore() {
+        return nextBefore;
+    }
+
+    public boolean hasMore() {
+        return nextBefore > 0;
+    }
+
+    /**
+     * @return how much feedback there is in all pages together
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+}
@@ -0,0 +1,35 @@
+package Domain.Store;
+
+import java.util.List;
+
+public class FeedbackPageDTO {
+    private final List<FeedbackDTO> feedbacks;
+    private final long nextBefore;
+    private final long totalCount;
+
+    public FeedbackPageDTO(List<FeedbackDTO> feedbacks, long nextBefore, long totalCount) {
+        this.feedbacks = feedbacks;
+        this.nextBefore = nextBefore;
+        this.totalCount = totalCount;
+    }
+
+    public FeedbackPageDTO(FeedbackPage page) {
+        this(page.getFeedbacks().stream().map(FeedbackDTO::new).toList(), page.getNextBefore(), page.getTotalCount());
+    }
+
+    public List<FeedbackDTO> getFeedbacks() {
+        return feedbacks;
+    }
+
+    public long getNextBefore() {
+        return nextBefore;
+    }
+
+    public boolean hasMore() {
+        return nextBefore > 0;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+}
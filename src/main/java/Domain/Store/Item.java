@@ -1,27 +1,33 @@
 package Domain.Store;
 
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.IntStream;
+import java.util.concurrent.atomic.LongAdder;
 
+import org.springframework.data.domain.Persistable;
+
+import jakarta.persistence.Column;
 import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
 import jakarta.persistence.IdClass;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 
 /**
  * Represents an item available in a store.
  * Encapsulates inventory, pricing, description, and rating logic.
+ * New items report themselves as new, so that saving them inserts without looking them up first.
  */
 
  @Entity
  @Table(name = "items")
  @IdClass(ItemId.class)
-public class Item {
+public class Item implements Persistable<ItemId> {
 
     @Id
     private String storeId;
@@ -35,13 +41,35 @@ public class Item {
     @ElementCollection(fetch = FetchType.EAGER)
     private Set<Category> categories;
 
+    // Ratings per star as stored. Written when the item is inserted and then only by the repository's batched
+    // rating updates, so saving an older copy of the item cannot undo ratings given meanwhile.
+    @Column(updatable = false, columnDefinition = "integer default 0 not null")
+    private int rating1;
+    @Column(updatable = false, columnDefinition = "integer default 0 not null")
+    private int rating2;
+    @Column(updatable = false, columnDefinition = "integer default 0 not null")
+    private int rating3;
+    @Column(updatable = false, columnDefinition = "integer default 0 not null")
+    private int rating4;
+    @Column(updatable = false, columnDefinition = "integer default 0 not null")
+    private int rating5;
 
-    @ElementCollection(fetch = FetchType.EAGER)
-    private List<Integer> rates;
+    @Transient
+    private RatingHistogram ratings = new RatingHistogram();
+
+    // Where the stock is kept while a repository holds it outside the item; amount is stale meanwhile
+    @Transient
+    private volatile StockCounter stock;
+
+    @Transient
+    private boolean stored;
+
+    // The store's change counter, looked up once instead of on every sale
+    @Transient
+    private volatile LongAdder catalogVersion;
 
     protected Item() {
     // Required by JPA
-    this.rates = new ArrayList<>(Arrays.asList(0, 0, 0, 0, 0));
     }
 
     /**
@@ -61,7 +89,42 @@ public class Item {
         this.description = description;
         this.productName = productName;
         this.categories = categories;
-        this.rates = new ArrayList<>(Arrays.asList(0, 0, 0, 0, 0));
+    }
+
+    @PostLoad
+    void loadRatings() {
+        stored = true;
+        RatingHistogram loaded = new RatingHistogram();
+        loaded.add(1, rating1);
+        loaded.add(2, rating2);
+        loaded.add(3, rating3);
+        loaded.add(4, rating4);
+        loaded.add(5, rating5);
+        this.ratings = loaded;
+    }
+
+    @PrePersist
+    void storeRatings() {
+        rating1 = (int) ratings.getCount(1);
+        rating2 = (int) ratings.getCount(2);
+        rating3 = (int) ratings.getCount(3);
+        rating4 = (int) ratings.getCount(4);
+        rating5 = (int) ratings.getCount(5);
+    }
+
+    @PostPersist
+    void markStored() {
+        stored = true;
+    }
+
+    @Override
+    public ItemId getId() {
+        return new ItemId(storeId, productId);
+    }
+
+    @Override
+    public boolean isNew() {
+        return !stored;
     }
 
     /** @return the store ID associated with this item */
@@ -76,7 +139,36 @@ public class Item {
 
     /** @return the quantity in stock */
     public int getAmount() {
-        return amount;
+        StockCounter counter = stock;
+        return counter != null ? counter.get() : amount;
+    }
+
+    /**
+     * Keeps the item's stock in the counter from now on. The counter must already hold the current stock.
+     */
+    public void bindStock(StockCounter counter) {
+        this.stock = counter;
+    }
+
+    /**
+     * Brings the stock back into the item.
+     *
+     * @return the counter the stock was kept in, or null if it was kept in the item
+     */
+    public StockCounter unbindStock() {
+        StockCounter counter = stock;
+        if (counter != null) {
+            amount = counter.get();
+            stock = null;
+        }
+        return counter;
+    }
+
+    /**
+     * @return true if the stock is kept in a {@link StockCounter}, whose changes need no lock on the item
+     */
+    public boolean hasAtomicStock() {
+        return stock != null;
     }
 
     /** @return the price of the item */
@@ -107,13 +199,35 @@ public class Item {
 
     /**
      * Sets the available quantity of the item.
+     * With a {@link StockCounter} the difference is added to it, so that sales made meanwhile still count.
      * @param amount the new amount
      * @throws IllegalArgumentException if amount is negative
      */
     public void setAmount(int amount) {
         if (amount < 0)
             throw new IllegalArgumentException("Amount cannot be negative");
-        this.amount = amount;
+        StockCounter counter = stock;
+        if (counter != null) {
+            // Only fails if sales took the stock below the difference first; retry against what is left
+            int current;
+            do {
+                current = counter.get();
+            } while (!counter.add(amount - current));
+        } else {
+            this.amount = amount;
+        }
+        catalogChanged();
+    }
+
+    private void catalogChanged() {
+        if (storeId == null) {
+            return;
+        }
+        LongAdder version = catalogVersion;
+        if (version == null) {
+            catalogVersion = version = CatalogVersions.counterOf(storeId);
+        }
+        CatalogVersions.changed(version);
     }
 
     /**
@@ -125,36 +239,47 @@ public class Item {
         if (newPrice < 0)
             throw new IllegalArgumentException("Price cannot be negative");
         this.price = newPrice;
+        catalogChanged();
     }
 
     /**
      * Adds a rating to the item.
-     * @param newRating a value from 1 to 5 (0 is ignored)
+     * @param newRating a value from 1 to 5
      * @throws IllegalArgumentException if the rating is out of bounds
      */
     public void addRating(int newRating) {
-        if (newRating < 1 || newRating > 5)
-            throw new IllegalArgumentException("newRating must be between 1 and 5");
+        addRatings(newRating, 1);
+    }
 
-        rates.set(newRating - 1, rates.get(newRating - 1) + 1);
+    /**
+     * Adds {@code times} ratings of the same value to the item.
+     * @throws IllegalArgumentException if the rating is out of bounds or times is negative
+     */
+    public void addRatings(int rating, long times) {
+        ratings.add(rating, times);
+        catalogChanged();
     }
 
+    /**
+     * @return how many times each rating from 1 to 5 was given
+     */
+    public List<Integer> getRatingCounts() {
+        return List.of((int) ratings.getCount(1), (int) ratings.getCount(2), (int) ratings.getCount(3),
+                       (int) ratings.getCount(4), (int) ratings.getCount(5));
+    }
 
+    /**
+     * @return how many times the given rating from 1 to 5 was given
+     */
+    public long getRatingCount(int rating) {
+        return ratings.getCount(rating);
+    }
 
     /**
      * @return the average user rating for this item (0.0 if unrated)
      */
     public double getRating() {
-        if (rates == null || rates.isEmpty()) return 0.0;
-
-        int totalCount = rates.stream().mapToInt(Integer::intValue).sum();
-        if (totalCount == 0) return 0.0;
-
-        double weightedSum = IntStream.range(0, rates.size())
-                                    .mapToDouble(i -> (i + 1) * rates.get(i))
-                                    .sum();
-
-        return weightedSum / totalCount;
+        return ratings.getAverage();
     }
 
 
@@ -166,9 +291,41 @@ public class Item {
     public void decreaseAmount(int amount) {
         if (amount < 0)
             throw new IllegalArgumentException("Amount cannot be negative");
-        if (this.amount - amount < 0)
-            throw new IllegalArgumentException("Not enough items in stock");
-        this.amount -= amount;
+        StockCounter counter = stock;
+        if (counter != null) {
+            if (!counter.add(-amount))
+                throw new IllegalArgumentException("Not enough items in stock");
+        } else {
+            if (this.amount - amount < 0)
+                throw new IllegalArgumentException("Not enough items in stock");
+            this.amount -= amount;
+        }
+        catalogChanged();
+    }
+
+    /**
+     * Decreases the available quantity of the item by as much of the amount as is in stock.
+     * @param amount most to remove
+     * @return how much was removed
+     * @throws IllegalArgumentException if amount is negative
+     */
+    public int decreaseAmountUpTo(int amount) {
+        if (amount < 0)
+            throw new IllegalArgumentException("Amount cannot be negative");
+        StockCounter counter = stock;
+        int removed;
+        if (counter != null) {
+            do {
+                removed = Math.min(amount, counter.get());
+            } while (removed > 0 && !counter.add(-removed));
+        } else {
+            removed = Math.min(amount, this.amount);
+            this.amount -= removed;
+        }
+        if (removed > 0) {
+            catalogChanged();
+        }
+        return Math.max(removed, 0);
     }
 
     /**
@@ -179,6 +336,12 @@ public class Item {
     public void increaseAmount(int amount) {
         if (amount < 0)
             throw new IllegalArgumentException("Amount cannot be negative");
-        this.amount += amount;
+        StockCounter counter = stock;
+        if (counter != null) {
+            counter.add(amount);
+        } else {
+            this.amount += amount;
+        }
+        catalogChanged();
     }
 }
@@ -1,12 +1,20 @@
 package Domain.Store;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import Domain.Pair;
+import Domain.Events.DomainEvent;
+import Domain.Events.DomainEvent.ItemChanged.Change;
+import Domain.Events.DomainEventBus;
 import Domain.Repos.IItemRepository;
 import Domain.Repos.IProductRepository;
 import Domain.Repos.IStoreRepository;
@@ -21,15 +29,20 @@ public class ItemFacade {
     private final IItemRepository itemRepository;
     private final IProductRepository productRepository;
     private final IStoreRepository storeRepository;
+    private final DomainEventBus eventBus;
+    // Price changes per store, so cached basket prices can tell when to read the items again
+    private final Map<String, AtomicLong> priceVersions = new ConcurrentHashMap<>();
 
     /**
-     * Constructs the facade with required repositories.
+     * Constructs the facade with required repositories and the bus it tells about item changes.
      */
     @Autowired
-    public ItemFacade(IItemRepository itemRepository, IProductRepository productRepository, IStoreRepository storeRepository) {
+    public ItemFacade(IItemRepository itemRepository, IProductRepository productRepository, IStoreRepository storeRepository,
+                      DomainEventBus eventBus) {
         this.itemRepository = itemRepository;
         this.productRepository = productRepository;
         this.storeRepository = storeRepository;
+        this.eventBus = eventBus;
     }
 
     /**
@@ -58,6 +71,16 @@ public class ItemFacade {
         return item;
     }
 
+    /**
+     * Retrieves the items a store sells of the given products, by product id, with one store check and one
+     * repository read instead of a lookup per product. Products the store does not sell are left out.
+     */
+    public Map<String, Item> getItems(String storeId, Collection<String> productIds) {
+        if (storeRepository.get(storeId) == null)
+            throw new NoSuchElementException("Store not found for storeId: " + storeId);
+        return itemRepository.getItems(storeId, productIds);
+    }
+
     /**
      * Returns all items from a given store after checking the store exists.
      */
@@ -80,6 +103,10 @@ public class ItemFacade {
     public void update(Pair<String, String> id, Item item) {
         validateStoreAndProductExist(id.getFirst(), id.getSecond());
         itemRepository.update(id, item);
+        // The caller may have changed the price on the item it passes
+        priceChanged(id.getFirst());
+        CatalogVersions.changed(id.getFirst());
+        publishItemChanged(id.getFirst(), id.getSecond(), Change.UPDATED);
     }
 
     /**
@@ -98,7 +125,8 @@ public class ItemFacade {
         if (!itemRepository.add(id, item)) {
             throw new RuntimeException("Item not added");
         }
-        
+        CatalogVersions.changed(storeId);
+        publishItemChanged(storeId, productId, Change.ADDED);
         return item;
     }
     public Item add(String storeId, String productId, double price, int amount, String description) {
@@ -114,7 +142,8 @@ public class ItemFacade {
         if (!itemRepository.add(id, item)) {
             return null;
         }
-        
+        CatalogVersions.changed(storeId);
+        publishItemChanged(storeId, productId, Change.ADDED);
         return item;
     }
 
@@ -126,6 +155,8 @@ public class ItemFacade {
         Item item = itemRepository.remove(id);
         if (item == null)
             throw new NoSuchElementException("No item with id: " + id + " exists.");
+        CatalogVersions.changed(id.getFirst());
+        publishItemChanged(id.getFirst(), id.getSecond(), Change.REMOVED);
         return item;
     }
 
@@ -140,10 +171,12 @@ public class ItemFacade {
             throw new NoSuchElementException("Item not found for: " + id);
         }
     
-        Object lock = getOrCreateLockSafe(id);
-        synchronized (lock) {
+        if (item.hasAtomicStock()) {
             item.increaseAmount(amount);
+        } else {
+            itemRepository.withWriteLock(id, () -> item.increaseAmount(amount));
         }
+        eventBus.publish(new DomainEvent.StockChanged(id.getFirst(), id.getSecond(), amount));
     }
 
     /**
@@ -157,10 +190,62 @@ public class ItemFacade {
             throw new NoSuchElementException("Item not found for: " + id);
         }
     
-        Object lock = getOrCreateLockSafe(id);
-        synchronized (lock) {
+        if (item.hasAtomicStock()) {
             item.decreaseAmount(amount);
+        } else {
+            itemRepository.withWriteLock(id, () -> item.decreaseAmount(amount));
         }
+        eventBus.publish(new DomainEvent.StockChanged(id.getFirst(), id.getSecond(), -amount));
+    }
+
+    /**
+     * Applies a batch of price and stock changes to a store's items, all of them or none, and publishes one
+     * {@link DomainEvent.ItemsUpdated} for the batch.
+     *
+     * @return the updated items, in the order of the updates
+     * @throws NoSuchElementException if the store does not exist or does not sell one of the products
+     * @throws IllegalArgumentException if an update would take an item's stock below zero
+     */
+    public List<Item> updateItems(String storeId, List<ItemUpdate> updates) {
+        if (storeRepository.get(storeId) == null)
+            throw new NoSuchElementException("Store not found for storeId: " + storeId);
+        if (updates.isEmpty()) {
+            return List.of();
+        }
+        List<Item> items;
+        try {
+            items = itemRepository.updateAll(storeId, updates);
+        } finally {
+            // Also when the batch was rolled back: a price may have been read between its change and its rollback
+            if (updates.stream().anyMatch(update -> update.getPrice() != null)) {
+                priceChanged(storeId);
+            }
+        }
+        CatalogVersions.changed(storeId);
+        List<String> productIds = updates.stream().map(ItemUpdate::getProductId).distinct()
+                .collect(Collectors.toUnmodifiableList());
+        eventBus.publish(new DomainEvent.ItemsUpdated(storeId, productIds));
+        return items;
+    }
+
+    /**
+     * Changes the price of one item.
+     *
+     * @throws NoSuchElementException if the store does not exist or does not sell the product
+     * @throws IllegalArgumentException if the price is negative
+     */
+    public Item changePrice(String storeId, String productId, float price) {
+        return updateItems(storeId, List.of(ItemUpdate.price(productId, price))).get(0);
+    }
+
+    /** @return how many times prices of the store's items changed through this facade */
+    public long getPriceVersion(String storeId) {
+        AtomicLong version = priceVersions.get(storeId);
+        return version == null ? 0 : version.get();
+    }
+
+    private void priceChanged(String storeId) {
+        priceVersions.computeIfAbsent(storeId, id -> new AtomicLong()).incrementAndGet();
     }
 
     public void addRating(String storeId, String productId, int rating){
@@ -168,18 +253,13 @@ public class ItemFacade {
         if (rating < 0 || rating > 5) {
             throw new IllegalArgumentException("Rating must be between 0 and 5");
         }
-        Object lock = itemRepository.getLock(new Pair<>(storeId, productId));
-        if (lock == null) {
-            throw new IllegalStateException("Lock not found for storeId: " + storeId + ", productId: " + productId);
-        }
-        synchronized (lock) {
-            Item item = itemRepository.getItem(storeId, productId);
-            if (item == null) {
-                throw new NoSuchElementException("Item not found for storeId: " + storeId + ", productId: " + productId);
-            }
-            item.addRating(rating);
-            itemRepository.update(new Pair<>(storeId, productId), item);
+        Item item = itemRepository.getItem(storeId, productId);
+        if (item == null) {
+            throw new NoSuchElementException("Item not found for storeId: " + storeId + ", productId: " + productId);
         }
+        // The histogram is lock-free, so ratings need not wait on the item's write lock
+        item.addRating(rating);
+        itemRepository.ratingAdded(item, rating);
     }
 
     public Product getProduct(String productId) {
@@ -190,6 +270,10 @@ public class ItemFacade {
         return new Product(product);
     }
 
+    private void publishItemChanged(String storeId, String productId, Change change) {
+        eventBus.publish(new DomainEvent.ItemChanged(storeId, productId, change));
+    }
+
     /**
      * Validates the existence of both store and product before any item operation.
      */
@@ -201,16 +285,5 @@ public class ItemFacade {
             throw new NoSuchElementException("Product not found for productId: " + productId);
         }
     }
-
-    private Object getOrCreateLockSafe(Pair<String, String> id) {
-        Object lock = itemRepository.getLock(id);
-        if (lock == null) {
-            // Trigger a side-effect that will create the lock safely.
-            // For example, call `add(...)` again with a dummy item if you know it's already added,
-            // or assume all existing items already have a lock because the repo does `addLock` on `add`.
-            throw new IllegalStateException("Lock not found for id: " + id + ". Ensure all added items create locks.");
-        }
-        return lock;
-    }
     
 }
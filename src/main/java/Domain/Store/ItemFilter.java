@@ -28,6 +28,14 @@ public class ItemFilter {
         this.amount = builder.amount;
     }
 
+    /**
+     * @return whether the filter sets no criteria, so that it matches every available item
+     */
+    public boolean isEmpty() {
+        return categories.isEmpty() && minPrice < 0 && maxPrice < 0 && minRating < 0 && maxRating < 0
+                && itemName.equals("") && amount < 0;
+    }
+
     /**
      * Checks if the given item matches all configured filter criteria.
      */
@@ -0,0 +1,69 @@
+package Domain.Store;
+
+/**
+ * A change to one item of a store in a batch update: a new price, a change to its stock, or both.
+ */
+public final class ItemUpdate {
+    private final String productId;
+    private final Float price;
+    private final int amountDelta;
+
+    /**
+     * @param price the new price, or null to keep the current one
+     * @param amountDelta how much to add to the stock, or, if negative, to take from it
+     * @throws IllegalArgumentException if the product id is missing or the price is negative
+     */
+    public ItemUpdate(String productId, Float price, int amountDelta) {
+        if (productId == null || productId.isBlank())
+            throw new IllegalArgumentException("Product id is required");
+        if (price != null && (price < 0 || !Float.isFinite(price)))
+            throw new IllegalArgumentException("Price cannot be negative");
+        this.productId = productId;
+        this.price = price;
+        this.amountDelta = amountDelta;
+    }
+
+    public static ItemUpdate price(String productId, float price) {
+        return new ItemUpdate(productId, price, 0);
+    }
+
+    public static ItemUpdate stock(String productId, int amountDelta) {
+        return new ItemUpdate(productId, null, amountDelta);
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    /** @return the new price, or null if the price does not change */
+    public Float getPrice() {
+        return price;
+    }
+
+    public int getAmountDelta() {
+        return amountDelta;
+    }
+
+    /**
+     * Applies the change to an item. The caller holds the item's write lock.
+     *
+     * @throws IllegalArgumentException if the stock would go below zero; the item is left unchanged then
+     */
+    public void applyTo(Item item) {
+        if (item.getAmount() + amountDelta < 0)
+            throw new IllegalArgumentException("Not enough stock of " + productId + " to remove " + -amountDelta);
+        if (amountDelta > 0) {
+            item.increaseAmount(amountDelta);
+        } else if (amountDelta < 0) {
+            item.decreaseAmount(-amountDelta);
+        }
+        if (price != null) {
+            item.setPrice(price);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return productId + (price != null ? " price " + price : "") + (amountDelta != 0 ? " stock " + amountDelta : "");
+    }
+}
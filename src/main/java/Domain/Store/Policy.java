@@ -220,8 +220,23 @@ public class Policy {
 
     /**
      * Evaluate the policy against basket and member.
+     * A policy with sub-policies holds only if all of them hold as well.
      */
     public boolean isApplicable(ShoppingBasket basket, Member member) {
+        if (!isOwnRuleApplicable(basket, member)) {
+            return false;
+        }
+        if (subPolicies != null) {
+            for (Policy sub : subPolicies) {
+                if (!sub.isApplicable(basket, member)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean isOwnRuleApplicable(ShoppingBasket basket, Member member) {
         switch (type) {
 
             case MIN_QUANTITY_ALL:
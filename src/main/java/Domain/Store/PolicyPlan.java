@@ -0,0 +1,298 @@
+package Domain.Store;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import Domain.Shopping.ShoppingBasket;
+import Domain.User.Member;
+
+/**
+ * A store's policies compiled for fast repeated evaluation.
+ * <p>
+ * Every category a policy refers to gets a bit, and each product is resolved once to the mask of
+ * referenced categories it belongs to. Quantity rules that apply line by line (the *_ALL and *_CATEGORY
+ * policies) are tracked per basket by a {@link Tracker}, which keeps a running count of violating lines
+ * and of lines per category and is updated only for the lines that change.
+ * Checking a basket is then O(#policies) and needs no product lookups.
+ * <p>
+ * Nested sub-policies are flattened into the plan; a policy holds only if all of its sub-policies hold.
+ * Policy types the plan does not know are evaluated through {@link Policy#isApplicable}.
+ * Product categories are resolved once per plan, so a plan is rebuilt whenever the store's policies change.
+ */
+public class PolicyPlan {
+    private static final int MAX_CATEGORIES = Long.SIZE;
+
+    private enum RuleKind { LINE_MIN, LINE_MAX, PRODUCT_MIN, PRODUCT_MAX, DISALLOW, AGE, INTERPRETED }
+
+    /**
+     * One compiled check. {@code category} is a bit index, or -1 when a line rule applies to every line.
+     */
+    private static final class Rule {
+        final Policy policy;
+        final RuleKind kind;
+        final int category;
+        final int bound;
+        final String productId;
+        int lineSlot = -1;
+
+        Rule(Policy policy, RuleKind kind, int category, int bound, String productId) {
+            this.policy = policy;
+            this.kind = kind;
+            this.category = category;
+            this.bound = bound;
+            this.productId = productId;
+        }
+
+        boolean violatedBy(long mask, int quantity) {
+            if (category >= 0 && (mask & (1L << category)) == 0) {
+                return false;
+            }
+            return kind == RuleKind.LINE_MIN ? quantity < bound : quantity > bound;
+        }
+    }
+
+    private final String storeId;
+    private final List<Policy> policies;
+    private final Function<String, Product> productLookup;
+    private final Map<String, Integer> categoryBits = new HashMap<>();
+    private final List<Rule> rules = new ArrayList<>();
+    private final List<Rule> lineRules = new ArrayList<>();
+    private final Map<String, Long> productMasks = new ConcurrentHashMap<>();
+    private final boolean compiled;
+
+    public PolicyPlan(String storeId, List<Policy> policies, Function<String, Product> productLookup) {
+        this.storeId = storeId;
+        this.policies = List.copyOf(policies);
+        this.productLookup = productLookup;
+        for (Policy policy : this.policies) {
+            compile(policy, policy);
+        }
+        this.compiled = categoryBits.size() <= MAX_CATEGORIES;
+        for (Rule rule : rules) {
+            if (rule.kind == RuleKind.LINE_MIN || rule.kind == RuleKind.LINE_MAX) {
+                rule.lineSlot = lineRules.size();
+                lineRules.add(rule);
+            }
+        }
+    }
+
+    private void compile(Policy owner, Policy policy) {
+        switch (policy.getType()) {
+            case MIN_QUANTITY_ALL:
+                rules.add(new Rule(owner, RuleKind.LINE_MIN, -1, policy.getMinItemsAll(), null));
+                break;
+            case MAX_QUANTITY_ALL:
+                rules.add(new Rule(owner, RuleKind.LINE_MAX, -1, policy.getMaxItemsAll(), null));
+                break;
+            case MIN_QUANTITY_PRODUCT:
+                rules.add(new Rule(owner, RuleKind.PRODUCT_MIN, -1, policy.getMinItemsProduct(), policy.getTargetProductId()));
+                break;
+            case MAX_QUANTITY_PRODUCT:
+                rules.add(new Rule(owner, RuleKind.PRODUCT_MAX, -1, policy.getMaxItemsProduct(), policy.getTargetProductId()));
+                break;
+            case MIN_QUANTITY_CATEGORY:
+                rules.add(new Rule(owner, RuleKind.LINE_MIN, bitOf(policy.getTargetCategory()), policy.getMinItemsCategory(), null));
+                break;
+            case MAX_QUANTITY_CATEGORY:
+                rules.add(new Rule(owner, RuleKind.LINE_MAX, bitOf(policy.getTargetCategory()), policy.getMaxItemsCategory(), null));
+                break;
+            case CATEGORY_DISALLOW:
+                rules.add(new Rule(owner, RuleKind.DISALLOW, bitOf(policy.getDisallowedCategory()), 0, null));
+                break;
+            case CATEGORY_AGE:
+                rules.add(new Rule(owner, RuleKind.AGE, bitOf(policy.getAgeCategory()), policy.getMinAge(), null));
+                break;
+            default:
+                rules.add(new Rule(owner, RuleKind.INTERPRETED, -1, 0, null));
+                return;
+        }
+        for (Policy sub : policy.getSubPolicies()) {
+            compile(owner, sub);
+        }
+    }
+
+    private int bitOf(String category) {
+        return categoryBits.computeIfAbsent(normalize(category), k -> categoryBits.size());
+    }
+
+    private static String normalize(String category) {
+        return category == null ? "" : category.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The mask of referenced categories a product belongs to, resolved on first use.
+     */
+    long maskOf(String productId) {
+        if (categoryBits.isEmpty()) {
+            return 0L;
+        }
+        Long mask = productMasks.get(productId);
+        if (mask == null) {
+            long resolved = 0L;
+            for (Category category : productLookup.apply(productId).getCategories()) {
+                Integer bit = categoryBits.get(normalize(category.getName()));
+                if (bit != null) {
+                    resolved |= 1L << bit;
+                }
+            }
+            mask = resolved;
+            productMasks.put(productId, mask);
+        }
+        return mask;
+    }
+
+    public String getStoreId() {
+        return storeId;
+    }
+
+    public List<Policy> getPolicies() {
+        return policies;
+    }
+
+    /**
+     * Returns the store policies the basket currently violates, in store order, or an empty list.
+     */
+    public List<Policy> getViolatedPolicies(ShoppingBasket basket, Member member) {
+        if (policies.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (!compiled) {
+            return policies.stream().filter(p -> !p.isApplicable(basket, member)).toList();
+        }
+        Tracker tracker = basket.getPolicyTracker(this);
+        List<Policy> violated = null;
+        for (Rule rule : rules) {
+            if (violated != null && violated.contains(rule.policy)) {
+                continue;
+            }
+            if (!holds(rule, tracker, basket, member)) {
+                if (violated == null) {
+                    violated = new ArrayList<>();
+                }
+                violated.add(rule.policy);
+            }
+        }
+        return violated == null ? Collections.emptyList() : violated;
+    }
+
+    public boolean isApplicable(ShoppingBasket basket, Member member) {
+        return getViolatedPolicies(basket, member).isEmpty();
+    }
+
+    private boolean holds(Rule rule, Tracker tracker, ShoppingBasket basket, Member member) {
+        switch (rule.kind) {
+            case LINE_MIN:
+            case LINE_MAX:
+                return tracker.violations(rule.lineSlot) == 0;
+            case PRODUCT_MIN:
+                return basket.getProduct(rule.productId) >= rule.bound;
+            case PRODUCT_MAX:
+                return basket.getProduct(rule.productId) <= rule.bound;
+            case DISALLOW:
+                return tracker.linesIn(rule.category) == 0;
+            case AGE:
+                return member.getAge() >= rule.bound && tracker.linesIn(rule.category) > 0;
+            default:
+                return rule.policy.isApplicable(basket, member);
+        }
+    }
+
+    /**
+     * Running policy counters for one basket under one plan.
+     * The basket reports every line change; the tracker adjusts only the counters that line affects.
+     * <p>
+     * Changes are stamped with the basket's lines version and may arrive late or out of order, so the tracker keeps
+     * each line's quantity and the version it was last changed at, and counts a change against the quantity it
+     * last recorded rather than the one the basket had. Older changes are ignored, as are changes the seed holds.
+     */
+    public static final class Tracker {
+        private final PolicyPlan plan;
+        private final int[] violatingLines;
+        private final int[] categoryLines;
+        private final Map<String, Integer> quantities = new HashMap<>();
+        private final Map<String, Long> lineVersions = new HashMap<>();
+        private long seedVersion = Long.MIN_VALUE;
+
+        Tracker(PolicyPlan plan) {
+            this.plan = plan;
+            this.violatingLines = new int[plan.lineRules.size()];
+            this.categoryLines = new int[plan.categoryBits.size()];
+        }
+
+        public PolicyPlan getPlan() {
+            return plan;
+        }
+
+        /**
+         * Records that a basket line has {@code newQuantity} as of the basket's {@code linesVersion};
+         * null means the line was removed.
+         */
+        public synchronized void lineChanged(String productId, Integer newQuantity, long linesVersion) {
+            if (linesVersion > seedVersion) {
+                record(productId, newQuantity, linesVersion);
+            }
+        }
+
+        /**
+         * Brings every line up to the basket's lines as of {@code linesVersion}, except lines a later change
+         * already reached. Called once the tracker is published, so every change after the snapshot reaches it.
+         */
+        public synchronized void seed(Map<String, Integer> lines, long linesVersion) {
+            List<String> productIds = new ArrayList<>(lines.keySet());
+            productIds.addAll(quantities.keySet());
+            for (String productId : productIds) {
+                record(productId, lines.get(productId), linesVersion);
+            }
+            seedVersion = Math.max(seedVersion, linesVersion);
+        }
+
+        private void record(String productId, Integer newQuantity, long linesVersion) {
+            Long last = lineVersions.get(productId);
+            if (last != null && linesVersion <= last) {
+                return;
+            }
+            long mask = plan.maskOf(productId);
+            Integer oldQuantity = newQuantity != null ? quantities.put(productId, newQuantity) : quantities.remove(productId);
+            lineVersions.put(productId, linesVersion);
+            if (oldQuantity == null && newQuantity != null) {
+                adjustCategories(mask, 1);
+            } else if (oldQuantity != null && newQuantity == null) {
+                adjustCategories(mask, -1);
+            }
+            for (Rule rule : plan.lineRules) {
+                int before = oldQuantity != null && rule.violatedBy(mask, oldQuantity) ? 1 : 0;
+                int after = newQuantity != null && rule.violatedBy(mask, newQuantity) ? 1 : 0;
+                violatingLines[rule.lineSlot] += after - before;
+            }
+        }
+
+        private void adjustCategories(long mask, int delta) {
+            while (mask != 0) {
+                int bit = Long.numberOfTrailingZeros(mask);
+                categoryLines[bit] += delta;
+                mask &= mask - 1;
+            }
+        }
+
+        synchronized int violations(int slot) {
+            return violatingLines[slot];
+        }
+
+        synchronized int linesIn(int category) {
+            return categoryLines[category];
+        }
+    }
+
+    /**
+     * Creates a tracker without lines, to be published to the basket and then {@linkplain Tracker#seed seeded}.
+     */
+    public Tracker newTracker() {
+        return new Tracker(this);
+    }
+}
@@ -4,22 +4,28 @@ import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
+import org.springframework.data.domain.Persistable;
+
 import jakarta.persistence.CollectionTable;
 import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 
 
 /**
  * Represents a product in the system.
  * A product has a unique ID, a name, and is associated with a set of categories.
+ * New products report themselves as new, so that saving them inserts without looking them up first.
  */
 @Table(name = "product")
 @Entity
-public class Product {
+public class Product implements Persistable<String> {
 
     @Id
     private String productId;
@@ -29,6 +35,9 @@ public class Product {
     @CollectionTable(name = "product_categories", joinColumns = @JoinColumn(name = "product_id"))
     private Set<Category> categories = new HashSet<>();
 
+    @Transient
+    private boolean stored;
+
     /**
      * Constructs a product with the given ID, name, and categories.
      *
@@ -45,6 +54,22 @@ public class Product {
     protected Product() {
         // Required by JPA
     }
+
+    @PostLoad
+    @PostPersist
+    void markStored() {
+        this.stored = true;
+    }
+
+    @Override
+    public String getId() {
+        return productId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !stored;
+    }
     /**
      * Constructs a product with the given ID and name, initializing with no categories.
      *
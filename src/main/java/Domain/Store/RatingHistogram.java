@@ -0,0 +1,56 @@
+package Domain.Store;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts the ratings from 1 to 5 given to an item, without locking.
+ * Besides a counter per star, the number of ratings and their sum are kept together in one word, so that the
+ * average is read with a single load and never recomputed from the counters.
+ */
+public final class RatingHistogram {
+
+    public static final int MIN_RATING = 1;
+    public static final int MAX_RATING = 5;
+
+    // totals holds the number of ratings above SUM_BITS and their sum below it: 2^29 ratings of at most 5
+    // stay below 2^35
+    private static final int SUM_BITS = 35;
+    private static final long SUM_MASK = (1L << SUM_BITS) - 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(MAX_RATING);
+    private final AtomicLong totals = new AtomicLong();
+
+    /**
+     * Adds {@code times} ratings of the given value.
+     *
+     * @throws IllegalArgumentException if the rating is not between 1 and 5, or times is negative
+     */
+    public void add(int rating, long times) {
+        if (rating < MIN_RATING || rating > MAX_RATING)
+            throw new IllegalArgumentException("newRating must be between 1 and 5");
+        if (times < 0)
+            throw new IllegalArgumentException("Times cannot be negative");
+        if (times == 0)
+            return;
+        counts.addAndGet(rating - 1, times);
+        totals.addAndGet((times << SUM_BITS) + rating * times);
+    }
+
+    /** @return how many times the given rating was given */
+    public long getCount(int rating) {
+        return counts.get(rating - 1);
+    }
+
+    /** @return how many ratings were given in total */
+    public long getCount() {
+        return totals.get() >>> SUM_BITS;
+    }
+
+    /** @return the average rating, or 0.0 if there are none */
+    public double getAverage() {
+        long packed = totals.get();
+        long count = packed >>> SUM_BITS;
+        return count == 0 ? 0.0 : (double) (packed & SUM_MASK) / count;
+    }
+}
@@ -0,0 +1,19 @@
+package Domain.Store;
+
+/**
+ * Holds an item's stock outside the item, for repositories that keep counts in shared or durable memory.
+ * Every operation is atomic, so an item bound to a counter changes its stock without taking the item's lock.
+ * Stock only changes by {@link #add}, so that no writer overwrites a sale made since it read the count.
+ *
+ * @see Item#bindStock(StockCounter)
+ */
+public interface StockCounter {
+    int get();
+
+    /**
+     * Adds the delta, which may be negative, unless the stock would go below zero.
+     *
+     * @return false, with the stock unchanged, if there is not enough of it
+     */
+    boolean add(int delta);
+}
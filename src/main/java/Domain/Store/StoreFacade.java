@@ -6,6 +6,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -15,6 +16,8 @@ import org.springframework.stereotype.Component;
 
 import Application.utils.Response;
 import Application.utils.TradingLogger;
+import Domain.Events.DomainEvent;
+import Domain.Events.DomainEventBus;
 import Domain.ExternalServices.IExternalPaymentService;
 import Domain.ExternalServices.IExternalSupplyService;
 import Domain.ExternalServices.INotificationService;
@@ -39,12 +42,29 @@ public class StoreFacade {
     private INotificationService notificationService;
     private IReceiptRepository receiptRepository;
     private IProductRepository productRepository;
+    private DomainEventBus eventBus;
+    private static final int MAX_SNAPSHOTS = 10_000;
+    private static final int EVICTION_SAMPLE = 16;
+
+    private final StoreLocks storeLocks;
+    private final Map<String, CachedSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    // A snapshot is current while its store's fields version has not moved since it was read
+    private static final class CachedSnapshot {
+        final StoreSnapshot snapshot;
+        final long version;
+
+        CachedSnapshot(StoreSnapshot snapshot, long version) {
+            this.snapshot = snapshot;
+            this.version = version;
+        }
+    }
 
 
 
     @Autowired
     public StoreFacade(IStoreRepository storeRepository, IFeedbackRepository feedbackRepository, IItemRepository itemRepository, IUserRepository userRepository, IAuctionRepository auctionRepository, INotificationService notificationService, IReceiptRepository receiptRepository,
-                        IProductRepository productRepository) {
+                        IProductRepository productRepository, DomainEventBus eventBus, StoreLocks storeLocks) {
         this.itemRepository = itemRepository;
         this.storeRepository = storeRepository;
         this.feedbackRepository = feedbackRepository;
@@ -53,6 +73,8 @@ public class StoreFacade {
         this.notificationService = notificationService;
         this.receiptRepository = receiptRepository;
         this.productRepository = productRepository;
+        this.eventBus = eventBus;
+        this.storeLocks = storeLocks;
     }
 
     public StoreFacade() {
@@ -61,6 +83,7 @@ public class StoreFacade {
         this.itemRepository = null;
         this.getUser = null;
         this.auctionRepository = null;
+        this.storeLocks = new StoreLocks();
     }
 
     public void setStoreRepository(IStoreRepository storeRepository) {
@@ -86,6 +109,10 @@ public class StoreFacade {
         this.notificationService = notificationService;
     }
 
+    public void setEventBus(DomainEventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
     public boolean isInitialized() {
         return this.storeRepository != null && this.feedbackRepository != null && this.itemRepository != null && this.getUser != null;
     }
@@ -102,6 +129,7 @@ public class StoreFacade {
         String storeId = UUID.randomUUID().toString();
         Store store = new Store(storeId, name, description, founderId);
         if (!this.storeRepository.add(storeId, store)) throw new RuntimeException("Store not added");
+        storeChanged(storeId);
         return store;
     }
 
@@ -110,21 +138,75 @@ public class StoreFacade {
         return storeRepository.getStoreByName(name);
     }
 
+    /**
+     * Returns an immutable view of the store's status, or null if the store does not exist.
+     * Snapshots are cached until their store's fields change, so reading one never waits on a writer.
+     */
+    public StoreSnapshot getStoreSnapshot(String storeId) {
+        if (!isInitialized()) throw new RuntimeException("Store facade must be initialized");
+        // Read before the store, so that a change made meanwhile leaves the cached snapshot stale
+        long version = CatalogVersions.ofStoreFields(storeId);
+        CachedSnapshot cached = snapshots.get(storeId);
+        if (cached != null && cached.version == version) {
+            return cached.snapshot;
+        }
+        Store store = storeRepository.get(storeId);
+        if (store == null) {
+            snapshots.remove(storeId);
+            return null;
+        }
+        if (snapshots.size() >= MAX_SNAPSHOTS && !snapshots.containsKey(storeId)) {
+            evictSnapshot();
+        }
+        StoreSnapshot snapshot = StoreSnapshot.of(store);
+        snapshots.put(storeId, new CachedSnapshot(snapshot, version));
+        return snapshot;
+    }
+
+    // Drops one cached snapshot, preferring a stale one among the first few looked at, so that a full cache keeps the rest
+    private void evictSnapshot() {
+        String victim = null;
+        int looked = 0;
+        for (Map.Entry<String, CachedSnapshot> entry : snapshots.entrySet()) {
+            if (victim == null) {
+                victim = entry.getKey();
+            }
+            if (entry.getValue().version != CatalogVersions.ofStoreFields(entry.getKey())) {
+                victim = entry.getKey();
+                break;
+            }
+            if (++looked == EVICTION_SAMPLE) {
+                break;
+            }
+        }
+        if (victim != null) {
+            snapshots.remove(victim);
+        }
+    }
+
+    /**
+     * Makes the store's snapshot stale now and again once the caller's transaction completes,
+     * so that a snapshot read before the commit, or of a change rolled back, is not kept.
+     */
+    private void storeChanged(String storeId) {
+        snapshots.remove(storeId);
+        CatalogVersions.storeChanged(storeId);
+        StoreLocks.afterCompletion(() -> CatalogVersions.storeChanged(storeId));
+    }
+
     public boolean openStore(String storeId) {
         if (!isInitialized()) throw new RuntimeException("Store facade must be initialized");
 
-        Object lock = this.storeRepository.getLock(storeId);
-        if (lock == null) throw new RuntimeException("Store not found");
-        synchronized (lock) {
-        
+        return storeLocks.execute(storeId, () -> {
             Store store = this.storeRepository.get(storeId);
             if (store == null) throw new RuntimeException("Store not found");
             if (store.isOpen()) throw new RuntimeException("Store is already open");
 
             store.setOpen(true);
             Store oldStore = this.storeRepository.update(storeId, store);
+            storeChanged(storeId);
             return store.equals(oldStore);
-        }
+        });
     }
 
     public Feedback getFeedback(String feedbackId) {
@@ -148,11 +230,9 @@ public class StoreFacade {
     public Feedback removeFeedback(String feedbackId) {
         if (!isInitialized()) throw new RuntimeException("Store facade must be initialized");
 
-        Object lock = this.feedbackRepository.getLock(feedbackId);
-        if (lock == null) throw new RuntimeException("Facade not found");
-        synchronized (lock) {
-            return feedbackRepository.remove(feedbackId);
-        }
+        Feedback feedback = this.feedbackRepository.get(feedbackId);
+        if (feedback == null) throw new RuntimeException("Facade not found");
+        return storeLocks.execute(feedback.getStoreId(), () -> feedbackRepository.remove(feedbackId));
     }
 
     public List<Feedback> getAllFeedbacksByStoreId(String storeId) {
@@ -168,31 +248,42 @@ public class StoreFacade {
         return feedbackRepository.getAllFeedbacksByUserId(userId);
     }
 
+    /**
+     * Returns a page of the feedback of a product, store or customer, newest first.
+     *
+     * @param before the next-before value of the previous page, or 0 for the newest page
+     */
+    public FeedbackPage getFeedbackPage(FeedbackIndex index, String key, long before, int limit) {
+        if (!isInitialized()) throw new RuntimeException("Store facade must be initialized");
+        return feedbackRepository.getFeedbackPage(index, key, before, limit);
+    }
+
+    /**
+     * Returns how much feedback a product, store or customer has, with the newest of it.
+     */
+    public FeedbackPage getFeedbackSummary(FeedbackIndex index, String key) {
+        if (!isInitialized()) throw new RuntimeException("Store facade must be initialized");
+        return feedbackRepository.getSummary(index, key);
+    }
+
     public boolean closeStore(String storeId){
         // First check if store exists
         Store store = this.storeRepository.get(storeId);
         if (store == null) throw new RuntimeException("Store not found");
         
-        // Then get or create lock
-        Object lock = this.storeRepository.getLock(storeId);
-        if (lock == null) {
-            // If no lock exists, create one
-            this.storeRepository.addLock(storeId);
-            lock = this.storeRepository.getLock(storeId);
-        }
-        
-        synchronized (lock) {
-            // Refresh store data inside synchronized block
-            store = this.storeRepository.get(storeId);
-            if(store.isPermanentlyClosed()) throw new RuntimeException("Store is already closed");
-
-            store.setOpen(false);
-            store.setPermanentlyClosed(true);
-            Store newStore = this.storeRepository.update(storeId, store);
-            notificationService.sendNotification(store.getFounderId(), "Your store " + store.getName() + " has been permanently closed.");
-            if(!store.equals(newStore)) throw new RuntimeException("Store not updated");
+        return storeLocks.execute(storeId, () -> {
+            // Re-read under the store's lock, after any mutation that held it before
+            Store current = this.storeRepository.get(storeId);
+            if(current.isPermanentlyClosed()) throw new RuntimeException("Store is already closed");
+
+            current.setOpen(false);
+            current.setPermanentlyClosed(true);
+            Store newStore = this.storeRepository.update(storeId, current);
+            storeChanged(storeId);
+            notificationService.sendNotification(current.getFounderId(), "Your store " + current.getName() + " has been permanently closed.");
+            if(!current.equals(newStore)) throw new RuntimeException("Store not updated");
             return true;
-        }
+        });
     }
 
     public boolean closeStoreNotPermanent(String storeId){
@@ -200,34 +291,26 @@ public class StoreFacade {
         Store store = this.storeRepository.get(storeId);
         if (store == null) throw new RuntimeException("Store not found");
         
-        // Then get or create lock
-        Object lock = this.storeRepository.getLock(storeId);
-        if (lock == null) {
-            // If no lock exists, create one
-            this.storeRepository.addLock(storeId);
-            lock = this.storeRepository.getLock(storeId);
-        }
-        
-        synchronized (lock) {
-            // Refresh store data inside synchronized block
-            store = this.storeRepository.get(storeId);
-            if(!store.isOpen()) throw new RuntimeException("Store is already closed");
-
-            store.setOpen(false);
-            store.setPermanentlyClosed(false);
-            Store newStore = this.storeRepository.update(storeId, store);
-            notificationService.sendNotification(store.getFounderId(), "Your store " + store.getName() + " has been closed temporarily.");
-            if(!store.equals(newStore)) throw new RuntimeException("Store not updated");
+        return storeLocks.execute(storeId, () -> {
+            // Re-read under the store's lock, after any mutation that held it before
+            Store current = this.storeRepository.get(storeId);
+            if(!current.isOpen()) throw new RuntimeException("Store is already closed");
+
+            current.setOpen(false);
+            current.setPermanentlyClosed(false);
+            Store newStore = this.storeRepository.update(storeId, current);
+            storeChanged(storeId);
+            notificationService.sendNotification(current.getFounderId(), "Your store " + current.getName() + " has been closed temporarily.");
+            if(!current.equals(newStore)) throw new RuntimeException("Store not updated");
             return true;
-        }
+        });
     }
 
     public Auction addAuction(String storeId, String productId, String auctionEndDate, double startPrice) {
         if (!isInitialized()) throw new RuntimeException("Store facade must be initialized");
-        if (this.storeRepository.get(storeId) == null) throw new RuntimeException("Store not found");
+        StoreSnapshot store = getStoreSnapshot(storeId);
+        if (store == null) throw new RuntimeException("Store not found");
         if (this.itemRepository.get(new Pair<>(storeId, productId)) == null) throw new RuntimeException("Item not found");
-        
-        Store store = this.storeRepository.get(storeId);
         if (!store.isOpen()) throw new RuntimeException("Store is not open");
 
         Date auctionStartDate = new Date();
@@ -256,7 +339,7 @@ public class StoreFacade {
 
     public String getStoreName(String storeId) {
         if (!isInitialized()) throw new RuntimeException("Store facade must be initialized");
-        Store store = this.storeRepository.get(storeId);
+        StoreSnapshot store = getStoreSnapshot(storeId);
         if (store == null) throw new RuntimeException("Store not found");
         return store.getName();
     }
@@ -292,12 +375,16 @@ public class StoreFacade {
                 "DEBUG: No previous bidder to notify for auction " + auctionId + " or it's the same user bidding again.");
         }
 
+        String previousBidderId = auction.getCurrentBidderId();
         auction.setHighestBidder(userId, bid, cardNumber, expiryDate, cvv, clientName, deliveryAddress, city, country, zipCode);
 
         TradingLogger.logEvent("StoreFacade", "addBid",
             "DEBUG: Updated auction with new bid. New currentBidderId=" + userId + ", newPrice=" + bid);
 
-        return this.auctionRepository.update(auctionId, auction);
+        Auction updated = this.auctionRepository.update(auctionId, auction);
+        eventBus.publish(new DomainEvent.BidPlaced(auction.getStoreId(), auctionId, auction.getProductId(),
+                userId, previousBidderId, bid));
+        return updated;
     }
 
 
@@ -340,20 +427,19 @@ public class StoreFacade {
             throw new RuntimeException("Item not found for product " + productId + " in store " + storeId);
         }
 
-        // Decrease the quantity (simulate reservation)
-        int currentAmount = item.getAmount();
-        if (currentAmount <= 0) {
+        // Reserve one unit; taken and given back relative to the stock, so sales made meanwhile are kept
+        try {
+            item.decreaseAmount(1);
+        } catch (IllegalArgumentException e) {
             throw new RuntimeException("Insufficient item quantity to fulfill auction sale");
         }
-        
-        item.setAmount(currentAmount - 1);
         itemRepository.update(itemKey, item);
 
         // Retrieve the auction directly by ID
         Auction auction = this.auctionRepository.get(auctionId);
         if (auction == null) {
             // Rollback item amount
-            item.setAmount(currentAmount);
+            item.increaseAmount(1);
             itemRepository.update(itemKey, item);
             throw new IllegalArgumentException("Auction not found with ID: " + auctionId);
         }
@@ -361,7 +447,7 @@ public class StoreFacade {
         // Sanity check: match storeId and productId
         if (!auction.getStoreId().equals(storeId) || !auction.getProductId().equals(productId)) {
             // Rollback item amount
-            item.setAmount(currentAmount);
+            item.increaseAmount(1);
             itemRepository.update(itemKey, item);
             throw new IllegalArgumentException("Auction does not match provided store or product");
         }
@@ -369,7 +455,7 @@ public class StoreFacade {
         // Ensure there's a valid current bidder
         if (auction.getCurrentBidderId() == null) {
             // Rollback item amount
-            item.setAmount(currentAmount);
+            item.increaseAmount(1);
             itemRepository.update(itemKey, item);
             throw new IllegalStateException("No bidder to accept the bid from");
         }
@@ -380,9 +466,7 @@ public class StoreFacade {
         try {
             paymentSuccess = paymentService.processPayment(auction.getCurrentBidderId(), auction.getCardNumber(), auction.getCardExpiryDate(), auction.getCvv(), auction.getClientName(), auction.getCurrentPrice());
             if (paymentSuccess == null || paymentSuccess.errorOccurred() || paymentSuccess.getValue() == -1) {
-                // Rollback item amount
-                item.setAmount(currentAmount);
-                itemRepository.update(itemKey, item);
+                // The catch below gives the unit back
                 throw new RuntimeException("Payment failed for accepted bid");
             }
 
@@ -391,15 +475,13 @@ public class StoreFacade {
                 if(paymentSuccess.getValue() != -1) {
                     paymentService.cancelPayment(paymentSuccess.getValue());
                 }
-                // Rollback item amount
-                item.setAmount(currentAmount);
-                itemRepository.update(itemKey, item);
+                // The catch below gives the unit back
                 throw new RuntimeException("Supply processing failed for accepted bid");
             }
 
         } catch (Exception ex) {
             // Rollback item amount
-            item.setAmount(currentAmount);
+            item.increaseAmount(1);
             itemRepository.update(itemKey, item);
             if(paymentSuccess != null && paymentSuccess.getValue() != -1) {
                 paymentService.cancelPayment(paymentSuccess.getValue());
@@ -449,7 +531,7 @@ public class StoreFacade {
         );
         } catch (Exception e) {
             // Rollback item amount
-            item.setAmount(currentAmount);
+            item.increaseAmount(1);
             itemRepository.update(itemKey, item);
             throw new RuntimeException("Failed to save receipt: " + e.getMessage(), e);
         }
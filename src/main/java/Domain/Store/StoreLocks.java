@@ -0,0 +1,85 @@
+package Domain.Store;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import Domain.Repos.StripedLocks;
+
+/**
+ * Runs store mutations one at a time per store.
+ * <p>
+ * A mutation runs on the calling thread, inside the caller's transaction, while holding its store's lock. Stores are
+ * hashed onto a fixed set of {@link StripedLocks} stripes, so the locks take the same memory however many stores
+ * exist, and mutations of different stores rarely wait on each other. If the caller is in a transaction, the lock is
+ * held until the transaction completes, so that the next mutation of the store reads what this one committed, and a
+ * rollback undoes the mutation as it would without the lock. A mutation may call another mutation of the same store.
+ * <p>
+ * Stores are locked in the stripes' order. A mutation of several stores locks them together with
+ * {@link #executeAll}. A thread already holding a store, for instance earlier in the same transaction, that then
+ * asks for a store on a lower stripe breaks the order: it waits a bounded time for that store and then fails with an
+ * {@link IllegalStateException} instead of risking a deadlock.
+ */
+@Component
+public class StoreLocks {
+    static final long OUT_OF_ORDER_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private final StripedLocks stripes;
+
+    public StoreLocks() {
+        this(new StripedLocks(StripedLocks.DEFAULT_STRIPES));
+    }
+
+    /**
+     * @param stripes the stripes guarding stores; not shared with anything else
+     */
+    public StoreLocks(StripedLocks stripes) {
+        this.stripes = stripes;
+    }
+
+    public StripedLocks.Stats getStats() {
+        return stripes.getStats();
+    }
+
+    /**
+     * Runs the mutation holding the store's lock, and returns its result.
+     * Runtime exceptions thrown by the mutation reach the caller unchanged.
+     */
+    public <T> T execute(String storeId, Supplier<T> mutation) {
+        return executeAll(List.of(storeId), mutation);
+    }
+
+    /**
+     * Runs the mutation holding the locks of all the stores, taken in order, and returns its result.
+     */
+    public <T> T executeAll(Collection<String> storeIds, Supplier<T> mutation) {
+        Runnable release = stripes.hold(storeIds, OUT_OF_ORDER_WAIT_NANOS);
+        try {
+            return mutation.get();
+        } finally {
+            afterCompletion(release);
+        }
+    }
+
+    /**
+     * Runs the action once the caller's transaction commits or rolls back, on the same thread, or right away if
+     * the caller is not in a transaction.
+     */
+    public static void afterCompletion(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.run();
+            }
+        });
+    }
+}
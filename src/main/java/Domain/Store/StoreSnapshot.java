@@ -0,0 +1,46 @@
+package Domain.Store;
+
+/**
+ * An immutable view of a store's identity and status, published after every store mutation.
+ * Readers that only need to know whether a store exists, its name or whether it is open use this
+ * instead of the mutable {@link Store} entity.
+ */
+public final class StoreSnapshot {
+    private final String id;
+    private final String name;
+    private final String founderId;
+    private final boolean open;
+    private final boolean permanentlyClosed;
+
+    public StoreSnapshot(String id, String name, String founderId, boolean open, boolean permanentlyClosed) {
+        this.id = id;
+        this.name = name;
+        this.founderId = founderId;
+        this.open = open;
+        this.permanentlyClosed = permanentlyClosed;
+    }
+
+    public static StoreSnapshot of(Store store) {
+        return new StoreSnapshot(store.getId(), store.getName(), store.getFounderId(), store.isOpen(), store.isPermanentlyClosed());
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getFounderId() {
+        return founderId;
+    }
+
+    public boolean isOpen() {
+        return open;
+    }
+
+    public boolean isPermanentlyClosed() {
+        return permanentlyClosed;
+    }
+}
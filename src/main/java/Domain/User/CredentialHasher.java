@@ -0,0 +1,153 @@
+package Domain.User;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hashes and verifies passwords with BCrypt on a dedicated, bounded pool of threads.
+ * <p>
+ * BCrypt is deliberately slow, so running it on request threads lets a burst of sign-ins occupy every one of
+ * them. Here at most {@code threads} hashes run at once and at most {@code queueCapacity} more wait; beyond
+ * that a call fails fast instead of piling up. Results come back as futures completed on a hashing thread, so
+ * callers do not hold a thread of their own while the hash runs.
+ * <p>
+ * The BCrypt cost is either configured or calibrated on startup: starting at {@link #MIN_STRENGTH}, it is raised
+ * while one hash stays within the target time, up to {@link #MAX_STRENGTH}. Hashes made with a lower cost than
+ * the current one are reported by {@link #needsRehash} so they can be upgraded at the next successful login.
+ */
+@Component
+public class CredentialHasher {
+    public static final int MIN_STRENGTH = 10;
+    public static final int MAX_STRENGTH = 14;
+
+    private static final int DEFAULT_QUEUE_CAPACITY = 256;
+    private static final long DEFAULT_TARGET_MILLIS = 250;
+
+    private final ThreadPoolExecutor pool;
+    private final BCryptPasswordEncoder encoder;
+    private final int strength;
+
+    /**
+     * @param threads hashing threads; 0 for one per processor
+     * @param strength BCrypt cost; 0 to calibrate against {@code targetMillis}
+     * @param queueCapacity calls that may wait for a free thread before new ones are rejected
+     * @param targetMillis the time one hash should take at most when calibrating
+     */
+    @Autowired
+    public CredentialHasher(@Value("${app.auth.hash-threads:0}") int threads,
+                            @Value("${app.auth.bcrypt-strength:0}") int strength,
+                            @Value("${app.auth.hash-queue-capacity:256}") int queueCapacity,
+                            @Value("${app.auth.hash-target-ms:250}") long targetMillis) {
+        if (strength != 0 && (strength < MIN_STRENGTH || strength > MAX_STRENGTH)) {
+            throw new IllegalArgumentException("BCrypt strength must be between " + MIN_STRENGTH + " and " + MAX_STRENGTH);
+        }
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.pool = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), task -> {
+                    Thread thread = new Thread(task, "credential-hasher");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.pool.allowCoreThreadTimeOut(true);
+        this.strength = strength != 0 ? strength : calibrate(targetMillis);
+        this.encoder = new BCryptPasswordEncoder(this.strength);
+    }
+
+    /**
+     * A hasher configured as the application's is by default: one thread per processor and a calibrated cost.
+     */
+    public static CredentialHasher withDefaults() {
+        return new CredentialHasher(0, 0, DEFAULT_QUEUE_CAPACITY, DEFAULT_TARGET_MILLIS);
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    /**
+     * Calls waiting for a hashing thread.
+     */
+    public int getQueued() {
+        return pool.getQueue().size();
+    }
+
+    /**
+     * Encodes a raw password.
+     * The future fails with an {@link IllegalStateException} if too many hashes are already waiting.
+     */
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(() -> encoder.encode(rawPassword));
+    }
+
+    /**
+     * Checks a raw password against an encoded one.
+     * The future fails with an {@link IllegalStateException} if too many hashes are already waiting.
+     */
+    public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+        return submit(() -> encoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Encodes a raw password on the calling thread, with the same cost as {@link #encode}. For batch work that
+     * brings its own threads, such as seeding, and would otherwise overrun the queue.
+     */
+    public String encodeNow(String rawPassword) {
+        return encoder.encode(rawPassword);
+    }
+
+    /**
+     * Whether an encoded password was made with a lower cost than the current one.
+     */
+    public boolean needsRehash(String encodedPassword) {
+        try {
+            return encoder.upgradeEncoding(encodedPassword);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, pool);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Too many sign-ins in progress, please try again"));
+        }
+    }
+
+    /**
+     * Highest cost whose hash still fits the target. Each step doubles the work, so the next cost is tried only
+     * when the current one takes at most half the target.
+     */
+    private static int calibrate(long targetMillis) {
+        int strength = MIN_STRENGTH;
+        if (targetMillis <= 0) {
+            return strength;
+        }
+        while (strength < MAX_STRENGTH) {
+            long start = System.nanoTime();
+            new BCryptPasswordEncoder(strength).encode("calibration");
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            if (elapsedMillis * 2 > targetMillis) {
+                break;
+            }
+            strength++;
+        }
+        return strength;
+    }
+}
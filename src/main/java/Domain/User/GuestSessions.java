@@ -0,0 +1,147 @@
+package Domain.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tracks when each guest was last active and finds the ones that have been idle for longer than the timeout.
+ * <p>
+ * Guests are kept on a timer wheel: a ring of slots, each covering {@code timeout / slots} milliseconds. A guest
+ * sits in the slot of the tick its session would expire at if it did nothing more. Activity only updates the
+ * guest's timestamp, so it costs a map write and never moves the guest between slots. When the wheel reaches a slot,
+ * guests that were active meanwhile are moved to the slot of their new expiry and the rest are expired.
+ * A sweep therefore only looks at guests that are due, not at every session.
+ */
+@Component
+public class GuestSessions {
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 30 * 60 * 1000L;
+    public static final int DEFAULT_SLOTS = 60;
+
+    private final long timeoutMillis;
+    private final long tickMillis;
+    private final LongSupplier clock;
+    private final Map<String, Long> lastActive = new ConcurrentHashMap<>();
+    private final Set<String>[] slots;
+    // The last tick whose slot has been fully swept.
+    private long sweptTick;
+
+    @Autowired
+    public GuestSessions(@Value("${app.sessions.guest-idle-timeout-ms:1800000}") long timeoutMillis,
+                         @Value("${app.sessions.wheel-slots:60}") int slotCount) {
+        this(timeoutMillis, slotCount, System::currentTimeMillis);
+    }
+
+    @SuppressWarnings("unchecked")
+    public GuestSessions(long timeoutMillis, int slotCount, LongSupplier clock) {
+        if (timeoutMillis <= 0 || slotCount <= 0) {
+            throw new IllegalArgumentException("Timeout and slot count must be positive");
+        }
+        this.timeoutMillis = timeoutMillis;
+        this.tickMillis = Math.max(1, timeoutMillis / slotCount);
+        this.clock = clock;
+        this.slots = new Set[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            slots[i] = ConcurrentHashMap.newKeySet();
+        }
+        this.sweptTick = clock.getAsLong() / tickMillis;
+    }
+
+    public static GuestSessions withDefaults() {
+        return new GuestSessions(DEFAULT_IDLE_TIMEOUT_MILLIS, DEFAULT_SLOTS, System::currentTimeMillis);
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    /**
+     * Starts tracking a new guest, active now.
+     */
+    public void track(String guestId) {
+        long now = clock.getAsLong();
+        lastActive.put(guestId, now);
+        schedule(guestId, now);
+    }
+
+    /**
+     * Records activity of a guest. Ids that are not tracked, such as members, are ignored.
+     */
+    public void touch(String id) {
+        if (id != null) {
+            lastActive.computeIfPresent(id, (key, last) -> clock.getAsLong());
+        }
+    }
+
+    /**
+     * Stops tracking a guest that exited or registered. Its wheel entry is dropped when its slot comes up.
+     */
+    public void untrack(String guestId) {
+        if (guestId != null) {
+            lastActive.remove(guestId);
+        }
+    }
+
+    public boolean isTracked(String id) {
+        return id != null && lastActive.containsKey(id);
+    }
+
+    public int size() {
+        return lastActive.size();
+    }
+
+    /**
+     * Sweeps the slots that came due since the last sweep and returns up to {@code limit} guests that have been
+     * idle for at least the timeout. They are no longer tracked. When the limit is reached the sweep stops
+     * mid-slot, and the next call continues from there.
+     */
+    public synchronized List<String> expire(int limit) {
+        long now = clock.getAsLong();
+        long nowTick = now / tickMillis;
+        List<String> expired = new ArrayList<>();
+        // After a long pause every slot is due, but each needs sweeping only once.
+        long firstTick = Math.max(sweptTick + 1, nowTick - slots.length + 1);
+        for (long tick = firstTick; tick <= nowTick; tick++) {
+            Set<String> slot = slots[(int) (tick % slots.length)];
+            // Guests rescheduled during the sweep may land in this same slot, so sweep a copy.
+            for (String id : new ArrayList<>(slot)) {
+                if (expired.size() >= limit) {
+                    sweptTick = tick - 1;
+                    return expired;
+                }
+                slot.remove(id);
+                Long last = lastActive.get(id);
+                if (last == null) {
+                    continue;
+                }
+                if (now - last >= timeoutMillis) {
+                    // A touch racing with this check keeps the guest.
+                    if (lastActive.remove(id, last)) {
+                        expired.add(id);
+                        continue;
+                    }
+                    last = lastActive.get(id);
+                    if (last == null) {
+                        continue;
+                    }
+                }
+                schedule(id, last);
+            }
+        }
+        sweptTick = nowTick;
+        return expired;
+    }
+
+    private void schedule(String id, long lastActiveAt) {
+        long dueTick = (lastActiveAt + timeoutMillis + tickMillis - 1) / tickMillis;
+        long nextTick = clock.getAsLong() / tickMillis + 1;
+        slots[(int) (Math.max(dueTick, nextTick) % slots.length)].add(id);
+    }
+}
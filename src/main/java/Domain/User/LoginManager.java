@@ -2,21 +2,76 @@ package Domain.User;
 
 import java.time.LocalDate;
 import java.time.Period;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.apache.commons.validator.routines.EmailValidator;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import Domain.Repos.IUserRepository;
-
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Registers, logs in and logs out users.
+ * <p>
+ * Registration and login hash the password on the {@link CredentialHasher}'s threads and return a future that
+ * completes there, once the member is stored. Checks that need no hash run on the calling thread, and their
+ * failures are thrown right away. Since the future completes outside the caller's transaction, a registration
+ * replaces its guest by the member in a transaction of its own when there is a transaction manager.
+ */
 @Component
 public class LoginManager {
-    private IUserRepository userRepository;
+    private final IUserRepository userRepository;
+    private final CredentialHasher credentials;
+    private final GuestSessions guestSessions;
+    // Null without a transaction manager, as with the memory repositories
+    private final TransactionTemplate swapTransaction;
+    // Usernames being registered right now, so two registrations of one name cannot both pass the check.
+    private final Set<String> pendingUsernames = ConcurrentHashMap.newKeySet();
+
+    public LoginManager(IUserRepository userRepository, CredentialHasher credentials, GuestSessions guestSessions) {
+        this(userRepository, credentials, guestSessions, (TransactionTemplate) null);
+    }
+
+    @Autowired
+    public LoginManager(IUserRepository userRepository, CredentialHasher credentials, GuestSessions guestSessions,
+                        ObjectProvider<PlatformTransactionManager> transactionManager) {
+        this(userRepository, credentials, guestSessions, transactionTemplate(transactionManager.getIfAvailable()));
+    }
 
-    public LoginManager(IUserRepository userRepository) {
+    private LoginManager(IUserRepository userRepository, CredentialHasher credentials, GuestSessions guestSessions,
+                         TransactionTemplate swapTransaction) {
         this.userRepository = userRepository;
+        this.credentials = credentials;
+        this.guestSessions = guestSessions;
+        this.swapTransaction = swapTransaction;
+    }
+
+    private static TransactionTemplate transactionTemplate(PlatformTransactionManager transactionManager) {
+        return transactionManager != null ? new TransactionTemplate(transactionManager) : null;
+    }
+
+    /**
+     * Tracks the guests already in the repository, such as those left from before a restart, as active now,
+     * so that they are evicted once idle like new ones. Runs once at startup.
+     */
+    @PostConstruct
+    public void trackStoredGuests() {
+        for (User user : userRepository.getAllUsers()) {
+            if (user instanceof Guest && !guestSessions.isTracked(user.getId())) {
+                guestSessions.track(user.getId());
+            }
+        }
     }
 
     /***
@@ -87,9 +142,42 @@ public class LoginManager {
         if (!userRepository.add(guest.getId(), guest)) {
             throw new IllegalStateException("Failed to add guest to repository");
         }
+        guestSessions.track(guest.getId());
         return guest;
     }
 
+    /**
+     * Records activity of a user, so an active guest is not evicted as idle.
+     * @param id The ID of the user; members and unknown IDs are ignored.
+     */
+    public void touch(String id) {
+        guestSessions.touch(id);
+    }
+
+    /**
+     * Removes guests that have been idle for longer than the session timeout.
+     * @param limit The maximum number of guests to remove in this call.
+     * @return The IDs of the removed guests, whose carts are left for the caller to discard.
+     */
+    public List<String> evictIdleGuests(int limit) {
+        List<String> evicted = new ArrayList<>();
+        for (String id : guestSessions.expire(limit)) {
+            // A guest that registered meanwhile is a member now and stays.
+            if (userRepository.getGuest(id) != null && userRepository.remove(id) != null) {
+                evicted.add(id);
+            }
+        }
+        return evicted;
+    }
+
+    public int getGuestCount() {
+        return guestSessions.size();
+    }
+
+    public boolean isGuestSession(String id) {
+        return guestSessions.isTracked(id);
+    }
+
 
     /***
      * Registers a new member user based on the provided guest user.
@@ -98,11 +186,16 @@ public class LoginManager {
      * @param password The desired password for the new member.
      * @param email The email address of the new member.
      * @param birthDate The birth date of the new memebr.
-     * @return The newly registered member user.
-     * @throws IllegalStateException if the registration fails or if the guest cannot be removed from the repository.
+     * @return The newly registered member user, once the password is hashed and the member stored. It fails with an
+     *         IllegalStateException if the guest cannot be replaced by the member in the repository.
+     * @throws IllegalArgumentException if the details are invalid.
      ***/
-    public synchronized Member register(String id, String username, String password, String email, LocalDate birthDate) throws IllegalStateException {
+    public CompletableFuture<Member> register(String id, String username, String password, String email, LocalDate birthDate) {
+        reserveUsername(username);
+        return releaseUsername(username, () -> registerReserved(id, username, password, email, birthDate));
+    }
 
+    private CompletableFuture<Member> registerReserved(String id, String username, String password, String email, LocalDate birthDate) {
         Guest guest = userRepository.getGuest(id);
         if (guest == null) {
             throw new NoSuchElementException("Guest not found");
@@ -126,20 +219,7 @@ public class LoginManager {
             throw new IllegalArgumentException("Invalid birth date. user must be at least 1-years-old");
         }
 
-        BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
-        String encoded = passwordEncoder.encode(password);
-
-        Member member = guest.register(username, encoded, email, birthDate);
-        member.login();
-
-        if (userRepository.remove(id) == null) {
-            throw new IllegalStateException("Failed to remove guest from repository");
-        }
-
-        if (!userRepository.add(member.getId(), member)) {
-            throw new IllegalStateException("Failed to add member to repository");
-        }
-        return member;
+        return registerAfterHashing(guest, password, encoded -> guest.register(username, encoded, email, birthDate));
     }
 
     /***
@@ -150,11 +230,16 @@ public class LoginManager {
      * @param password The desired password for the new member.
      * @param email The email address of the new member.
      * @param birthDate The birth date of the new memebr.
-     * @return The newly registered member user.
-     * @throws IllegalStateException if the registration fails or if the guest cannot be removed from the repository.
+     * @return The newly registered member user, once the password is hashed and the member stored. It fails with an
+     *         IllegalStateException if the guest cannot be replaced by the member in the repository.
+     * @throws IllegalArgumentException if the details are invalid.
      ***/
-    public synchronized Member register(String id, String username, String password, String email) throws IllegalStateException {
+    public CompletableFuture<Member> register(String id, String username, String password, String email) {
+        reserveUsername(username);
+        return releaseUsername(username, () -> registerReserved(id, username, password, email));
+    }
 
+    private CompletableFuture<Member> registerReserved(String id, String username, String password, String email) {
         Guest guest = userRepository.getGuest(id);
         if (guest == null) {
             throw new NoSuchElementException("Guest not found");
@@ -175,22 +260,78 @@ public class LoginManager {
         }
 
 
-        BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
-        String encoded = passwordEncoder.encode(password);
+        return registerAfterHashing(guest, password, encoded -> guest.register(username, encoded, email));
+    }
+
+    /**
+     * Hashes the password and replaces the guest by the member made with the hash. The guest is no longer tracked
+     * while the password hashes, so that it cannot be evicted as idle before it is replaced; if the registration
+     * fails it is tracked again.
+     */
+    private CompletableFuture<Member> registerAfterHashing(Guest guest, String password, Function<String, Member> register) {
+        String guestId = guest.getId();
+        guestSessions.untrack(guestId);
+        return credentials.encode(password)
+                .thenApply(encoded -> replaceGuest(guest, register.apply(encoded)))
+                .whenComplete((member, failure) -> {
+                    if (failure != null && userRepository.getGuest(guestId) != null) {
+                        guestSessions.track(guestId);
+                    }
+                });
+    }
 
-        Member member = guest.register(username, encoded, email);
+    // Removes the guest and adds the member in one transaction when there is one.
+    private Member replaceGuest(Guest guest, Member member) {
         member.login();
+        if (swapTransaction == null) {
+            return swap(guest, member);
+        }
+        return swapTransaction.execute(status -> swap(guest, member));
+    }
 
-        if (userRepository.remove(id) == null) {
+    private Member swap(Guest guest, Member member) {
+        if (userRepository.remove(guest.getId()) == null) {
             throw new IllegalStateException("Failed to remove guest from repository");
         }
 
         if (!userRepository.add(member.getId(), member)) {
+            if (swapTransaction == null) {
+                // Nothing rolls the removal back, so the guest is put back by hand
+                userRepository.add(guest.getId(), guest);
+            }
             throw new IllegalStateException("Failed to add member to repository");
         }
         return member;
     }
 
+    /**
+     * Starts a registration of a reserved username and gives the name back once it completes, or right away if it
+     * fails before hashing.
+     */
+    private CompletableFuture<Member> releaseUsername(String username, Supplier<CompletableFuture<Member>> registration) {
+        CompletableFuture<Member> started;
+        try {
+            started = registration.get();
+        } catch (RuntimeException e) {
+            pendingUsernames.remove(username);
+            throw e;
+        }
+        return started.whenComplete((member, failure) -> pendingUsernames.remove(username));
+    }
+
+    /**
+     * Claims a username for one registration until it completes, in place of serialising all registrations.
+     * The repository check still runs afterwards for names that are already taken.
+     */
+    private void reserveUsername(String username) {
+        if (username == null) {
+            throw new IllegalArgumentException("Username cannot be null");
+        }
+        if (!pendingUsernames.add(username)) {
+            throw new IllegalArgumentException("Username already exists");
+        }
+    }
+
     private static boolean isAtLeastOneYearsOld(LocalDate birthDate) {
         if (birthDate == null) return false;
         return Period.between(birthDate, LocalDate.now()).getYears() >= 1;
@@ -200,11 +341,12 @@ public class LoginManager {
      * Logs in a member user with the given username and password.
      * @param username The username of the member to log in.
      * @param password The password of the member to log in.
-     * @return The logged-in member user.
+     * @return The logged-in member user, once the password is checked and the member stored. It fails with an
+     *         IllegalArgumentException if the password is wrong.
      * @throws NoSuchElementException if no member is found with the given username.
      * @throws IllegalStateException if the member is already logged in.
      ***/
-    public Member login(String username, String password) throws NoSuchElementException, IllegalStateException {
+    public CompletableFuture<Member> login(String username, String password) throws NoSuchElementException, IllegalStateException {
         Member member = userRepository.getMemberByUsername(username);
         if (member == null) {
             throw new NoSuchElementException("Member not found");
@@ -213,14 +355,24 @@ public class LoginManager {
         if (member.isLoggedIn()) {
             throw new IllegalStateException("User is already logged in");
         }
-        BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
-        if (passwordEncoder.matches(password, member.getPassword())) {
+        String stored = member.getPassword();
+        return credentials.matches(password, stored).thenCompose(matches -> {
+            if (!matches) {
+                throw new IllegalArgumentException("Invalid password");
+            }
+            if (!credentials.needsRehash(stored)) {
+                return CompletableFuture.completedFuture(member);
+            }
+            return credentials.encode(password).thenApply(encoded -> {
+                member.setPassword(encoded);
+                return member;
+            });
+        }).thenApply(loggedIn -> {
             member.login();
+            // Completes on a hashing thread, outside the caller's transaction, so the member is written explicitly
+            userRepository.update(member.getId(), member);
             return member;
-        } else {
-            throw new IllegalArgumentException("Invalid password");
-        }
-
+        });
     }
 
     
@@ -250,6 +402,7 @@ public class LoginManager {
      * @throws IllegalStateException if the guest cannot be removed from the repository.
      ***/
     public void exit(Guest guest) throws IllegalStateException {
+        guestSessions.untrack(guest.getId());
         if (userRepository.remove(guest.getId()) == null) {
             throw new IllegalStateException("Failed to remove guest from repository");
         }
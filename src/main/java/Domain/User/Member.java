@@ -1,5 +1,8 @@
 package Domain.User;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.time.LocalDate;
 import java.time.Period;
 import java.util.UUID;
@@ -33,6 +36,7 @@ public class Member extends User {
 
 
     String getPassword() { return password; }
+    void setPassword(String encoded) { this.password = encoded; }
     public String getEmail() { return email; }
     public LocalDate getBirthDate() { return birthDate; }
 
@@ -41,6 +45,43 @@ public class Member extends User {
         return Period.between(birthDate, LocalDate.now()).getYears();
     }
 
+    /**
+     * Writes the account, encoded password included, for keeping the member outside JPA.
+     * The password has no public getter, so that it cannot reach a DTO or a log by accident.
+     */
+    public void writeAccount(DataOutput out) throws IOException {
+        out.writeUTF(getId());
+        out.writeUTF(getName());
+        writeNullable(out, password);
+        writeNullable(out, email);
+        writeNullable(out, birthDate == null ? null : birthDate.toString());
+    }
+
+    /**
+     * Reads an account written by {@link #writeAccount}. The member is logged out.
+     */
+    public static Member readAccount(DataInput in) throws IOException {
+        UUID id = UUID.fromString(in.readUTF());
+        String username = in.readUTF();
+        String password = readNullable(in);
+        String email = readNullable(in);
+        String birthDate = readNullable(in);
+        Member member = new Member(id, username, password, email, birthDate == null ? null : LocalDate.parse(birthDate));
+        member.logout(null);
+        return member;
+    }
+
+    private static void writeNullable(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
     private static LocalDate getDefaultBirthDateFor20YearsOld() {
 
     return LocalDate.now().minusYears(20);
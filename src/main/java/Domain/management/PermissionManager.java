@@ -8,6 +8,8 @@ import java.util.Set;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import Domain.Events.DomainEvent;
+import Domain.Events.DomainEventBus;
 import Domain.Repos.IPermissionRepository;
 import Domain.User.Member;
 
@@ -15,20 +17,26 @@ import Domain.User.Member;
 public class PermissionManager {
 
     private IPermissionRepository permissionRepository;
+    private DomainEventBus eventBus;
 
     public PermissionManager() {
         this.permissionRepository = null;
     }
 
     @Autowired
-    public PermissionManager(IPermissionRepository permissionRepository) {
+    public PermissionManager(IPermissionRepository permissionRepository, DomainEventBus eventBus) {
         this.permissionRepository = permissionRepository;
+        this.eventBus = eventBus;
     }
 
     public void setPermissionRepository(IPermissionRepository permissionRepository) {
         this.permissionRepository = permissionRepository;
     }
 
+    public void setEventBus(DomainEventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
     public void appointStoreManager(String appointerId, String appointeeId, String storeId) {
         checkPermission(appointerId, storeId, PermissionType.SUPERVISE_MANAGERS);
         getOrCreatePermission(appointerId, appointeeId, storeId, RoleType.STORE_MANAGER);
@@ -42,6 +50,7 @@ public class PermissionManager {
             throw new IllegalStateException(ownerId + " is not an owner.");
         }
         permissionRepository.remove(storeId, ownerId);
+        permissionChanged(storeId, ownerId);
     }
 
     public Map<String, Map<String, Permission>> getAllStorePermissions() {
@@ -63,6 +72,7 @@ public class PermissionManager {
             permission = new Permission(giver, storeId, member);
             PermissionFactory.initPermissionAsRole(permission, role);
             permissionRepository.add(storeId, member, permission);
+            permissionChanged(storeId, member);
         }
         return permission;
     }
@@ -73,6 +83,7 @@ public class PermissionManager {
             permission = new Permission(giver, storeId, member, expDate);
             PermissionFactory.initPermissionAsRole(permission, role);
             permissionRepository.add(storeId, member, permission);
+            permissionChanged(storeId, member);
         }
         return permission;
     }
@@ -96,6 +107,7 @@ public class PermissionManager {
         }
         permission.setPermissions(PermissionType.collectionToSet(newPermissions));
         permissionRepository.update(storeId, managerUsername, permission);
+        permissionChanged(storeId, managerUsername);
     }
 
     public Map<String, Permission> getStorePermissions(String storeId) {
@@ -110,6 +122,7 @@ public class PermissionManager {
         permission.setPermissions(Set.of());
         permission.setRole(null);
         permissionRepository.update(storeId, userId, permission);
+        permissionChanged(storeId, userId);
     }
 
     public Map<String, Permission> getAllPermissionsForStore(String storeId) {
@@ -120,6 +133,7 @@ public class PermissionManager {
         Permission founder = new Permission("system", "1", manager.getId());
         PermissionFactory.initPermissionAsRole(founder, RoleType.TRADING_MANAGER);
         permissionRepository.add("1", manager.getId(), founder);
+        permissionChanged("1", manager.getId());
     }
 
     public boolean banUser(String bannerId, String userId, Date endDate) {
@@ -127,6 +141,7 @@ public class PermissionManager {
         Permission perm = new Permission(bannerId, "1", userId, endDate);
         PermissionFactory.initPermissionAsRole(perm, RoleType.BANNED_USER);
         permissionRepository.add("1", userId, perm);
+        permissionChanged("1", userId);
         return perm.hasPermission(PermissionType.BANNED);
     }
 
@@ -137,6 +152,7 @@ public class PermissionManager {
             throw new IllegalStateException(userId + " is not banned.");
         }
         permissionRepository.remove("1", userId);
+        permissionChanged("1", userId);
         return true;
     }
 
@@ -163,4 +179,8 @@ public class PermissionManager {
 
 
 
+
+    private void permissionChanged(String storeId, String userId) {
+        eventBus.publish(new DomainEvent.PermissionChanged(storeId, userId));
+    }
 }
@@ -1,16 +1,21 @@
 package Domain.management;
 
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.stereotype.Component;
 
+import Domain.Events.DomainEvent;
+import Domain.Events.DomainEventBus;
 import Domain.Repos.IPolicyRepository;
 import Domain.Repos.IUserRepository;
 import Domain.Shopping.ShoppingBasket;
 import Domain.Store.ItemFacade;
 import Domain.Store.Policy;
+import Domain.Store.PolicyPlan;
 import Domain.Store.ProductFacade;
 import Domain.User.Member;
 
@@ -21,15 +26,19 @@ public class PolicyFacade {
     private final IUserRepository userRepository;
     private final ItemFacade itemFacade;
     private final ProductFacade productFacade;
+    private final DomainEventBus eventBus;
+    private final Map<String, PolicyPlan> storePlans = new ConcurrentHashMap<>();
 
     public PolicyFacade(IPolicyRepository policyRepository,
                         IUserRepository userRepoMock,
                         ItemFacade itemFacadeMock,
-                        ProductFacade productFacadeMock) {
+                        ProductFacade productFacadeMock,
+                        DomainEventBus eventBus) {
         this.policyRepository = policyRepository;
         this.userRepository   = userRepoMock;
         this.itemFacade       = itemFacadeMock;
         this.productFacade    = productFacadeMock;
+        this.eventBus         = eventBus;
     }
     
 
@@ -72,6 +81,7 @@ public class PolicyFacade {
         if (!policyRepository.add(policyId, policy)) {
             throw new IllegalStateException("Policy already exists: " + policyId);
         }
+        policyChanged(storeId, policyId);
         return policy;
     }
 
@@ -94,6 +104,7 @@ public class PolicyFacade {
         if (!policyRepository.add(policyId, policy)) {
             throw new IllegalStateException("Policy already exists: " + policyId);
         }
+        policyChanged(storeId, policyId);
         return policy;
     }
 
@@ -121,6 +132,7 @@ public class PolicyFacade {
         if (!policyRepository.add(policyId, policy)) {
             throw new IllegalStateException("Policy already exists: " + policyId);
         }
+        policyChanged(storeId, policyId);
         return policy;
     }
 
@@ -148,6 +160,7 @@ public class PolicyFacade {
         if (!policyRepository.add(policyId, policy)) {
             throw new IllegalStateException("Policy already exists: " + policyId);
         }
+        policyChanged(storeId, policyId);
         return policy;
     }
 
@@ -175,6 +188,7 @@ public class PolicyFacade {
         if (!policyRepository.add(policyId, policy)) {
             throw new IllegalStateException("Policy already exists: " + policyId);
         }
+        policyChanged(storeId, policyId);
         return policy;
     }
 
@@ -202,6 +216,7 @@ public class PolicyFacade {
         if (!policyRepository.add(policyId, policy)) {
             throw new IllegalStateException("Policy already exists: " + policyId);
         }
+        policyChanged(storeId, policyId);
         return policy;
     }
 
@@ -224,6 +239,7 @@ public class PolicyFacade {
         if (!policyRepository.add(policyId, policy)) {
             throw new IllegalStateException("Policy already exists: " + policyId);
         }
+        policyChanged(storeId, policyId);
         return policy;
     }
 
@@ -251,11 +267,17 @@ public class PolicyFacade {
         if (!policyRepository.add(policyId, policy)) {
             throw new IllegalStateException("Policy already exists: " + policyId);
         }
+        policyChanged(storeId, policyId);
         return policy;
     }
 
     public void removePolicy(String policyId) {
-        policyRepository.remove(policyId);
+        Policy removed = policyRepository.remove(policyId);
+        if (removed != null) {
+            policyChanged(removed.getStoreId(), policyId);
+        } else {
+            storePlans.clear();
+        }
     }
 
     public Policy getPolicy(String policyId) {
@@ -276,6 +298,29 @@ public class PolicyFacade {
         return policies;
     }
 
+    /**
+     * Returns the compiled policy plan of a store, building it on first use after any policy change.
+     */
+    public PolicyPlan getStorePlan(String storeId) {
+        if (storeId == null || storeId.isBlank()) {
+            throw new IllegalArgumentException("storeId cannot be empty");
+        }
+        return storePlans.computeIfAbsent(storeId,
+            id -> new PolicyPlan(id, getAllStorePolicies(id), productFacade::getProduct));
+    }
+
+    /**
+     * Returns the policies of the store that the basket violates, or an empty list if it complies with all of them.
+     */
+    public List<Policy> getViolatedPolicies(String storeId, ShoppingBasket basket, Member member) {
+        return getStorePlan(storeId).getViolatedPolicies(basket, member);
+    }
+
+    private void policyChanged(String storeId, String policyId) {
+        storePlans.remove(storeId);
+        eventBus.publish(new DomainEvent.PolicyChanged(storeId, policyId));
+    }
+
     public boolean isApplicable(String basketId,
                                 String memberId,
                                 String policyId,
@@ -1,7 +1,9 @@
 package Infrastructure.JpaSpringRepositories;
 
 import Domain.Store.Feedback;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,4 +13,17 @@ public interface IJpaFeedbackRepository extends JpaRepository<Feedback, String>
     List<Feedback> findAllByStoreId(String storeId);
     List<Feedback> findAllByProductId(String productId);
     List<Feedback> findAllByCustomerId(String customerId);
-}
\ No newline at end of file
+
+    List<Feedback> findByProductIdAndSequenceLessThanOrderBySequenceDesc(String productId, Long before, Pageable page);
+    List<Feedback> findByStoreIdAndSequenceLessThanOrderBySequenceDesc(String storeId, Long before, Pageable page);
+    List<Feedback> findByCustomerIdAndSequenceLessThanOrderBySequenceDesc(String customerId, Long before, Pageable page);
+
+    long countByProductId(String productId);
+    long countByStoreId(String storeId);
+    long countByCustomerId(String customerId);
+
+    @Query("select max(f.sequence) from Feedback f")
+    Long findMaxSequence();
+
+    List<Feedback> findBySequenceIsNull();
+}
@@ -1,10 +1,13 @@
 package Infrastructure.JpaSpringRepositories;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import Domain.Store.Item;
 import Domain.Store.ItemId;
@@ -17,6 +20,12 @@ public interface IJpaItemRepository extends JpaRepository<Item, ItemId> {
     @Query("SELECT i FROM Item i WHERE i.storeId = :storeId AND i.productId = :productId")
     Item getItem(@Param("storeId") String storeId, @Param("productId") String productId);
 
+    /**
+     * Retrieves the items a store sells of the given products.
+     */
+    @Query("SELECT i FROM Item i WHERE i.storeId = :storeId AND i.productId IN :productIds")
+    List<Item> getItems(@Param("storeId") String storeId, @Param("productIds") Collection<String> productIds);
+
     /**
      * Returns all items belonging to a specific store.
      */
@@ -33,4 +42,16 @@ public interface IJpaItemRepository extends JpaRepository<Item, ItemId> {
     @Query("SELECT i FROM Item i WHERE i.amount > 0")
     List<Item> getAvailabeItems();
 
+    /**
+     * Adds rating counts to an item's stored ratings per star.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Item i SET i.rating1 = i.rating1 + :ones, i.rating2 = i.rating2 + :twos, i.rating3 = i.rating3 + :threes, "
+         + "i.rating4 = i.rating4 + :fours, i.rating5 = i.rating5 + :fives "
+         + "WHERE i.storeId = :storeId AND i.productId = :productId")
+    int addRatings(@Param("storeId") String storeId, @Param("productId") String productId,
+                   @Param("ones") int ones, @Param("twos") int twos, @Param("threes") int threes,
+                   @Param("fours") int fours, @Param("fives") int fives);
+
 }
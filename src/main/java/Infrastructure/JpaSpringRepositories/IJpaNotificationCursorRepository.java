@@ -0,0 +1,18 @@
+package Infrastructure.JpaSpringRepositories;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import Domain.Notification.NotificationCursor;
+
+public interface IJpaNotificationCursorRepository extends JpaRepository<NotificationCursor, String> {
+
+    /**
+     * Retrieves the cursors of users that keep more than the given number of notifications.
+     */
+    @Query("SELECT c FROM NotificationCursor c WHERE c.lastSequence - c.prunedSequence > :keep")
+    List<NotificationCursor> findKeepingMoreThan(@Param("keep") long keep);
+}
@@ -2,17 +2,40 @@ package Infrastructure.JpaSpringRepositories;
 
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import Domain.Notification.Notification;
 
-public interface IJpaNotificationRepository extends JpaRepository<Notification, String> {
+public interface IJpaNotificationRepository extends JpaRepository<Notification, Notification.Key> {
 
     /**
-     * Retrieves all notifications for a specific user.
+     * Retrieves a page of a user's notifications below a sequence, newest first.
      */
-    @Query("SELECT n FROM Notification n WHERE n.userId = :userId")
-    List<Notification> getNotificationsByUserId(@Param("userId") String userId);
-} 
\ No newline at end of file
+    @Query("SELECT n FROM Notification n WHERE n.userId = :userId AND n.sequence < :before ORDER BY n.sequence DESC")
+    List<Notification> findPageBefore(@Param("userId") String userId, @Param("before") long before, Pageable page);
+
+    /**
+     * Retrieves a page of a user's notifications above a sequence, oldest first.
+     */
+    @Query("SELECT n FROM Notification n WHERE n.userId = :userId AND n.sequence > :after ORDER BY n.sequence ASC")
+    List<Notification> findPageAfter(@Param("userId") String userId, @Param("after") long after, Pageable page);
+
+    /**
+     * Retrieves, for every user with notifications created before a time, the last such sequence.
+     */
+    @Query("SELECT n.userId, MAX(n.sequence) FROM Notification n WHERE n.createdAt < :before GROUP BY n.userId")
+    List<Object[]> findLastSequencesCreatedBefore(@Param("before") long before);
+
+    /**
+     * Deletes a user's notifications up to and including a sequence.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Notification n WHERE n.userId = :userId AND n.sequence <= :sequence")
+    int deleteUpTo(@Param("userId") String userId, @Param("sequence") long sequence);
+}
@@ -55,6 +55,5 @@ public class JpaAuctionRepository extends IAuctionRepository {
     @Override
     public void deleteAll() {
         jpaAuctionRepository.deleteAll();
-        this.deleteAllLocks();
     }
 }
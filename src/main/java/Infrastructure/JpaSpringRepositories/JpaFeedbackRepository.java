@@ -2,31 +2,92 @@ package Infrastructure.JpaSpringRepositories;
 
 import Domain.Repos.IFeedbackRepository;
 import Domain.Store.Feedback;
+import Domain.Store.FeedbackIndex;
+import Domain.Store.FeedbackPage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * JPA backed feedback with cached counts and summaries.
+ * Counts and summaries are loaded once per product, store or customer and then kept up to date by every change
+ * made through this repository, so opening a popular product reads neither all of its feedback nor a count of it.
+ * Changes and loads of the caches are serialized on {@link #cacheLock}; cached values are read without it.
+ */
 @Repository
 @Profile("prod")
 public class JpaFeedbackRepository extends IFeedbackRepository {
 
     private final IJpaFeedbackRepository jpaRepo;
+    private final Map<FeedbackIndex, Map<String, Long>> counts = new EnumMap<>(FeedbackIndex.class);
+    private final Map<FeedbackIndex, Map<String, FeedbackPage>> summaries = new EnumMap<>(FeedbackIndex.class);
+    private final Object cacheLock = new Object();
+    private volatile long lastSequence = -1;
 
     @Autowired
     public JpaFeedbackRepository(IJpaFeedbackRepository jpaRepo) {
         this.jpaRepo = jpaRepo;
+        for (FeedbackIndex index : FeedbackIndex.values()) {
+            counts.put(index, new ConcurrentHashMap<>());
+            summaries.put(index, new ConcurrentHashMap<>());
+        }
+    }
+
+    // Numbers feedback stored before it had sequence numbers, once, and continues after the highest number.
+    // Called with cacheLock held.
+    private void ensureSequenced() {
+        if (lastSequence >= 0) {
+            return;
+        }
+        Long max = jpaRepo.findMaxSequence();
+        lastSequence = max == null ? 0 : max;
+        List<Feedback> unnumbered = jpaRepo.findBySequenceIsNull();
+        if (!unnumbered.isEmpty()) {
+            for (Feedback feedback : unnumbered) {
+                feedback.setSequence(++lastSequence);
+            }
+            jpaRepo.saveAll(unnumbered);
+        }
+    }
+
+    private void forgetSummaries(Feedback feedback) {
+        for (FeedbackIndex index : FeedbackIndex.values()) {
+            String key = index.keyOf(feedback);
+            if (key != null) {
+                summaries.get(index).remove(key);
+            }
+        }
+    }
+
+    private void adjustCounts(Feedback feedback, long delta) {
+        for (FeedbackIndex index : FeedbackIndex.values()) {
+            String key = index.keyOf(feedback);
+            if (key != null) {
+                counts.get(index).computeIfPresent(key, (k, count) -> count + delta);
+            }
+        }
     }
 
     @Override
     public Feedback remove(String id) {
         if (!isIdValid(id)) throw new IllegalArgumentException("ID cannot be null");
-        removeLock(id);
-        Optional<Feedback> existing = jpaRepo.findById(id);
-        existing.ifPresent(jpaRepo::delete);
-        return existing.orElse(null);
+        synchronized (cacheLock) {
+            Optional<Feedback> existing = jpaRepo.findById(id);
+            existing.ifPresent(feedback -> {
+                jpaRepo.delete(feedback);
+                adjustCounts(feedback, -1);
+                forgetSummaries(feedback);
+            });
+            return existing.orElse(null);
+        }
     }
 
     @Override
@@ -40,9 +101,18 @@ public class JpaFeedbackRepository extends IFeedbackRepository {
         if (!isIdValid(id)) throw new IllegalArgumentException("ID cannot be null");
         if (item == null || !id.equals(item.getFeedbackId()))
             throw new IllegalArgumentException("Invalid item or mismatched ID");
-        if (!jpaRepo.existsById(id))
-            throw new IllegalArgumentException("Feedback not found");
-        return jpaRepo.save(item);
+        synchronized (cacheLock) {
+            Feedback previous = jpaRepo.findById(id).orElse(null);
+            if (previous == null)
+                throw new IllegalArgumentException("Feedback not found");
+            item.setSequence(previous.getSequence());
+            adjustCounts(previous, -1);
+            forgetSummaries(previous);
+            Feedback saved = jpaRepo.save(item);
+            adjustCounts(saved, 1);
+            forgetSummaries(saved);
+            return saved;
+        }
     }
 
     @Override
@@ -50,11 +120,81 @@ public class JpaFeedbackRepository extends IFeedbackRepository {
         if (!isIdValid(id)) throw new IllegalArgumentException("ID cannot be null");
         if (item == null || !id.equals(item.getFeedbackId()))
             throw new IllegalArgumentException("Invalid item or mismatched ID");
-        if (jpaRepo.existsById(id))
-            throw new IllegalArgumentException("Item with this ID already exists");
-        addLock(id);
-        jpaRepo.save(item);
-        return true;
+        synchronized (cacheLock) {
+            if (jpaRepo.existsById(id))
+                throw new IllegalArgumentException("Item with this ID already exists");
+            ensureSequenced();
+            item.setSequence(lastSequence + 1);
+            jpaRepo.save(item);
+            lastSequence++;
+            adjustCounts(item, 1);
+            for (FeedbackIndex index : FeedbackIndex.values()) {
+                String key = index.keyOf(item);
+                if (key != null) {
+                    summaries.get(index).computeIfPresent(key, (k, summary) -> prepend(summary, item, count(index, key)));
+                }
+            }
+            return true;
+        }
+    }
+
+    private static FeedbackPage prepend(FeedbackPage summary, Feedback newest, long count) {
+        List<Feedback> latest = new ArrayList<>(SUMMARY_SIZE);
+        latest.add(newest);
+        for (Feedback feedback : summary.getFeedbacks()) {
+            if (latest.size() == SUMMARY_SIZE) {
+                break;
+            }
+            latest.add(feedback);
+        }
+        long nextBefore = latest.size() < SUMMARY_SIZE ? 0 : latest.get(latest.size() - 1).getSequence();
+        return new FeedbackPage(latest, nextBefore, count);
+    }
+
+    @Override
+    public List<Feedback> getPage(FeedbackIndex index, String key, long before, int limit) {
+        if (lastSequence < 0) {
+            synchronized (cacheLock) {
+                ensureSequenced();
+            }
+        }
+        PageRequest page = PageRequest.of(0, limit);
+        return switch (index) {
+            case PRODUCT -> jpaRepo.findByProductIdAndSequenceLessThanOrderBySequenceDesc(key, before, page);
+            case STORE -> jpaRepo.findByStoreIdAndSequenceLessThanOrderBySequenceDesc(key, before, page);
+            case CUSTOMER -> jpaRepo.findByCustomerIdAndSequenceLessThanOrderBySequenceDesc(key, before, page);
+        };
+    }
+
+    @Override
+    public long count(FeedbackIndex index, String key) {
+        Long count = counts.get(index).get(key);
+        if (count != null) {
+            return count;
+        }
+        synchronized (cacheLock) {
+            return counts.get(index).computeIfAbsent(key, k -> switch (index) {
+                case PRODUCT -> jpaRepo.countByProductId(k);
+                case STORE -> jpaRepo.countByStoreId(k);
+                case CUSTOMER -> jpaRepo.countByCustomerId(k);
+            });
+        }
+    }
+
+    @Override
+    public FeedbackPage getSummary(FeedbackIndex index, String key) {
+        FeedbackPage summary = summaries.get(index).get(key);
+        if (summary != null) {
+            return summary;
+        }
+        synchronized (cacheLock) {
+            summary = summaries.get(index).get(key);
+            if (summary == null) {
+                summary = super.getSummary(index, key);
+                summaries.get(index).put(key, summary);
+            }
+            return summary;
+        }
     }
 
     @Override
@@ -74,7 +214,11 @@ public class JpaFeedbackRepository extends IFeedbackRepository {
 
     @Override
     public void deleteAll() {
-        jpaRepo.deleteAll();
-        deleteAllLocks();
+        synchronized (cacheLock) {
+            jpaRepo.deleteAll();
+            counts.values().forEach(Map::clear);
+            summaries.values().forEach(Map::clear);
+            lastSequence = -1;
+        }
     }
 }
@@ -1,42 +1,74 @@
 package Infrastructure.JpaSpringRepositories;
 
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import Domain.Pair;
 import Domain.Repos.IItemRepository;
 import Domain.Store.Item;
 import Domain.Store.ItemId;
+import Domain.Store.ItemUpdate;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.annotation.PreDestroy;
 
+/**
+ * JPA backed items. Ratings are counted per item and star in memory and added to the stored counts in batches
+ * by {@link #flushRatings()}, one update per rated item, instead of saving the item for every rating.
+ * Batches of price and stock changes are sent as one JDBC batch of set-based updates by {@link #updateAll}.
+ */
 @Repository
 @Profile("prod")
 public class JpaItemRepository extends IItemRepository {
 
+    // Stock is only taken when enough is left, so an update that matches no row failed
+    private static final String UPDATE_SQL = "UPDATE items SET price = COALESCE(?, price), amount = amount + ? "
+            + "WHERE store_id = ? AND product_id = ? AND amount + ? >= 0";
+
     private final IJpaItemRepository jpaItemRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Pair<String, String>, AtomicIntegerArray> pendingRatings = new ConcurrentHashMap<>();
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
-    public JpaItemRepository(IJpaItemRepository jpaItemRepository) {
+    public JpaItemRepository(IJpaItemRepository jpaItemRepository, JdbcTemplate jdbcTemplate) {
         this.jpaItemRepository = jpaItemRepository;
+        this.jdbcTemplate = jdbcTemplate;
     }
 
     @Override
     public boolean add(Pair<String, String> id, Item value) {
         if (jpaItemRepository.existsById(new ItemId(id.getFirst(), id.getSecond())))
             return false;
-        // Create a lock for the item before saving
-        addLock(id);
         jpaItemRepository.save(value);
         return true;
     }
 
+    @Override
+    public void addAll(Map<Pair<String, String>, Item> values) {
+        jpaItemRepository.saveAll(values.values());
+    }
+
     @Override
     public Item remove(Pair<String, String> id) {
         ItemId itemId = new ItemId(id.getFirst(), id.getSecond());
         Item existing = jpaItemRepository.findById(itemId).orElse(null);
         if (existing != null) {
             jpaItemRepository.deleteById(itemId);
-            removeLock(id);
         }
         return existing;
     }
@@ -51,6 +83,18 @@ public class JpaItemRepository extends IItemRepository {
         return jpaItemRepository.getItem(storeId, productId);
     }
 
+    @Override
+    public Map<String, Item> getItems(String storeId, Collection<String> productIds) {
+        Map<String, Item> items = new HashMap<>();
+        if (productIds.isEmpty()) {
+            return items;
+        }
+        for (Item item : jpaItemRepository.getItems(storeId, productIds)) {
+            items.put(item.getProductId(), item);
+        }
+        return items;
+    }
+
     @Override
     public List<Item> getByStoreId(String storeId) {
         return jpaItemRepository.getByStoreId(storeId);
@@ -67,22 +111,102 @@ public class JpaItemRepository extends IItemRepository {
     }
 
     @Override
+    @Transactional
     public Item update(Pair<String, String> id, Item item) {
         // Upsert logic: update only if it exists
         ItemId itemId = new ItemId(id.getFirst(), id.getSecond());
         if (!jpaItemRepository.existsById(itemId)) {
             return null;
         }
-        // Ensure a lock exists for the item
-        if (getLock(id) == null) {
-            addLock(id);
+        // Merged directly: the caller's copy may never have been loaded, and so still reports itself as new
+        return entityManager.merge(item);
+    }
+
+    @Override
+    @Transactional
+    public List<Item> updateAll(String storeId, List<ItemUpdate> updates) {
+        // Like a @Modifying query: write pending changes first, and forget the entities the batch makes stale
+        entityManager.flush();
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, updates, updates.size(), (statement, update) -> {
+            Float price = update.getPrice();
+            statement.setObject(1, price == null ? null : (double) price.floatValue(), Types.DOUBLE);
+            statement.setInt(2, update.getAmountDelta());
+            statement.setString(3, storeId);
+            statement.setString(4, update.getProductId());
+            statement.setInt(5, update.getAmountDelta());
+        });
+        entityManager.clear();
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count == 0) {
+                    // Throwing rolls the whole batch back
+                    ItemUpdate update = updates.get(index);
+                    if (!jpaItemRepository.existsById(new ItemId(storeId, update.getProductId())))
+                        throw new NoSuchElementException("Item not found for storeId: " + storeId + ", productId: " + update.getProductId());
+                    throw new IllegalArgumentException("Not enough stock of " + update.getProductId() + " to remove " + -update.getAmountDelta());
+                }
+                index++;
+            }
+        }
+        List<ItemId> ids = new ArrayList<>(updates.size());
+        for (ItemUpdate update : updates) {
+            ids.add(new ItemId(storeId, update.getProductId()));
+        }
+        Map<ItemId, Item> updated = new HashMap<>();
+        for (Item item : jpaItemRepository.findAllById(ids)) {
+            updated.put(new ItemId(item.getStoreId(), item.getProductId()), item);
         }
-        return jpaItemRepository.save(item);
+        List<Item> items = new ArrayList<>(ids.size());
+        for (ItemId id : ids) {
+            items.add(updated.get(id));
+        }
+        return items;
+    }
+
+    @Override
+    public void ratingAdded(Item item, int rating) {
+        pendingRatings.computeIfAbsent(new Pair<>(item.getStoreId(), item.getProductId()),
+                id -> new AtomicIntegerArray(5)).incrementAndGet(rating - 1);
+    }
+
+    /**
+     * Adds the ratings given since the last flush to the stored counts.
+     */
+    @Scheduled(fixedDelayString = "${app.items.rating-flush-interval-ms:1000}")
+    public synchronized void flushRatings() {
+        // Counters stay in the map once created: removing one could drop a rating counted into it meanwhile
+        int[] deltas = new int[5];
+        pendingRatings.forEach((id, counts) -> {
+            boolean any = false;
+            for (int star = 0; star < 5; star++) {
+                deltas[star] = counts.getAndSet(star, 0);
+                any |= deltas[star] != 0;
+            }
+            if (!any) {
+                return;
+            }
+            try {
+                jpaItemRepository.addRatings(id.getFirst(), id.getSecond(),
+                        deltas[0], deltas[1], deltas[2], deltas[3], deltas[4]);
+            } catch (RuntimeException e) {
+                // Put them back for the next flush
+                for (int star = 0; star < 5; star++) {
+                    counts.addAndGet(star, deltas[star]);
+                }
+                throw e;
+            }
+        });
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushRatings();
     }
 
     @Override
     public void deleteAll() {
+        pendingRatings.clear();
         jpaItemRepository.deleteAll();
-        deleteAllLocks();
     }
 }
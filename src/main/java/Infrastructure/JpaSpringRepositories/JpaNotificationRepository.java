@@ -1,45 +1,184 @@
 package Infrastructure.JpaSpringRepositories;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import Application.utils.TradingLogger;
 import Domain.Notification.INotificationRepository;
 import Domain.Notification.Notification;
+import Domain.Notification.NotificationCursor;
+import jakarta.annotation.PreDestroy;
 
+/**
+ * JPA backed notification log with batched inserts.
+ * Appended notifications are queued and written in batches by {@link #flush()}, which runs on a fixed
+ * interval and before every read. Cursors are cached once loaded, so sequence numbers and unread counts
+ * come from memory; changed cursors are written with the next flush.
+ * <p>
+ * A flush writes the queued notifications and the changed cursors together in a transaction of its own, so a
+ * flush triggered by a read neither commits nor rolls back with the reader's transaction. If it fails, the
+ * notifications are queued again and the cursors stay dirty, and the next flush retries both.
+ */
 @Repository
 @Profile("prod")
 public class JpaNotificationRepository extends INotificationRepository {
+    private static final String CLASS_NAME = JpaNotificationRepository.class.getSimpleName();
 
     private final IJpaNotificationRepository jpaNotificationRepository;
+    private final IJpaNotificationCursorRepository jpaCursorRepository;
+    private final Map<String, NotificationCursor> cursors = new ConcurrentHashMap<>();
+    private final Queue<Notification> pending = new ConcurrentLinkedQueue<>();
+    private final Set<String> dirtyCursors = ConcurrentHashMap.newKeySet();
+    private final Object flushLock = new Object();
+    private final TransactionTemplate flushTransaction;
 
-    public JpaNotificationRepository(IJpaNotificationRepository jpaNotificationRepository) {
+    @Value("${app.notifications.flush-batch-size:500}")
+    private int flushBatchSize = 500;
+
+    public JpaNotificationRepository(IJpaNotificationRepository jpaNotificationRepository,
+                                     IJpaNotificationCursorRepository jpaCursorRepository,
+                                     PlatformTransactionManager transactionManager) {
         this.jpaNotificationRepository = jpaNotificationRepository;
+        this.jpaCursorRepository = jpaCursorRepository;
+        this.flushTransaction = new TransactionTemplate(transactionManager);
+        this.flushTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    private NotificationCursor cursor(String userId) {
+        return cursors.computeIfAbsent(userId,
+                id -> jpaCursorRepository.findById(id).orElseGet(() -> new NotificationCursor(id)));
+    }
+
+    @Override
+    public long append(String userId, String content) {
+        NotificationCursor cursor = cursor(userId);
+        long sequence = cursor.next();
+        pending.add(new Notification(userId, sequence, System.currentTimeMillis(), content));
+        dirtyCursors.add(userId);
+        return sequence;
+    }
+
+    @Override
+    public List<Notification> getPage(String userId, long before, int limit) {
+        flushPending();
+        return jpaNotificationRepository.findPageBefore(userId, before, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public List<Notification> getUnread(String userId, int limit) {
+        flushPending();
+        return jpaNotificationRepository.findPageAfter(userId, cursor(userId).getReadSequence(), PageRequest.of(0, limit));
+    }
+
+    @Override
+    public boolean markRead(String userId, long sequence) {
+        if (!cursor(userId).markRead(sequence)) {
+            return false;
+        }
+        dirtyCursors.add(userId);
+        return true;
     }
 
     @Override
-    public void addNotification(String userId, String content) {
-        String notificationId = UUID.randomUUID().toString();
-        Notification notification = new Notification(notificationId, userId, content);
-        // Create a lock for the notification before saving
-        addLock(userId);
-        jpaNotificationRepository.save(notification);
+    public long getUnreadCount(String userId) {
+        return cursor(userId).getUnreadCount();
     }
 
     @Override
-    public List<String> getNotifications(String userId) {
-        return jpaNotificationRepository.getNotificationsByUserId(userId)
-                .stream()
-                .map(Notification::getContent)
-                .toList();
+    public int prune(long createdBefore, int keepPerUser) {
+        flush();
+        Map<String, Long> cuts = new HashMap<>();
+        for (Object[] row : jpaNotificationRepository.findLastSequencesCreatedBefore(createdBefore)) {
+            cuts.put((String) row[0], (Long) row[1]);
+        }
+        for (NotificationCursor stored : jpaCursorRepository.findKeepingMoreThan(keepPerUser)) {
+            long cut = cursor(stored.getUserId()).getLastSequence() - keepPerUser;
+            cuts.merge(stored.getUserId(), cut, Math::max);
+        }
+        int removed = 0;
+        for (Map.Entry<String, Long> cut : cuts.entrySet()) {
+            removed += jpaNotificationRepository.deleteUpTo(cut.getKey(), cut.getValue());
+            cursor(cut.getKey()).pruned(cut.getValue());
+            dirtyCursors.add(cut.getKey());
+        }
+        flush();
+        return removed;
+    }
+
+    private void flushPending() {
+        if (!pending.isEmpty()) {
+            flush();
+        }
     }
 
+    /**
+     * Writes queued notifications and changed cursors to the database.
+     */
+    @Scheduled(fixedDelayString = "${app.notifications.flush-interval-ms:1000}")
+    public void flush() {
+        synchronized (flushLock) {
+            List<Notification> notifications = new ArrayList<>();
+            Notification next;
+            while ((next = pending.poll()) != null) {
+                notifications.add(next);
+            }
+            // Cursors go after the notifications they count; one appended meanwhile is written with the next flush.
+            List<String> userIds = List.copyOf(dirtyCursors);
+            dirtyCursors.removeAll(userIds);
+            if (notifications.isEmpty() && userIds.isEmpty()) {
+                return;
+            }
+            List<NotificationCursor> changed = new ArrayList<>(userIds.size());
+            for (String userId : userIds) {
+                changed.add(cursors.get(userId));
+            }
+            try {
+                flushTransaction.executeWithoutResult(status -> {
+                    for (int start = 0; start < notifications.size(); start += flushBatchSize) {
+                        jpaNotificationRepository.saveAll(
+                                notifications.subList(start, Math.min(start + flushBatchSize, notifications.size())));
+                    }
+                    if (!changed.isEmpty()) {
+                        jpaCursorRepository.saveAll(changed);
+                    }
+                });
+            } catch (RuntimeException e) {
+                pending.addAll(notifications);
+                dirtyCursors.addAll(userIds);
+                TradingLogger.logError(CLASS_NAME, "flush", "Flush of %d notifications failed, will retry: %s",
+                        notifications.size(), e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    // Implementing base interface methods
+
     @Override
     public boolean add(String id, List<String> value) {
-        // Not used directly - notifications are added through addNotification
-        return false;
+        for (String content : value) {
+            append(id, content);
+        }
+        return true;
     }
 
     @Override
@@ -50,7 +189,7 @@ public class JpaNotificationRepository extends INotificationRepository {
 
     @Override
     public List<String> get(String id) {
-        return getNotifications(id);
+        return getUnread(id, DELIVERY_LIMIT).stream().map(Notification::getContent).toList();
     }
 
     @Override
@@ -61,7 +200,12 @@ public class JpaNotificationRepository extends INotificationRepository {
 
     @Override
     public void deleteAll() {
-        jpaNotificationRepository.deleteAll();
-        deleteAllLocks();
+        synchronized (flushLock) {
+            pending.clear();
+            dirtyCursors.clear();
+            cursors.clear();
+            jpaNotificationRepository.deleteAll();
+            jpaCursorRepository.deleteAll();
+        }
     }
-} 
\ No newline at end of file
+}
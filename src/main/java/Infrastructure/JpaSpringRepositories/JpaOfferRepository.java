@@ -60,4 +60,9 @@ public class JpaOfferRepository extends IOfferRepository {
     public List<Offer> getOffersOfMember(String memberId) {
         return jpaOfferRepository.getOffersOfMember(memberId);
     }
+
+    @Override
+    public List<Offer> getAllOffers() {
+        return jpaOfferRepository.findAll();
+    }
 }
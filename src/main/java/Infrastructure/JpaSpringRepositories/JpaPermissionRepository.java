@@ -26,22 +26,26 @@ public class JpaPermissionRepository extends IPermissionRepository {
         PermissionId id = new PermissionId(storeId, userId);
         if (jpaRepository.existsById(id)) return false;
 
-        addLock(new Pair<>(storeId, userId)); // Locking logic
         value.setStoreId(storeId);
         value.setMember(userId);
         jpaRepository.save(value);
         return true;
     }
 
+    @Override
+    public void addAll(Map<Pair<String, String>, Permission> values) {
+        for (Map.Entry<Pair<String, String>, Permission> entry : values.entrySet()) {
+            entry.getValue().setStoreId(entry.getKey().getFirst());
+            entry.getValue().setMember(entry.getKey().getSecond());
+        }
+        jpaRepository.saveAll(values.values());
+    }
+
     @Override
     public Permission update(String storeId, String userId, Permission value) {
         PermissionId id = new PermissionId(storeId, userId);
         if (!jpaRepository.existsById(id)) return null;
 
-        if (getLock(new Pair<>(storeId, userId)) == null) {
-            addLock(new Pair<>(storeId, userId));
-        }
-
         value.setStoreId(storeId);
         value.setMember(userId);
         return jpaRepository.save(value);
@@ -53,7 +57,6 @@ public class JpaPermissionRepository extends IPermissionRepository {
         Permission permission = jpaRepository.findById(id).orElse(null);
         if (permission != null) {
             jpaRepository.deleteById(id);
-            removeLock(new Pair<>(storeId, userId));
         }
         return permission;
     }
@@ -86,7 +89,6 @@ public class JpaPermissionRepository extends IPermissionRepository {
     @Override
     public void deleteAll() {
         jpaRepository.deleteAll();
-        deleteAllLocks();
     }
 
 
@@ -1,12 +1,18 @@
 package Infrastructure.JpaSpringRepositories;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import Domain.Repos.IProductRepository;
 import Domain.Store.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 
 @Repository
 @Profile("prod")
@@ -14,6 +20,9 @@ public class JpaProductRepository extends IProductRepository {
 
     private final IJpaProductRepository jpaProductRepository;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     public JpaProductRepository(IJpaProductRepository jpaProductRepository) {
         this.jpaProductRepository = jpaProductRepository;
     }
@@ -28,12 +37,32 @@ public class JpaProductRepository extends IProductRepository {
         return jpaProductRepository.getAll();
     }
 
+    @Override
+    public Map<String, Product> getAll(Collection<String> ids) {
+        Map<String, Product> products = new HashMap<>();
+        if (ids.isEmpty()) {
+            return products;
+        }
+        for (Product product : jpaProductRepository.findAllById(ids)) {
+            products.put(product.getProductId(), product);
+        }
+        return products;
+    }
+
     @Override
     public boolean add(String id, Product value) {
+        if (jpaProductRepository.existsById(id)) {
+            return false;
+        }
         jpaProductRepository.save(value);
         return true;
     }
 
+    @Override
+    public void addAll(Map<String, Product> values) {
+        jpaProductRepository.saveAll(values.values());
+    }
+
     @Override
     public Product remove(String id) {
         Product p = jpaProductRepository.findById(id).orElse(null);
@@ -49,8 +78,10 @@ public class JpaProductRepository extends IProductRepository {
     }
 
     @Override
+    @Transactional
     public Product update(String id, Product value) {
-        return jpaProductRepository.save(value);
+        // Merged directly: the caller's copy may never have been loaded, and so still reports itself as new
+        return entityManager.merge(value);
     }
 
     @Override
@@ -7,6 +7,7 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
 
 import Domain.Pair;
+import Domain.Events.DomainEventBus;
 import Domain.Repos.IReceiptRepository;
 import Domain.Shopping.Receipt;
 import Domain.Store.Product;
@@ -17,13 +18,15 @@ public class JpaReceiptRepository extends IReceiptRepository {
 
     private final IJpaReceiptRepository jpaReceiptRepository;
 
-    public JpaReceiptRepository(IJpaReceiptRepository jpaReceiptRepository) {
+    public JpaReceiptRepository(IJpaReceiptRepository jpaReceiptRepository, DomainEventBus eventBus) {
+        super(eventBus);
         this.jpaReceiptRepository = jpaReceiptRepository;
     }
 
     @Override
     public String saveReceipt(Receipt receipt) {
         jpaReceiptRepository.save(receipt);
+        publishCreated(receipt);
         return receipt.getReceiptId();
     }
 
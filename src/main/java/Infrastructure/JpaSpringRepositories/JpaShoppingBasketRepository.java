@@ -1,47 +1,76 @@
 package Infrastructure.JpaSpringRepositories;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import Domain.Pair;
 import Domain.Repos.IShoppingBasketRepository;
 import Domain.Repos.IUserRepository;
 import Domain.Shopping.ShoppingBasket;
 import Domain.Shopping.ShoppingBasketId;
+import jakarta.annotation.PreDestroy;
 
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * JPA backed shopping basket repository.
+ * Guest baskets live in memory only. Member baskets use write-behind persistence:
+ * edits mark the basket dirty and dirty baskets are saved in batches by {@link #flush()}.
+ * Each batch commits in its own transaction, so a flush called from a request neither commits nor rolls back
+ * with the request's transaction.
+ */
 @Repository
 @Profile("prod")
 public class JpaShoppingBasketRepository extends IShoppingBasketRepository {
 
     private final IJpaShoppingBasketRepository jpaShoppingBasketRepository;
     private final IUserRepository userRepository;
+    private final TransactionTemplate flushTransaction;
     private final ConcurrentHashMap<Pair<String, String>, ShoppingBasket> guestBasketMemory = new ConcurrentHashMap<>();
+    private final WriteBehindCache<Pair<String, String>, ShoppingBasket> cache = new WriteBehindCache<>(ShoppingBasket::copy);
 
-    public JpaShoppingBasketRepository(IJpaShoppingBasketRepository jpaShoppingBasketRepository, IUserRepository userRepository) {
+    @Value("${app.cart.flush-batch-size:200}")
+    private int flushBatchSize = 200;
+
+    @Value("${app.cart.idle-eviction-ms:600000}")
+    private long idleEvictionMillis = 600000;
+
+    public JpaShoppingBasketRepository(IJpaShoppingBasketRepository jpaShoppingBasketRepository, IUserRepository userRepository,
+                                       PlatformTransactionManager transactionManager) {
         this.jpaShoppingBasketRepository = jpaShoppingBasketRepository;
         this.userRepository = userRepository;
+        this.flushTransaction = new TransactionTemplate(transactionManager);
+        this.flushTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
     }
 
     private boolean isGuestUser(String clientId) {
         return userRepository.getGuest(clientId) != null;
     }
 
+    private ShoppingBasket load(Pair<String, String> id) {
+        return jpaShoppingBasketRepository.findById(
+            new ShoppingBasketId(id.getFirst(), id.getSecond())
+        ).orElse(null);
+    }
+
     @Override
     public boolean add(Pair<String, String> id, ShoppingBasket value) {
         if (isGuestUser(id.getFirst())) {
-            addLock(id);
             guestBasketMemory.put(id, value);
             return true;
         }
 
-        if (jpaShoppingBasketRepository.existsById(new ShoppingBasketId(id.getFirst(), id.getSecond()))) {
+        if (cache.contains(id) || jpaShoppingBasketRepository.existsById(new ShoppingBasketId(id.getFirst(), id.getSecond()))) {
             return false;
         }
 
-        addLock(id);
-        jpaShoppingBasketRepository.save(value);
+        cache.markDirty(id, value);
         return true;
     }
 
@@ -51,61 +80,76 @@ public class JpaShoppingBasketRepository extends IShoppingBasketRepository {
             return guestBasketMemory.get(id);
         }
 
-        return jpaShoppingBasketRepository.findById(
-            new ShoppingBasketId(id.getFirst(), id.getSecond())
-        ).orElse(null);
+        return cache.get(id, this::load);
     }
 
     @Override
     public ShoppingBasket update(Pair<String, String> id, ShoppingBasket basket) {
         if (isGuestUser(id.getFirst())) {
-            if (getLock(id) == null) {
-                addLock(id);
-            }
             guestBasketMemory.put(id, basket);
             return basket;
         }
 
-        ShoppingBasketId basketId = new ShoppingBasketId(id.getFirst(), id.getSecond());
-        if (!jpaShoppingBasketRepository.existsById(basketId)) {
+        // Only baskets that were never loaded need an existence check
+        if (!cache.contains(id)
+            && !jpaShoppingBasketRepository.existsById(new ShoppingBasketId(id.getFirst(), id.getSecond()))) {
             return null;
         }
 
-        if (getLock(id) == null) {
-            addLock(id);
-        }
-
-        return jpaShoppingBasketRepository.save(basket);
+        cache.markDirty(id, basket);
+        return basket;
     }
 
     @Override
     public ShoppingBasket remove(Pair<String, String> id) {
         if (isGuestUser(id.getFirst())) {
-            removeLock(id);
             return guestBasketMemory.remove(id);
         }
 
         ShoppingBasketId basketId = new ShoppingBasketId(id.getFirst(), id.getSecond());
-        ShoppingBasket existing = jpaShoppingBasketRepository.findById(basketId).orElse(null);
+        ShoppingBasket existing = cache.remove(id);
+        if (existing == null) {
+            existing = load(id);
+        }
         if (existing != null) {
-            jpaShoppingBasketRepository.deleteById(basketId);
-            removeLock(id);
+            if (jpaShoppingBasketRepository.existsById(basketId)) {
+                jpaShoppingBasketRepository.deleteById(basketId);
+            }
         }
 
         return existing;
     }
 
+    /**
+     * Writes all pending member basket changes to the database and evicts baskets that were idle.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${app.cart.flush-interval-ms:2000}")
+    public void flush() {
+        cache.flush(this::saveBatch, flushBatchSize);
+        cache.evictIdle(idleEvictionMillis);
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        cache.flush(this::saveBatch, flushBatchSize);
+    }
+
+    private void saveBatch(List<ShoppingBasket> baskets) {
+        flushTransaction.executeWithoutResult(status -> jpaShoppingBasketRepository.saveAll(baskets));
+    }
+
     @Override
     public void clear() {
+        cache.clear();
         jpaShoppingBasketRepository.deleteAll();
-        deleteAllLocks();
         guestBasketMemory.clear();
     }
 
     @Override
     public void deleteAll() {
+        cache.clear();
         jpaShoppingBasketRepository.deleteAll();
-        deleteAllLocks();
         guestBasketMemory.clear();
     }
 }
@@ -1,23 +1,51 @@
 package Infrastructure.JpaSpringRepositories;
 
+import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import Domain.Repos.IShoppingCartRepository;
 import Domain.Shopping.IShoppingCart;
 import Domain.Shopping.ShoppingCart;
+import jakarta.annotation.PreDestroy;
 
+/**
+ * JPA backed shopping cart repository with write-behind persistence.
+ * Cart edits are applied to the in-memory copy and written to the database in
+ * batches by {@link #flush()}, which runs on a fixed interval and at checkout. Each batch commits in its own
+ * transaction, so a flush at checkout neither commits nor rolls back with the checkout's transaction.
+ */
 @Repository
 @Profile("prod")
 public class JpaShoppingCartRepository extends IShoppingCartRepository {
 
     private final IJpaShoppingCartRepository jpaShoppingCartRepository;
+    private final WriteBehindCache<String, ShoppingCart> cache = new WriteBehindCache<>(ShoppingCart::copy);
+    private final TransactionTemplate flushTransaction;
 
-    public JpaShoppingCartRepository(IJpaShoppingCartRepository jpaShoppingCartRepository) {
+    @Value("${app.cart.flush-batch-size:200}")
+    private int flushBatchSize = 200;
+
+    @Value("${app.cart.idle-eviction-ms:600000}")
+    private long idleEvictionMillis = 600000;
+
+    public JpaShoppingCartRepository(IJpaShoppingCartRepository jpaShoppingCartRepository,
+                                     PlatformTransactionManager transactionManager) {
         this.jpaShoppingCartRepository = jpaShoppingCartRepository;
+        this.flushTransaction = new TransactionTemplate(transactionManager);
+        this.flushTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    private ShoppingCart load(String id) {
+        return jpaShoppingCartRepository.findById(id).orElse(null);
     }
 
     @Override
@@ -25,28 +53,30 @@ public class JpaShoppingCartRepository extends IShoppingCartRepository {
         if (!(value instanceof ShoppingCart)) {
             throw new IllegalArgumentException("Value must be an instance of ShoppingCart");
         }
-        if (jpaShoppingCartRepository.existsById(id)) {
+        if (cache.contains(id) || jpaShoppingCartRepository.existsById(id)) {
             return false;
         }
-        // Create a lock for the cart before saving
-        addLock(id);
-        jpaShoppingCartRepository.save((ShoppingCart) value);
+        cache.markDirty(id, (ShoppingCart) value);
         return true;
     }
 
     @Override
     public IShoppingCart remove(String id) {
-        ShoppingCart existing = jpaShoppingCartRepository.findById(id).orElse(null);
+        ShoppingCart existing = cache.remove(id);
+        if (existing == null) {
+            existing = load(id);
+        }
         if (existing != null) {
-            jpaShoppingCartRepository.deleteById(id);
-            removeLock(id);
+            if (jpaShoppingCartRepository.existsById(id)) {
+                jpaShoppingCartRepository.deleteById(id);
+            }
         }
         return existing;
     }
 
     @Override
     public IShoppingCart get(String id) {
-        return jpaShoppingCartRepository.findById(id).orElse(null);
+        return cache.get(id, this::load);
     }
 
     @Override
@@ -54,47 +84,57 @@ public class JpaShoppingCartRepository extends IShoppingCartRepository {
         if (!(cart instanceof ShoppingCart)) {
             throw new IllegalArgumentException("Cart must be an instance of ShoppingCart");
         }
-        
-        try {
-            // First check if the cart exists
-            if (!jpaShoppingCartRepository.existsById(id)) {
-                return null;
-            }
-
-            // Ensure we have a lock
-            if (getLock(id) == null) {
-                addLock(id);
-            }
 
-            // Save the cart and return the result
-            return jpaShoppingCartRepository.save((ShoppingCart) cart);
-        } catch (Exception e) {
-            // Log the error
-            System.err.println("Error updating shopping cart: " + e.getMessage());
-            // Remove the lock in case of failure
-            removeLock(id);
+        // Only carts that were never loaded need an existence check
+        if (!cache.contains(id) && !jpaShoppingCartRepository.existsById(id)) {
             return null;
         }
+
+
+        cache.markDirty(id, (ShoppingCart) cart);
+        return cart;
+    }
+
+    /**
+     * Writes all pending cart changes to the database and evicts carts that were idle.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${app.cart.flush-interval-ms:2000}")
+    public void flush() {
+        cache.flush(this::saveBatch, flushBatchSize);
+        cache.evictIdle(idleEvictionMillis);
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        cache.flush(this::saveBatch, flushBatchSize);
+    }
+
+    private void saveBatch(List<ShoppingCart> carts) {
+        flushTransaction.executeWithoutResult(status -> jpaShoppingCartRepository.saveAll(carts));
     }
 
     @Override
     public void clear() {
+        cache.clear();
         jpaShoppingCartRepository.deleteAll();
-        deleteAllLocks();
     }
 
     @Override
     public Map<String, IShoppingCart> getAll() {
-        return jpaShoppingCartRepository.getAllCarts().stream()
+        Map<String, IShoppingCart> carts = jpaShoppingCartRepository.getAllCarts().stream()
             .collect(Collectors.toMap(
                 ShoppingCart::getClientId,
                 cart -> cart
             ));
+        // Cached carts may hold changes that were not flushed yet
+        carts.putAll(cache.snapshot());
+        return carts;
     }
 
     @Override
     public void deleteAll() {
+        cache.clear();
         jpaShoppingCartRepository.deleteAll();
-        deleteAllLocks();
     }
-} 
\ No newline at end of file
+}
@@ -1,6 +1,7 @@
 package Infrastructure.JpaSpringRepositories;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.context.annotation.Profile;
@@ -25,6 +26,11 @@ public class JpaStoreRepository extends IStoreRepository {
         return true;
     }
 
+    @Override
+    public void addAll(Map<String, Store> values) {
+        jpaStoreRepository.saveAll(values.values());
+    }
+
     @Override
     public Store remove(String id) {
         Optional<Store> store = jpaStoreRepository.findById(id);
@@ -1,6 +1,7 @@
 package Infrastructure.JpaSpringRepositories;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -34,6 +35,11 @@ public class JpaUserSpringRepository extends IUserRepository {
         return true;
     }
 
+    @Override
+    public void addAll(Map<String, User> values) {
+        jpaRepo.saveAll(values.values());
+    }
+
     @Override
     public User remove(String id) {
         UUID uuid = UUID.fromString(id);
@@ -0,0 +1,203 @@
+package Infrastructure.JpaSpringRepositories;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory write-behind buffer placed in front of a JPA repository.
+ * Active entities are kept in memory; mutations only mark the entity as dirty and
+ * the dirty set is written to the database in coalesced batches by {@link #flush}.
+ * Entities that were never loaded are read through from the database on demand,
+ * so a restart simply starts from an empty cache and recovers from the database.
+ * <p>
+ * Request threads keep changing cached entities while a flush runs, so the flush writes copies made by the
+ * cache's snapshot function, which must read the entity under the entity's own lock.
+ * <p>
+ * Each batch is copied and written while holding the cache's flush lock, and {@link #remove} takes the same lock,
+ * so a removed entity is either written before it is removed or not at all: a flush can never write back a row
+ * the caller is about to delete. The batch writer should commit in its own transaction, so that a batch counts
+ * as written only once it is committed and is marked dirty again if the commit fails.
+ *
+ * @param <K> the key type
+ * @param <V> the entity type
+ */
+public class WriteBehindCache<K, V> {
+    private final Map<K, CachedEntry<V>> entries = new ConcurrentHashMap<>();
+    private final Set<K> dirty = ConcurrentHashMap.newKeySet();
+    private final UnaryOperator<V> snapshot;
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    /**
+     * @param snapshot copies an entity consistently while other threads may change it
+     */
+    public WriteBehindCache(UnaryOperator<V> snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    private static class CachedEntry<V> {
+        private final V value;
+        private volatile long lastAccess;
+
+        CachedEntry(V value) {
+            this.value = value;
+            this.lastAccess = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Returns the cached entity, loading it through the given loader on a miss.
+     * Loaded entities are cached clean; a null result is not cached.
+     */
+    public V get(K id, Function<K, V> loader) {
+        CachedEntry<V> entry = entries.get(id);
+        if (entry != null) {
+            entry.lastAccess = System.currentTimeMillis();
+            return entry.value;
+        }
+        V loaded = loader.apply(id);
+        if (loaded == null) {
+            return null;
+        }
+        entry = entries.putIfAbsent(id, new CachedEntry<>(loaded));
+        return entry != null ? entry.value : loaded;
+    }
+
+    /**
+     * Returns the cached entity without touching the database, or null on a miss.
+     */
+    public V getIfPresent(K id) {
+        CachedEntry<V> entry = entries.get(id);
+        return entry != null ? entry.value : null;
+    }
+
+    public boolean contains(K id) {
+        return entries.containsKey(id);
+    }
+
+    /**
+     * Stores the entity and schedules it to be written on the next flush.
+     */
+    public void markDirty(K id, V value) {
+        entries.put(id, new CachedEntry<>(value));
+        dirty.add(id);
+    }
+
+    /**
+     * Drops the entity from the cache, including any pending write. Waits for a flush batch in progress,
+     * so once this returns no flush writes the entity again.
+     *
+     * @return the cached entity, or null if it was not cached
+     */
+    public V remove(K id) {
+        flushLock.lock();
+        try {
+            dirty.remove(id);
+            CachedEntry<V> entry = entries.remove(id);
+            return entry != null ? entry.value : null;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Returns a snapshot of all cached entities.
+     */
+    public Map<K, V> snapshot() {
+        Map<K, V> result = new HashMap<>();
+        entries.forEach((id, entry) -> result.put(id, entry.value));
+        return result;
+    }
+
+    public int dirtyCount() {
+        return dirty.size();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Writes all dirty entities through the given batch writer.
+     * Entities whose batch fails, including failing to commit, are marked dirty again so the next flush retries them.
+     *
+     * @param batchWriter writes and commits one batch of entities, typically {@code saveAll} in a new transaction
+     * @param batchSize the maximal number of entities per batch
+     * @return the number of entities written
+     */
+    public int flush(Consumer<List<V>> batchWriter, int batchSize) {
+        if (dirty.isEmpty()) {
+            return 0;
+        }
+        List<K> ids = new ArrayList<>(dirty);
+        int written = 0;
+        for (int start = 0; start < ids.size(); start += batchSize) {
+            List<K> batchIds = ids.subList(start, Math.min(start + batchSize, ids.size()));
+            flushLock.lock();
+            try {
+                written += writeBatch(batchIds, batchWriter);
+            } finally {
+                flushLock.unlock();
+            }
+        }
+        return written;
+    }
+
+    private int writeBatch(List<K> batchIds, Consumer<List<V>> batchWriter) {
+        List<V> batch = new ArrayList<>(batchIds.size());
+        List<K> claimed = new ArrayList<>(batchIds.size());
+        for (K id : batchIds) {
+            CachedEntry<V> entry = entries.get(id);
+            if (dirty.remove(id) && entry != null) {
+                batch.add(snapshot.apply(entry.value));
+                claimed.add(id);
+            }
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        try {
+            batchWriter.accept(batch);
+            return batch.size();
+        } catch (Exception e) {
+            System.err.println("Write-behind flush failed, will retry: " + e.getMessage());
+            for (K id : claimed) {
+                if (entries.containsKey(id)) {
+                    dirty.add(id);
+                }
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Evicts clean entities that were not accessed for the given period.
+     * Dirty entities are kept until they are flushed.
+     *
+     * @return the number of evicted entities
+     */
+    public int evictIdle(long idleMillis) {
+        long threshold = System.currentTimeMillis() - idleMillis;
+        int evicted = 0;
+        for (Map.Entry<K, CachedEntry<V>> e : entries.entrySet()) {
+            if (e.getValue().lastAccess < threshold && !dirty.contains(e.getKey())) {
+                if (entries.remove(e.getKey(), e.getValue())) {
+                    evicted++;
+                }
+            }
+        }
+        return evicted;
+    }
+
+    public void clear() {
+        dirty.clear();
+        entries.clear();
+    }
+}
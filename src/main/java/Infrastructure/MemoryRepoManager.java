@@ -1,6 +1,7 @@
 package Infrastructure;
 
 import Domain.IRepoManager;
+import Domain.Events.DomainEventBus;
 import Domain.Repos.IAuctionRepository;
 import Domain.Repos.IFeedbackRepository;
 import Domain.Repos.IItemRepository;
@@ -44,6 +45,7 @@ public class MemoryRepoManager implements IRepoManager {
     // private MemoryConditionRepository conditionRepository;
     private MemoryPolicyRepository policyRepository;
     private MemoryOfferRepository offerRepository;
+    private DomainEventBus eventBus;
     
     @Override
     public IStoreRepository getStoreRepository() {
@@ -69,7 +71,7 @@ public class MemoryRepoManager implements IRepoManager {
     @Override
     public IReceiptRepository getReceiptRepository() {
         if (receiptRepository == null) {
-            receiptRepository = new MemoryReceiptRepository();
+            receiptRepository = new MemoryReceiptRepository(getEventBus());
         }
         return receiptRepository;
     }
@@ -145,4 +147,11 @@ public class MemoryRepoManager implements IRepoManager {
         }
         return offerRepository;
     }
+    @Override
+    public DomainEventBus getEventBus() {
+        if (eventBus == null) {
+            eventBus = new DomainEventBus();
+        }
+        return eventBus;
+    }
 }
@@ -0,0 +1,87 @@
+package Infrastructure.MemoryRepositories;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Encodes the ids of one kind of entity, such as store ids, as dense ints starting at 1, so that two of them pack
+ * into the {@code long} key of a {@link LongKeyMap}. An id is given its code the first time it is stored and keeps
+ * it for the life of the dictionary; codes are never reused, so a key built from them stays valid after the entity
+ * is removed.
+ * <p>
+ * Since no code is ever freed, only encode ids of entities that last, such as stores, products and members.
+ * Guest and session ids come and go by the thousand and would grow the dictionary without bound.
+ */
+final class IdDictionary {
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] ids = new String[64];
+    private int size;
+
+    /**
+     * Packs two codes into one key. Codes are positive, so a key is never 0.
+     */
+    static long key(int first, int second) {
+        return ((long) first << 32) | (second & 0xFFFFFFFFL);
+    }
+
+    static int first(long key) {
+        return (int) (key >>> 32);
+    }
+
+    static int second(long key) {
+        return (int) key;
+    }
+
+    /**
+     * @return the id's code, given to it now if it has none yet
+     * @throws IllegalArgumentException if the id is null
+     */
+    int codeOf(String id) {
+        if (id == null) {
+            throw new IllegalArgumentException("ID cannot be null");
+        }
+        Integer code = codes.get(id);
+        return code != null ? code : assign(id);
+    }
+
+    /**
+     * @return the id's code, or 0 if it was never given one; lookups use this so that misses add nothing
+     */
+    int find(String id) {
+        if (id == null) {
+            return 0;
+        }
+        Integer code = codes.get(id);
+        return code != null ? code : 0;
+    }
+
+    /**
+     * @return the id with this code, or null if there is none
+     */
+    String idOf(int code) {
+        String[] current = ids;
+        return code > 0 && code < current.length ? current[code] : null;
+    }
+
+    int size() {
+        return codes.size();
+    }
+
+    private synchronized int assign(String id) {
+        Integer code = codes.get(id);
+        if (code != null) {
+            return code;
+        }
+        int next = ++size;
+        String[] current = ids;
+        if (next == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[next] = id;
+        // Published before the code, so that anyone who finds the code can read the id back
+        ids = current;
+        codes.put(id, next);
+        return next;
+    }
+}
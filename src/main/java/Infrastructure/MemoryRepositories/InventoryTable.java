@@ -0,0 +1,278 @@
+package Infrastructure.MemoryRepositories;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+import Domain.Pair;
+import Domain.Store.StockCounter;
+
+/**
+ * The stock of the dev profile's items in a memory-mapped file, one fixed-width slot per item.
+ * <p>
+ * Counts are changed in the mapping with atomic {@link VarHandle} operations, so a sale is one compare-and-set on
+ * the page cache: it needs no lock on the item, allocates nothing, and survives a crash of the process as soon as
+ * it returns. {@link #force} writes the pages to disk, at every journal checkpoint. The rest of an item is kept by
+ * the {@link MemoryJournal}; after it is recovered, {@link MemoryItemRepository#keepStockIn} hands every item its
+ * slot, and a slot's count, being the most recent, replaces the one the journal restored.
+ * <p>
+ * A slot is {@code [stock][state][store id][product id]}, each id as a length byte and up to
+ * {@value #MAX_ID_BYTES} bytes of UTF-8. Items with longer ids keep their stock on the heap. The file is in the
+ * machine's byte order, since it never leaves the machine.
+ * <p>
+ * Slots of removed items are only reused after the table is opened again, so that a counter someone still holds
+ * never changes the stock of another item.
+ */
+public class InventoryTable implements Closeable {
+    static final String FILE = "inventory.dat";
+    static final int MAX_ID_BYTES = 43;
+
+    private static final int MAGIC = 0x494E5654; // "INVT"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int SLOT_SIZE = 96;
+    private static final int STOCK = 0;
+    private static final int STATE = 4;
+    private static final int STORE_ID = 8;
+    private static final int PRODUCT_ID = STORE_ID + 1 + MAX_ID_BYTES;
+
+    private static final int FREE = 0;
+    private static final int USED = 1;
+
+    // Atomic access needs aligned ints; the mapping is page aligned and every field offset is a multiple of 4
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    private final FileChannel channel;
+    private volatile MappedByteBuffer buffer;
+    private int capacity;
+    private int end;
+    private final Deque<Integer> free = new ArrayDeque<>();
+    private final Map<Pair<String, String>, Integer> unclaimed = new HashMap<>();
+
+    private InventoryTable(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Opens the table in the directory, creating it if missing.
+     *
+     * @param initialSlots how many items a new file has room for; it grows as needed
+     * @throws IllegalStateException if the file is not an inventory table
+     */
+    public static InventoryTable open(Path directory, int initialSlots) {
+        try {
+            Files.createDirectories(directory);
+            FileChannel channel = FileChannel.open(directory.resolve(FILE), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            InventoryTable table = new InventoryTable(channel);
+            try {
+                table.load(Math.max(1, initialSlots));
+            } catch (RuntimeException | IOException e) {
+                channel.close();
+                throw e;
+            }
+            return table;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open the inventory table in " + directory, e);
+        }
+    }
+
+    private void load(int initialSlots) throws IOException {
+        if (channel.size() == 0) {
+            map(initialSlots);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(0, MAGIC);
+            return;
+        }
+        map((int) ((channel.size() - HEADER_SIZE) / SLOT_SIZE));
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalStateException("Not an inventory table, or written on a different machine");
+        }
+        for (int slot = 0; slot < capacity; slot++) {
+            int offset = offsetOf(slot);
+            if (buffer.getInt(offset + STATE) == USED) {
+                unclaimed.put(new Pair<>(readId(offset + STORE_ID), readId(offset + PRODUCT_ID)), slot);
+                end = slot + 1;
+            }
+        }
+        for (int slot = 0; slot < end; slot++) {
+            if (buffer.getInt(offsetOf(slot) + STATE) != USED) {
+                free.add(slot);
+            }
+        }
+    }
+
+    private void map(int slots) throws IOException {
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) slots * SLOT_SIZE);
+        mapped.order(ByteOrder.nativeOrder());
+        buffer = mapped;
+        capacity = slots;
+    }
+
+    private static int offsetOf(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    /**
+     * Gives an item its slot: the one it had when the table was opened, keeping that slot's count, or a new one
+     * holding the given amount.
+     *
+     * @return the item's counter, or null if its ids are too long for a slot
+     */
+    public synchronized Counter claim(String storeId, String productId, int amount) {
+        Integer recovered = unclaimed.remove(new Pair<>(storeId, productId));
+        if (recovered != null) {
+            return new Counter(offsetOf(recovered));
+        }
+        byte[] store = storeId.getBytes(StandardCharsets.UTF_8);
+        byte[] product = productId.getBytes(StandardCharsets.UTF_8);
+        if (store.length > MAX_ID_BYTES || product.length > MAX_ID_BYTES) {
+            return null;
+        }
+        int slot = free.isEmpty() ? end++ : free.poll();
+        if (slot >= capacity) {
+            grow();
+        }
+        int offset = offsetOf(slot);
+        writeId(offset + STORE_ID, store);
+        writeId(offset + PRODUCT_ID, product);
+        INT.setVolatile(buffer, offset + STOCK, amount);
+        // Last, so that a crash while the slot is written leaves it free
+        INT.setVolatile(buffer, offset + STATE, USED);
+        return new Counter(offset);
+    }
+
+    /**
+     * Frees the slots of items that were not claimed since the table was opened, such as items removed after
+     * the journal's last record of them.
+     */
+    public synchronized void releaseUnclaimed() {
+        // No counter was handed out for them, so they can be reused right away
+        for (int slot : unclaimed.values()) {
+            INT.setVolatile(buffer, offsetOf(slot) + STATE, FREE);
+            free.add(slot);
+        }
+        unclaimed.clear();
+    }
+
+    /**
+     * Frees a counter's slot. The slot is not reused before the table is opened again.
+     */
+    public synchronized void release(StockCounter counter) {
+        if (counter instanceof Counter slot) {
+            INT.setVolatile(buffer, slot.offset + STATE, FREE);
+        }
+    }
+
+    /**
+     * Frees every slot. Counters handed out before must no longer be used.
+     */
+    public synchronized void clear() {
+        for (int slot = 0; slot < end; slot++) {
+            INT.setVolatile(buffer, offsetOf(slot) + STATE, FREE);
+        }
+        end = 0;
+        free.clear();
+        unclaimed.clear();
+    }
+
+    /**
+     * @return how many slots are in use
+     */
+    public synchronized int size() {
+        int used = 0;
+        for (int slot = 0; slot < end; slot++) {
+            if ((int) INT.getVolatile(buffer, offsetOf(slot) + STATE) == USED) {
+                used++;
+            }
+        }
+        return used;
+    }
+
+    /**
+     * Writes the counts to disk.
+     */
+    public void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    /**
+     * Doubles the file. Counters read the mapping on every operation, so they move to the new one; the old one
+     * maps the same pages, so a count changed through it meanwhile is not lost.
+     */
+    private void grow() {
+        long slots = Math.min((long) capacity * 2, (Integer.MAX_VALUE - HEADER_SIZE) / SLOT_SIZE);
+        if (slots <= capacity) {
+            throw new IllegalStateException("The inventory table is full");
+        }
+        try {
+            map((int) slots);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to grow the inventory table", e);
+        }
+    }
+
+    private void writeId(int offset, byte[] id) {
+        buffer.put(offset, (byte) id.length);
+        buffer.put(offset + 1, id);
+    }
+
+    private String readId(int offset) {
+        byte[] id = new byte[Math.min(buffer.get(offset) & 0xFF, MAX_ID_BYTES)];
+        buffer.get(offset + 1, id);
+        return new String(id, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The stock of one item, in its slot.
+     */
+    public final class Counter implements StockCounter {
+        private final int offset;
+
+        private Counter(int offset) {
+            this.offset = offset;
+        }
+
+        @Override
+        public int get() {
+            return (int) INT.getVolatile(buffer, offset + STOCK);
+        }
+
+        @Override
+        public boolean add(int delta) {
+            MappedByteBuffer mapped = buffer;
+            if (delta >= 0) {
+                INT.getAndAdd(mapped, offset + STOCK, delta);
+                return true;
+            }
+            while (true) {
+                int current = (int) INT.getVolatile(mapped, offset + STOCK);
+                if (current + delta < 0) {
+                    return false;
+                }
+                if (INT.compareAndSet(mapped, offset + STOCK, current, current + delta)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
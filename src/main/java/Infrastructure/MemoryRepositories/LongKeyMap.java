@@ -0,0 +1,335 @@
+package Infrastructure.MemoryRepositories;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongPredicate;
+
+/**
+ * A thread-safe map from non-zero {@code long} keys to values, for the memory repositories keyed by two ids packed
+ * with {@link IdDictionary#key}.
+ * <p>
+ * Keys and values sit in two parallel arrays with linear probing, so a lookup hashes one long and reads one or two
+ * neighbouring slots, without boxing the key or walking entry nodes. Removal shifts the following entries back
+ * instead of leaving tombstones, and the table doubles once it is half full.
+ * <p>
+ * Lookups take no lock: they read under a {@link StampedLock} optimistic stamp and only repeat under the read lock
+ * if a writer ran meanwhile. Writers hold the write lock, so they serialize against each other across all keys;
+ * the repositories using this map are read far more often than written.
+ */
+final class LongKeyMap<V> {
+    private static final int MIN_CAPACITY = 16;
+    private static final long EMPTY = 0L;
+
+    /**
+     * Receives the entries of {@link #forEach}.
+     */
+    interface EntryConsumer<V> {
+        void accept(long key, V value);
+    }
+
+    // Replaced as a whole on resize, so that a reader never sees the keys of one table with the values of another
+    private static final class Table {
+        final long[] keys;
+        final Object[] values;
+        final int shift;
+
+        Table(int capacity) {
+            keys = new long[capacity];
+            values = new Object[capacity];
+            shift = 64 - Integer.numberOfTrailingZeros(capacity);
+        }
+
+        int slotOf(long key) {
+            // Fibonacci hashing spreads the packed codes, whose low bits alone repeat across stores
+            return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+        }
+
+        int mask() {
+            return keys.length - 1;
+        }
+    }
+
+    private final StampedLock lock = new StampedLock();
+    private Table table = new Table(MIN_CAPACITY);
+    private int size;
+
+    /**
+     * @return the key's value, or null if it has none
+     */
+    V get(long key) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0L) {
+            V value = find(table, key);
+            if (lock.validate(stamp)) {
+                return value;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return find(table, key);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @return the value the key had before, or null
+     */
+    V put(long key, V value) {
+        checkKey(key, value);
+        long stamp = lock.writeLock();
+        try {
+            return insert(key, value, true);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Stores the value only if the key has none.
+     *
+     * @return the key's current value, or null if the value was stored
+     */
+    V putIfAbsent(long key, V value) {
+        checkKey(key, value);
+        long stamp = lock.writeLock();
+        try {
+            return insert(key, value, false);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Stores the value only if the key has one already.
+     *
+     * @return the value replaced, or null if the key had none and nothing was stored
+     */
+    @SuppressWarnings("unchecked")
+    V replace(long key, V value) {
+        checkKey(key, value);
+        long stamp = lock.writeLock();
+        try {
+            Table t = table;
+            int slot = indexOf(t, key);
+            if (slot < 0) {
+                return null;
+            }
+            V previous = (V) t.values[slot];
+            t.values[slot] = value;
+            return previous;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return the value removed, or null if the key had none
+     */
+    @SuppressWarnings("unchecked")
+    V remove(long key) {
+        long stamp = lock.writeLock();
+        try {
+            Table t = table;
+            int slot = indexOf(t, key);
+            if (slot < 0) {
+                return null;
+            }
+            V removed = (V) t.values[slot];
+            shiftBack(t, slot);
+            size--;
+            return removed;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    void clear() {
+        long stamp = lock.writeLock();
+        try {
+            table = new Table(MIN_CAPACITY);
+            size = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return the values whose keys match, copied under the read lock
+     */
+    @SuppressWarnings("unchecked")
+    List<V> values(LongPredicate keys) {
+        long stamp = lock.readLock();
+        try {
+            Table t = table;
+            List<V> result = new ArrayList<>();
+            for (int i = 0; i < t.keys.length; i++) {
+                if (t.keys[i] != EMPTY && keys.test(t.keys[i])) {
+                    result.add((V) t.values[i]);
+                }
+            }
+            return result;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    List<V> values() {
+        return values(key -> true);
+    }
+
+    /**
+     * Passes every entry to the action. The entries are copied first, so the action may change the map.
+     */
+    @SuppressWarnings("unchecked")
+    void forEach(EntryConsumer<V> action) {
+        long[] keys;
+        Object[] values;
+        long stamp = lock.readLock();
+        try {
+            Table t = table;
+            keys = new long[size];
+            values = new Object[size];
+            int n = 0;
+            for (int i = 0; i < t.keys.length; i++) {
+                if (t.keys[i] != EMPTY) {
+                    keys[n] = t.keys[i];
+                    values[n++] = t.values[i];
+                }
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            action.accept(keys[i], (V) values[i]);
+        }
+    }
+
+    private static void checkKey(long key, Object value) {
+        if (key == EMPTY || value == null) {
+            throw new IllegalArgumentException("Keys cannot be 0 and values cannot be null");
+        }
+    }
+
+    /**
+     * Probes for the key. Also runs under an optimistic stamp, where a writer may be changing the table, so it
+     * gives up after one pass instead of trusting that an empty slot will come.
+     */
+    @SuppressWarnings("unchecked")
+    private static <V> V find(Table t, long key) {
+        long[] keys = t.keys;
+        int mask = keys.length - 1;
+        int slot = t.slotOf(key);
+        for (int probes = 0; probes < keys.length; probes++) {
+            long k = keys[slot];
+            if (k == key) {
+                return (V) t.values[slot];
+            }
+            if (k == EMPTY) {
+                return null;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    private static int indexOf(Table t, long key) {
+        int mask = t.mask();
+        for (int slot = t.slotOf(key); ; slot = (slot + 1) & mask) {
+            long k = t.keys[slot];
+            if (k == key) {
+                return slot;
+            }
+            if (k == EMPTY) {
+                return -1;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private V insert(long key, V value, boolean overwrite) {
+        Table t = table;
+        int mask = t.mask();
+        int slot = t.slotOf(key);
+        while (t.keys[slot] != EMPTY) {
+            if (t.keys[slot] == key) {
+                V current = (V) t.values[slot];
+                if (overwrite) {
+                    t.values[slot] = value;
+                }
+                return current;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if ((size + 1) * 2 > t.keys.length) {
+            table = t = grow(t);
+            mask = t.mask();
+            slot = t.slotOf(key);
+            while (t.keys[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+        }
+        // The value first, so that an optimistic reader finding the key never pairs it with an empty value
+        t.values[slot] = value;
+        t.keys[slot] = key;
+        size++;
+        return null;
+    }
+
+    private static Table grow(Table old) {
+        Table t = new Table(old.keys.length * 2);
+        int mask = t.mask();
+        for (int i = 0; i < old.keys.length; i++) {
+            long key = old.keys[i];
+            if (key != EMPTY) {
+                int slot = t.slotOf(key);
+                while (t.keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                t.keys[slot] = key;
+                t.values[slot] = old.values[i];
+            }
+        }
+        return t;
+    }
+
+    /**
+     * Empties the slot and moves back each following entry of the run that could not sit in its own slot,
+     * so that probes never stop early at the hole.
+     */
+    private static void shiftBack(Table t, int hole) {
+        int mask = t.mask();
+        int slot = hole;
+        while (true) {
+            slot = (slot + 1) & mask;
+            long key = t.keys[slot];
+            if (key == EMPTY) {
+                break;
+            }
+            int home = t.slotOf(key);
+            // The entry may move into the hole unless its home lies cyclically within (hole, slot]
+            boolean staysPut = hole <= slot ? hole < home && home <= slot : hole < home || home <= slot;
+            if (!staysPut) {
+                t.keys[hole] = key;
+                t.values[hole] = t.values[slot];
+                hole = slot;
+            }
+        }
+        t.keys[hole] = EMPTY;
+        t.values[hole] = null;
+    }
+}
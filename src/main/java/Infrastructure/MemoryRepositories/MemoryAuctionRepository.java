@@ -67,6 +67,5 @@ public class MemoryAuctionRepository extends IAuctionRepository {
     @Override
     public void deleteAll() {
         this.auctions.clear();
-        this.deleteAllLocks();
     }
 }
@@ -38,7 +38,6 @@ public class MemoryDiscountRepository extends IDiscountRepository {
         }
         
         // Store in main discounts map
-        this.addLock(discountID);
         return discounts.put(discountID, discount) == null;
     }
 
@@ -56,7 +55,6 @@ public class MemoryDiscountRepository extends IDiscountRepository {
             throw new IllegalArgumentException("ID cannot be null");
         }
     
-        this.removeLock(id);
         return discounts.remove(id);
     }
 
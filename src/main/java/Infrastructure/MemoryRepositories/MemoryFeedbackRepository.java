@@ -1,34 +1,74 @@
 package Infrastructure.MemoryRepositories;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
 
 import Domain.Repos.IFeedbackRepository;
 import Domain.Store.Feedback;
+import Domain.Store.FeedbackIndex;
 
 @Repository
 @Profile("dev")
 public class MemoryFeedbackRepository extends IFeedbackRepository{
     private Map<String, Feedback> feedbacks;
+    private final AtomicLong sequences = new AtomicLong();
+    // For each index, the feedbacks filed under each key by sequence. Changed under the repository's monitor
+    // so that the buckets and their counts agree; read without it.
+    private final Map<FeedbackIndex, Map<String, Bucket>> indexes = new EnumMap<>(FeedbackIndex.class);
+
+    private static final class Bucket {
+        final ConcurrentSkipListMap<Long, Feedback> entries = new ConcurrentSkipListMap<>();
+        volatile int count;
+    }
 
     public MemoryFeedbackRepository() {
         super();
         this.feedbacks = new ConcurrentHashMap<>();
+        for (FeedbackIndex index : FeedbackIndex.values()) {
+            indexes.put(index, new ConcurrentHashMap<>());
+        }
     }
 
+    private void index(Feedback feedback) {
+        for (FeedbackIndex index : FeedbackIndex.values()) {
+            String key = index.keyOf(feedback);
+            if (key == null) {
+                continue;
+            }
+            Bucket bucket = indexes.get(index).computeIfAbsent(key, k -> new Bucket());
+            if (bucket.entries.put(feedback.getSequence(), feedback) == null) {
+                bucket.count++;
+            }
+        }
+    }
+
+    private void unindex(Feedback feedback) {
+        for (FeedbackIndex index : FeedbackIndex.values()) {
+            Bucket bucket = bucket(index, index.keyOf(feedback));
+            if (bucket != null && bucket.entries.remove(feedback.getSequence()) != null) {
+                bucket.count--;
+            }
+        }
+    }
 
     @Override
-    public Feedback remove(String id) {
+    public synchronized Feedback remove(String id) {
         if(!this.isIdValid(id))
             throw new IllegalArgumentException("ID cannot be null");
-        
-        this.removeLock(id);
-        return feedbacks.remove(id);
+
+        Feedback removed = feedbacks.remove(id);
+        if (removed != null) {
+            unindex(removed);
+        }
+        return removed;
     }
 
     @Override
@@ -39,7 +79,7 @@ public class MemoryFeedbackRepository extends IFeedbackRepository{
     }
 
     @Override
-    public Feedback update(String id, Feedback item) {
+    public synchronized Feedback update(String id, Feedback item) {
         if (!this.feedbacks.containsKey(id))
             throw new IllegalArgumentException("Item with this ID does not exist");
         if(!this.isIdValid(id))
@@ -48,12 +88,17 @@ public class MemoryFeedbackRepository extends IFeedbackRepository{
             throw new IllegalArgumentException("Item cannot be null");
         if (!id.equals(item.getFeedbackId()))
             throw new IllegalArgumentException("ID does not match the feedback ID");
-    
-        return this.feedbacks.put(id, item);
+
+        Feedback previous = this.feedbacks.get(id);
+        unindex(previous);
+        item.setSequence(previous.getSequence());
+        this.feedbacks.put(id, item);
+        index(item);
+        return previous;
     }
 
     @Override
-    public boolean add(String id, Feedback item) {
+    public synchronized boolean add(String id, Feedback item) {
         if (!this.isIdValid(id))
             throw new IllegalArgumentException("ID cannot be null");
         if (this.feedbacks.containsKey(id))
@@ -62,36 +107,65 @@ public class MemoryFeedbackRepository extends IFeedbackRepository{
             throw new IllegalArgumentException("Item cannot be null");
         if (!id.equals(item.getFeedbackId()))
             throw new IllegalArgumentException("ID does not match the feedback ID");
-            
-        this.addLock(id);
-        return this.feedbacks.put(id, item) == null;
+
+        item.setSequence(sequences.incrementAndGet());
+        boolean added = this.feedbacks.put(id, item) == null;
+        index(item);
+        return added;
+    }
+
+    @Override
+    public List<Feedback> getPage(FeedbackIndex index, String key, long before, int limit) {
+        Bucket bucket = bucket(index, key);
+        if (bucket == null) {
+            return List.of();
+        }
+        List<Feedback> page = new ArrayList<>(Math.min(limit, bucket.count));
+        for (Feedback feedback : bucket.entries.headMap(before).descendingMap().values()) {
+            if (page.size() >= limit) {
+                break;
+            }
+            page.add(feedback);
+        }
+        return page;
+    }
+
+    @Override
+    public long count(FeedbackIndex index, String key) {
+        Bucket bucket = bucket(index, key);
+        return bucket == null ? 0 : bucket.count;
+    }
+
+    private Bucket bucket(FeedbackIndex index, String key) {
+        return key == null ? null : indexes.get(index).get(key);
+    }
+
+    private List<Feedback> getAll(FeedbackIndex index, String key) {
+        Bucket bucket = bucket(index, key);
+        return bucket == null ? new ArrayList<>() : new ArrayList<>(bucket.entries.values());
     }
 
     @Override
     public List<Feedback> getAllFeedbacksByStoreId(String storeId) {
-        return this.feedbacks.values().stream()
-                .filter(feedback -> feedback.getStoreId().equals(storeId))
-                .collect(Collectors.toList());
+        return getAll(FeedbackIndex.STORE, storeId);
     }
 
     @Override
     public List<Feedback> getAllFeedbacksByProductId(String productId) {
-        return this.feedbacks.values().stream()
-                .filter(feedback -> feedback.getProductId().equals(productId))
-                .collect(Collectors.toList());
+        return getAll(FeedbackIndex.PRODUCT, productId);
     }
 
     @Override
     public List<Feedback> getAllFeedbacksByUserId(String userId) {
-        return this.feedbacks.values().stream()
-                .filter(feedback -> feedback.getCustomerId().equals(userId))
-                .collect(Collectors.toList());
+        return getAll(FeedbackIndex.CUSTOMER, userId);
     }
 
     @Override
-    public void deleteAll() {
+    public synchronized void deleteAll() {
         this.feedbacks.clear();
-        this.deleteAllLocks();
+        for (Map<String, Bucket> index : indexes.values()) {
+            index.clear();
+        }
     }
-    
+
 }
@@ -1,8 +1,7 @@
 package Infrastructure.MemoryRepositories;
 
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
@@ -10,22 +9,84 @@ import org.springframework.stereotype.Repository;
 import Domain.Pair;
 import Domain.Repos.IItemRepository;
 import Domain.Store.Item;
+import Domain.Store.StockCounter;
 
 /**
  * In-memory implementation of {@link IItemRepository}.
- * Stores items in a thread-safe map keyed by (storeId, productId) pairs.
+ * Stores items in a {@link LongKeyMap} keyed by the (storeId, productId) pair, each id encoded as an int by its
+ * {@link IdDictionary}, so that looking an item up allocates nothing. With the journal on, the items' stock is
+ * kept in an {@link InventoryTable}.
  */
 @Repository
 @Profile("dev")
 public class MemoryItemRepository extends IItemRepository {
 
-    private final Map<Pair<String, String>, Item> items;
+    private final IdDictionary storeIds = new IdDictionary();
+    private final IdDictionary productIds = new IdDictionary();
+    private final LongKeyMap<Item> items;
+    private volatile MemoryJournal.Log<Pair<String, String>, Item> journal = MemoryJournal.Log.none();
+    private volatile InventoryTable inventory;
 
     /**
      * Constructs a new, empty memory-based item repository.
      */
     public MemoryItemRepository() {
-        this.items = new ConcurrentHashMap<>();
+        this.items = new LongKeyMap<>();
+    }
+
+    void setJournal(MemoryJournal.Log<Pair<String, String>, Item> journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Keeps the stock of every item, and of the items added later, in the table; given null, brings it back into
+     * the items. Items the table has a slot for take their stock from it.
+     */
+    void keepStockIn(InventoryTable table) {
+        inventory = table;
+        forEach((id, item) -> {
+            item.unbindStock();
+            bindStock(id, item);
+        });
+        if (table != null) {
+            table.releaseUnclaimed();
+        }
+    }
+
+    private void bindStock(Pair<String, String> id, Item item) {
+        InventoryTable table = inventory;
+        if (table != null) {
+            StockCounter counter = table.claim(id.getFirst(), id.getSecond(), item.getAmount());
+            if (counter != null) {
+                item.bindStock(counter);
+            }
+        }
+    }
+
+    private void releaseStock(Item item) {
+        StockCounter counter = item.unbindStock();
+        InventoryTable table = inventory;
+        if (counter != null && table != null) {
+            table.release(counter);
+        }
+    }
+
+    void forEach(BiConsumer<Pair<String, String>, Item> action) {
+        items.forEach((key, item) -> action.accept(
+                new Pair<>(storeIds.idOf(IdDictionary.first(key)), productIds.idOf(IdDictionary.second(key))), item));
+    }
+
+    /**
+     * @return the pair's key, or 0 if no item was ever stored under one of its ids
+     */
+    private long find(String storeId, String productId) {
+        int store = storeIds.find(storeId);
+        int product = productIds.find(productId);
+        return store == 0 || product == 0 ? 0L : IdDictionary.key(store, product);
+    }
+
+    private long find(Pair<String, String> id) {
+        return find(id.getFirst(), id.getSecond());
     }
 
     /**
@@ -46,8 +107,8 @@ public class MemoryItemRepository extends IItemRepository {
      */
     @Override
     public Item getItem(String storeId, String productId) {
-        if (storeId == null || productId == null) return null;
-        return items.get(new Pair<>(storeId, productId));
+        long key = find(storeId, productId);
+        return key == 0L ? null : items.get(key);
     }
 
     /**
@@ -58,10 +119,9 @@ public class MemoryItemRepository extends IItemRepository {
      */
     @Override
     public List<Item> getByStoreId(String storeId) {
-        if (storeId == null || storeId.trim().isEmpty()) return List.of();
-        return items.values().stream()
-                .filter(item -> item.getStoreId().equals(storeId))
-                .toList();
+        int store = storeIds.find(storeId);
+        if (store == 0) return List.of();
+        return items.values(key -> IdDictionary.first(key) == store);
     }
 
     /**
@@ -72,10 +132,9 @@ public class MemoryItemRepository extends IItemRepository {
      */
     @Override
     public List<Item> getByProductId(String productId) {
-        if (productId == null || productId.trim().isEmpty()) return List.of();
-        return items.values().stream()
-                .filter(item -> item.getProductId().equals(productId))
-                .toList();
+        int product = productIds.find(productId);
+        if (product == 0) return List.of();
+        return items.values(key -> IdDictionary.second(key) == product);
     }
 
     /**
@@ -100,10 +159,23 @@ public class MemoryItemRepository extends IItemRepository {
     @Override
     public Item update(Pair<String, String> id, Item item) {
         if (!isValidId(id) || item == null) return null;
-        Object lock = getOrCreateLock(id);
-        synchronized (lock) {
-            return items.computeIfPresent(id, (k, v) -> item);
-        }
+        return withWriteLock(id, () -> {
+            long key = find(id);
+            if (key == 0L) return null;
+            Item previous = items.replace(key, item);
+            if (previous == null) return null;
+            if (previous != item) {
+                // The new copy's stock moves into the previous one's slot, as a difference from what is there
+                int amount = item.getAmount();
+                StockCounter counter = previous.unbindStock();
+                if (counter != null) {
+                    item.bindStock(counter);
+                    item.setAmount(amount);
+                }
+            }
+            journal.put(id, item);
+            return item;
+        });
     }
 
     /**
@@ -116,12 +188,13 @@ public class MemoryItemRepository extends IItemRepository {
     @Override
     public boolean add(Pair<String, String> id, Item item) {
         if (!isValidId(id) || item == null) return false;
-        Object lock = getOrCreateLock(id);
-        synchronized (lock) {
-            if (items.containsKey(id)) return false;
-            items.put(id, item);
+        return withWriteLock(id, () -> {
+            long key = IdDictionary.key(storeIds.codeOf(id.getFirst()), productIds.codeOf(id.getSecond()));
+            if (items.putIfAbsent(key, item) != null) return false;
+            bindStock(id, item);
+            journal.put(id, item);
             return true;
-        }
+        });
     }
 
     /**
@@ -133,12 +206,15 @@ public class MemoryItemRepository extends IItemRepository {
     @Override
     public Item remove(Pair<String, String> id) {
         if (!isValidId(id)) return null;
-        Object lock = getOrCreateLock(id);
-        synchronized (lock) {
-            Item removed = items.remove(id);
-            removeLock(id);
+        return withWriteLock(id, () -> {
+            long key = find(id);
+            Item removed = key == 0L ? null : items.remove(key);
+            if (removed != null) {
+                releaseStock(removed);
+                journal.remove(id);
+            }
             return removed;
-        }
+        });
     }
 
     /**
@@ -149,11 +225,13 @@ public class MemoryItemRepository extends IItemRepository {
      */
     public void increaseAmount(Pair<String, String> id, int amount) {
         if (!isValidId(id)) return;
-        Object lock = getOrCreateLock(id);
-        synchronized (lock) {
-            Item item = items.get(id);
-            if (item != null) item.increaseAmount(amount);
-        }
+        withWriteLock(id, () -> {
+            Item item = get(id);
+            if (item != null) {
+                item.increaseAmount(amount);
+                journal.put(id, item);
+            }
+        });
     }
 
     /**
@@ -164,11 +242,13 @@ public class MemoryItemRepository extends IItemRepository {
      */
     public void decreaseAmount(Pair<String, String> id, int amount) {
         if (!isValidId(id)) return;
-        Object lock = getOrCreateLock(id);
-        synchronized (lock) {
-            Item item = items.get(id);
-            if (item != null) item.decreaseAmount(amount);
-        }
+        withWriteLock(id, () -> {
+            Item item = get(id);
+            if (item != null) {
+                item.decreaseAmount(amount);
+                journal.put(id, item);
+            }
+        });
     }
 
     /**
@@ -180,25 +260,17 @@ public class MemoryItemRepository extends IItemRepository {
     @Override
     public Item get(Pair<String, String> id) {
         if (!isValidId(id)) return null;
-        return items.get(id);
-    }
-
-    /**
-     * Ensures a lock exists for the given ID, creating one if necessary.
-     * 
-     * @param id the ID to get or create a lock for
-     * @return the lock object
-     */
-    private Object getOrCreateLock(Pair<String, String> id) {
-        if (getLock(id) == null) {
-            addLock(id); // safe no-op if already exists
-        }
-        return getLock(id);
+        return getItem(id.getFirst(), id.getSecond());
     }
 
     @Override
     public void deleteAll() {
+        items.forEach((key, item) -> item.unbindStock());
         items.clear();
-        deleteAllLocks();
+        InventoryTable table = inventory;
+        if (table != null) {
+            table.clear();
+        }
+        journal.clear();
     }
 }
@@ -0,0 +1,536 @@
+package Infrastructure.MemoryRepositories;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Durable copy of in-memory repository state: a compact binary snapshot plus a write-ahead log.
+ * <p>
+ * Every repository mutation is appended to the log as a record holding the full new value (or the removed key).
+ * The log is a numbered series of segment files. A checkpoint starts a new segment, then writes the current
+ * contents of all tables to a new snapshot through a memory-mapped file, atomically replaces the previous
+ * snapshot and deletes the segments before the new one. Only starting the segment holds up appends: the tables
+ * are read while writers carry on, and what they change meanwhile is in the new segment, which recovery replays
+ * on top of the snapshot. Since records hold full values, replaying a change the snapshot already has is harmless.
+ * <p>
+ * Recovery maps the snapshot, loads it and replays the segments it does not cover, in order. A torn record at the
+ * end of a segment, left by a crash in the middle of an append, is dropped.
+ * <p>
+ * The snapshot header is {@code [magic][version][entities][first segment to replay]}. Records are
+ * {@code [length][crc32][operation][table][payload]}. The payload is written by the table's codec.
+ * Log appends go to the operating system without {@code fsync}, so they survive a crash of the process but not
+ * of the machine; checkpoints are forced to disk.
+ * <p>
+ * Entities changed in place, without a repository call, reach disk with the next checkpoint.
+ */
+public class MemoryJournal implements Closeable {
+    static final String SNAPSHOT_FILE = "state.snapshot";
+    static final String LOG_FILE = "state.wal";
+
+    private static final int MAGIC = 0x474A4E4C; // "GJNL"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 20;
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final byte CLEAR = 3;
+
+    /**
+     * One journaled repository: how to encode its keys and values, and how to read and change its contents.
+     */
+    public interface Table<K, V> {
+        void writeKey(DataOutput out, K key) throws IOException;
+
+        K readKey(DataInput in) throws IOException;
+
+        void writeValue(DataOutput out, V value) throws IOException;
+
+        V readValue(DataInput in) throws IOException;
+
+        /** Visits the current contents, for checkpoints. */
+        void forEach(BiConsumer<K, V> action);
+
+        /** Stores a recovered value, replacing any value under the same key. */
+        void put(K key, V value);
+
+        void remove(K key);
+
+        void clear();
+
+        /** Values for which this returns false are not journaled. */
+        default boolean isDurable(V value) {
+            return true;
+        }
+    }
+
+    /**
+     * The journal of one table, handed to its repository.
+     */
+    public interface Log<K, V> {
+        void put(K key, V value);
+
+        void remove(K key);
+
+        void clear();
+
+        static <K, V> Log<K, V> none() {
+            return new Log<>() {
+                @Override
+                public void put(K key, V value) {
+                }
+
+                @Override
+                public void remove(K key) {
+                }
+
+                @Override
+                public void clear() {
+                }
+            };
+        }
+    }
+
+    private final Path directory;
+    private final List<Table<?, ?>> tables;
+    private final ExpandableOutput buffer = new ExpandableOutput();
+    private final CRC32 crc = new CRC32();
+    private final RecordInput input = new RecordInput();
+    // Checkpoints run one at a time, and only take the journal's monitor to switch segments
+    private final Object checkpointLock = new Object();
+    private FileChannel log;
+    private long segment;
+    private long logRecords;
+    private long checkpoints;
+
+    /**
+     * @param directory where the snapshot and the log are kept; created if missing
+     * @param tables the journaled tables; their position in the list is their id on disk
+     */
+    public MemoryJournal(Path directory, List<Table<?, ?>> tables) {
+        if (tables.size() > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many tables");
+        }
+        this.directory = directory;
+        this.tables = List.copyOf(tables);
+    }
+
+    /**
+     * Loads the snapshot and replays the log into the tables, then opens the log for appending.
+     *
+     * @return the number of records applied
+     */
+    public synchronized long recover() {
+        try {
+            Files.createDirectories(directory);
+            long[] firstSegment = {0};
+            long applied = loadSnapshot(directory.resolve(SNAPSHOT_FILE), firstSegment);
+            segment = firstSegment[0];
+            long replayed = 0;
+            for (long number : segments()) {
+                if (number < firstSegment[0]) {
+                    // Left by a checkpoint that stopped after replacing the snapshot
+                    Files.deleteIfExists(segmentPath(number));
+                    continue;
+                }
+                segment = number;
+                try (FileChannel channel = FileChannel.open(segmentPath(number), StandardOpenOption.READ,
+                                                            StandardOpenOption.WRITE)) {
+                    long validEnd = replay(channel);
+                    if (validEnd < channel.size()) {
+                        System.err.println("Memory journal: dropping torn tail of " + segmentPath(number)
+                                           + " at offset " + validEnd);
+                        channel.truncate(validEnd);
+                    }
+                }
+                replayed += logRecords;
+            }
+            log = FileChannel.open(segmentPath(segment), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                   StandardOpenOption.APPEND);
+            logRecords = replayed;
+            return applied + replayed;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to recover memory journal from " + directory, e);
+        }
+    }
+
+    /**
+     * @return the path of a log segment
+     */
+    Path segmentPath(long number) {
+        return directory.resolve(LOG_FILE + "." + number);
+    }
+
+    /** @return the path of the segment appends go to now */
+    public synchronized Path getLogPath() {
+        return segmentPath(segment);
+    }
+
+    private List<Long> segments() throws IOException {
+        List<Long> numbers = new ArrayList<>();
+        String prefix = LOG_FILE + ".";
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(path -> path.getFileName().toString())
+                 .filter(name -> name.startsWith(prefix) && name.substring(prefix.length()).matches("\\d+"))
+                 .forEach(name -> numbers.add(Long.parseLong(name.substring(prefix.length()))));
+        }
+        numbers.sort(null);
+        return numbers;
+    }
+
+    /**
+     * Returns the log handle the table's repository reports its mutations to.
+     */
+    public <K, V> Log<K, V> logFor(Table<K, V> table) {
+        byte tableId = tableId(table);
+        return new Log<>() {
+            @Override
+            public void put(K key, V value) {
+                if (table.isDurable(value)) {
+                    append(PUT, tableId, out -> {
+                        table.writeKey(out, key);
+                        table.writeValue(out, value);
+                    });
+                }
+            }
+
+            @Override
+            public void remove(K key) {
+                append(REMOVE, tableId, out -> table.writeKey(out, key));
+            }
+
+            @Override
+            public void clear() {
+                append(CLEAR, tableId, out -> { });
+            }
+        };
+    }
+
+    private byte tableId(Table<?, ?> table) {
+        for (int i = 0; i < tables.size(); i++) {
+            if (tables.get(i) == table) {
+                return (byte) i;
+            }
+        }
+        throw new IllegalArgumentException("Table is not part of this journal");
+    }
+
+    private interface Payload {
+        void write(DataOutput out) throws IOException;
+    }
+
+    private synchronized void append(byte operation, byte tableId, Payload payload) {
+        if (log == null) {
+            throw new IllegalStateException("Memory journal is not open");
+        }
+        try {
+            buffer.reset();
+            writeRecord(buffer, crc, operation, tableId, payload);
+            ByteBuffer bytes = buffer.asByteBuffer();
+            while (bytes.hasRemaining()) {
+                log.write(bytes);
+            }
+            logRecords++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to memory journal", e);
+        }
+    }
+
+    private static void writeRecord(ExpandableOutput target, CRC32 crc, byte operation, byte tableId,
+                                    Payload payload) throws IOException {
+        int start = target.size();
+        target.data().writeLong(0L); // length and crc, filled in below
+        target.data().writeByte(operation);
+        target.data().writeByte(tableId);
+        payload.write(target.data());
+        int bodyLength = target.size() - start - RECORD_HEADER_SIZE;
+        crc.reset();
+        crc.update(target.array(), start + RECORD_HEADER_SIZE, bodyLength);
+        target.putInt(start, bodyLength);
+        target.putInt(start + 4, (int) crc.getValue());
+    }
+
+    /**
+     * Writes all tables to a new snapshot and deletes the log segments it covers.
+     * Appends wait only while the next segment is started, not while the snapshot is written.
+     * If encoding fails, for example because an entity changed while it was written,
+     * the previous snapshot and the segments are kept and the next checkpoint tries again.
+     *
+     * @return the number of entities in the snapshot
+     */
+    public long checkpoint() {
+        synchronized (checkpointLock) {
+            long firstSegment = startSegment();
+            long entities = writeSnapshot(firstSegment);
+            synchronized (this) {
+                for (long number = firstSegment - 1; number >= 0 && Files.exists(segmentPath(number)); number--) {
+                    try {
+                        Files.delete(segmentPath(number));
+                    } catch (IOException e) {
+                        // Recovery deletes it instead, as covered by the snapshot
+                        break;
+                    }
+                }
+                checkpoints++;
+            }
+            return entities;
+        }
+    }
+
+    /**
+     * Moves appends to a new segment.
+     *
+     * @return the new segment's number
+     */
+    private synchronized long startSegment() {
+        if (log == null) {
+            throw new IllegalStateException("Memory journal is not open");
+        }
+        try {
+            FileChannel next = FileChannel.open(segmentPath(segment + 1), StandardOpenOption.CREATE,
+                                                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            log.close();
+            log = next;
+            segment++;
+            logRecords = 0;
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start a memory journal segment", e);
+        }
+    }
+
+    private long writeSnapshot(long firstSegment) {
+        ExpandableOutput snapshot = new ExpandableOutput();
+        CRC32 snapshotCrc = new CRC32();
+        long[] entities = {0};
+        try {
+            snapshot.data().writeInt(MAGIC);
+            snapshot.data().writeInt(VERSION);
+            snapshot.data().writeInt(0);
+            snapshot.data().writeLong(firstSegment);
+            for (int i = 0; i < tables.size(); i++) {
+                entities[0] += writeTable(snapshot, snapshotCrc, (byte) i, tables.get(i));
+            }
+            snapshot.putInt(8, (int) Math.min(entities[0], Integer.MAX_VALUE));
+
+            Path target = directory.resolve(SNAPSHOT_FILE);
+            Path temp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                                        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, snapshot.size());
+                mapped.put(snapshot.asByteBuffer());
+                mapped.force();
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return entities[0];
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write memory journal snapshot", e);
+        }
+    }
+
+    private static <K, V> long writeTable(ExpandableOutput snapshot, CRC32 crc, byte tableId,
+                                          Table<K, V> table) throws IOException {
+        long[] count = {0};
+        IOException[] failure = {null};
+        table.forEach((key, value) -> {
+            if (failure[0] != null || !table.isDurable(value)) {
+                return;
+            }
+            try {
+                writeRecord(snapshot, crc, PUT, tableId, out -> {
+                    table.writeKey(out, key);
+                    table.writeValue(out, value);
+                });
+                count[0]++;
+            } catch (IOException e) {
+                failure[0] = e;
+            }
+        });
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+        return count[0];
+    }
+
+    private long loadSnapshot(Path path, long[] firstSegment) throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (mapped.remaining() < HEADER_SIZE || mapped.getInt() != MAGIC) {
+                throw new IOException("Not a memory journal snapshot: " + path);
+            }
+            int version = mapped.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported memory journal snapshot version " + version);
+            }
+            int expected = mapped.getInt();
+            firstSegment[0] = mapped.getLong();
+            long applied = 0;
+            while (mapped.hasRemaining()) {
+                if (!applyRecord(mapped)) {
+                    throw new IOException("Corrupt memory journal snapshot at offset " + mapped.position());
+                }
+                applied++;
+            }
+            if (applied != expected) {
+                throw new IOException("Memory journal snapshot holds " + applied + " entities, expected " + expected);
+            }
+            return applied;
+        }
+    }
+
+    /**
+     * Applies a segment's records until its end or the first incomplete or corrupt record.
+     *
+     * @return the offset just past the last valid record
+     */
+    private long replay(FileChannel channel) throws IOException {
+        long size = channel.size();
+        logRecords = 0;
+        if (size == 0) {
+            return 0;
+        }
+        MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        int validEnd = 0;
+        while (mapped.hasRemaining() && applyRecord(mapped)) {
+            validEnd = mapped.position();
+            logRecords++;
+        }
+        return validEnd;
+    }
+
+    private boolean applyRecord(ByteBuffer source) throws IOException {
+        if (source.remaining() < RECORD_HEADER_SIZE) {
+            return false;
+        }
+        int length = source.getInt();
+        int checksum = source.getInt();
+        if (length < 2 || length > source.remaining()) {
+            return false;
+        }
+        byte[] body = input.body(length);
+        source.get(body, 0, length);
+        crc.reset();
+        crc.update(body, 0, length);
+        if ((int) crc.getValue() != checksum) {
+            return false;
+        }
+        byte operation = body[0];
+        byte tableId = body[1];
+        if (tableId < 0 || tableId >= tables.size()) {
+            throw new IOException("Unknown memory journal table " + tableId);
+        }
+        input.reset(2, length);
+        apply(operation, tables.get(tableId), input.data());
+        return true;
+    }
+
+    private <K, V> void apply(byte operation, Table<K, V> table, DataInput in) throws IOException {
+        switch (operation) {
+            case PUT -> {
+                K key = table.readKey(in);
+                table.put(key, table.readValue(in));
+            }
+            case REMOVE -> table.remove(table.readKey(in));
+            case CLEAR -> table.clear();
+            default -> throw new IOException("Unknown memory journal operation " + operation);
+        }
+    }
+
+    /** @return the number of records appended to the log since the last checkpoint */
+    public synchronized long getLogRecords() {
+        return logRecords;
+    }
+
+    public synchronized long getCheckpoints() {
+        return checkpoints;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (log != null) {
+            log.force(true);
+            log.close();
+            log = null;
+        }
+    }
+
+    /**
+     * A reusable reader over the body of the record being recovered.
+     */
+    private static final class RecordInput extends ByteArrayInputStream {
+        private final DataInputStream data = new DataInputStream(this);
+
+        RecordInput() {
+            super(new byte[256]);
+        }
+
+        byte[] body(int length) {
+            if (buf.length < length) {
+                buf = new byte[Math.max(length, buf.length * 2)];
+            }
+            return buf;
+        }
+
+        void reset(int offset, int end) {
+            pos = offset;
+            mark = offset;
+            count = end;
+        }
+
+        DataInputStream data() {
+            return data;
+        }
+    }
+
+    /**
+     * A byte array output whose contents can be patched and handed out without copying.
+     */
+    private static final class ExpandableOutput extends ByteArrayOutputStream {
+        private final DataOutputStream data = new DataOutputStream(this);
+
+        DataOutputStream data() {
+            return data;
+        }
+
+        byte[] array() {
+            return buf;
+        }
+
+        void putInt(int offset, int value) {
+            buf[offset] = (byte) (value >>> 24);
+            buf[offset + 1] = (byte) (value >>> 16);
+            buf[offset + 2] = (byte) (value >>> 8);
+            buf[offset + 3] = (byte) value;
+        }
+
+        ByteBuffer asByteBuffer() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+    }
+}
@@ -0,0 +1,396 @@
+package Infrastructure.MemoryRepositories;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import Domain.Pair;
+import Domain.Store.Category;
+import Domain.Store.Item;
+import Domain.Store.Product;
+import Domain.Store.Store;
+import Domain.User.Member;
+import Domain.User.User;
+import Domain.management.Permission;
+import Domain.management.PermissionType;
+import Domain.management.RoleType;
+
+/**
+ * Journal tables for the repositories that hold the market itself: members, stores, products, items and permissions.
+ * Guests, carts, receipts, offers, auctions, policies, discounts, feedback and notifications are not journaled.
+ */
+final class MemoryJournalTables {
+
+    private MemoryJournalTables() {
+    }
+
+    static MemoryJournal.Table<String, User> members(MemoryUserRepository repository) {
+        return new MemoryJournal.Table<>() {
+            @Override
+            public void writeKey(DataOutput out, String key) throws IOException {
+                out.writeUTF(key);
+            }
+
+            @Override
+            public String readKey(DataInput in) throws IOException {
+                return in.readUTF();
+            }
+
+            @Override
+            public void writeValue(DataOutput out, User value) throws IOException {
+                ((Member) value).writeAccount(out);
+            }
+
+            @Override
+            public User readValue(DataInput in) throws IOException {
+                // Sessions do not survive a restart.
+                return Member.readAccount(in);
+            }
+
+            @Override
+            public void forEach(BiConsumer<String, User> action) {
+                for (User user : repository.getAllUsers()) {
+                    action.accept(user.getId(), user);
+                }
+            }
+
+            @Override
+            public void put(String key, User value) {
+                repository.remove(key);
+                repository.add(key, value);
+            }
+
+            @Override
+            public void remove(String key) {
+                repository.remove(key);
+            }
+
+            @Override
+            public void clear() {
+                repository.deleteAll();
+            }
+
+            @Override
+            public boolean isDurable(User value) {
+                return value instanceof Member;
+            }
+        };
+    }
+
+    static MemoryJournal.Table<String, Store> stores(MemoryStoreRepository repository) {
+        return new MemoryJournal.Table<>() {
+            @Override
+            public void writeKey(DataOutput out, String key) throws IOException {
+                out.writeUTF(key);
+            }
+
+            @Override
+            public String readKey(DataInput in) throws IOException {
+                return in.readUTF();
+            }
+
+            @Override
+            public void writeValue(DataOutput out, Store value) throws IOException {
+                out.writeUTF(value.getId());
+                writeNullable(out, value.getName());
+                writeNullable(out, value.getDescription());
+                writeNullable(out, value.getFounderId());
+                writeStrings(out, value.getOwners());
+                writeStrings(out, value.getManagers());
+                out.writeBoolean(value.isOpen());
+                out.writeBoolean(value.isPermanentlyClosed());
+            }
+
+            @Override
+            public Store readValue(DataInput in) throws IOException {
+                Store store = new Store(in.readUTF(), readNullable(in), readNullable(in), readNullable(in));
+                for (String owner : readStrings(in)) {
+                    store.addOwner(owner);
+                }
+                for (String manager : readStrings(in)) {
+                    store.addManager(manager);
+                }
+                store.setOpen(in.readBoolean());
+                store.setPermanentlyClosed(in.readBoolean());
+                return store;
+            }
+
+            @Override
+            public void forEach(BiConsumer<String, Store> action) {
+                for (Store store : repository.getAllStores()) {
+                    action.accept(store.getId(), store);
+                }
+            }
+
+            @Override
+            public void put(String key, Store value) {
+                repository.remove(key);
+                repository.add(key, value);
+            }
+
+            @Override
+            public void remove(String key) {
+                repository.remove(key);
+            }
+
+            @Override
+            public void clear() {
+                repository.deleteAll();
+            }
+        };
+    }
+
+    static MemoryJournal.Table<String, Product> products(MemoryProductRepository repository) {
+        return new MemoryJournal.Table<>() {
+            @Override
+            public void writeKey(DataOutput out, String key) throws IOException {
+                out.writeUTF(key);
+            }
+
+            @Override
+            public String readKey(DataInput in) throws IOException {
+                return in.readUTF();
+            }
+
+            @Override
+            public void writeValue(DataOutput out, Product value) throws IOException {
+                out.writeUTF(value.getProductId());
+                writeNullable(out, value.getName());
+                writeCategories(out, value.getCategories());
+            }
+
+            @Override
+            public Product readValue(DataInput in) throws IOException {
+                return new Product(in.readUTF(), readNullable(in), readCategories(in));
+            }
+
+            @Override
+            public void forEach(BiConsumer<String, Product> action) {
+                for (Product product : repository.getAll()) {
+                    action.accept(product.getProductId(), product);
+                }
+            }
+
+            @Override
+            public void put(String key, Product value) {
+                repository.remove(key);
+                repository.add(key, value);
+            }
+
+            @Override
+            public void remove(String key) {
+                repository.remove(key);
+            }
+
+            @Override
+            public void clear() {
+                repository.deleteAll();
+            }
+        };
+    }
+
+    static MemoryJournal.Table<Pair<String, String>, Item> items(MemoryItemRepository repository) {
+        return new MemoryJournal.Table<>() {
+            @Override
+            public void writeKey(DataOutput out, Pair<String, String> key) throws IOException {
+                out.writeUTF(key.getFirst());
+                out.writeUTF(key.getSecond());
+            }
+
+            @Override
+            public Pair<String, String> readKey(DataInput in) throws IOException {
+                return new Pair<>(in.readUTF(), in.readUTF());
+            }
+
+            @Override
+            public void writeValue(DataOutput out, Item value) throws IOException {
+                out.writeUTF(value.getStoreId());
+                out.writeUTF(value.getProductId());
+                out.writeDouble(value.getPrice());
+                out.writeInt(value.getAmount());
+                writeNullable(out, value.getDescription());
+                writeNullable(out, value.getProductName());
+                writeCategories(out, value.getCategories());
+                List<Integer> ratings = value.getRatingCounts();
+                out.writeByte(ratings.size());
+                for (int count : ratings) {
+                    out.writeInt(count);
+                }
+            }
+
+            @Override
+            public Item readValue(DataInput in) throws IOException {
+                Item item = new Item(in.readUTF(), in.readUTF(), in.readDouble(), in.readInt(),
+                                     readNullable(in), readNullable(in), readCategories(in));
+                int ratings = in.readByte();
+                for (int rating = 1; rating <= ratings; rating++) {
+                    item.addRatings(rating, in.readInt());
+                }
+                return item;
+            }
+
+            @Override
+            public void forEach(BiConsumer<Pair<String, String>, Item> action) {
+                repository.forEach(action);
+            }
+
+            @Override
+            public void put(Pair<String, String> key, Item value) {
+                repository.remove(key);
+                repository.add(key, value);
+            }
+
+            @Override
+            public void remove(Pair<String, String> key) {
+                repository.remove(key);
+            }
+
+            @Override
+            public void clear() {
+                repository.deleteAll();
+            }
+        };
+    }
+
+    static MemoryJournal.Table<Pair<String, String>, Permission> permissions(MemoryPermissionRepository repository) {
+        return new MemoryJournal.Table<>() {
+            @Override
+            public void writeKey(DataOutput out, Pair<String, String> key) throws IOException {
+                out.writeUTF(key.getFirst());
+                out.writeUTF(key.getSecond());
+            }
+
+            @Override
+            public Pair<String, String> readKey(DataInput in) throws IOException {
+                return new Pair<>(in.readUTF(), in.readUTF());
+            }
+
+            @Override
+            public void writeValue(DataOutput out, Permission value) throws IOException {
+                writeNullable(out, value.getPermissionGiverId());
+                writeNullable(out, value.getRoleType() == null ? null : value.getRoleType().name());
+                Set<PermissionType> types = new HashSet<>(value.getPermissions());
+                out.writeShort(types.size());
+                for (PermissionType type : types) {
+                    out.writeUTF(type.name());
+                }
+                writeDate(out, value.getExpirationDate());
+                writeDate(out, value.getCreationDate());
+            }
+
+            @Override
+            public Permission readValue(DataInput in) throws IOException {
+                // Store and member are taken from the key in put.
+                Permission permission = new Permission(readNullable(in), null, null);
+                String role = readNullable(in);
+                permission.setRole(role == null ? null : RoleType.valueOf(role));
+                Set<PermissionType> types = new HashSet<>();
+                for (int i = in.readShort(); i > 0; i--) {
+                    types.add(PermissionType.valueOf(in.readUTF()));
+                }
+                permission.setPermissions(types);
+                permission.setExpirationDate(readDate(in));
+                permission.setCreationDate(readDate(in));
+                return permission;
+            }
+
+            @Override
+            public void forEach(BiConsumer<Pair<String, String>, Permission> action) {
+                for (Map.Entry<String, Map<String, Permission>> store : repository.getAllPermissions().entrySet()) {
+                    for (Map.Entry<String, Permission> member : Map.copyOf(store.getValue()).entrySet()) {
+                        action.accept(new Pair<>(store.getKey(), member.getKey()), member.getValue());
+                    }
+                }
+            }
+
+            @Override
+            public void put(Pair<String, String> key, Permission value) {
+                value.setStoreId(key.getFirst());
+                value.setMember(key.getSecond());
+                repository.add(key.getFirst(), key.getSecond(), value);
+            }
+
+            @Override
+            public void remove(Pair<String, String> key) {
+                repository.remove(key.getFirst(), key.getSecond());
+            }
+
+            @Override
+            public void clear() {
+                repository.deleteAll();
+            }
+        };
+    }
+
+    private static void writeNullable(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeStrings(DataOutput out, Set<String> values) throws IOException {
+        List<String> copy;
+        synchronized (values) {
+            copy = List.copyOf(values);
+        }
+        out.writeInt(copy.size());
+        for (String value : copy) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static List<String> readStrings(DataInput in) throws IOException {
+        int size = in.readInt();
+        String[] values = new String[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = in.readUTF();
+        }
+        return List.of(values);
+    }
+
+    private static void writeCategories(DataOutput out, Set<Category> categories) throws IOException {
+        if (categories == null) {
+            out.writeInt(-1);
+            return;
+        }
+        List<Category> copy = List.copyOf(categories);
+        out.writeInt(copy.size());
+        for (Category category : copy) {
+            writeNullable(out, category.getName());
+            writeNullable(out, category.getDescription());
+        }
+    }
+
+    private static Set<Category> readCategories(DataInput in) throws IOException {
+        int size = in.readInt();
+        if (size < 0) {
+            return null;
+        }
+        Set<Category> categories = new LinkedHashSet<>();
+        for (int i = 0; i < size; i++) {
+            categories.add(new Category(readNullable(in), readNullable(in)));
+        }
+        return categories;
+    }
+
+    private static void writeDate(DataOutput out, Date date) throws IOException {
+        out.writeLong(date == null ? Long.MIN_VALUE : date.getTime());
+    }
+
+    private static Date readDate(DataInput in) throws IOException {
+        long time = in.readLong();
+        return time == Long.MIN_VALUE ? null : new Date(time);
+    }
+}
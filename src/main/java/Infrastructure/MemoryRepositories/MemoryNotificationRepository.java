@@ -1,7 +1,6 @@
 package Infrastructure.MemoryRepositories;
 
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -10,56 +9,150 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
 
 import Domain.Notification.INotificationRepository;
+import Domain.Notification.Notification;
+import Domain.Notification.NotificationCursor;
 
 @Repository
 @Profile("dev")
 public class MemoryNotificationRepository extends INotificationRepository {
 
-    private final Map<String, List<String>> notifications = new ConcurrentHashMap<>();
+    private final Map<String, UserLog> logs = new ConcurrentHashMap<>();
+
+    // The notifications of one user. The sequence of entries[i] is cursor.getPrunedSequence() + 1 + i,
+    // so a notification is found from its sequence without searching.
+    private static final class UserLog {
+        final NotificationCursor cursor;
+        final ArrayList<Notification> entries = new ArrayList<>();
+
+        UserLog(String userId) {
+            this.cursor = new NotificationCursor(userId);
+        }
+
+        long indexOf(long sequence) {
+            return sequence - cursor.getPrunedSequence() - 1;
+        }
+
+        List<Notification> after(long sequence, int limit) {
+            List<Notification> result = new ArrayList<>();
+            for (int i = (int) Math.max(0, indexOf(sequence + 1)); i < entries.size() && result.size() < limit; i++) {
+                result.add(entries.get(i));
+            }
+            return result;
+        }
+    }
+
+    private UserLog log(String userId) {
+        return logs.computeIfAbsent(userId, UserLog::new);
+    }
+
+    @Override
+    public long append(String userId, String content) {
+        UserLog log = log(userId);
+        synchronized (log) {
+            long sequence = log.cursor.next();
+            log.entries.add(new Notification(userId, sequence, System.currentTimeMillis(), content));
+            return sequence;
+        }
+    }
+
+    @Override
+    public List<Notification> getPage(String userId, long before, int limit) {
+        UserLog log = logs.get(userId);
+        if (log == null) {
+            return List.of();
+        }
+        synchronized (log) {
+            List<Notification> page = new ArrayList<>();
+            int from = (int) Math.min(log.entries.size() - 1L, log.indexOf(before) - 1);
+            for (int i = from; i >= 0 && page.size() < limit; i--) {
+                page.add(log.entries.get(i));
+            }
+            return page;
+        }
+    }
+
+    @Override
+    public List<Notification> getUnread(String userId, int limit) {
+        UserLog log = logs.get(userId);
+        if (log == null) {
+            return List.of();
+        }
+        synchronized (log) {
+            return log.after(log.cursor.getReadSequence(), limit);
+        }
+    }
+
+    @Override
+    public boolean markRead(String userId, long sequence) {
+        UserLog log = logs.get(userId);
+        return log != null && log.cursor.markRead(sequence);
+    }
 
     @Override
-    public void addNotification(String userId, String content) {
-        notifications.computeIfAbsent(userId, k -> new ArrayList<>()).add(content);
+    public long getUnreadCount(String userId) {
+        UserLog log = logs.get(userId);
+        return log == null ? 0 : log.cursor.getUnreadCount();
     }
 
     @Override
-    public List<String> getNotifications(String userId) {
-        // Return and clear the user's notifications
-        List<String> userNotifications = notifications.getOrDefault(userId, Collections.emptyList());
-        notifications.remove(userId);
-        return userNotifications;
+    public int prune(long createdBefore, int keepPerUser) {
+        int removed = 0;
+        for (UserLog log : logs.values()) {
+            synchronized (log) {
+                int cut = Math.max(0, log.entries.size() - keepPerUser);
+                while (cut < log.entries.size() && log.entries.get(cut).getCreatedAt() < createdBefore) {
+                    cut++;
+                }
+                if (cut == 0) {
+                    continue;
+                }
+                long lastRemoved = log.entries.get(cut - 1).getSequence();
+                log.entries.subList(0, cut).clear();
+                log.cursor.pruned(lastRemoved);
+                removed += cut;
+            }
+        }
+        return removed;
     }
 
     // Implementing base interface methods
 
     @Override
     public boolean add(String userId, List<String> value) {
-        notifications.merge(userId, new ArrayList<>(value), (existing, newOnes) -> {
-            existing.addAll(newOnes);
-            return existing;
-        });
+        for (String content : value) {
+            append(userId, content);
+        }
         return true;
     }
 
     @Override
     public List<String> remove(String userId) {
-        return notifications.remove(userId);
+        UserLog log = logs.remove(userId);
+        if (log == null) {
+            return null;
+        }
+        synchronized (log) {
+            return log.after(log.cursor.getReadSequence(), Integer.MAX_VALUE).stream().map(Notification::getContent).toList();
+        }
     }
 
     @Override
     public List<String> get(String userId) {
-        return notifications.get(userId);
+        UserLog log = logs.get(userId);
+        if (log == null) {
+            return null;
+        }
+        return getUnread(userId, Integer.MAX_VALUE).stream().map(Notification::getContent).toList();
     }
 
     @Override
     public List<String> update(String userId, List<String> value) {
-        notifications.put(userId, new ArrayList<>(value));
-        return value;
+        // Not supported - the log is append-only
+        return null;
     }
 
     @Override
     public void deleteAll() {
-        notifications.clear();
-        deleteAllLocks();
+        logs.clear();
     }
 }
@@ -31,7 +31,6 @@ public class MemoryOfferRepository extends IOfferRepository {
         if (!id.equals(offer.getId()))
             throw new IllegalArgumentException("ID does not match the offer ID");
 
-        this.addLock(id);
         return this.offers.put(id, offer) == null;
     }
 
@@ -40,7 +39,6 @@ public class MemoryOfferRepository extends IOfferRepository {
         if (!this.isIdValid(id))
             throw new IllegalArgumentException("ID cannot be null");
 
-        this.removeLock(id);
         return this.offers.remove(id);
     }
 
@@ -69,7 +67,6 @@ public class MemoryOfferRepository extends IOfferRepository {
     @Override
     public void deleteAll() {
         this.offers.clear();
-        this.deleteAllLocks();
     }
 
     @Override
@@ -81,4 +78,9 @@ public class MemoryOfferRepository extends IOfferRepository {
     public List<Offer> getOffersOfMember(String memberId) {
         return this.offers.values().stream().filter(offer -> offer.getMemberId().equals(memberId)).toList();
     }
+
+    @Override
+    public List<Offer> getAllOffers() {
+        return List.copyOf(this.offers.values());
+    }
 }
@@ -11,52 +11,123 @@ import Domain.Pair;
 import Domain.Repos.IPermissionRepository;
 import Domain.management.Permission;
 
+/**
+ * In-memory implementation of {@link IPermissionRepository}, keyed like {@link MemoryItemRepository} by the store
+ * and user ids encoded as ints and packed into one long. Next to it, an index from store code to user code to
+ * permission finds a store's permissions without scanning the market; both are changed together inside a compute on
+ * the store's index entry, so they always agree. Only members hold permissions, so the user dictionary holds no
+ * guest ids. Every change is journaled under the permission's write lock, so the journal records a permission's
+ * changes in the order they were made.
+ */
 @Repository
 @Profile("dev")
 public class MemoryPermissionRepository extends IPermissionRepository {
 
-    private final Map<String, Map<String, Permission>> permissions = new ConcurrentHashMap<>();
+    private final IdDictionary storeIds = new IdDictionary();
+    private final IdDictionary userIds = new IdDictionary();
+    private final LongKeyMap<Permission> permissions = new LongKeyMap<>();
+    private final Map<Integer, Map<Integer, Permission>> byStore = new ConcurrentHashMap<>();
+    private volatile MemoryJournal.Log<Pair<String, String>, Permission> journal = MemoryJournal.Log.none();
+
+    void setJournal(MemoryJournal.Log<Pair<String, String>, Permission> journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * @return the key of the store and user, or 0 if no permission was ever stored under one of them
+     */
+    private long find(String storeId, String userId) {
+        int store = storeIds.find(storeId);
+        int user = userIds.find(userId);
+        return store == 0 || user == 0 ? 0L : IdDictionary.key(store, user);
+    }
 
     @Override
     public boolean add(String storeId, String userId, Permission value) {
-        permissions.putIfAbsent(storeId, new HashMap<>());
-        permissions.get(storeId).put(userId, value);
-        return true;
+        Pair<String, String> id = new Pair<>(storeId, userId);
+        return withWriteLock(id, () -> {
+            int store = storeIds.codeOf(storeId);
+            int user = userIds.codeOf(userId);
+            byStore.compute(store, (code, users) -> {
+                Map<Integer, Permission> indexed = users != null ? users : new ConcurrentHashMap<>();
+                permissions.put(IdDictionary.key(store, user), value);
+                indexed.put(user, value);
+                return indexed;
+            });
+            journal.put(id, value);
+            return true;
+        });
     }
 
     @Override
     public Permission update(String storeId, String userId, Permission value) {
-        Map<String, Permission> storeMap = permissions.get(storeId);
-        if (storeMap == null || !storeMap.containsKey(userId)) return null;
-        storeMap.put(userId, value);
-        return value;
+        Pair<String, String> id = new Pair<>(storeId, userId);
+        return withWriteLock(id, () -> {
+            long key = find(storeId, userId);
+            if (key == 0L) return null;
+            boolean[] replaced = {false};
+            byStore.computeIfPresent(IdDictionary.first(key), (code, users) -> {
+                if (permissions.replace(key, value) != null) {
+                    users.put(IdDictionary.second(key), value);
+                    replaced[0] = true;
+                }
+                return users;
+            });
+            if (!replaced[0]) return null;
+            journal.put(id, value);
+            return value;
+        });
     }
 
     @Override
     public Permission remove(String storeId, String userId) {
-        Map<String, Permission> storeMap = permissions.get(storeId);
-        if (storeMap == null) return null;
-        return storeMap.remove(userId);
+        Pair<String, String> id = new Pair<>(storeId, userId);
+        return withWriteLock(id, () -> {
+            long key = find(storeId, userId);
+            if (key == 0L) return null;
+            Permission[] removed = {null};
+            byStore.computeIfPresent(IdDictionary.first(key), (code, users) -> {
+                removed[0] = permissions.remove(key);
+                users.remove(IdDictionary.second(key));
+                return users.isEmpty() ? null : users;
+            });
+            if (removed[0] != null) journal.remove(id);
+            return removed[0];
+        });
     }
 
     @Override
     public Permission get(String storeId, String userId) {
-        Map<String, Permission> storeMap = permissions.get(storeId);
-        return storeMap == null ? null : storeMap.get(userId);
+        long key = find(storeId, userId);
+        return key == 0L ? null : permissions.get(key);
     }
 
     public Map<String, Permission> getAllPermissionsForStore(String storeId) {
-        return permissions.getOrDefault(storeId, new ConcurrentHashMap<>());
+        Map<String, Permission> result = new HashMap<>();
+        int store = storeIds.find(storeId);
+        Map<Integer, Permission> users = store == 0 ? null : byStore.get(store);
+        if (users == null) return result;
+        users.forEach((user, permission) -> result.put(userIds.idOf(user), permission));
+        return result;
     }
 
     public Map<String, Map<String, Permission>> getAllPermissions() {
-        return permissions;
+        Map<String, Map<String, Permission>> result = new HashMap<>();
+        byStore.forEach((store, users) -> {
+            Map<String, Permission> copy = new HashMap<>();
+            users.forEach((user, permission) -> copy.put(userIds.idOf(user), permission));
+            if (!copy.isEmpty()) {
+                result.put(storeIds.idOf(store), copy);
+            }
+        });
+        return result;
     }
 
     @Override
     public void deleteAll() {
+        byStore.clear();
         permissions.clear();
-        this.deleteAllLocks();
+        journal.clear();
     }
 
     @Override
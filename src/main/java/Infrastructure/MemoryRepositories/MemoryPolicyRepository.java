@@ -76,6 +76,5 @@ public class MemoryPolicyRepository extends IPolicyRepository {
     @Override
     public void deleteAll() {
         policies.clear();
-        this.deleteAllLocks();
     }
 }
@@ -13,17 +13,23 @@ import Domain.Store.Product;
 
 /**
  * In-memory implementation of {@link IProductRepository}.
- * Provides thread-safe CRUD operations on products.
+ * Provides thread-safe CRUD operations on products, with an index by name for {@link #getByName(String)}.
  */
 @Repository
 @Profile("dev")
 public class MemoryProductRepository extends IProductRepository {
     private final ConcurrentMap<String, Product> products;
+    private final ConcurrentMap<String, String> idsByName = new ConcurrentHashMap<>();
+    private volatile MemoryJournal.Log<String, Product> journal = MemoryJournal.Log.none();
 
     public MemoryProductRepository() {
         products = new ConcurrentHashMap<>();
     }
 
+    void setJournal(MemoryJournal.Log<String, Product> journal) {
+        this.journal = journal;
+    }
+
     private boolean isValidId(String id) {
         return id != null && !id.trim().isEmpty();
     }
@@ -34,11 +40,15 @@ public class MemoryProductRepository extends IProductRepository {
         if (!isValidId(id) || value == null) {
             return false;
         }
-        if (products.containsKey(id)) {
-            return false;
-        }
-        products.put(id, value);
-        return true;
+        // Journaled under the same lock as the map change, so the journal records a product's changes in their order
+        return withWriteLock(id, () -> {
+            if (products.putIfAbsent(id, value) != null) {
+                return false;
+            }
+            index(id, value);
+            journal.put(id, value);
+            return true;
+        });
     }
 
     /** Removes a product by its ID. */
@@ -47,7 +57,14 @@ public class MemoryProductRepository extends IProductRepository {
         if (!isValidId(id)) {
             return null;
         }
-        return products.remove(id);
+        return withWriteLock(id, () -> {
+            Product removed = products.remove(id);
+            if (removed != null) {
+                unindex(id, removed);
+                journal.remove(id);
+            }
+            return removed;
+        });
     }
 
     /** Retrieves a product by its ID. */
@@ -62,25 +79,46 @@ public class MemoryProductRepository extends IProductRepository {
     /** Updates an existing product. */
     @Override
     public Product update(String id, Product value) {
-        if (!isValidId(id) || value == null || !products.containsKey(id)) {
+        if (!isValidId(id) || value == null) {
             return null;
         }
-        products.put(id, value);
-        return value;
+        return withWriteLock(id, () -> {
+            Product previous = products.replace(id, value);
+            if (previous == null) {
+                return null;
+            }
+            unindex(id, previous);
+            index(id, value);
+            journal.put(id, value);
+            return value;
+        });
     }
     @Override
     public Product getByName(String name) {
         if (name == null || name.trim().isEmpty()) {
             return null;
         }
-        for (Product product : products.values()) {
-            if (product.getName().equals(name)) {
-                return product;
+        String id = idsByName.get(name);
+        return id == null ? null : products.get(id);
+    }
+
+    private void index(String id, Product product) {
+        if (product.getName() != null) {
+            idsByName.putIfAbsent(product.getName(), id);
+        }
+    }
+
+    private void unindex(String id, Product product) {
+        if (product.getName() != null && idsByName.remove(product.getName(), id)) {
+            // Another product may have the same name; removals are rare enough to look for it
+            for (Product other : products.values()) {
+                if (product.getName().equals(other.getName())) {
+                    index(other.getProductId(), other);
+                    break;
+                }
             }
         }
-        return null;
     }
-    
 
     /** Retrieves all products. */
     @Override
@@ -91,6 +129,7 @@ public class MemoryProductRepository extends IProductRepository {
     @Override
     public void deleteAll() {
         products.clear();
-        this.deleteAllLocks();
+        idsByName.clear();
+        journal.clear();
     }
 }
@@ -10,6 +10,7 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
 
 import Domain.Pair;
+import Domain.Events.DomainEventBus;
 import Domain.Repos.IReceiptRepository;
 import Domain.Shopping.Receipt;
 import Domain.Store.Product;
@@ -33,7 +34,8 @@ public class MemoryReceiptRepository extends IReceiptRepository {
     /**
      * Creates a new ReceiptRepository.
      */
-    public MemoryReceiptRepository() {
+    public MemoryReceiptRepository(DomainEventBus eventBus) {
+        super(eventBus);
         this.receipts = new ConcurrentHashMap<>();
         this.clientReceipts = new ConcurrentHashMap<>();
         this.storeReceipts = new ConcurrentHashMap<>();
@@ -59,6 +61,7 @@ public class MemoryReceiptRepository extends IReceiptRepository {
         storeReceipts.computeIfAbsent(storeId, k -> new ConcurrentHashMap<>())
                     .put(receiptId, clientId);
         
+        publishCreated(receipt);
         return receiptId;
     }
     
@@ -222,6 +225,5 @@ public class MemoryReceiptRepository extends IReceiptRepository {
         receipts.clear();
         clientReceipts.clear();
         storeReceipts.clear();
-        this.deleteAllLocks();
     }
 }
\ No newline at end of file
@@ -10,11 +10,16 @@ import Domain.Pair;
 import Domain.Repos.IShoppingBasketRepository;
 import Domain.Shopping.ShoppingBasket;
 
+/**
+ * In-memory implementation of {@link IShoppingBasketRepository}.
+ * Unlike the item and permission repositories, baskets are keyed by the id pair itself rather than by codes from
+ * an {@link IdDictionary}: client ids include every guest session, and a dictionary would keep each one for good.
+ */
 @Repository
 @Profile("dev")
 public class MemoryShoppingBasketRepository extends IShoppingBasketRepository {
     
-    private Map<Pair<String, String>, ShoppingBasket> baskets;
+    private final Map<Pair<String, String>, ShoppingBasket> baskets;
 
     public MemoryShoppingBasketRepository() {
         
@@ -38,11 +43,7 @@ public class MemoryShoppingBasketRepository extends IShoppingBasketRepository {
      */
     @Override
     public boolean add(Pair<String, String> id, ShoppingBasket value) {
-        if (baskets.containsKey(id)) {
-            return false;
-        }
-        baskets.put(id, value);
-        return true;
+        return baskets.putIfAbsent(id, value) == null;
     }
 
     /**
@@ -53,9 +54,6 @@ public class MemoryShoppingBasketRepository extends IShoppingBasketRepository {
      */
     @Override
     public ShoppingBasket remove(Pair<String, String> id) {
-        if (!baskets.containsKey(id)) {
-            return null;
-        }
         return baskets.remove(id);
     }
 
@@ -67,9 +65,6 @@ public class MemoryShoppingBasketRepository extends IShoppingBasketRepository {
      */
     @Override
     public ShoppingBasket get(Pair<String, String> id) {
-        if (!baskets.containsKey(id)) {
-            return null;
-        }
         return baskets.get(id);
     }
 
@@ -82,16 +77,14 @@ public class MemoryShoppingBasketRepository extends IShoppingBasketRepository {
      */
     @Override
     public ShoppingBasket update(Pair<String, String> id, ShoppingBasket value) {
-        if (!baskets.containsKey(id)) {
+        if (baskets.replace(id, value) == null) {
             return null;
         }
-        baskets.put(id, value);
         return value;
     }
     
     @Override
     public void deleteAll() {
         baskets.clear();
-        this.deleteAllLocks();
     }
 }
\ No newline at end of file
@@ -99,6 +99,5 @@ public class MemoryShoppingCartRepository extends IShoppingCartRepository {
     @Override
     public void deleteAll() {
         carts.clear();
-        this.deleteAllLocks(); 
     }
 }
\ No newline at end of file
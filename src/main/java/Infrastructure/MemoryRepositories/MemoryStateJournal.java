@@ -0,0 +1,147 @@
+package Infrastructure.MemoryRepositories;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import Domain.Pair;
+import Domain.Repos.IStateJournal;
+import Domain.Store.Item;
+import Domain.Store.Product;
+import Domain.Store.Store;
+import Domain.User.User;
+import Domain.management.Permission;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Keeps the dev profile's market repositories on disk when {@code app.journal.dir} is set.
+ * The journal is recovered before any runner starts, so the database cleaner and the initializer see the
+ * restored state. Set {@code app.clean-on-start=false} to keep it across restarts.
+ * <p>
+ * Only the market's catalog and staff are kept: members' accounts, stores, products, items and permissions.
+ * Carts, receipts, offers, auctions, discounts, policies, feedback and notifications start empty after a restart,
+ * as do members' sessions. None of the kept tables refers to those, so what is restored is consistent on its own,
+ * but a deployment that needs them across restarts should use the prod profile's database.
+ * <p>
+ * Stock is kept apart, in the directory's {@link InventoryTable}, so that a sale is on disk without a log record.
+ */
+@Component
+@Profile("dev")
+public class MemoryStateJournal implements IStateJournal {
+    private final MemoryUserRepository userRepository;
+    private final MemoryStoreRepository storeRepository;
+    private final MemoryProductRepository productRepository;
+    private final MemoryItemRepository itemRepository;
+    private final MemoryPermissionRepository permissionRepository;
+
+    @Value("${app.journal.dir:}")
+    private String directory;
+
+    @Value("${app.journal.inventory-slots:4096}")
+    private int inventorySlots = 4096;
+
+    private volatile MemoryJournal journal;
+    private volatile InventoryTable inventory;
+    private volatile boolean restored;
+
+    public MemoryStateJournal(MemoryUserRepository userRepository, MemoryStoreRepository storeRepository,
+                              MemoryProductRepository productRepository, MemoryItemRepository itemRepository,
+                              MemoryPermissionRepository permissionRepository) {
+        this.userRepository = userRepository;
+        this.storeRepository = storeRepository;
+        this.productRepository = productRepository;
+        this.itemRepository = itemRepository;
+        this.permissionRepository = permissionRepository;
+    }
+
+    @PostConstruct
+    public void open() {
+        if (directory == null || directory.isBlank()) {
+            return;
+        }
+        MemoryJournal.Table<String, User> members = MemoryJournalTables.members(userRepository);
+        MemoryJournal.Table<String, Store> stores = MemoryJournalTables.stores(storeRepository);
+        MemoryJournal.Table<String, Product> products = MemoryJournalTables.products(productRepository);
+        MemoryJournal.Table<Pair<String, String>, Item> items = MemoryJournalTables.items(itemRepository);
+        MemoryJournal.Table<Pair<String, String>, Permission> permissions = MemoryJournalTables.permissions(permissionRepository);
+        journal = new MemoryJournal(Paths.get(directory), List.of(members, stores, products, items, permissions));
+
+        long start = System.nanoTime();
+        long records = journal.recover();
+        restored = records > 0;
+        System.out.printf("Memory journal: restored %d records from %s in %d ms%n",
+                          records, directory, (System.nanoTime() - start) / 1_000_000);
+
+        inventory = InventoryTable.open(Paths.get(directory), inventorySlots);
+        itemRepository.keepStockIn(inventory);
+
+        userRepository.setJournal(tracking(journal.logFor(members)));
+        storeRepository.setJournal(tracking(journal.logFor(stores)));
+        productRepository.setJournal(tracking(journal.logFor(products)));
+        itemRepository.setJournal(tracking(journal.logFor(items)));
+        permissionRepository.setJournal(tracking(journal.logFor(permissions)));
+    }
+
+    /**
+     * Wiping a repository means the restored state is gone.
+     */
+    private <K, V> MemoryJournal.Log<K, V> tracking(MemoryJournal.Log<K, V> log) {
+        return new MemoryJournal.Log<>() {
+            @Override
+            public void put(K key, V value) {
+                log.put(key, value);
+            }
+
+            @Override
+            public void remove(K key) {
+                log.remove(key);
+            }
+
+            @Override
+            public void clear() {
+                restored = false;
+                log.clear();
+            }
+        };
+    }
+
+    @Override
+    public boolean hasRestoredState() {
+        return restored;
+    }
+
+    /**
+     * Writes a new snapshot so in-place changes reach disk and the log stays short.
+     */
+    @Scheduled(fixedDelayString = "${app.journal.checkpoint-interval-ms:10000}")
+    public void checkpoint() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.checkpoint();
+            inventory.force();
+        } catch (RuntimeException e) {
+            System.err.println("Memory journal checkpoint failed, will retry: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (journal == null) {
+            return;
+        }
+        checkpoint();
+        itemRepository.keepStockIn(null);
+        inventory.close();
+        inventory = null;
+        journal.close();
+        journal = null;
+    }
+}
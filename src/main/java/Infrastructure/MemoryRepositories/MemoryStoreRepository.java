@@ -14,28 +14,41 @@ import Domain.Store.Store;
 @Profile("dev")
 public class MemoryStoreRepository extends IStoreRepository{
     private Map<String, Store> stores;
+    private volatile MemoryJournal.Log<String, Store> journal = MemoryJournal.Log.none();
 
     public MemoryStoreRepository() {
         super();
         this.stores = new ConcurrentHashMap<>();
     }
 
+    void setJournal(MemoryJournal.Log<String, Store> journal) {
+        this.journal = journal;
+    }
+
     @Override
     public boolean add(String storeId, Store store) {
         if (!isIdValid(storeId)) throw new IllegalArgumentException("ID cannot be null");
         if (!storeId.equals(store.getId())) throw new IllegalArgumentException("ID does not match the store ID");
-        if (this.stores.containsKey(storeId)) throw new IllegalArgumentException("Item with this ID already exists");
 
-        this.addLock(storeId);
-        return this.stores.put(storeId, store) == null;
+        // The journal is written under the same lock as the map, so it records the store's changes in their order
+        return withWriteLock(storeId, () -> {
+            if (this.stores.putIfAbsent(storeId, store) != null) {
+                throw new IllegalArgumentException("Item with this ID already exists");
+            }
+            journal.put(storeId, store);
+            return true;
+        });
     }
 
     @Override
     public Store remove(String id) {
         if (!isIdValid(id)) throw new IllegalArgumentException("ID cannot be null");
 
-        this.removeLock(id);
-        return stores.remove(id);
+        return withWriteLock(id, () -> {
+            Store removed = stores.remove(id);
+            if (removed != null) journal.remove(id);
+            return removed;
+        });
     }
 
     @Override
@@ -48,8 +61,12 @@ public class MemoryStoreRepository extends IStoreRepository{
     public Store update(String id, Store store) {
         if (!isIdValid(id)) throw new IllegalArgumentException("ID cannot be null");
         if (!id.equals(store.getId())) throw new IllegalArgumentException("ID does not match the store ID");
-        if (!this.stores.containsKey(id)) throw new IllegalArgumentException("Item with this ID does not exist");
-        return this.stores.put(id, store);
+        return withWriteLock(id, () -> {
+            Store previous = this.stores.replace(id, store);
+            if (previous == null) throw new IllegalArgumentException("Item with this ID does not exist");
+            journal.put(id, store);
+            return previous;
+        });
     }
 
     @Override
@@ -63,7 +80,7 @@ public class MemoryStoreRepository extends IStoreRepository{
     @Override
     public void deleteAll() {
         this.stores.clear();
-        this.deleteAllLocks();
+        journal.clear();
     }
 
     @Override
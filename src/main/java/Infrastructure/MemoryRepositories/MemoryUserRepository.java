@@ -15,24 +15,33 @@ import Domain.User.User;
 @Profile("dev")
 public class MemoryUserRepository extends IUserRepository {
     Map<String, User> users;
+    private volatile MemoryJournal.Log<String, User> journal = MemoryJournal.Log.none();
     public MemoryUserRepository() {
         this.users = new ConcurrentHashMap<String, User>();
     }
+
+    void setJournal(MemoryJournal.Log<String, User> journal) {
+        this.journal = journal;
+    }
     @Override
     public boolean add(String id, User user) 
     {
-        if (users.containsKey(id)) {
-            return false; // User already exists
-        }
-        users.put(id, user);
-        return true; // User added successfully
+        // Journaled under the same lock as the map change, so the journal records a user's changes in their order
+        return withWriteLock(id, () -> {
+            if (users.putIfAbsent(id, user) != null) {
+                return false; // User already exists
+            }
+            journal.put(id, user);
+            return true; // User added successfully
+        });
     }
     @Override
     public User remove(String id) {
-        if (users.containsKey(id)) {
-            return users.remove(id); // User removed successfully
-        }
-        return null; // User not found
+        return withWriteLock(id, () -> {
+            User removed = users.remove(id); // null if the user was not found
+            if (removed != null) journal.remove(id);
+            return removed;
+        });
     }
     @Override
     public User get(String id) {
@@ -57,11 +66,13 @@ public class MemoryUserRepository extends IUserRepository {
 
     @Override
     public User update(String id, User user) {
-        if (users.containsKey(id)) {
-            users.put(id, user); 
+        return withWriteLock(id, () -> {
+            if (users.replace(id, user) == null) {
+                return null;
+            }
+            journal.put(id, user);
             return user;
-        }
-        return null;
+        });
     }
     
     @Override
@@ -102,7 +113,7 @@ public class MemoryUserRepository extends IUserRepository {
     @Override
     public void deleteAll() {
         users.clear(); // Clears all users from the repository
-        this.deleteAllLocks(); // Deletes all locks associated with users
+        journal.clear();
     }
     
     @Override
@@ -7,11 +7,14 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 
 import com.fasterxml.jackson.core.type.TypeReference;
@@ -27,9 +30,11 @@ import Application.ShoppingService;
 import Application.StoreService;
 import Application.TokenService;
 import Application.UserService;
+import Application.seed.BulkSeedLoader;
 import Application.utils.Response;
 import Domain.ExternalServices.IExternalPaymentService;
 import Domain.ExternalServices.IExternalSupplyService;
+import Domain.Repos.IStateJournal;
 import Domain.management.PermissionType;
 
 @Component
@@ -52,6 +57,16 @@ public class AppInitializer implements CommandLineRunner, Ordered {
     @Value("${external.services.url}")
     private String externalServicesUrl;
 
+    /** Optional bulk seed file, loaded after the init state; a path, or a classpath resource as {@code classpath:...}. */
+    @Value("${app.init.seed-file:}")
+    private String seedFile;
+
+    @Autowired(required = false)
+    private IStateJournal stateJournal;
+
+    @Autowired(required = false)
+    private BulkSeedLoader bulkSeedLoader;
+
     public AppInitializer(
             UserService userService,
             StoreService storeService,
@@ -95,6 +110,11 @@ public class AppInitializer implements CommandLineRunner, Ordered {
             Response<Void> supplyServiceResponse = externalSupplyService.updateSupplyServiceURL(externalServicesUrl);
             System.out.println("External services URLs updated successfully. With URL: " + externalServicesUrl);
 
+            if (stateJournal != null && stateJournal.hasRestoredState()) {
+                System.out.println("Skipping init state '" + initState + "': state was restored from the journal");
+                return;
+            }
+
             List<Map<String, Object>> commands = states.get(initState);
             if (commands == null) {
                 System.err.println("❌ No such init state: " + initState);
@@ -104,6 +124,10 @@ public class AppInitializer implements CommandLineRunner, Ordered {
             for (Map<String, Object> cmd : commands) {
                 handleCommand(cmd);
             }
+
+            if (seedFile != null && !seedFile.isBlank() && bulkSeedLoader != null) {
+                loadSeedFile();
+            }
         } catch (Exception e) {
             throw new RuntimeException("Failed to initialize application", e);
         }
@@ -111,6 +135,16 @@ public class AppInitializer implements CommandLineRunner, Ordered {
         System.out.println("✅ App Initialization Complete");
     }
 
+    private void loadSeedFile() throws Exception {
+        Resource resource = seedFile.startsWith("classpath:")
+                ? new ClassPathResource(seedFile.substring("classpath:".length()))
+                : new FileSystemResource(seedFile);
+        try (InputStream stream = resource.getInputStream()) {
+            BulkSeedLoader.Result result = bulkSeedLoader.load(stream);
+            System.out.println("Seeded " + result + " from " + seedFile);
+        }
+    }
+
     private void handleCommand(Map<String, Object> cmd) {
         String action = (String) cmd.get("action");
         try {
@@ -0,0 +1,83 @@
+package UI.DatabaseRelated;
+
+import java.net.ConnectException;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransientConnectionException;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.hibernate.exception.JDBCConnectionException;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import Application.utils.CircuitBreaker;
+import Domain.Repos.DatabaseUnavailableException;
+
+/**
+ * Puts the Spring Data repositories behind the database circuit breaker.
+ * <p>
+ * The advice sits on the Spring Data proxies rather than on the repository classes wrapping them, which answer
+ * some calls from memory: only a call that went to the database says anything about it. While the breaker is
+ * open these calls throw {@link DatabaseUnavailableException} at once. A call that fails to reach the database
+ * counts against the breaker and is reported the same way; any other outcome, including errors the database
+ * itself returned, shows the database is up.
+ */
+@Aspect
+@Component
+@Profile("prod")
+public class DbCircuitBreakerAspect {
+    private final CircuitBreaker breaker;
+
+    public DbCircuitBreakerAspect(DbHealthStatus dbHealthStatus) {
+        this.breaker = dbHealthStatus.getBreaker();
+    }
+
+    @Around("execution(public * org.springframework.data.repository.Repository+.*(..))")
+    public Object guard(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!breaker.allowRequest()) {
+            throw new DatabaseUnavailableException("Database is unavailable");
+        }
+        try {
+            Object result = joinPoint.proceed();
+            breaker.recordSuccess();
+            return result;
+        } catch (DatabaseUnavailableException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            if (!isConnectionFailure(e)) {
+                breaker.recordSuccess();
+                throw e;
+            }
+            breaker.recordFailure();
+            throw new DatabaseUnavailableException("Database is unavailable: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return whether the error, or one of its causes, says the database could not be reached
+     */
+    static boolean isConnectionFailure(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DataAccessResourceFailureException
+                    || cause instanceof CannotCreateTransactionException
+                    || cause instanceof JDBCConnectionException
+                    || cause instanceof SQLTransientConnectionException
+                    || cause instanceof SQLNonTransientConnectionException
+                    || cause instanceof ConnectException) {
+                return true;
+            }
+            // SQL states of class 08 are connection exceptions
+            if (cause instanceof SQLException sql && sql.getSQLState() != null && sql.getSQLState().startsWith("08")) {
+                return true;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+}
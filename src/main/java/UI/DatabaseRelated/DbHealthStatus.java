@@ -1,17 +1,39 @@
 package UI.DatabaseRelated;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
+
+import Application.utils.CircuitBreaker;
+
+/**
+ * Whether the database can be used, as a circuit breaker fed by {@link DbHealthChecker} and by every query the
+ * repositories send. While it is open, repositories and transactions fail at once instead of waiting for connection timeouts,
+ * and the site serves reads from the copies it holds in memory.
+ */
 @Component
 @Profile("prod")
 public class DbHealthStatus {
-    private volatile boolean dbAvailable = true;
+    private final CircuitBreaker breaker;
+
+    public DbHealthStatus(@Value("${app.db.breaker.failure-threshold:3}") int failureThreshold,
+                          @Value("${app.db.breaker.open-ms:5000}") long openMillis) {
+        this.breaker = new CircuitBreaker(failureThreshold, openMillis);
+    }
 
     public boolean isDbAvailable() {
-        return dbAvailable;
+        return breaker.getState() != CircuitBreaker.State.OPEN;
     }
 
     public void setDbAvailable(boolean available) {
-        this.dbAvailable = available;
+        if (available) {
+            breaker.recordSuccess();
+        } else {
+            breaker.trip();
+        }
+    }
+
+    public CircuitBreaker getBreaker() {
+        return breaker;
     }
 }
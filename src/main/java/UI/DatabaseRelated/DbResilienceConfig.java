@@ -0,0 +1,24 @@
+package UI.DatabaseRelated;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Replaces Spring Boot's JPA transaction manager with one that respects the database circuit breaker.
+ */
+@Configuration
+@Profile("prod")
+public class DbResilienceConfig {
+
+    @Bean
+    public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory,
+                                                         DbHealthStatus dbHealthStatus) {
+        return new ResilientTransactionManager(new JpaTransactionManager(entityManagerFactory),
+                dbHealthStatus.getBreaker());
+    }
+}
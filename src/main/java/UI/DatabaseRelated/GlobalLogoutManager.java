@@ -1,11 +1,17 @@
 package UI.DatabaseRelated;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
 import UI.presenters.LoginPresenter;
 
+/**
+ * Logs everyone out after a long database outage. Shorter outages are served read-only and keep users logged in;
+ * once the database has been unavailable for {@code app.db.degraded-max-ms}, sessions are closed and users log in
+ * again when it is back.
+ */
 @Component
 @Profile("prod")
 public class GlobalLogoutManager {
@@ -14,11 +20,14 @@ public class GlobalLogoutManager {
     private final LoginPresenter loginPresenter;
     private volatile boolean shouldForceLogout = false;
     private volatile boolean forceLogoutProcessed = false;
+    private final long degradedMaxMillis;
 
     @Autowired
-    public GlobalLogoutManager(DbHealthStatus dbHealthStatus, LoginPresenter loginPresenter) {
+    public GlobalLogoutManager(DbHealthStatus dbHealthStatus, LoginPresenter loginPresenter,
+                               @Value("${app.db.degraded-max-ms:300000}") long degradedMaxMillis) {
         this.dbHealthStatus = dbHealthStatus;
         this.loginPresenter = loginPresenter;
+        this.degradedMaxMillis = degradedMaxMillis;
         startWatcherThread();
     }
 
@@ -39,6 +48,12 @@ public class GlobalLogoutManager {
         Thread thread = new Thread(() -> {
             while (true) {
                 try {
+                    long unavailableSince = dbHealthStatus.getBreaker().getUnavailableSince();
+                    if (!shouldForceLogout && !dbHealthStatus.isDbAvailable() && unavailableSince > 0
+                            && System.currentTimeMillis() - unavailableSince >= degradedMaxMillis) {
+                        System.out.println("⚠️ DB has been down too long. Logging everyone out.");
+                        markForceLogoutNeeded();
+                    }
                     if (shouldForceLogout && dbHealthStatus.isDbAvailable()) {
                         System.out.println("✅ DB is back. Triggering force logout.");
                         loginPresenter.logOutAllUsers();
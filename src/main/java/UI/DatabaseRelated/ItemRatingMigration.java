@@ -0,0 +1,89 @@
+package UI.DatabaseRelated;
+
+import java.util.List;
+
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import Application.utils.TradingLogger;
+import jakarta.transaction.Transactional;
+
+/**
+ * Folds the ratings of the old {@code item_rates} collection table into the items' rating counters.
+ * <p>
+ * The old table held five counts per item, one row per star, without an order column, and Hibernate rewrote the
+ * rows on every rating, so nothing stored tells which row belongs to which star. An item's counts are therefore
+ * only folded in when the star does not matter: it has exactly five rows and they all hold the same count, as every
+ * item that was never rated does. If any item does not, nothing is migrated and the items are logged, to be folded
+ * in by hand from a source that knows the stars.
+ * <p>
+ * The counts are added to the counters rather than copied over them, so ratings given since the upgrade are kept.
+ * The old table is then renamed to {@code item_rates_migrated} in the same transaction rather than dropped, so the
+ * migration runs once and the source rows stay until someone has checked the result and drops them.
+ * <p>
+ * Runs before the database cleaner and the initializer, before any item is loaded.
+ */
+@Component
+@Profile("prod")
+public class ItemRatingMigration implements CommandLineRunner, Ordered {
+    private static final String CLASS_NAME = ItemRatingMigration.class.getSimpleName();
+    static final String MIGRATED_TABLE = "item_rates_migrated";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ItemRatingMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int getOrder() {
+        return -1; // Before the database cleaner
+    }
+
+    @Override
+    @Transactional
+    public void run(String... args) {
+        Boolean legacy = jdbcTemplate.queryForObject(
+                "SELECT to_regclass('item_rates') IS NOT NULL", Boolean.class);
+        if (!Boolean.TRUE.equals(legacy)) {
+            return;
+        }
+
+        List<String> ambiguous = jdbcTemplate.queryForList("""
+                SELECT item_store_id || '/' || item_product_id
+                FROM item_rates
+                GROUP BY item_store_id, item_product_id
+                HAVING COUNT(*) <> 5 OR MIN(COALESCE(rates, 0)) <> MAX(COALESCE(rates, 0))
+                ORDER BY 1
+                """, String.class);
+        if (!ambiguous.isEmpty()) {
+            TradingLogger.logError(CLASS_NAME, "run",
+                    "Not migrating item_rates: the stars of %d items cannot be told from their rows, for example %s. "
+                    + "Fold their counts into rating1..rating5 by hand and rename the table to " + MIGRATED_TABLE,
+                    ambiguous.size(), ambiguous.subList(0, Math.min(10, ambiguous.size())));
+            return;
+        }
+
+        int items = jdbcTemplate.update("""
+                UPDATE items i
+                SET rating1 = i.rating1 + r.count,
+                    rating2 = i.rating2 + r.count,
+                    rating3 = i.rating3 + r.count,
+                    rating4 = i.rating4 + r.count,
+                    rating5 = i.rating5 + r.count
+                FROM (
+                    SELECT item_store_id, item_product_id, MIN(COALESCE(rates, 0)) AS count
+                    FROM item_rates
+                    GROUP BY item_store_id, item_product_id
+                ) r
+                WHERE i.store_id = r.item_store_id AND i.product_id = r.item_product_id AND r.count > 0
+                """);
+        jdbcTemplate.execute("ALTER TABLE item_rates RENAME TO " + MIGRATED_TABLE);
+
+        System.out.println("Moved the ratings of " + items + " items into their rating counters; "
+                           + "drop " + MIGRATED_TABLE + " once they are checked");
+    }
+}
@@ -0,0 +1,68 @@
+package UI.DatabaseRelated;
+
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.transaction.Transactional;
+
+/**
+ * Moves notifications from the old {@code notifications} table into the per-user log and its cursors.
+ * <p>
+ * Each user's old notifications are appended after whatever the log already holds for the user, in the order the
+ * rows are stored, and all count as unread, since the old table kept a notification until it was delivered.
+ * They get the migration's time as their creation time, so retention keeps them for the full period.
+ * The old table is dropped in the same transaction, so the migration runs once and a failed one leaves it in place.
+ * <p>
+ * Runs before the database cleaner and the initializer, while no cursor has been loaded yet.
+ */
+@Component
+@Profile("prod")
+public class NotificationLogMigration implements CommandLineRunner, Ordered {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public NotificationLogMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public int getOrder() {
+        return -1; // Before the database cleaner
+    }
+
+    @Override
+    @Transactional
+    public void run(String... args) {
+        Boolean legacy = jdbcTemplate.queryForObject(
+                "SELECT to_regclass('notifications') IS NOT NULL", Boolean.class);
+        if (!Boolean.TRUE.equals(legacy)) {
+            return;
+        }
+
+        // ctid follows the order the rows were written in, which the random ids do not
+        int moved = jdbcTemplate.update("""
+                INSERT INTO notification_log (user_id, sequence, created_at, content)
+                SELECT n.user_id,
+                       COALESCE(c.last_sequence, 0) + ROW_NUMBER() OVER (PARTITION BY n.user_id ORDER BY n.ctid),
+                       ?, n.content
+                FROM notifications n
+                LEFT JOIN notification_cursors c ON c.user_id = n.user_id
+                WHERE n.user_id IS NOT NULL
+                """, System.currentTimeMillis());
+        jdbcTemplate.update("""
+                INSERT INTO notification_cursors (user_id, last_sequence, read_sequence, pruned_sequence)
+                SELECT user_id, COUNT(*), 0, 0
+                FROM notifications
+                WHERE user_id IS NOT NULL
+                GROUP BY user_id
+                ON CONFLICT (user_id) DO UPDATE
+                SET last_sequence = notification_cursors.last_sequence + EXCLUDED.last_sequence
+                """);
+        jdbcTemplate.execute("DROP TABLE notifications");
+
+        System.out.println("Moved " + moved + " notifications into the notification log");
+    }
+}
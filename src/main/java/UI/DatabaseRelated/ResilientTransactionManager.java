@@ -0,0 +1,72 @@
+package UI.DatabaseRelated;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import Application.utils.CircuitBreaker;
+import Domain.Repos.DatabaseUnavailableException;
+
+/**
+ * Starts transactions through the JPA transaction manager unless the database circuit breaker is open.
+ * <p>
+ * Starting a transaction takes a connection, so without this every service call would wait for the pool's
+ * connection timeout during an outage. While the breaker is open, read-only transactions are not started: the
+ * method runs without one, its repository calls fail at once, and it can answer from memory. Other transactions
+ * fail at once with {@link DatabaseUnavailableException}.
+ */
+public class ResilientTransactionManager implements PlatformTransactionManager {
+    private final PlatformTransactionManager delegate;
+    private final CircuitBreaker breaker;
+
+    // Stands for a read-only transaction that was not started
+    private static final class SkippedTransaction extends SimpleTransactionStatus {
+        SkippedTransaction() {
+            super(false);
+        }
+    }
+
+    public ResilientTransactionManager(PlatformTransactionManager delegate, CircuitBreaker breaker) {
+        this.delegate = delegate;
+        this.breaker = breaker;
+    }
+
+    @Override
+    public TransactionStatus getTransaction(TransactionDefinition definition) throws TransactionException {
+        boolean readOnly = definition != null && definition.isReadOnly();
+        if (!breaker.allowRequest()) {
+            if (readOnly) {
+                return new SkippedTransaction();
+            }
+            throw new DatabaseUnavailableException("Database is unavailable");
+        }
+        try {
+            return delegate.getTransaction(definition);
+        } catch (RuntimeException e) {
+            if (!DbCircuitBreakerAspect.isConnectionFailure(e)) {
+                throw e;
+            }
+            breaker.recordFailure();
+            if (readOnly) {
+                return new SkippedTransaction();
+            }
+            throw new DatabaseUnavailableException("Database is unavailable: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void commit(TransactionStatus status) throws TransactionException {
+        if (!(status instanceof SkippedTransaction)) {
+            delegate.commit(status);
+        }
+    }
+
+    @Override
+    public void rollback(TransactionStatus status) throws TransactionException {
+        if (!(status instanceof SkippedTransaction)) {
+            delegate.rollback(status);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package UI;
+
+import java.net.InetAddress;
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import Application.metrics.LatencyHistogram;
+import Application.metrics.MetricsRegistry;
+import Application.metrics.OperationMetrics;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Scrapeable metrics endpoint in the Prometheus text format.
+ * Only requests coming from the local machine are served.
+ */
+@RestController
+public class MetricsEndpoint {
+    private static final double[] QUANTILES = {0.5, 0.99, 0.999};
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final MetricsRegistry metricsRegistry;
+
+    public MetricsEndpoint(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    @GetMapping(value = "/internal/metrics", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<String> scrape(HttpServletRequest request) {
+        if (!isLocal(request)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Metrics are only available locally\n");
+        }
+        return ResponseEntity.ok(render());
+    }
+
+    private boolean isLocal(HttpServletRequest request) {
+        try {
+            return InetAddress.getByName(request.getRemoteAddr()).isLoopbackAddress();
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private String render() {
+        StringBuilder out = new StringBuilder();
+        out.append("# TYPE gamazon_operation_latency_seconds summary\n");
+        for (OperationMetrics operation : metricsRegistry.getOperations()) {
+            String name = escape(operation.getName());
+            LatencyHistogram latency = operation.getLatency();
+            for (double quantile : QUANTILES) {
+                out.append("gamazon_operation_latency_seconds{operation=\"").append(name)
+                   .append("\",quantile=\"").append(quantile).append("\"} ")
+                   .append(latency.getValueAtPercentile(quantile * 100) / NANOS_PER_SECOND).append('\n');
+            }
+            out.append("gamazon_operation_latency_seconds_count{operation=\"").append(name).append("\"} ")
+               .append(latency.getCount()).append('\n');
+            out.append("gamazon_operation_latency_seconds_sum{operation=\"").append(name).append("\"} ")
+               .append(latency.getSum() / NANOS_PER_SECOND).append('\n');
+        }
+        out.append("# TYPE gamazon_operation_errors_total counter\n");
+        for (OperationMetrics operation : metricsRegistry.getOperations()) {
+            for (Map.Entry<String, Long> kind : operation.getErrorKinds().entrySet()) {
+                out.append("gamazon_operation_errors_total{operation=\"").append(escape(operation.getName()))
+                   .append("\",kind=\"").append(escape(kind.getKey())).append("\"} ")
+                   .append(kind.getValue()).append('\n');
+            }
+        }
+        out.append("# TYPE gamazon_counter_total counter\n");
+        metricsRegistry.getCounters().forEach((name, value) ->
+            out.append("gamazon_counter_total{name=\"").append(escape(name)).append("\"} ").append(value).append('\n'));
+        out.append("# TYPE gamazon_gauge gauge\n");
+        metricsRegistry.getGauges().forEach((name, value) ->
+            out.append("gamazon_gauge{name=\"").append(escape(name)).append("\"} ").append(value).append('\n'));
+        return out.toString();
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
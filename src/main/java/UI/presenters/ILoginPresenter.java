@@ -2,6 +2,7 @@ package UI.presenters;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import Application.DTOs.UserDTO;
 import Application.utils.Response;
@@ -35,18 +36,18 @@ public interface ILoginPresenter {
      * @param password Chosen password for the new user.
      * @param email User's email address.
      * @param age User's age
-     * @return Response containing a {@link UserDTO} for the registered user, or an error.
+     * @return Response containing a {@link UserDTO} for the registered user, or an error, once the password is hashed.
      */
-    Response<UserDTO> registerUser(String sessionToken, String username, String password, String email, LocalDate birthDate);
+    CompletableFuture<Response<UserDTO>> registerUser(String sessionToken, String username, String password, String email, LocalDate birthDate);
 
     /**
      * Authenticates a user using provided credentials.
      *
      * @param username The username of the user attempting to log in.
      * @param password The password associated with the username.
-     * @return Response containing a {@link UserDTO} for the authenticated user, or an error.
+     * @return Response containing a {@link UserDTO} for the authenticated user, or an error, once the password is checked.
      */
-    Response<UserDTO> login(String username, String password);
+    CompletableFuture<Response<UserDTO>> login(String username, String password);
 
 
 
@@ -1,6 +1,8 @@
 package UI.presenters;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.function.Consumer;
 
 import Application.DTOs.ClientOrderDTO;
 import Application.DTOs.EmployeeInfo;
@@ -9,7 +11,10 @@ import Application.DTOs.OfferDTO;
 import Application.DTOs.PolicyDTO;
 import Application.DTOs.StoreDTO;
 import Application.DTOs.UserDTO;
+import Application.seed.CatalogImporter;
+import Application.seed.CatalogRows;
 import Application.utils.Response;
+import Domain.Store.ItemUpdate;
 import Domain.management.PermissionType; // Questionable but its enum so...
 
 /**
@@ -69,6 +74,30 @@ public interface IManagementPresenter {
      * @return Response with the ItemDTO if successful.
      */
     public Response<ItemDTO> addItem(String sessionToken, String storeId, String productId, double price, int amount, String description);
+
+    /**
+     * Changes the prices and stock of many items of a store at once; all of the changes are made or none.
+     *
+     * @param sessionToken Session identifier for authentication.
+     * @param storeId Store ID whose items change.
+     * @param updates The new price and stock change of each item.
+     * @return Response with the updated items, or error.
+     */
+    public Response<List<ItemDTO>> updateItems(String sessionToken, String storeId, List<ItemUpdate> updates);
+
+    /**
+     * Adds a CSV or JSON file of products and items to a store's inventory.
+     *
+     * @param sessionToken Session identifier for authentication.
+     * @param storeId Store ID to which the items will be added.
+     * @param input The file's contents, read as they are imported.
+     * @param format Whether the file is CSV or JSON.
+     * @param progress Told how far the import got after every batch; may be null.
+     * @return Response with the rows imported and the errors of those that were not, or error.
+     */
+    public Response<CatalogImporter.Result> importCatalog(String sessionToken, String storeId, InputStream input,
+                                                          CatalogRows.Format format,
+                                                          Consumer<CatalogImporter.Result> progress);
     
     /**
      * Removes an item from a store.
@@ -0,0 +1,13 @@
+package UI.presenters;
+
+import java.util.List;
+import java.util.Map;
+
+import Application.DTOs.OperationMetricsDTO;
+import Application.utils.Response;
+
+public interface IMetricsPresenter {
+    Response<List<OperationMetricsDTO>> getOperationMetrics(String sessionToken);
+    Response<Map<String, Number>> getCountersAndGauges(String sessionToken);
+    Response<Void> resetMetrics(String sessionToken);
+}
@@ -9,6 +9,7 @@ import Application.DTOs.ItemDTO;
 import Application.DTOs.StoreDTO;
 import Application.utils.Response;
 import Domain.Store.FeedbackDTO;
+import Domain.Store.FeedbackPageDTO;
 
 /**
  * Presenter interface for managing store-related operations in the UI layer,
@@ -84,6 +85,17 @@ public interface IStorePresenter {
      */
     Response<List<FeedbackDTO>> getAllFeedbacksByStoreId(String sessionToken, String storeId);
 
+    /**
+     * Retrieves one page of the feedback for a product, newest first.
+     *
+     * @param sessionToken Session identifier for authentication.
+     * @param productId ID of the product.
+     * @param before The next-before value of the previous page, or 0 for the newest page.
+     * @param limit Maximum number of feedbacks on the page.
+     * @return Response containing a {@link FeedbackPageDTO} or an error.
+     */
+    Response<FeedbackPageDTO> getProductFeedbackPage(String sessionToken, String productId, long before, int limit);
+
     /**
      * Adds a new auction for a product in a store.
      * @param sessionToken Session identifier for authentication.
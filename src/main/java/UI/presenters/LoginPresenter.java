@@ -2,6 +2,7 @@ package UI.presenters;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -20,13 +21,13 @@ public class LoginPresenter implements ILoginPresenter {
     }
 
     @Override
-    public Response<UserDTO> login(String username, String password) {
-        return userService.login(username, password);
+    public CompletableFuture<Response<UserDTO>> login(String username, String password) {
+        return userService.loginAsync(username, password);
     }
 
     @Override
-    public Response<UserDTO> registerUser(String sessionToken, String username, String password, String email, LocalDate birthDate) {
-        return userService.register(sessionToken, username, password, email, birthDate);
+    public CompletableFuture<Response<UserDTO>> registerUser(String sessionToken, String username, String password, String email, LocalDate birthDate) {
+        return userService.registerAsync(sessionToken, username, password, email, birthDate);
     }
 
     @Override
@@ -1,6 +1,8 @@
 package UI.presenters;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.springframework.stereotype.Component;
 
@@ -14,7 +16,10 @@ import Application.DTOs.ItemDTO;
 import Application.DTOs.OfferDTO;
 import Application.DTOs.PolicyDTO;
 import Application.DTOs.StoreDTO;
+import Application.seed.CatalogImporter;
+import Application.seed.CatalogRows;
 import Application.utils.Response;
+import Domain.Store.ItemUpdate;
 import Domain.management.PermissionType;
 import Domain.Pair;
 
@@ -62,6 +67,18 @@ public class ManagementPresenter implements IManagementPresenter {
         return itemService.add(sessionToken, storeId, productId, price, amount, description);
     }
 
+    @Override
+    public Response<List<ItemDTO>> updateItems(String sessionToken, String storeId, List<ItemUpdate> updates) {
+        return itemService.updateItems(sessionToken, storeId, updates);
+    }
+
+    @Override
+    public Response<CatalogImporter.Result> importCatalog(String sessionToken, String storeId, InputStream input,
+                                                          CatalogRows.Format format,
+                                                          Consumer<CatalogImporter.Result> progress) {
+        return itemService.importCatalog(sessionToken, storeId, input, format, progress);
+    }
+
     @Override
     public Response<ItemDTO> removeItem(String sessionToken, String storeId, String productId) {
         return itemService.remove(sessionToken,new Pair<>(storeId, productId));
@@ -0,0 +1,37 @@
+package UI.presenters;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import Application.MetricsService;
+import Application.DTOs.OperationMetricsDTO;
+import Application.utils.Response;
+
+@Component
+public class MetricsPresenter implements IMetricsPresenter {
+
+    private final MetricsService metricsService;
+
+    @Autowired
+    public MetricsPresenter(MetricsService metricsService) {
+        this.metricsService = metricsService;
+    }
+
+    @Override
+    public Response<List<OperationMetricsDTO>> getOperationMetrics(String sessionToken) {
+        return metricsService.getOperationMetrics(sessionToken);
+    }
+
+    @Override
+    public Response<Map<String, Number>> getCountersAndGauges(String sessionToken) {
+        return metricsService.getCountersAndGauges(sessionToken);
+    }
+
+    @Override
+    public Response<Void> resetMetrics(String sessionToken) {
+        return metricsService.resetMetrics(sessionToken);
+    }
+}
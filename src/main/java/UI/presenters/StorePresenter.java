@@ -5,6 +5,8 @@ import Application.StoreService;
 import Application.DTOs.StoreDTO;
 import Application.utils.Response;
 import Domain.Store.FeedbackDTO;
+import Domain.Store.FeedbackIndex;
+import Domain.Store.FeedbackPageDTO;
 
 import java.util.List;
 import Application.DTOs.AuctionDTO;
@@ -63,6 +65,11 @@ public class StorePresenter implements IStorePresenter {
         return customerServiceService.getAllFeedbacksByStoreId(sessionToken, storeId);
     }
 
+    @Override
+    public Response<FeedbackPageDTO> getProductFeedbackPage(String sessionToken, String productId, long before, int limit) {
+        return customerServiceService.getFeedbackPage(sessionToken, FeedbackIndex.PRODUCT, productId, before, limit);
+    }
+
     @Override
     public Response<AuctionDTO> addAuction(String sessionToken, String storeId, String productId, String auctionEndDate, double startPrice){
         return storeService.addAuction(sessionToken, storeId, productId, auctionEndDate, startPrice);
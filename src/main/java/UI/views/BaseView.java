@@ -28,6 +28,7 @@ public abstract class BaseView extends VerticalLayout {
     protected final IUserSessionPresenter sessionPresenter;
     protected final INotificationPresenter notificationPresenter;
     protected String sessionToken = null;
+    private boolean degradedNoticeShown = false;
 
     protected BaseView(@Autowired(required=false) DbHealthStatus dbHealthStatus, @Autowired(required=false) GlobalLogoutManager logoutManager, IUserSessionPresenter sessionPresenter, INotificationPresenter notificationPresenter) {
         this.notificationPresenter = notificationPresenter;
@@ -78,9 +79,14 @@ public abstract class BaseView extends VerticalLayout {
             UI ui = UI.getCurrent();  // Capture UI safely now
 
             ui.addPollListener(event -> {
-                if (!dbHealthStatus.isDbAvailable()) {
-                    logoutManager.markForceLogoutNeeded();
-
+                if (!dbHealthStatus.isDbAvailable() && !logoutManager.shouldForceLogout()) {
+                    // Short outages are served read-only from memory; users stay logged in
+                    if (!degradedNoticeShown) {
+                        degradedNoticeShown = true;
+                        Notification.show("⚠️ DB connection lost. You can keep browsing, but changes are unavailable for now.",
+                                5000, Notification.Position.TOP_CENTER);
+                    }
+                } else if (!dbHealthStatus.isDbAvailable()) {
                     Notification.show("⚠️ DB connection lost. You will be logged out.", 3000, Notification.Position.TOP_CENTER);
 
                     new Timer().schedule(new TimerTask() {
@@ -107,6 +113,9 @@ public abstract class BaseView extends VerticalLayout {
                             });
                         }
                     }, 500); // Delay before redirect
+                } else if (degradedNoticeShown) {
+                    degradedNoticeShown = false;
+                    Notification.show("✅ DB is back.", 3000, Notification.Position.TOP_CENTER);
                 }
             });
 
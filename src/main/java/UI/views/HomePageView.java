@@ -9,6 +9,7 @@ import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -37,6 +38,7 @@ import com.vaadin.flow.router.BeforeEnterEvent;
 import com.vaadin.flow.router.BeforeEnterObserver;
 import com.vaadin.flow.router.Route;
 
+import Application.CatalogChangeFeed;
 import Application.DTOs.AuctionDTO;
 import Application.DTOs.CategoryDTO;
 import Application.DTOs.ItemDTO;
@@ -52,6 +54,7 @@ import UI.presenters.INotificationPresenter;
 import UI.presenters.IProductPresenter;
 import UI.presenters.IPurchasePresenter;
 import UI.presenters.IUserSessionPresenter;
+import UI.views.components.LiveItems;
 
 
 
@@ -72,6 +75,7 @@ public class HomePageView extends BaseView implements BeforeEnterObserver {
 
     private final TextField searchBar = new TextField();
     private final Grid<ItemDTO> productGrid = new Grid<>(ItemDTO.class);
+    private final LiveItems liveProducts;
     
     // Filter components
     private final NumberField minPriceField = new NumberField("Min Price");
@@ -96,8 +100,11 @@ public class HomePageView extends BaseView implements BeforeEnterObserver {
 
     public HomePageView(IProductPresenter productPresenter, IUserSessionPresenter sessionPresenter, 
                         IPurchasePresenter purchasePresenter, ILoginPresenter loginPresenter, INotificationPresenter notificationPresenter,
-                        MarketService marketService, PermissionManager permissionManager, @Autowired(required = false) DbHealthStatus dbHealthStatus, @Autowired(required = false) GlobalLogoutManager logoutManager) {
+                        MarketService marketService, PermissionManager permissionManager, @Autowired(required = false) DbHealthStatus dbHealthStatus, @Autowired(required = false) GlobalLogoutManager logoutManager,
+                        @Autowired(required = false) CatalogChangeFeed catalogChangeFeed) {
         super(dbHealthStatus, logoutManager,sessionPresenter, notificationPresenter);
+        // Only items in stock are listed, so items selling out drop off the grid
+        this.liveProducts = new LiveItems(productGrid, catalogChangeFeed, Set.of());
         this.productPresenter = productPresenter;
         this.purchasePresenter = purchasePresenter;
         this.loginPresenter = loginPresenter;
@@ -598,7 +605,7 @@ public class HomePageView extends BaseView implements BeforeEnterObserver {
         if (sessionToken == null) return;
         Response<List<ItemDTO>> response = productPresenter.showAllItems(sessionToken);
         if (!response.errorOccurred()) {
-            productGrid.setItems(response.getValue());
+            liveProducts.setItems(response.getValue(), item -> item.getAmount() > 0);
             // Update category filter options
             Set<CategoryDTO> allCategories = new HashSet<>();
             response.getValue().forEach(item -> allCategories.addAll(item.getCategories()));
@@ -649,9 +656,11 @@ public class HomePageView extends BaseView implements BeforeEnterObserver {
             );
         }
 
-        Response<List<ItemDTO>> response = productPresenter.showProductDetails(sessionToken, filterBuilder.build());
+        ItemFilter filter = filterBuilder.build();
+        Response<List<ItemDTO>> response = productPresenter.showProductDetails(sessionToken, filter);
         if (!response.errorOccurred()) {
-            productGrid.setItems(response.getValue());
+            Predicate<ItemDTO> inStock = item -> item.getAmount() > 0;
+            liveProducts.setItems(response.getValue(), inStock.and(CatalogChangeFeed.matching(filter)));
             updateActiveFiltersLabel();
         } else {
             Notification.show("Failed to apply filters: " + response.getErrorMessage(), 
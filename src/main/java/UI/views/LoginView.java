@@ -85,25 +85,34 @@ public class LoginView extends VerticalLayout {
         String username = usernameField.getValue();
         String password = passwordField.getValue();
 
-        Response<UserDTO> response = loginPresenter.login(username, password);
+        // The password is checked on the hashing threads; the view is updated through push once it is done
+        UI ui = UI.getCurrent();
+        loginButton.setEnabled(false);
+        loginPresenter.login(username, password).thenAccept(response -> ui.access(() -> {
+            loginButton.setEnabled(true);
+            loggedIn(ui, response);
+        }));
+    }
+
+    private void loggedIn(UI ui, Response<UserDTO> response) {
         if (response.errorOccurred()) {
             Notification.show("Login failed: " + response.getErrorMessage(), 3000, Notification.Position.MIDDLE);
         } else {
             String sessionToken = response.getValue().getSessionToken();
-            UI.getCurrent().getSession().setAttribute("sessionToken", sessionToken);
-            UI.getCurrent().getSession().setAttribute("username", response.getValue().getUsername());
-            UI.getCurrent().getSession().setAttribute("user", response.getValue());
+            ui.getSession().setAttribute("sessionToken", sessionToken);
+            ui.getSession().setAttribute("username", response.getValue().getUsername());
+            ui.getSession().setAttribute("user", response.getValue());
 
             
             // Initialize WebSocket connection by setting the userId in both window and sessionStorage
-            UI.getCurrent().getPage().executeJs(
+            ui.getPage().executeJs(
                 "window.currentUserId = $0; sessionStorage.setItem('currentUserId', $0);",
                 response.getValue().getUsername()
             );
             
 
             Notification.show("Welcome, " + response.getValue().getUsername());
-            UI.getCurrent().navigate("home");
+            ui.navigate("home");
         }
     }
 
@@ -0,0 +1,119 @@
+package UI.views;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.button.Button;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.html.H2;
+import com.vaadin.flow.component.notification.Notification;
+import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
+import com.vaadin.flow.router.BeforeEnterEvent;
+import com.vaadin.flow.router.BeforeEnterObserver;
+import com.vaadin.flow.router.Route;
+
+import Application.DTOs.OperationMetricsDTO;
+import Application.utils.Response;
+import UI.DatabaseRelated.DbHealthStatus;
+import UI.DatabaseRelated.GlobalLogoutManager;
+import UI.presenters.IMetricsPresenter;
+import UI.presenters.INotificationPresenter;
+import UI.presenters.IUserSessionPresenter;
+
+@Route("metrics")
+public class MetricsView extends BaseView implements BeforeEnterObserver {
+    private final IMetricsPresenter metricsPresenter;
+    private final Grid<OperationMetricsDTO> operationsGrid = new Grid<>();
+    private final Grid<Map.Entry<String, Number>> valuesGrid = new Grid<>();
+
+    @Autowired
+    public MetricsView(IMetricsPresenter metricsPresenter,
+     @Autowired(required = false) DbHealthStatus dbHealthStatus, @Autowired(required = false) GlobalLogoutManager logoutManager, IUserSessionPresenter sessionPresenter, INotificationPresenter notificationPresenter) {
+        super(dbHealthStatus, logoutManager, sessionPresenter, notificationPresenter);
+        this.metricsPresenter = metricsPresenter;
+
+        H2 title = new H2("Service Metrics");
+
+        operationsGrid.addColumn(OperationMetricsDTO::getOperation).setHeader("Operation").setAutoWidth(true).setSortable(true);
+        operationsGrid.addColumn(OperationMetricsDTO::getCalls).setHeader("Calls").setSortable(true);
+        operationsGrid.addColumn(m -> String.format("%.2f%%", m.getErrorRate() * 100)).setHeader("Error rate")
+            .setComparator(OperationMetricsDTO::getErrorRate);
+        operationsGrid.addColumn(m -> formatMillis(m.getP50Millis())).setHeader("p50")
+            .setComparator(OperationMetricsDTO::getP50Millis);
+        operationsGrid.addColumn(m -> formatMillis(m.getP99Millis())).setHeader("p99")
+            .setComparator(OperationMetricsDTO::getP99Millis);
+        operationsGrid.addColumn(m -> formatMillis(m.getP999Millis())).setHeader("p99.9")
+            .setComparator(OperationMetricsDTO::getP999Millis);
+        operationsGrid.addColumn(m -> formatMillis(m.getMaxMillis())).setHeader("max")
+            .setComparator(OperationMetricsDTO::getMaxMillis);
+        operationsGrid.addColumn(m -> m.getErrorKinds().entrySet().stream()
+                .map(e -> e.getKey() + " (" + e.getValue() + ")")
+                .collect(Collectors.joining(", ")))
+            .setHeader("Errors").setAutoWidth(true);
+        operationsGrid.setWidthFull();
+
+        valuesGrid.addColumn(Map.Entry::getKey).setHeader("Counter / Gauge").setAutoWidth(true);
+        valuesGrid.addColumn(Map.Entry::getValue).setHeader("Value");
+        valuesGrid.setWidthFull();
+        valuesGrid.setHeight("250px");
+
+        Button refreshButton = new Button("Refresh", e -> loadMetrics());
+        Button resetButton = new Button("Reset", e -> resetMetrics());
+        resetButton.getStyle()
+            .set("background-color", "#e53935")
+            .set("color", "white");
+        Button backButton = new Button("Back to Trading Operations", e -> UI.getCurrent().navigate("trading"));
+
+        add(title, new HorizontalLayout(refreshButton, resetButton, backButton), operationsGrid, valuesGrid);
+        setSizeFull();
+        setPadding(true);
+    }
+
+    private static String formatMillis(double millis) {
+        return String.format("%.3f ms", millis);
+    }
+
+    private void loadMetrics() {
+        Response<List<OperationMetricsDTO>> operations = metricsPresenter.getOperationMetrics(sessionToken);
+        if (operations.errorOccurred()) {
+            Notification.show("Failed to load metrics: " + operations.getErrorMessage(), 3000, Notification.Position.MIDDLE);
+            return;
+        }
+        operationsGrid.setItems(operations.getValue());
+
+        Response<Map<String, Number>> values = metricsPresenter.getCountersAndGauges(sessionToken);
+        if (!values.errorOccurred()) {
+            valuesGrid.setItems(values.getValue().entrySet());
+        }
+    }
+
+    private void resetMetrics() {
+        Response<Void> response = metricsPresenter.resetMetrics(sessionToken);
+        if (response.errorOccurred()) {
+            Notification.show("Failed to reset metrics: " + response.getErrorMessage(), 3000, Notification.Position.MIDDLE);
+            return;
+        }
+        loadMetrics();
+    }
+
+    @Override
+    public void beforeEnter(BeforeEnterEvent event) {
+        sessionToken = (String) UI.getCurrent().getSession().getAttribute("sessionToken");
+        if (sessionToken == null) {
+            Notification.show("Please log in first", 3000, Notification.Position.MIDDLE);
+            event.forwardTo("");
+            return;
+        }
+        Response<List<OperationMetricsDTO>> access = metricsPresenter.getOperationMetrics(sessionToken);
+        if (access.errorOccurred()) {
+            Notification.show("Access denied: " + access.getErrorMessage(), 3000, Notification.Position.MIDDLE);
+            event.forwardTo("home");
+            return;
+        }
+        loadMetrics();
+    }
+}
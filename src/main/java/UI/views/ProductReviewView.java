@@ -22,7 +22,7 @@ import com.vaadin.flow.router.Route;
 
 import Application.DTOs.ItemDTO;
 import Application.utils.Response;
-import Domain.Store.FeedbackDTO;
+import Domain.Store.FeedbackPageDTO;
 import UI.DatabaseRelated.DbHealthStatus;
 import UI.DatabaseRelated.GlobalLogoutManager;
 import UI.presenters.INotificationPresenter;
@@ -33,6 +33,8 @@ import UI.presenters.IUserSessionPresenter;
 @Route("product-review/:productId")
 public class ProductReviewView extends BaseView implements BeforeEnterObserver {
 
+    private static final int REVIEW_PAGE_SIZE = 20;
+
     private final IProductPresenter productPresenter;
     private final IStorePresenter storePresenter;
     private String sessionToken = null;
@@ -138,33 +140,52 @@ public class ProductReviewView extends BaseView implements BeforeEnterObserver {
     private void loadReviews() {
         if (currentProduct == null) return;
 
-        Response<List<FeedbackDTO>> response = storePresenter.getAllFeedbacksByStoreId(
-            sessionToken, 
-            currentProduct.getStoreId()
+        reviewsLayout.removeAll();
+        loadReviewPage(0);
+    }
+
+    private void loadReviewPage(long before) {
+        Response<FeedbackPageDTO> response = storePresenter.getProductFeedbackPage(
+            sessionToken,
+            currentProduct.getProductId(),
+            before,
+            REVIEW_PAGE_SIZE
         );
 
-        if (!response.errorOccurred()) {
-            reviewsLayout.removeAll();
-            reviewsLayout.add(new H2("Previous Reviews"));
-            
-            if (response.getValue().isEmpty()) {
-                reviewsLayout.add(new Paragraph("No reviews yet"));
-            } else {
-                response.getValue().forEach(feedback -> {
-                    Div reviewDiv = new Div();
-                    reviewDiv.getStyle()
-                        .set("background-color", "#f7fafc")
-                        .set("padding", "16px")
-                        .set("border-radius", "4px")
-                        .set("margin-bottom", "8px");
-                    
-                    reviewDiv.add(new Paragraph(feedback.getComment()));
-                    reviewsLayout.add(reviewDiv);
-                });
-            }
-        } else {
+        if (response.errorOccurred()) {
             Notification.show("Failed to load reviews: " + response.getErrorMessage(),
                             3000, Notification.Position.MIDDLE);
+            return;
+        }
+
+        FeedbackPageDTO page = response.getValue();
+        if (before == 0) {
+            reviewsLayout.add(new H2("Previous Reviews (" + page.getTotalCount() + ")"));
+            if (page.getFeedbacks().isEmpty()) {
+                reviewsLayout.add(new Paragraph("No reviews yet"));
+                return;
+            }
+        }
+
+        page.getFeedbacks().forEach(feedback -> {
+            Div reviewDiv = new Div();
+            reviewDiv.getStyle()
+                .set("background-color", "#f7fafc")
+                .set("padding", "16px")
+                .set("border-radius", "4px")
+                .set("margin-bottom", "8px");
+
+            reviewDiv.add(new Paragraph(feedback.getComment()));
+            reviewsLayout.add(reviewDiv);
+        });
+
+        if (page.hasMore()) {
+            Button moreButton = new Button("Show more reviews");
+            moreButton.addClickListener(e -> {
+                reviewsLayout.remove(moreButton);
+                loadReviewPage(page.getNextBefore());
+            });
+            reviewsLayout.add(moreButton);
         }
     }
 
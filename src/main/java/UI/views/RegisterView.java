@@ -69,17 +69,14 @@ public class RegisterView extends BaseView {
                 return;
             }
 
-            String sessionToken = (String) UI.getCurrent().getSession().getAttribute("sessionToken");
-            Response<UserDTO> response = this.loginPresenter.registerUser(sessionToken, username, password, email, birthDate);
-            
-            if (!response.errorOccurred()) {
-                Notification.show("Registration successful!", 3000, Notification.Position.MIDDLE);
-                this.loginPresenter.logout(sessionToken);
-                UI.getCurrent().navigate("");
-            } else {
-                Notification.show("Registration failed: " + response.getErrorMessage(), 
-                                3000, Notification.Position.MIDDLE);
-            }
+            UI ui = UI.getCurrent();
+            String sessionToken = (String) ui.getSession().getAttribute("sessionToken");
+            e.getSource().setEnabled(false);
+            this.loginPresenter.registerUser(sessionToken, username, password, email, birthDate)
+                .thenAccept(response -> ui.access(() -> {
+                    e.getSource().setEnabled(true);
+                    registered(ui, sessionToken, response);
+                }));
         });
         registerButton.getStyle()
             .set("background-color", "#38a169")
@@ -94,4 +91,15 @@ public class RegisterView extends BaseView {
 
         add(title, usernameField, passwordField, emailField, birthDatePicker, registerButton, backButton);
     }
+
+    private void registered(UI ui, String sessionToken, Response<UserDTO> response) {
+        if (!response.errorOccurred()) {
+            Notification.show("Registration successful!", 3000, Notification.Position.MIDDLE);
+            this.loginPresenter.logout(sessionToken);
+            ui.navigate("");
+        } else {
+            Notification.show("Registration failed: " + response.getErrorMessage(), 
+                            3000, Notification.Position.MIDDLE);
+        }
+    }
 } 
\ No newline at end of file
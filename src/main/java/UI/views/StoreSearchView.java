@@ -24,6 +24,7 @@ import com.vaadin.flow.router.BeforeEnterObserver;
 import com.vaadin.flow.router.Location;
 import com.vaadin.flow.router.Route;
 
+import Application.CatalogChangeFeed;
 import Application.DTOs.ItemDTO;
 import Application.DTOs.OfferDTO;
 import Application.DTOs.ProductDTO;
@@ -55,15 +56,18 @@ public class StoreSearchView extends BaseView implements BeforeEnterObserver {
 
     private final TextField storeNameField = new TextField("Search Store by Name");
     private final StoreBrowser storeBrowser;
+    private final CatalogChangeFeed catalogChangeFeed;
     private final VerticalLayout mainContent;
 
 
     @Autowired
     public StoreSearchView(IStorePresenter storePresenter, IManagementPresenter managementPresenter, 
                           IPurchasePresenter purchasePresenter, IProductPresenter productPresenter, @Autowired(required = false) DbHealthStatus dbHealthStatus, 
-                          @Autowired(required = false) GlobalLogoutManager logoutManager, IUserSessionPresenter sessionPresenter, INotificationPresenter notificationPresenter) {
+                          @Autowired(required = false) GlobalLogoutManager logoutManager, IUserSessionPresenter sessionPresenter, INotificationPresenter notificationPresenter,
+                          @Autowired(required = false) CatalogChangeFeed catalogChangeFeed) {
         super(dbHealthStatus, logoutManager, sessionPresenter, notificationPresenter);
         this.storePresenter = storePresenter;
+        this.catalogChangeFeed = catalogChangeFeed;
         this.managementPresenter = managementPresenter;
         this.purchasePresenter = purchasePresenter;
         this.productPresenter = productPresenter;
@@ -236,6 +240,9 @@ public class StoreSearchView extends BaseView implements BeforeEnterObserver {
             },
             isGuest
         );
+        if (catalogChangeFeed != null) {
+            itemLayout.followChanges(catalogChangeFeed);
+        }
 
         StoreLayout storelayout = new StoreLayout(store,
         itemLayout,
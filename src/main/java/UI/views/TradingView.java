@@ -111,6 +111,12 @@ public class TradingView extends BaseView implements BeforeEnterObserver {
             .set("background-color", "#2196f3")
             .set("color", "white");
 
+        Button metricsButton = new Button("Service Metrics", e -> UI.getCurrent().navigate("metrics"));
+        metricsButton.addClassName("view-only");
+        metricsButton.getStyle()
+            .set("background-color", "#2196f3")
+            .set("color", "white");
+
         Button homeButton = new Button("Return to Homepage", e -> UI.getCurrent().navigate("home"));
         homeButton.addClassName("view-only");
         homeButton.getStyle()
@@ -131,7 +137,7 @@ public class TradingView extends BaseView implements BeforeEnterObserver {
         bannedUsersSection.setAlignItems(Alignment.BASELINE);
 
         // Create a user menu container
-        Div userMenu = new Div(title, storeSection, banTitle, banSection, unbanSection, bannedUsersSection, homeButton);
+        Div userMenu = new Div(title, storeSection, banTitle, banSection, unbanSection, bannedUsersSection, metricsButton, homeButton);
         userMenu.addClassName("user-menu");
 
         add(userMenu);
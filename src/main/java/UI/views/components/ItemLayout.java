@@ -1,6 +1,7 @@
 package UI.views.components;
 
 import java.util.List;
+import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -10,6 +11,7 @@ import com.vaadin.flow.component.icon.VaadinIcon;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import com.vaadin.flow.data.renderer.ClickableRenderer.ItemClickListener;
 
+import Application.CatalogChangeFeed;
 import Application.DTOs.ItemDTO;
 import Application.DTOs.StoreDTO;
 
@@ -17,6 +19,8 @@ import Application.DTOs.StoreDTO;
 public class ItemLayout extends VerticalLayout {
     private final Grid<ItemDTO> grid;
     private final Button refreshButton;
+    private final StoreDTO store;
+    private LiveItems liveItems;
 
     public ItemLayout(StoreDTO store,
                         Function<StoreDTO, List<ItemDTO>> itemRefresher,
@@ -25,6 +29,7 @@ public class ItemLayout extends VerticalLayout {
                         Consumer<ItemDTO> offerMaker,
                         boolean isGuest) {
 
+        this.store = store;
         grid = new Grid<>(ItemDTO.class);
         grid.setColumns("productName", "description", "price", "amount");
         grid.getStyle().set("background-color", "#f3e5f5");
@@ -72,8 +77,20 @@ public class ItemLayout extends VerticalLayout {
     }
 
 
+    /**
+     * Keeps the grid up to date with the store's items while it is shown. Call before adding the layout.
+     */
+    public void followChanges(CatalogChangeFeed feed) {
+        liveItems = new LiveItems(grid, feed, Set.of(store.getId()));
+    }
+
     public void setItems(List<ItemDTO> items) {
-        if (items != null) {
+        if (items == null) {
+            return;
+        }
+        if (liveItems != null) {
+            liveItems.setItems(items, item -> true);
+        } else {
             grid.setItems(items);
         }
     }
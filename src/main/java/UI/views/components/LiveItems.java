@@ -0,0 +1,84 @@
+package UI.views.components;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.data.provider.ListDataProvider;
+
+import Application.CatalogChangeFeed;
+import Application.CatalogChangeFeed.CatalogDelta;
+import Application.DTOs.ItemDTO;
+
+/**
+ * Keeps the rows of an item grid up to date while it is shown.
+ * The grid is subscribed to the {@link CatalogChangeFeed} while attached, and changed items are pushed into
+ * it row by row, so a view does not have to reload the catalog to show new stock or prices.
+ */
+public class LiveItems {
+    private final Map<String, ItemDTO> rows = new LinkedHashMap<>();
+    private final ListDataProvider<ItemDTO> provider = new ListDataProvider<>(rows.values());
+    private final Set<String> storeIds;
+    private Predicate<ItemDTO> filter = item -> true;
+    private CatalogChangeFeed.Subscription subscription;
+
+    /**
+     * @param feed the feed to follow, or null to only show the items that are set
+     * @param storeIds the stores the grid shows items of, or an empty set for all stores
+     */
+    public LiveItems(Grid<ItemDTO> grid, CatalogChangeFeed feed, Set<String> storeIds) {
+        this.storeIds = storeIds;
+        grid.setDataProvider(provider);
+        if (feed == null) {
+            return;
+        }
+        grid.addAttachListener(event -> {
+            UI ui = event.getUI();
+            subscription = feed.subscribe(storeIds, filter, deltas -> ui.access(() -> apply(deltas)));
+        });
+        grid.addDetachListener(event -> {
+            if (subscription != null) {
+                subscription.close();
+                subscription = null;
+            }
+        });
+    }
+
+    /**
+     * Shows the given items, and from now on only changes to items matching the filter.
+     */
+    public void setItems(List<ItemDTO> items, Predicate<ItemDTO> filter) {
+        this.filter = filter;
+        if (subscription != null) {
+            subscription.setFilter(filter);
+        }
+        rows.clear();
+        for (ItemDTO item : items) {
+            if (storeIds.isEmpty() || storeIds.contains(item.getStoreId())) {
+                rows.put(key(item.getStoreId(), item.getProductId()), item);
+            }
+        }
+        provider.refreshAll();
+    }
+
+    private void apply(List<CatalogDelta> deltas) {
+        for (CatalogDelta delta : deltas) {
+            String key = key(delta.getStoreId(), delta.getProductId());
+            if (delta.getType() == CatalogDelta.Type.REMOVE) {
+                rows.remove(key);
+            } else {
+                // Replacing keeps the row where it was; new items go to the end
+                rows.put(key, delta.getItem());
+            }
+        }
+        provider.refreshAll();
+    }
+
+    private static String key(String storeId, String productId) {
+        return storeId + ":" + productId;
+    }
+}
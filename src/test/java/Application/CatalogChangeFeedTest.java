@@ -0,0 +1,113 @@
+package Application;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import Application.CatalogChangeFeed.CatalogDelta;
+import Domain.Events.DomainEventBus;
+import Domain.Store.Item;
+import Domain.Store.ItemFacade;
+import Domain.Store.ItemFilter;
+import Domain.Store.Store;
+import Domain.Store.StoreFacade;
+
+/**
+ * Unit tests for Application.CatalogChangeFeed.
+ */
+public class CatalogChangeFeedTest {
+
+    private StoreFacade storeFacade;
+    private CatalogChangeFeed feed;
+    private String storeA;
+    private String storeB;
+    private Item apple;
+    private Item pear;
+    private List<List<CatalogDelta>> received;
+
+    @Before
+    public void setUp() {
+        ItemFacade itemFacade = mock(ItemFacade.class);
+        storeFacade = mock(StoreFacade.class);
+        storeA = UUID.randomUUID().toString();
+        storeB = UUID.randomUUID().toString();
+        apple = new Item(storeA, "apple", 2.0, 5, "red", "Apple", Set.of());
+        pear = new Item(storeB, "pear", 3.0, 1, "green", "Pear", Set.of());
+        Store a = new Store(storeA, "A", "first", "founder");
+        Store b = new Store(storeB, "B", "second", "founder");
+        when(storeFacade.getAllStores()).thenReturn(List.of(a, b));
+        when(storeFacade.getStore(storeA)).thenReturn(a);
+        when(storeFacade.getStore(storeB)).thenReturn(b);
+        when(itemFacade.getItemsByStoreId(storeA)).thenReturn(List.of(apple));
+        when(itemFacade.getItemsByStoreId(storeB)).thenReturn(List.of(pear));
+        feed = new CatalogChangeFeed(new CatalogSnapshots(itemFacade, storeFacade), new DomainEventBus());
+        received = new ArrayList<>();
+    }
+
+    @Test
+    public void givenChangedItem_thenSubscriberGetsItsNewVersion() {
+        feed.subscribe(Set.of(), null, received::add);
+        feed.publish();
+        assertTrue(received.isEmpty());
+
+        apple.setAmount(3);
+        feed.publish();
+
+        assertEquals(1, received.size());
+        CatalogDelta delta = received.get(0).get(0);
+        assertEquals(CatalogDelta.Type.UPSERT, delta.getType());
+        assertEquals(storeA, delta.getStoreId());
+        assertEquals(3, delta.getItem().getAmount());
+
+        feed.publish();
+        assertEquals(1, received.size());
+    }
+
+    @Test
+    public void givenItemLeavingFilter_thenSubscriberGetsRemove() {
+        ItemFilter filter = new ItemFilter.Builder().amount(4).build();
+        feed.subscribe(Set.of(), CatalogChangeFeed.matching(filter), received::add);
+        feed.publish();
+
+        apple.setAmount(2);
+        pear.setAmount(2);
+        feed.publish();
+
+        assertEquals(1, received.size());
+        assertEquals(1, received.get(0).size());
+        assertEquals(CatalogDelta.Type.REMOVE, received.get(0).get(0).getType());
+        assertEquals("apple", received.get(0).get(0).getProductId());
+    }
+
+    @Test
+    public void givenChangeInUnwatchedStore_thenNothingIsDelivered() {
+        feed.subscribe(Set.of(storeB), null, received::add);
+        feed.publish();
+
+        apple.setAmount(1);
+        feed.publish();
+
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    public void givenClosedSubscription_thenNothingIsDelivered() {
+        CatalogChangeFeed.Subscription subscription = feed.subscribe(Set.of(storeA), null, received::add);
+        feed.publish();
+        subscription.close();
+
+        apple.setAmount(1);
+        feed.publish();
+
+        assertTrue(received.isEmpty());
+        assertEquals(0, feed.getSubscriptionCount());
+    }
+}
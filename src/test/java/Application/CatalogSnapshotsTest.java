@@ -0,0 +1,131 @@
+package Application;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import Application.DTOs.ItemDTO;
+import Application.DTOs.StoreDTO;
+import Domain.Repos.DatabaseUnavailableException;
+import Domain.Store.Item;
+import Domain.Store.ItemFacade;
+import Domain.Store.Store;
+import Domain.Store.StoreFacade;
+
+/**
+ * Unit tests for Application.CatalogSnapshots.
+ */
+public class CatalogSnapshotsTest {
+
+    private long now;
+    private ItemFacade itemFacade;
+    private StoreFacade storeFacade;
+    private CatalogSnapshots snapshots;
+    private String storeA;
+    private String storeB;
+    private Item apple;
+    private Item pear;
+
+    @Before
+    public void setUp() {
+        now = 1_000_000;
+        itemFacade = mock(ItemFacade.class);
+        storeFacade = mock(StoreFacade.class);
+        storeA = UUID.randomUUID().toString();
+        storeB = UUID.randomUUID().toString();
+        apple = new Item(storeA, "apple", 2.0, 5, "red", "Apple", Set.of());
+        pear = new Item(storeB, "pear", 3.0, 1, "green", "Pear", Set.of());
+        Store a = new Store(storeA, "A", "first", "founder");
+        Store b = new Store(storeB, "B", "second", "founder");
+        when(storeFacade.getAllStores()).thenReturn(List.of(a, b));
+        when(storeFacade.getStore(storeA)).thenReturn(a);
+        when(storeFacade.getStore(storeB)).thenReturn(b);
+        when(itemFacade.getItemsByStoreId(storeA)).thenReturn(List.of(apple));
+        when(itemFacade.getItemsByStoreId(storeB)).thenReturn(List.of(pear));
+        snapshots = new CatalogSnapshots(itemFacade, storeFacade);
+        snapshots.setClock(() -> now);
+    }
+
+    private List<String> productIds(List<ItemDTO> items) {
+        List<String> ids = new ArrayList<>();
+        items.forEach(item -> ids.add(item.getProductId()));
+        return ids;
+    }
+
+    @Test
+    public void repeatedReads_shareOneSnapshot() {
+        List<ItemDTO> first = snapshots.getAvailableItems();
+        List<StoreDTO> stores = snapshots.getStores();
+
+        assertSame(first, snapshots.getAvailableItems());
+        assertSame(stores, snapshots.getStores());
+        assertSame(snapshots.getStoreItems(storeA), snapshots.getStoreItems(storeA));
+        assertEquals(2, snapshots.getRebuilds());
+        assertEquals(2, stores.size());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void snapshots_areReadOnly() {
+        snapshots.getAvailableItems().clear();
+    }
+
+    @Test
+    public void itemChange_rebuildsOnlyItsStore() {
+        snapshots.getAvailableItems();
+        CatalogSnapshots.StoreCatalog untouched = snapshots.getStoreCatalog(storeB);
+
+        apple.decreaseAmount(2);
+
+        List<ItemDTO> items = snapshots.getAvailableItems();
+        assertEquals(3, items.stream().filter(item -> item.getProductId().equals("apple")).findFirst().get().getAmount());
+        assertSame(untouched, snapshots.getStoreCatalog(storeB));
+        assertEquals(3, snapshots.getRebuilds());
+    }
+
+    @Test
+    public void soldOutItem_leavesTheListingButNotItsStore() {
+        assertEquals(List.of("apple", "pear"), productIds(snapshots.getAvailableItems()));
+
+        pear.decreaseAmount(1);
+
+        assertEquals(List.of("apple"), productIds(snapshots.getAvailableItems()));
+        assertEquals(List.of("pear"), productIds(snapshots.getStoreItems(storeB)));
+    }
+
+    @Test
+    public void oldSnapshots_areRebuilt() {
+        List<ItemDTO> items = snapshots.getStoreItems(storeA);
+        now += CatalogSnapshots.DEFAULT_MAX_AGE_MILLIS - 1;
+        assertSame(items, snapshots.getStoreItems(storeA));
+
+        now += 1;
+        assertNotSame(items, snapshots.getStoreItems(storeA));
+    }
+
+    @Test
+    public void databaseDown_servesTheLastSnapshots() {
+        List<ItemDTO> items = snapshots.getStoreItems(storeA);
+        assertEquals(2, snapshots.getAvailableItems().size());
+        when(itemFacade.getItemsByStoreId(storeA)).thenThrow(new DatabaseUnavailableException("down"));
+        when(storeFacade.getAllStores()).thenThrow(new DatabaseUnavailableException("down"));
+        now += CatalogSnapshots.DEFAULT_MAX_AGE_MILLIS;
+
+        assertSame(items, snapshots.getStoreItems(storeA));
+        assertEquals(List.of("apple", "pear"), productIds(snapshots.getAvailableItems()));
+        assertTrue(snapshots.getStaleReads() > 0);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void unknownStore_throws() {
+        snapshots.getStoreItems("missing");
+    }
+}
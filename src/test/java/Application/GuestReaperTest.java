@@ -0,0 +1,164 @@
+package Application;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import Application.metrics.MetricsRegistry;
+import Domain.Shopping.CartFootprint;
+import Domain.Shopping.IShoppingCartFacade;
+import Domain.User.CredentialHasher;
+import Domain.User.Guest;
+import Domain.User.GuestSessions;
+import Domain.User.LoginManager;
+import Domain.User.Member;
+import Infrastructure.MemoryRepositories.MemoryUserRepository;
+
+/**
+ * Unit tests for Application.GuestReaper over the memory repositories.
+ */
+public class GuestReaperTest {
+
+    private static final long TIMEOUT = 60_000;
+
+    private long now;
+    private MemoryUserRepository users;
+    private CartFootprint carts;
+    private LoginManager loginManager;
+    private IShoppingCartFacade cartFacade;
+    private MetricsRegistry metrics;
+    private GuestReaper reaper;
+
+    @Before
+    public void setUp() {
+        now = 1_000_000;
+        users = new MemoryUserRepository();
+        loginManager = newLoginManager();
+        carts = new CartFootprint(loginManager::isGuestSession);
+        cartFacade = mock(IShoppingCartFacade.class);
+        when(cartFacade.getCartFootprint()).thenReturn(carts);
+        metrics = new MetricsRegistry();
+        reaper = new GuestReaper(loginManager, cartFacade, metrics);
+    }
+
+    private LoginManager newLoginManager() {
+        return new LoginManager(users, new CredentialHasher(1, CredentialHasher.MIN_STRENGTH, 4, 0),
+                new GuestSessions(TIMEOUT, 60, () -> now));
+    }
+
+    private void fillCart(String clientId, String storeId, int lines) {
+        carts.cartStored(clientId);
+        carts.basketStored(clientId, storeId, lines);
+    }
+
+    @Test
+    public void sweep_evictsOnlyIdleGuests() {
+        Guest idle = loginManager.createGuest();
+        Guest active = loginManager.createGuest();
+        Member member = new Member(UUID.randomUUID(), "alice", "ENCODED", "a@example.com");
+        users.add(member.getId(), member);
+
+        now += TIMEOUT / 2;
+        loginManager.touch(active.getId());
+        now += TIMEOUT / 2 + 1_000;
+
+        assertEquals(1, reaper.sweep());
+        assertNull(users.get(idle.getId()));
+        assertNotNull(users.get(active.getId()));
+        assertNotNull(users.get(member.getId()));
+        verify(cartFacade).removeCart(idle.getId());
+        verify(cartFacade, never()).removeCart(active.getId());
+        assertEquals(Long.valueOf(1), metrics.getCounters().get("sessions.guest.evicted"));
+    }
+
+    @Test
+    public void sweep_worksThroughBatches() {
+        for (int i = 0; i < 1_200; i++) {
+            loginManager.createGuest();
+        }
+        now += TIMEOUT + 1_000;
+
+        assertEquals(1_200, reaper.sweep());
+        assertEquals(0, loginManager.getGuestCount());
+        assertTrue(users.getAllUsers().isEmpty());
+    }
+
+    @Test
+    public void registeredGuest_isNotEvicted() {
+        Guest guest = loginManager.createGuest();
+        loginManager.register(guest.getId(), "bob", "StrongP@ss1", "bob@example.com").join();
+        now += 2 * TIMEOUT;
+
+        assertEquals(0, reaper.sweep());
+        assertNotNull(users.getMemberByUsername("bob"));
+    }
+
+    @Test
+    public void footprint_countsSessionsPerClass() {
+        Guest first = loginManager.createGuest();
+        loginManager.createGuest();
+        fillCart(first.getId(), "s1", 3);
+        Member member = new Member(UUID.randomUUID(), "alice", "ENCODED", "a@example.com");
+        users.add(member.getId(), member);
+        fillCart(member.getId(), "s1", 1);
+
+        GuestReaper.Footprint footprint = reaper.countFootprint();
+        assertEquals(2, footprint.getGuests().getSessions());
+        assertEquals(1, footprint.getGuests().getCarts());
+        assertEquals(1, footprint.getGuests().getBaskets());
+        assertEquals(3, footprint.getGuests().getOrderLines());
+        assertEquals(1, footprint.getMembers().getSessions());
+        assertEquals(1, footprint.getMembers().getOrderLines());
+        assertEquals(2 * GuestReaper.SESSION_BYTES + GuestReaper.CART_BYTES + GuestReaper.BASKET_BYTES
+                + 3 * GuestReaper.ORDER_LINE_BYTES, footprint.getGuests().getEstimatedBytes());
+
+        Map<String, Number> gauges = metrics.getGauges();
+        assertEquals(2, gauges.get("sessions.guest.live").intValue());
+        assertEquals(1L, gauges.get("sessions.member.live").longValue());
+    }
+
+    @Test
+    public void footprint_followsBasketChangesAndRegistration() {
+        Guest guest = loginManager.createGuest();
+        fillCart(guest.getId(), "s1", 3);
+        carts.basketStored(guest.getId(), "s1", 1);
+        carts.basketStored(guest.getId(), "s2", 2);
+        assertEquals(2, carts.getGuests().getBaskets());
+        assertEquals(3, carts.getGuests().getOrderLines());
+
+        loginManager.register(guest.getId(), "bob", "StrongP@ss1", "bob@example.com").join();
+        carts.ownerChanged(guest.getId());
+        assertEquals(0, carts.getGuests().getCarts());
+        assertEquals(3, carts.getMembers().getOrderLines());
+
+        carts.basketRemoved(guest.getId(), "s2");
+        carts.cartRemoved(guest.getId());
+        carts.basketRemoved(guest.getId(), "s1");
+        assertEquals(0, carts.getMembers().getCarts());
+        assertEquals(0, carts.getMembers().getBaskets());
+        assertEquals(0, carts.getMembers().getOrderLines());
+    }
+
+    @Test
+    public void storedGuests_areTrackedAtStartupAndEvicted() {
+        Guest left = Guest.createGuest();
+        users.add(left.getId(), left);
+        loginManager = newLoginManager();
+        loginManager.trackStoredGuests();
+        reaper = new GuestReaper(loginManager, cartFacade, new MetricsRegistry());
+        assertEquals(1, loginManager.getGuestCount());
+
+        now += TIMEOUT + 1_000;
+        assertEquals(1, reaper.sweep());
+        assertNull(users.get(left.getId()));
+        verify(cartFacade).removeCart(left.getId());
+    }
+}
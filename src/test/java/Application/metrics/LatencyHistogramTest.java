@@ -0,0 +1,84 @@
+package Application.metrics;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for LatencyHistogram and the error kind normalization of OperationMetrics.
+ */
+public class LatencyHistogramTest {
+
+    private LatencyHistogram histogram;
+
+    @Before
+    public void setUp() {
+        histogram = new LatencyHistogram();
+    }
+
+    @Test
+    public void testEmptyHistogram() {
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+        assertEquals(0.0, histogram.getMean(), 0.0);
+    }
+
+    @Test
+    public void testBucketBoundsCoverValue() {
+        long[] values = {0, 1, 31, 32, 33, 1000, 123_456, 987_654_321L};
+        for (long value : values) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertTrue(LatencyHistogram.lowestEquivalentValue(index) <= value);
+            assertTrue(LatencyHistogram.highestEquivalentValue(index) >= value);
+        }
+    }
+
+    @Test
+    public void testPercentilesWithinRelativeError() {
+        for (long i = 1; i <= 10_000; i++) {
+            histogram.record(i * 1000);
+        }
+
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(5_000_000, histogram.getValueAtPercentile(50), 5_000_000 * 0.035);
+        assertEquals(9_900_000, histogram.getValueAtPercentile(99), 9_900_000 * 0.035);
+        assertEquals(9_990_000, histogram.getValueAtPercentile(99.9), 9_990_000 * 0.035);
+        assertEquals(10_000_000, histogram.getMax());
+    }
+
+    @Test
+    public void testPercentileNeverExceedsMax() {
+        histogram.record(1_000_001);
+        assertEquals(1_000_001, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testReset() {
+        histogram.record(42);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+    }
+
+    @Test
+    public void testErrorKindMasksIdsAndDetails() {
+        String first = OperationMetrics.errorKindOf("Item not found: 3f2a1b4c-1111-2222-3333-444455556666");
+        String second = OperationMetrics.errorKindOf("Item not found: 9b1c2d3e-aaaa-bbbb-cccc-ddddeeeeffff");
+        assertEquals("Item not found", first);
+        assertEquals(first, second);
+        assertEquals("Quantity <n> exceeds stock", OperationMetrics.errorKindOf("Quantity 12 exceeds stock"));
+        assertEquals("unknown", OperationMetrics.errorKindOf(null));
+    }
+
+    @Test
+    public void testErrorKindsAreBounded() {
+        OperationMetrics metrics = new OperationMetrics("op");
+        for (int i = 0; i < OperationMetrics.MAX_ERROR_KINDS + 10; i++) {
+            metrics.record(1, "kind" + (char) ('A' + i));
+        }
+        assertEquals(OperationMetrics.MAX_ERROR_KINDS + 10, metrics.getErrors());
+        assertTrue(metrics.getErrorKinds().size() <= OperationMetrics.MAX_ERROR_KINDS + 1);
+        assertTrue(metrics.getErrorKinds().containsKey(OperationMetrics.OTHER_ERROR_KIND));
+    }
+}
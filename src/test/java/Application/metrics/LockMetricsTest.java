@@ -0,0 +1,37 @@
+package Application.metrics;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import Domain.Pair;
+import Domain.Store.Item;
+import Domain.Store.StoreLocks;
+import Infrastructure.MemoryRepositories.MemoryItemRepository;
+import Infrastructure.MemoryRepositories.MemoryUserRepository;
+
+public class LockMetricsTest {
+
+    @Test
+    public void stripeCounters_arePublishedPerEntity() {
+        MetricsRegistry registry = new MetricsRegistry();
+        MemoryItemRepository items = new MemoryItemRepository();
+        StoreLocks storeLocks = new StoreLocks();
+        new LockMetrics(registry, List.of(items, new MemoryUserRepository()), storeLocks);
+
+        items.add(new Pair<>("s1", "p1"), new Item("s1", "p1", 10, 1, "item", "Game", Set.of()));
+        items.remove(new Pair<>("s1", "p1"));
+        storeLocks.execute("s1", () -> null);
+
+        Map<String, Number> gauges = registry.getGauges();
+        assertEquals(2L, gauges.get("locks.item.writes"));
+        assertEquals(0L, gauges.get("locks.item.contended-writes"));
+        assertEquals(0L, gauges.get("locks.user.writes"));
+        assertEquals(1L, gauges.get("locks.store-mutations.writes"));
+        assertTrue(gauges.containsKey("locks.store-mutations.optimistic-failures"));
+    }
+}
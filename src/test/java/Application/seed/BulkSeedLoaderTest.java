@@ -0,0 +1,181 @@
+package Application.seed;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import Domain.Pair;
+import Domain.Store.Item;
+import Domain.Store.Product;
+import Domain.Store.Store;
+import Domain.User.CredentialHasher;
+import Domain.User.Member;
+import Domain.User.MemberPasswords;
+import Domain.management.Permission;
+import Domain.management.RoleType;
+import Infrastructure.MemoryRepositories.MemoryItemRepository;
+import Infrastructure.MemoryRepositories.MemoryPermissionRepository;
+import Infrastructure.MemoryRepositories.MemoryProductRepository;
+import Infrastructure.MemoryRepositories.MemoryStoreRepository;
+import Infrastructure.MemoryRepositories.MemoryUserRepository;
+
+/**
+ * Unit tests for Application.seed.BulkSeedLoader with the memory repositories.
+ */
+public class BulkSeedLoaderTest {
+
+    private static final String SEED = """
+            {
+              "users": [
+                {"username": "alice", "password": "Secret123!", "email": "alice@example.com", "birthDate": "1990-05-01"},
+                {"username": "bob", "passwordHash": "ENCODED", "email": "bob@example.com"}
+              ],
+              "products": [{"name": "Chess", "categories": ["Strategy"], "keywords": ["board game"]}],
+              "stores": [{"name": "Board Games", "description": "tabletop", "founder": "alice"}],
+              "items": [{"store": "Board Games", "product": "Chess", "price": 49.5, "quantity": 7, "description": "wooden set"}]
+            }
+            """;
+
+    private MemoryUserRepository users;
+    private MemoryStoreRepository stores;
+    private MemoryProductRepository products;
+    private MemoryItemRepository items;
+    private MemoryPermissionRepository permissions;
+    private CredentialHasher hasher;
+    private BulkSeedLoader loader;
+
+    @Before
+    public void setUp() {
+        users = new MemoryUserRepository();
+        stores = new MemoryStoreRepository();
+        products = new MemoryProductRepository();
+        items = new MemoryItemRepository();
+        permissions = new MemoryPermissionRepository();
+        hasher = new CredentialHasher(1, CredentialHasher.MIN_STRENGTH + 1, 4, 0);
+        loader = new BulkSeedLoader(users, stores, products, items, permissions, hasher);
+    }
+
+    @After
+    public void tearDown() {
+        hasher.shutdown();
+    }
+
+    private BulkSeedLoader.Result load(String json) throws IOException {
+        return loader.load(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void load_writesAllRecords() throws IOException {
+        BulkSeedLoader.Result result = load(SEED);
+        assertEquals(2, result.getUsers());
+        assertEquals(1, result.getItems());
+
+        Member alice = users.getMemberByUsername("alice");
+        String encoded = MemberPasswords.encodedPasswordOf(alice);
+        assertTrue(new BCryptPasswordEncoder().matches("Secret123!", encoded));
+        // Hashed with the application's cost, so the first login does not hash it again
+        assertTrue(encoded, encoded.startsWith("$2a$11$"));
+        assertFalse(hasher.needsRehash(encoded));
+        assertEquals("1990-05-01", alice.getBirthDate().toString());
+        assertFalse(alice.isLoggedIn());
+        assertEquals("ENCODED", MemberPasswords.encodedPasswordOf(users.getMemberByUsername("bob")));
+
+        Store store = stores.getStoreByName("Board Games");
+        assertEquals(alice.getId(), store.getFounderId());
+        Permission founder = permissions.get(store.getId(), alice.getId());
+        assertEquals(RoleType.STORE_FOUNDER, founder.getRoleType());
+
+        Product chess = products.getByName("Chess");
+        assertEquals("board game", chess.getCategories().iterator().next().getDescription());
+        Item item = items.get(new Pair<>(store.getId(), chess.getProductId()));
+        assertEquals(49.5, item.getPrice(), 0.0);
+        assertEquals(7, item.getAmount());
+        assertEquals("Chess", item.getProductName());
+    }
+
+    @Test
+    public void invalidRecord_writesNothing() throws IOException {
+        String seed = SEED.replace("\"quantity\": 7", "\"quantity\": -1").replace("alice@example.com", "alice");
+        try {
+            load(seed);
+            fail("Expected the seed file to be rejected");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("users[0] (line 3): invalid email"));
+            assertTrue(e.getMessage(), e.getMessage().contains("items[0]"));
+        }
+        assertTrue(users.getAllUsers().isEmpty());
+        assertTrue(products.getAll().isEmpty());
+    }
+
+    @Test
+    public void references_resolveAgainstRepositories() throws IOException {
+        Member carol = new Member(UUID.randomUUID(), "carol", "ENCODED", "carol@example.com");
+        users.add(carol.getId(), carol);
+        Product go = new Product(UUID.randomUUID().toString(), "Go");
+        products.add(go.getProductId(), go);
+
+        load("""
+                {"stores": [{"name": "Stones", "founder": "carol"}],
+                 "items": [{"store": "Stones", "product": "Go", "price": 10, "quantity": 1}]}
+                """);
+        Store store = stores.getStoreByName("Stones");
+        assertEquals(carol.getId(), store.getFounderId());
+        assertNotNull(items.get(new Pair<>(store.getId(), go.getProductId())));
+    }
+
+    @Test
+    public void unknownOrExistingNames_areRejected() throws IOException {
+        load(SEED);
+        try {
+            load("""
+                    {"users": [{"username": "alice", "passwordHash": "x", "email": "a@example.com"}],
+                     "stores": [{"name": "New", "founder": "nobody"}],
+                     "items": [{"store": "Board Games", "product": "Chess", "price": 1, "quantity": 1}]}
+                    """);
+            fail("Expected the seed file to be rejected");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("username 'alice' already exists"));
+            assertTrue(e.getMessage(), e.getMessage().contains("unknown founder 'nobody'"));
+            assertTrue(e.getMessage(), e.getMessage().contains("already sells 'Chess'"));
+        }
+        assertNull(stores.getStoreByName("New"));
+    }
+
+    @Test
+    public void largeSeed_isWrittenInBatches() throws IOException {
+        StringBuilder json = new StringBuilder("{\"users\": [");
+        for (int i = 0; i < 1000; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"username\": \"user").append(i)
+                .append("\", \"passwordHash\": \"ENCODED\", \"email\": \"user").append(i).append("@example.com\"}");
+        }
+        json.append("], \"stores\": [");
+        for (int i = 0; i < 100; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"name\": \"store").append(i)
+                .append("\", \"founder\": \"user").append(i).append("\"}");
+        }
+        json.append("], \"products\": [");
+        for (int i = 0; i < 200; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"name\": \"product").append(i).append("\"}");
+        }
+        json.append("], \"items\": [");
+        for (int i = 0; i < 20_000; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"store\": \"store").append(i % 100)
+                .append("\", \"product\": \"product").append(i / 100).append("\", \"price\": 1.5, \"quantity\": 3}");
+        }
+        json.append("]}");
+
+        BulkSeedLoader.Result result = load(json.toString());
+        assertEquals(20_000, result.getItems());
+        assertEquals(1000, users.getAllMembers().size());
+        assertEquals(100, permissions.getAllPermissions().size());
+        assertEquals(200, items.getByStoreId(stores.getStoreByName("store7").getId()).size());
+    }
+}
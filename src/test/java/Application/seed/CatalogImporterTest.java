@@ -0,0 +1,197 @@
+package Application.seed;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import Domain.Events.DomainEventBus;
+import Domain.Pair;
+import Domain.Store.Item;
+import Domain.Store.Product;
+import Domain.Store.Store;
+import Infrastructure.MemoryRepositories.MemoryItemRepository;
+import Infrastructure.MemoryRepositories.MemoryProductRepository;
+import Infrastructure.MemoryRepositories.MemoryStoreRepository;
+
+/**
+ * Unit tests for Application.seed.CatalogImporter with the memory repositories.
+ */
+public class CatalogImporterTest {
+
+    private MemoryStoreRepository stores;
+    private MemoryProductRepository products;
+    private MemoryItemRepository items;
+    private CatalogImporter importer;
+    private String storeId;
+
+    @Before
+    public void setUp() {
+        stores = new MemoryStoreRepository();
+        products = new MemoryProductRepository();
+        items = new MemoryItemRepository();
+        importer = new CatalogImporter(stores, products, items, new CatalogBatchWriter(products, items), new DomainEventBus());
+        storeId = UUID.randomUUID().toString();
+        stores.add(storeId, new Store(storeId, "Board Games", "tabletop", "founder"));
+    }
+
+    private CatalogImporter.Result run(String text, CatalogRows.Format format) throws IOException {
+        return importer.importCatalog(storeId, new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)),
+                format, null);
+    }
+
+    private Item item(String productName) {
+        return items.get(new Pair<>(storeId, products.getByName(productName).getProductId()));
+    }
+
+    @Test
+    public void csv_addsProductsAndItems() throws IOException {
+        Product go = new Product(UUID.randomUUID().toString(), "Go");
+        products.add(go.getProductId(), go);
+
+        CatalogImporter.Result result = run("""
+                name,price,quantity,categories,keywords,description
+                Chess,49.5,7,Strategy|Family,board game|all ages,"wooden set, ""deluxe""\"
+                Go,10,1,,,"two
+                bowls"
+                """, CatalogRows.Format.CSV);
+
+        assertEquals(2, result.getImported());
+        assertEquals(1, result.getProductsCreated());
+        assertEquals(0, result.getFailed());
+        assertEquals(2, products.getAll().size());
+        Item chess = item("Chess");
+        assertEquals(49.5, chess.getPrice(), 0.0);
+        assertEquals(7, chess.getAmount());
+        assertEquals("wooden set, \"deluxe\"", chess.getDescription());
+        assertEquals(2, products.getByName("Chess").getCategories().size());
+        assertEquals("two\nbowls", items.get(new Pair<>(storeId, go.getProductId())).getDescription());
+    }
+
+    @Test
+    public void invalidRows_areReportedAndSkipped() throws IOException {
+        CatalogImporter.Result result = run("""
+                [
+                  {"name": "Chess", "price": 49.5, "quantity": 7},
+                  {"name": "Go", "price": "cheap"},
+                  {"price": 1},
+                  {"name": "Chess", "price": 1, "quantity": 1},
+                  {"name": "Dice", "quantity": -2},
+                  {"name": "Cards", "colour": "red"}
+                ]
+                """, CatalogRows.Format.JSON);
+
+        assertEquals(6, result.getRowsRead());
+        assertEquals(1, result.getImported());
+        assertEquals(5, result.getFailed());
+        List<String> errors = new ArrayList<>();
+        result.getErrors().forEach(error -> errors.add(error.toString()));
+        assertEquals(List.of("line 3: price must be a number", "line 4: name is required",
+                "line 5: the store already sells 'Chess'", "line 6: price and quantity cannot be negative",
+                "line 7: unknown field 'colour'"), errors);
+        assertNotNull(item("Chess"));
+        assertNull(products.getByName("Go"));
+    }
+
+    @Test
+    public void itemsTheStoreSells_areRejected() throws IOException {
+        run("name,price,quantity\nChess,1,1\n", CatalogRows.Format.CSV);
+
+        CatalogImporter.Result result = run("name,price,quantity\nChess,2,2\nGo,1,1\n", CatalogRows.Format.CSV);
+
+        assertEquals(1, result.getImported());
+        assertEquals("line 2: the store already sells 'Chess'", result.getErrors().get(0).toString());
+        assertEquals(1.0, item("Chess").getPrice(), 0.0);
+    }
+
+    @Test
+    public void progress_isReportedAfterEveryBatch() throws IOException {
+        importer.setBatchSize(2);
+        List<Integer> imported = new ArrayList<>();
+        StringBuilder csv = new StringBuilder("name,price,quantity\n");
+        for (int i = 0; i < 5; i++) {
+            csv.append("product").append(i).append(",1,1\n");
+        }
+
+        importer.importCatalog(storeId, new ByteArrayInputStream(csv.toString().getBytes(StandardCharsets.UTF_8)),
+                CatalogRows.Format.CSV, progress -> imported.add(progress.getImported()));
+
+        assertEquals(List.of(2, 4, 5), imported);
+    }
+
+    @Test
+    public void failedBatch_leavesNothingBehind() throws IOException {
+        importer.setBatchSize(2);
+        Product go = new Product(UUID.randomUUID().toString(), "Go");
+        products.add(go.getProductId(), go);
+        String csv = "name,price,quantity\nChess,1,1\nCards,1,1\nDice,1,1\nGo,1,1\n";
+
+        // Someone else adds Go to the store while the first batch is written
+        CatalogImporter.Result result = importer.importCatalog(storeId,
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), CatalogRows.Format.CSV,
+                progress -> items.add(new Pair<>(storeId, go.getProductId()),
+                        new Item(storeId, go.getProductId(), 5, 5, "", "Go", go.getCategories())));
+
+        assertEquals(2, result.getImported());
+        assertEquals(2, result.getProductsCreated());
+        assertEquals(2, result.getFailed());
+        assertEquals(List.of(4, 5), result.getErrors().stream().map(CatalogImporter.RowError::getLine).toList());
+        assertNotNull(products.get(products.getByName("Chess").getProductId()));
+        assertNull(products.getByName("Dice"));
+        assertEquals(3, items.getByStoreId(storeId).size());
+        assertEquals(5.0, items.get(new Pair<>(storeId, go.getProductId())).getPrice(), 0.0);
+    }
+
+    @Test
+    public void largeFile_isStreamed() throws IOException {
+        int rows = 100_000;
+        // Generated while it is read, so the file itself is never held in memory
+        InputStream csv = new InputStream() {
+            private byte[] line = "name,price,quantity\n".getBytes(StandardCharsets.US_ASCII);
+            private int position;
+            private int next;
+
+            @Override
+            public int read() {
+                if (position == line.length) {
+                    if (next == rows) {
+                        return -1;
+                    }
+                    line = ("sku" + next++ + ",2.5,3\n").getBytes(StandardCharsets.US_ASCII);
+                    position = 0;
+                }
+                return line[position++];
+            }
+        };
+
+        CatalogImporter.Result result = importer.importCatalog(storeId, csv, CatalogRows.Format.CSV, null);
+
+        assertEquals(rows, result.getImported());
+        assertEquals(rows, items.getByStoreId(storeId).size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownColumn_rejectsTheFile() throws IOException {
+        run("name,colour\nChess,red\n", CatalogRows.Format.CSV);
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void unknownStore_throws() throws IOException {
+        importer.importCatalog("missing", InputStream.nullInputStream(), CatalogRows.Format.JSON, null);
+    }
+
+    @Test
+    public void format_followsTheFileName() {
+        assertEquals(CatalogRows.Format.CSV, CatalogRows.Format.ofFileName("catalog.CSV"));
+        assertEquals(CatalogRows.Format.JSON, CatalogRows.Format.ofFileName("catalog.json"));
+    }
+}
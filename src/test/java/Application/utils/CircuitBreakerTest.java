@@ -0,0 +1,116 @@
+package Application.utils;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for Application.utils.CircuitBreaker.
+ */
+public class CircuitBreakerTest {
+
+    private long now;
+    private CircuitBreaker breaker;
+
+    @Before
+    public void setUp() {
+        now = 1_000;
+        breaker = new CircuitBreaker(3, 500, () -> now);
+    }
+
+    @Test
+    public void opensAfterThresholdFailuresInARow() {
+        breaker.recordFailure();
+        breaker.recordFailure();
+        breaker.recordSuccess();
+        breaker.recordFailure();
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.recordFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(1_000, breaker.getUnavailableSince());
+        assertFalse(breaker.allowRequest());
+    }
+
+    @Test
+    public void halfOpensAfterThePeriod() {
+        breaker.trip();
+        now += 499;
+        assertFalse(breaker.allowRequest());
+
+        now += 1;
+
+        assertTrue(breaker.allowRequest());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+    }
+
+    @Test
+    public void failureWhileHalfOpen_opensAgain() {
+        breaker.trip();
+        now += 500;
+        breaker.allowRequest();
+
+        breaker.recordFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+        assertEquals(1_000, breaker.getUnavailableSince());
+    }
+
+    @Test
+    public void successWhileHalfOpen_closes() {
+        breaker.trip();
+        now += 500;
+        breaker.allowRequest();
+
+        breaker.recordSuccess();
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0, breaker.getUnavailableSince());
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    public void halfOpen_letsOneThreadTry() throws InterruptedException {
+        breaker.trip();
+        now += 500;
+        assertTrue(breaker.allowRequest());
+        assertTrue(breaker.allowRequest());
+
+        assertFalse(allowedOnAnotherThread());
+
+        breaker.recordSuccess();
+        assertTrue(allowedOnAnotherThread());
+    }
+
+    @Test
+    public void silentTrial_isTakenOverAfterThePeriod() throws InterruptedException {
+        breaker.trip();
+        now += 500;
+        breaker.allowRequest();
+        now += 499;
+        assertFalse(allowedOnAnotherThread());
+
+        now += 1;
+
+        assertTrue(allowedOnAnotherThread());
+        assertFalse(breaker.allowRequest());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+    }
+
+    private boolean allowedOnAnotherThread() throws InterruptedException {
+        boolean[] allowed = new boolean[1];
+        Thread other = new Thread(() -> allowed[0] = breaker.allowRequest());
+        other.start();
+        other.join();
+        return allowed[0];
+    }
+
+        @Test(expected = IllegalArgumentException.class)
+    public void thresholdBelowOne_throws() {
+        new CircuitBreaker(0, 500);
+    }
+}
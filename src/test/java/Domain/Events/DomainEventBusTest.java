@@ -0,0 +1,162 @@
+package Domain.Events;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DomainEventBusTest {
+
+    private DomainEventBus bus;
+    private final List<DomainEventBus.Subscription> subscriptions = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        bus = new DomainEventBus(8, TimeUnit.SECONDS.toNanos(5));
+    }
+
+    @After
+    public void tearDown() {
+        subscriptions.forEach(DomainEventBus.Subscription::close);
+    }
+
+    private List<DomainEvent> collect(int maxBatch, List<Integer> batchSizes) {
+        List<DomainEvent> received = Collections.synchronizedList(new ArrayList<>());
+        subscriptions.add(bus.subscribe("test", maxBatch, events -> {
+            batchSizes.add(events.size());
+            received.addAll(events);
+        }));
+        return received;
+    }
+
+    private static DomainEvent stock(String producer, int n) {
+        return new DomainEvent.StockChanged(producer, "p" + n, n);
+    }
+
+    @Test
+    public void givenNoSubscribers_thenPublishingDoesNothing() {
+        bus.publish(stock("s", 1));
+        assertEquals(0, bus.getPublished());
+    }
+
+    @Test
+    public void givenConcurrentProducers_thenEverySubscriberGetsAllEventsInProducerOrder() throws Exception {
+        List<Integer> batches = Collections.synchronizedList(new ArrayList<>());
+        List<DomainEvent> first = collect(4, batches);
+        List<DomainEvent> second = collect(100, new ArrayList<>());
+        int producers = 4;
+        int perProducer = 2_000;
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            String producer = "store" + p;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    bus.publish(stock(producer, i));
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(bus.awaitIdle(5_000));
+        for (List<DomainEvent> received : List.of(first, second)) {
+            assertEquals(producers * perProducer, received.size());
+            int[] next = new int[producers];
+            for (DomainEvent event : received) {
+                DomainEvent.StockChanged changed = (DomainEvent.StockChanged) event;
+                int producer = changed.storeId().charAt(5) - '0';
+                assertEquals(next[producer]++, changed.delta());
+            }
+        }
+        synchronized (batches) {
+            assertTrue(batches.stream().allMatch(size -> size >= 1 && size <= 4));
+        }
+        assertEquals(0, bus.getLag());
+    }
+
+    @Test
+    public void givenFailingHandler_thenLaterEventsAreStillHandled() throws Exception {
+        AtomicInteger handled = new AtomicInteger();
+        subscriptions.add(bus.subscribe("failing", 1, events -> {
+            if (handled.incrementAndGet() == 1) {
+                throw new IllegalStateException("boom");
+            }
+        }));
+        bus.publish(stock("s", 1));
+        bus.publish(stock("s", 2));
+
+        assertTrue(bus.awaitIdle(5_000));
+        assertEquals(2, handled.get());
+    }
+
+    @Test
+    public void givenHandlerPublishingToItsOwnBus_thenTheEventIsDropped() throws Exception {
+        subscriptions.add(bus.subscribe("echo", 1, events -> bus.publish(stock("s", 0))));
+        bus.publish(stock("s", 1));
+
+        assertTrue(bus.awaitIdle(5_000));
+        assertEquals(1, bus.getDropped());
+        assertEquals(1, bus.getPublished());
+    }
+
+    @Test
+    public void givenClosedSubscription_thenItNoLongerHoldsPublishersBack() throws Exception {
+        List<DomainEvent> received = collect(1, new ArrayList<>());
+        subscriptions.get(0).close();
+
+        // More events than slots: a closed subscription must not make publishers wait for it
+        for (int i = 0; i < 100; i++) {
+            bus.publish(stock("s", i));
+        }
+
+        assertTrue(received.isEmpty());
+        assertEquals(0, bus.getPublished());
+    }
+
+    @Test
+    public void givenStalledSubscriber_thenPublishersDropAndCountOverflowsInsteadOfBlocking() throws Exception {
+        DomainEventBus bounded = new DomainEventBus(8, TimeUnit.MILLISECONDS.toNanos(1));
+        CountDownLatch release = new CountDownLatch(1);
+        subscriptions.add(bounded.subscribe("stalled", 1, events -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 50; i++) {
+            bounded.publish(stock("s", i));
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(bounded.getOverflows() > 0);
+        assertEquals(50, bounded.getPublished() + bounded.getOverflows());
+        assertTrue("publishing took " + elapsedMillis + "ms", elapsedMillis < 2_000);
+        release.countDown();
+        assertTrue(bounded.awaitIdle(5_000));
+    }
+
+    @Test
+    public void givenClosedBus_thenSubscriptionsStop() throws Exception {
+        List<DomainEvent> received = collect(1, new ArrayList<>());
+        bus.close();
+
+        bus.publish(stock("s", 1));
+
+        assertTrue(received.isEmpty());
+        assertEquals(0, bus.getPublished());
+    }
+}
@@ -17,6 +17,7 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import Domain.Events.DomainEventBus;
 import Domain.Repos.IPermissionRepository;
 import Domain.management.Permission;
 import Domain.management.PermissionManager;
@@ -30,7 +31,7 @@ public class PermissionManagerTest {
     @Before
     public void setUp() {
         permissionRepository = mock(IPermissionRepository.class);
-        permissionManager = new PermissionManager(permissionRepository);
+        permissionManager = new PermissionManager(permissionRepository, new DomainEventBus());
     }
 
     @Test
@@ -0,0 +1,245 @@
+package Domain.Repos;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import Domain.Pair;
+
+/**
+ * Unit tests for Domain.Repos.StripedLocks.
+ */
+public class StripedLocksTest {
+
+    private StripedLocks locks;
+    private ExecutorService callers;
+
+    @Before
+    public void setUp() {
+        locks = new StripedLocks(16);
+        callers = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    public void stripeCount_isBoundedAndRoundedToPowerOfTwo() {
+        assertEquals(16, locks.getStripeCount());
+        assertEquals(128, new StripedLocks(100).getStripeCount());
+        for (int i = 0; i < 10_000; i++) {
+            int stripe = locks.stripeOf("item-" + i);
+            assertTrue(stripe >= 0 && stripe < 16);
+        }
+    }
+
+    @Test
+    public void equalKeys_shareStripe() {
+        assertEquals(locks.stripeOf(new Pair<>("store", "product")), locks.stripeOf(new Pair<>("store", "product")));
+    }
+
+    @Test
+    public void writeAll_inOppositeKeyOrders_doesNotDeadlock() throws Exception {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            keys.add("item-" + i);
+        }
+        List<String> reversed = new ArrayList<>(keys);
+        Collections.reverse(reversed);
+        int[] counter = {0};
+        List<Future<?>> futures = new ArrayList<>();
+        for (List<String> order : List.of(keys, reversed, keys, reversed)) {
+            futures.add(callers.submit(() -> {
+                for (int j = 0; j < 500; j++) {
+                    locks.writeAll(order, () -> counter[0]++);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        assertEquals(2000, counter[0]);
+    }
+
+    @Test
+    public void writeAll_excludesWritersOfItsKeys_andRunsNestedWritesInline() throws Exception {
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> batch = callers.submit(() -> locks.writeAll(List.of("item-1", "item-2"), () -> {
+            holding.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return locks.write("item-2", () -> "inline");
+        }));
+        assertTrue(holding.await(5, TimeUnit.SECONDS));
+        Future<String> writer = callers.submit(() -> locks.write("item-1", () -> "after"));
+        Thread.sleep(100);
+        assertFalse(writer.isDone());
+
+        release.countDown();
+        assertEquals("inline", batch.get(5, TimeUnit.SECONDS));
+        assertEquals("after", writer.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void writesOfOneKey_neverOverlap() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        int[] counter = {0};
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            futures.add(callers.submit(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    locks.write("item-1", () -> {
+                        if (running.incrementAndGet() > 1) {
+                            overlaps.incrementAndGet();
+                        }
+                        counter[0]++;
+                        running.decrementAndGet();
+                    });
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        assertEquals(0, overlaps.get());
+        assertEquals(4000, counter[0]);
+        assertEquals(4000, locks.getStats().getWrites());
+    }
+
+    @Test
+    public void nestedWriteAndRead_ofTheHeldStripe_runInline() throws Exception {
+        String result = callers.submit(() -> locks.write("item-1", () ->
+                locks.write("item-1", () -> locks.optimisticRead("item-1", () -> "nested")))).get(5, TimeUnit.SECONDS);
+        assertEquals("nested", result);
+        // Released once, by the outermost write
+        assertEquals("free", callers.submit(() -> locks.write("item-1", () -> "free")).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void optimisticRead_withoutWriter_succeedsFirstTime() {
+        assertEquals("value", locks.optimisticRead("item-1", () -> "value"));
+        StripedLocks.Stats stats = locks.getStats();
+        assertEquals(1, stats.getOptimisticReads());
+        assertEquals(0, stats.getOptimisticFailures());
+    }
+
+    @Test
+    public void optimisticRead_interruptedByWriter_retriesUnderReadLock() throws Exception {
+        CountDownLatch readStarted = new CountDownLatch(1);
+        CountDownLatch written = new CountDownLatch(1);
+        int[] value = {1};
+        AtomicInteger attempts = new AtomicInteger();
+        Future<Integer> read = callers.submit(() -> locks.optimisticRead("item-1", () -> {
+            if (attempts.incrementAndGet() == 1) {
+                readStarted.countDown();
+                try {
+                    written.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return value[0];
+        }));
+        assertTrue(readStarted.await(5, TimeUnit.SECONDS));
+        locks.write("item-1", () -> {
+            value[0] = 2;
+        });
+        written.countDown();
+
+        assertEquals(Integer.valueOf(2), read.get(5, TimeUnit.SECONDS));
+        assertEquals(2, attempts.get());
+        assertEquals(1, locks.getStats().getOptimisticFailures());
+    }
+
+    @Test
+    public void contendedWrite_isCounted() throws Exception {
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> holder = callers.submit(() -> locks.write("item-1", () -> {
+            holding.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertTrue(holding.await(5, TimeUnit.SECONDS));
+        Future<?> waiter = callers.submit(() -> locks.write("item-1", () -> { }));
+        while (locks.getStats().getContendedWrites() == 0) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        waiter.get(5, TimeUnit.SECONDS);
+        assertEquals(1, locks.getStats().getContendedWrites());
+        assertEquals(2, locks.getStats().getWrites());
+    }
+
+    @Test
+    public void hold_keepsStripesUntilReleased_andSkipsOnesAlreadyHeld() throws Exception {
+        Runnable release = locks.hold(List.of("item-1", "item-2"), TimeUnit.SECONDS.toNanos(1));
+        Runnable nested = locks.hold(List.of("item-2"), TimeUnit.SECONDS.toNanos(1));
+        Future<String> writer = callers.submit(() -> locks.write("item-1", () -> "after"));
+        Thread.sleep(100);
+        assertFalse(writer.isDone());
+
+        nested.run();
+        assertFalse(writer.isDone());
+        release.run();
+        assertEquals("after", writer.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void hold_outOfOrderOnBusyStripe_failsInsteadOfDeadlocking() throws Exception {
+        String low = "item-0";
+        String high = "item-1";
+        for (int i = 2; locks.stripeOf(low) >= locks.stripeOf(high); i++) {
+            high = "item-" + i;
+        }
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> holder = callers.submit(() -> locks.write(low, () -> {
+            holding.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+        Runnable held = locks.hold(List.of(high), TimeUnit.SECONDS.toNanos(1));
+        try {
+            locks.hold(List.of(low), TimeUnit.MILLISECONDS.toNanos(50));
+            fail("Expected IllegalStateException was not thrown");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("out of order"));
+        } finally {
+            held.run();
+            release.countDown();
+        }
+        holder.get(5, TimeUnit.SECONDS);
+
+        // Once the higher stripe is released, the lower one is in order again
+        locks.hold(List.of(low), 0).run();
+    }
+}
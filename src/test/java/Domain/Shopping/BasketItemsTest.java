@@ -0,0 +1,73 @@
+package Domain.Shopping;
+
+import static org.junit.Assert.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import Domain.Store.Item;
+import Domain.Store.ItemFacade;
+
+/**
+ * Unit tests for Domain.Shopping.BasketItems.
+ */
+public class BasketItemsTest {
+
+    private ItemFacade itemFacade;
+    private Item apple;
+    private Item pear;
+
+    @Before
+    public void setUp() {
+        itemFacade = mock(ItemFacade.class);
+        apple = new Item("s", "apple", 2.0, 5, "red", "Apple", Set.of());
+        pear = new Item("s", "pear", 3.0, 1, "green", "Pear", Set.of());
+        when(itemFacade.getItems(eq("s"), anyCollection())).thenReturn(Map.of("apple", apple, "pear", pear));
+    }
+
+    @Test
+    public void lookups_shareOneRead() {
+        BasketItems items = new BasketItems(itemFacade, "s", List.of("apple", "pear"));
+
+        assertSame(apple, items.apply("s", "apple"));
+        assertSame(pear, items.apply("s", "pear"));
+        verify(itemFacade, times(1)).getItems(eq("s"), anyCollection());
+        verify(itemFacade, never()).getItem(any(), any());
+    }
+
+    @Test
+    public void noLookup_readsNothing() {
+        new BasketItems(itemFacade, "s", List.of("apple"));
+        verify(itemFacade, never()).getItems(any(), anyCollection());
+    }
+
+    @Test
+    public void productAddedAfterTheRead_isLookedUpAlone() {
+        Set<String> productIds = new LinkedHashSet<>(List.of("apple"));
+        BasketItems items = new BasketItems(itemFacade, "s", productIds);
+        items.apply("s", "apple");
+        productIds.add("pear");
+        when(itemFacade.getItem("s", "pear")).thenReturn(pear);
+
+        assertSame(pear, items.apply("s", "pear"));
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void unsoldProduct_throws() {
+        new BasketItems(itemFacade, "s", List.of("apple", "plum")).apply("s", "plum");
+    }
+}
@@ -0,0 +1,123 @@
+package Domain.Shopping;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for Domain.Shopping.OfferEngine.
+ */
+public class OfferEngineTest {
+
+    private OfferEngine engine;
+    private ExecutorService callers;
+
+    @Before
+    public void setUp() {
+        engine = new OfferEngine();
+        callers = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    public void eventsOfOneOffer_runOneAtATimeOnTheirCallersThreads() throws Exception {
+        CountDownLatch firstRunning = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        List<Integer> applied = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> runners = Collections.synchronizedList(new ArrayList<>());
+
+        Future<Thread> first = callers.submit(() -> engine.execute("offer", () -> {
+            firstRunning.countDown();
+            await(releaseFirst);
+            applied.add(1);
+            return Thread.currentThread();
+        }));
+        assertTrue(firstRunning.await(5, TimeUnit.SECONDS));
+        Future<Thread> second = callers.submit(() -> engine.execute("offer", () -> {
+            applied.add(2);
+            return Thread.currentThread();
+        }));
+        // Waits behind the running event instead of handing its work to that event's thread.
+        Thread.sleep(100);
+        assertFalse(second.isDone());
+
+        releaseFirst.countDown();
+        runners.add(first.get(5, TimeUnit.SECONDS));
+        runners.add(second.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of(1, 2), applied);
+        assertNotSame(runners.get(0), runners.get(1));
+        assertEquals(0, engine.getBusyOffers());
+    }
+
+    @Test
+    public void eventOfOtherOffer_isNotBlocked() throws Exception {
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        callers.submit(() -> engine.execute("slow", () -> await(releaseFirst)));
+
+        assertEquals("done", callers.submit(() -> engine.execute("other", () -> "done")).get(5, TimeUnit.SECONDS));
+        releaseFirst.countDown();
+    }
+
+    @Test
+    public void nestedEventOfSameOffer_runsInline() {
+        String result = engine.execute("offer", () -> engine.execute("offer", () -> "inner") + " outer");
+        assertEquals("inner outer", result);
+    }
+
+    @Test
+    public void exceptions_reachTheCaller() {
+        try {
+            engine.execute("offer", () -> { throw new IllegalStateException("already approved"); });
+            fail("Expected the event's exception");
+        } catch (IllegalStateException e) {
+            assertEquals("already approved", e.getMessage());
+        }
+        assertEquals("next", engine.execute("offer", () -> "next"));
+    }
+
+    @Test
+    public void rounds_andIdleOffers_areTracked() {
+        OfferEngine.Round round = engine.startRound("offer", Set.of("member", "owner", "manager"), Set.of("member"),
+                engine.getPermissionsVersion("store"));
+        round.approved("owner");
+        assertFalse(round.isComplete());
+        round.approved("manager");
+        assertTrue(round.isComplete());
+        engine.permissionsChanged("store");
+        assertNotEquals(round.getPermissionsVersion(), engine.getPermissionsVersion("store"));
+        assertEquals(0, engine.getPermissionsVersion("other"));
+
+        engine.touch("old", 100);
+        engine.touch("new", 900);
+        engine.touch("old", 500);
+        assertEquals(List.of("old"), engine.idleSince(1500, 1000, 10));
+        engine.forget("old");
+        assertEquals(List.of("new"), engine.idleSince(5000, 1000, 10));
+        assertNull(engine.getRound("old"));
+    }
+
+    private static Object await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,246 @@
+package Domain.Shopping;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import Application.utils.Response;
+import Domain.Pair;
+import Domain.Events.DomainEvent;
+import Domain.Events.DomainEventBus;
+import Domain.ExternalServices.IExternalPaymentService;
+import Domain.ExternalServices.IExternalSupplyService;
+import Domain.Repos.IReceiptRepository;
+import Domain.Store.Item;
+import Domain.Store.Product;
+import Domain.management.PermissionManager;
+import Domain.management.PermissionType;
+import Infrastructure.MemoryRepositories.MemoryItemRepository;
+import Infrastructure.MemoryRepositories.MemoryOfferRepository;
+import Infrastructure.MemoryRepositories.MemoryProductRepository;
+
+/**
+ * Unit tests for Domain.Shopping.OfferManager with the memory repositories.
+ */
+public class OfferManagerTest {
+
+    private static final String STORE = "store";
+    private static final String MEMBER = "member";
+
+    private MemoryOfferRepository offers;
+    private MemoryItemRepository items;
+    private PermissionManager permissionManager;
+    private IExternalPaymentService paymentService;
+    private OfferManager offerManager;
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private ExecutorService callers;
+
+    @Before
+    public void setUp() {
+        offers = new MemoryOfferRepository();
+        items = new MemoryItemRepository();
+        MemoryProductRepository products = new MemoryProductRepository();
+        Product product = new Product("product", "Chess");
+        products.add(product.getProductId(), product);
+        items.add(new Pair<>(STORE, "product"), new Item(STORE, "product", 50.0, 3, "wooden set", "Chess", Set.of()));
+
+        permissionManager = mock(PermissionManager.class);
+        when(permissionManager.getUsersWithPermission(STORE, PermissionType.OVERSEE_OFFERS)).thenReturn(List.of("owner", "manager"));
+        paymentService = mock(IExternalPaymentService.class);
+        when(paymentService.processPayment(anyString(), anyString(), any(), anyString(), anyString(), anyDouble())).thenReturn(Response.success(7));
+        IExternalSupplyService supplyService = mock(IExternalSupplyService.class);
+        when(supplyService.supplyOrder(anyString(), anyString(), anyString(), anyString(), anyString())).thenReturn(Response.success(8));
+
+        offerManager = new OfferManager(offers, permissionManager, items, null, paymentService,
+                mock(IReceiptRepository.class), products, supplyService, new DomainEventBus());
+        offerManager.setClock(now::get);
+        offerManager.setOfferTtlMillis(1000);
+        callers = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        callers.shutdownNow();
+    }
+
+    private Offer makeOffer() {
+        return offerManager.makeOffer(MEMBER, STORE, "product", 40.0,
+                new PaymentDetails(MEMBER, "4111111111111111", LocalDate.now().plusYears(1), "123", "Member"),
+                new SupplyDetails("1 Main St", "City", "Country", "12345"));
+    }
+
+    @Test
+    public void offer_isAcceptedOnceEveryApproverAgreed() {
+        Offer offer = makeOffer();
+
+        assertFalse(offerManager.acceptOfferByEmployee("owner", offer.getId()).isAccepted());
+        Offer accepted = offerManager.acceptOfferByEmployee("manager", offer.getId());
+
+        assertTrue(accepted.isAccepted());
+        assertNull(offers.get(offer.getId()));
+        assertEquals(2, items.getItem(STORE, "product").getAmount());
+    }
+
+    @Test
+    public void approverLosingPermissionDuringRound_isNoLongerWaitedFor() {
+        when(permissionManager.getUsersWithPermission(STORE, PermissionType.OVERSEE_OFFERS)).thenReturn(List.of("owner", "manager", "other"));
+        Offer offer = makeOffer();
+        offerManager.acceptOfferByEmployee("owner", offer.getId());
+        when(permissionManager.getUsersWithPermission(STORE, PermissionType.OVERSEE_OFFERS)).thenReturn(List.of("owner", "other"));
+        offerManager.permissionsChanged(List.of(new DomainEvent.PermissionChanged(STORE, "manager")));
+
+        assertTrue(offerManager.acceptOfferByEmployee("other", offer.getId()).isAccepted());
+    }
+
+    @Test
+    public void counterOffer_asksTheCurrentApprovers() {
+        Offer offer = makeOffer();
+        offerManager.acceptOfferByEmployee("owner", offer.getId());
+        when(permissionManager.getUsersWithPermission(STORE, PermissionType.OVERSEE_OFFERS)).thenReturn(List.of("owner"));
+        offerManager.counterOfferByEmployee("owner", offer.getId(), 45.0);
+
+        assertTrue(offerManager.acceptOfferByMember(MEMBER, offer.getId()).isAccepted());
+    }
+
+    @Test
+    public void counterOffer_startsNewRoundOfApprovals() {
+        Offer offer = makeOffer();
+        offerManager.acceptOfferByEmployee("owner", offer.getId());
+        offerManager.counterOfferByEmployee("manager", offer.getId(), 45.0);
+
+        assertFalse(offerManager.acceptOfferByEmployee("owner", offer.getId()).isAccepted());
+        Offer accepted = offerManager.acceptOfferByMember(MEMBER, offer.getId());
+
+        assertTrue(accepted.isAccepted());
+        verify(paymentService).processPayment(anyString(), anyString(), any(), anyString(), anyString(), eq(45.0));
+    }
+
+    @Test
+    public void approverAppointedDuringRound_mustApproveToo() {
+        Offer offer = makeOffer();
+        offerManager.acceptOfferByEmployee("owner", offer.getId());
+        when(permissionManager.getUsersWithPermission(STORE, PermissionType.OVERSEE_OFFERS)).thenReturn(List.of("owner", "manager", "newcomer"));
+        offerManager.permissionsChanged(List.of(new DomainEvent.PermissionChanged(STORE, "newcomer")));
+
+        assertFalse(offerManager.acceptOfferByEmployee("manager", offer.getId()).isAccepted());
+        assertTrue(offerManager.acceptOfferByEmployee("newcomer", offer.getId()).isAccepted());
+    }
+
+    @Test
+    public void approvers_areLookedUpOncePerRoundUntilTheStorePermissionsChange() {
+        when(permissionManager.getUsersWithPermission(STORE, PermissionType.OVERSEE_OFFERS)).thenReturn(List.of("owner", "manager", "other"));
+        Offer offer = makeOffer();
+        offerManager.acceptOfferByEmployee("owner", offer.getId());
+        offerManager.permissionsChanged(List.of(new DomainEvent.PermissionChanged("elsewhere", "owner")));
+        offerManager.acceptOfferByEmployee("manager", offer.getId());
+        verify(permissionManager, times(1)).getUsersWithPermission(STORE, PermissionType.OVERSEE_OFFERS);
+
+        offerManager.permissionsChanged(List.of(new DomainEvent.PermissionChanged(STORE, "other")));
+        assertTrue(offerManager.acceptOfferByEmployee("other", offer.getId()).isAccepted());
+        verify(permissionManager, times(2)).getUsersWithPermission(STORE, PermissionType.OVERSEE_OFFERS);
+    }
+
+    @Test
+    public void permissionChangesPublishedOnTheBus_reachTheOffers() throws Exception {
+        DomainEventBus bus = new DomainEventBus();
+        offerManager = new OfferManager(offers, permissionManager, items, null, paymentService,
+                mock(IReceiptRepository.class), new MemoryProductRepository(), mock(IExternalSupplyService.class), bus);
+        offerManager.start();
+        try {
+            Offer offer = makeOffer();
+            offerManager.acceptOfferByEmployee("owner", offer.getId());
+            long version = offerManager.getEngine().getPermissionsVersion(STORE);
+
+            bus.publish(new DomainEvent.PermissionChanged(STORE, "manager"));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (offerManager.getEngine().getPermissionsVersion(STORE) == version && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertNotEquals(version, offerManager.getEngine().getPermissionsVersion(STORE));
+        } finally {
+            offerManager.stop();
+        }
+    }
+
+    @Test
+    public void concurrentApprovals_acceptTheOfferExactlyOnce() throws Exception {
+        List<String> approvers = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            approvers.add("employee" + i);
+        }
+        when(permissionManager.getUsersWithPermission(STORE, PermissionType.OVERSEE_OFFERS)).thenReturn(approvers);
+        Offer offer = makeOffer();
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Offer>> results = new ArrayList<>();
+        for (String approver : approvers) {
+            results.add(callers.submit(() -> {
+                start.await();
+                return offerManager.acceptOfferByEmployee(approver, offer.getId());
+            }));
+        }
+        start.countDown();
+        for (Future<Offer> result : results) {
+            assertNotNull(result.get(10, TimeUnit.SECONDS));
+        }
+
+        assertNull(offers.get(offer.getId()));
+        verify(paymentService, times(1)).processPayment(anyString(), anyString(), any(), anyString(), anyString(), anyDouble());
+        assertEquals(2, items.getItem(STORE, "product").getAmount());
+        assertEquals(0, offerManager.getEngine().getBusyOffers());
+    }
+
+    @Test
+    public void idleOffers_expireUnlessCountered() {
+        Offer idle = makeOffer();
+        Offer countered = makeOffer();
+        now.addAndGet(600);
+        offerManager.counterOfferByEmployee("owner", countered.getId(), 42.0);
+        now.addAndGet(600);
+
+        List<Offer> expired = offerManager.expireOffers(10);
+
+        assertEquals(1, expired.size());
+        assertEquals(idle.getId(), expired.get(0).getId());
+        assertNull(offers.get(idle.getId()));
+        assertNotNull(offers.get(countered.getId()));
+        try {
+            offerManager.acceptOfferByMember(MEMBER, idle.getId());
+            fail("Expected the expired offer to be gone");
+        } catch (NoSuchElementException e) {
+            assertEquals("Offer not found", e.getMessage());
+        }
+    }
+
+    @Test
+    public void storedOffers_areIndexedForExpiryOnFirstSweep() {
+        Offer stored = new Offer(MEMBER, STORE, "product", 30.0, null, null);
+        offers.add(stored.getId(), stored);
+
+        assertTrue(offerManager.expireOffers(10).isEmpty());
+        now.addAndGet(1000);
+        assertEquals(stored.getId(), offerManager.expireOffers(10).get(0).getId());
+    }
+}
@@ -1,9 +1,11 @@
 package Domain.Shopping;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -216,7 +218,7 @@ public class ShoppingCartFacadeTest {
         // Assert
         assertTrue("Should return true for successful removal", result);
         verify(mockBasket).removeItem(PRODUCT_ID, QUANTITY);
-        verify(mockBasketRepo).add(new Pair<>(CLIENT_ID, STORE_ID), mockBasket);
+        verify(mockBasketRepo).update(new Pair<>(CLIENT_ID, STORE_ID), mockBasket);
         verify(mockCart, never()).removeStore(STORE_ID);
     }
     
@@ -234,7 +236,7 @@ public class ShoppingCartFacadeTest {
         // Assert
         assertTrue("Should return true for successful removal", result);
         verify(mockBasket).removeItem(PRODUCT_ID);
-        verify(mockBasketRepo).add(new Pair<>(CLIENT_ID, STORE_ID), mockBasket);
+        verify(mockBasketRepo).update(new Pair<>(CLIENT_ID, STORE_ID), mockBasket);
         verify(mockCart, never()).removeStore(STORE_ID);
     }
     
@@ -252,7 +254,7 @@ public class ShoppingCartFacadeTest {
         // Assert
         assertTrue("Should return true for successful removal", result);
         verify(mockBasket).removeItem(PRODUCT_ID, QUANTITY);
-        verify(mockBasketRepo).add(new Pair<>(CLIENT_ID, STORE_ID), mockBasket);
+        verify(mockBasketRepo).update(new Pair<>(CLIENT_ID, STORE_ID), mockBasket);
         verify(mockCart).removeStore(STORE_ID);
         verify(mockCartRepo).update(CLIENT_ID, mockCart);
     }
@@ -360,10 +362,10 @@ public class ShoppingCartFacadeTest {
         // Real item and product info
         LinkedHashSet<Category> categories = new LinkedHashSet<>();
         Item mockItem = new Item(STORE_ID, PRODUCT_ID, 10.0, 20, "description", null, categories);
-        when(mockItemFacade.getItem(STORE_ID, PRODUCT_ID)).thenReturn(mockItem);
+        when(mockItemFacade.getItems(eq(STORE_ID), anyCollection())).thenReturn(Map.of(PRODUCT_ID, mockItem));
         
         Product mockProduct = new Product(PRODUCT_ID, "a", new LinkedHashSet<>());
-        when(mockProductRepo.get(PRODUCT_ID)).thenReturn(mockProduct);
+        when(mockProductRepo.getAll(anyCollection())).thenReturn(Map.of(PRODUCT_ID, mockProduct));
         
         // Mock payment failure
         when(mockPaymentService.processPayment(
@@ -404,6 +406,24 @@ public class ShoppingCartFacadeTest {
         verify(mockCartRepo).update(CLIENT_ID, mockCart);
     }
     
+    @Test
+    public void testRemoveCart_DiscardsCartAndBaskets() {
+        when(mockCartRepo.remove(CLIENT_ID)).thenReturn(mockCart);
+        when(mockCart.getCart()).thenReturn(new HashSet<>(Set.of(STORE_ID)));
+
+        assertTrue(facade.removeCart(CLIENT_ID));
+        verify(mockBasketRepo).remove(new Pair<>(CLIENT_ID, STORE_ID));
+        verify(mockCartRepo, never()).add(anyString(), any());
+    }
+
+    @Test
+    public void testRemoveCart_NoCart() {
+        when(mockCartRepo.remove(CLIENT_ID)).thenReturn(null);
+
+        assertFalse(facade.removeCart(CLIENT_ID));
+        verify(mockBasketRepo, never()).remove(any());
+    }
+
     @Test
     public void testClearCart_CartNotFound() {
         // Arrange
@@ -464,7 +484,7 @@ public class ShoppingCartFacadeTest {
         when(mockBasket.getOrders()).thenReturn(orders);
         
         Item mockItem = mock(Item.class);
-        when(mockItemFacade.getItem(STORE_ID, PRODUCT_ID)).thenReturn(mockItem);
+        when(mockItemFacade.getItems(eq(STORE_ID), anyCollection())).thenReturn(Map.of(PRODUCT_ID, mockItem));
         
         // Act
         Set<Pair<Item, Integer>> result = facade.viewCart(CLIENT_ID);
@@ -472,6 +492,7 @@ public class ShoppingCartFacadeTest {
         // Assert
         assertNotNull("Result should not be null", result);
         assertEquals("Result should contain one item", 1, result.size());
+        verify(mockItemFacade, never()).getItem(anyString(), anyString());
         
         // Verify the item in the result
         Pair<Item, Integer> itemPair = result.iterator().next();
@@ -17,6 +17,7 @@ import org.mockito.MockitoAnnotations;
 import Application.DTOs.ConditionDTO;
 import Application.DTOs.DiscountDTO;
 import Application.DTOs.ConditionDTO.ConditionType;
+import Domain.Events.DomainEventBus;
 import Domain.Store.ItemFacade;
 import Domain.Store.Item;
 import Domain.Store.Product;
@@ -60,7 +61,7 @@ public class DiscountFacadeTest {
         when(mockItem.getProductId()).thenReturn(testProductId);
         when(mockItem.getPrice()).thenReturn(10.0);
         
-        discountFacade = new DiscountFacade(mockDiscountRepository, mockItemFacade);
+        discountFacade = new DiscountFacade(mockDiscountRepository, mockItemFacade, new DomainEventBus());
     }
     
     // ===========================================
@@ -69,17 +70,17 @@ public class DiscountFacadeTest {
     
     @Test(expected = IllegalArgumentException.class)
     public void testConstructor_NullDiscountRepository_ThrowsException() {
-        new DiscountFacade(null, mockItemFacade);
+        new DiscountFacade(null, mockItemFacade, new DomainEventBus());
     }
     
     @Test(expected = IllegalArgumentException.class)
     public void testConstructor_NullItemFacade_ThrowsException() {
-        new DiscountFacade(mockDiscountRepository, null);
+        new DiscountFacade(mockDiscountRepository, null, new DomainEventBus());
     }
     
     @Test
     public void testConstructor_ValidParameters_CreatesInstance() {
-        DiscountFacade facade = new DiscountFacade(mockDiscountRepository, mockItemFacade);
+        DiscountFacade facade = new DiscountFacade(mockDiscountRepository, mockItemFacade, new DomainEventBus());
         assertNotNull(facade);
     }
     
@@ -380,6 +381,7 @@ public class DiscountFacadeTest {
         assertTrue(result);
         verify(mockDiscountRepository).getStoreDiscounts(testStoreId);
         verify(mockDiscountRepository).remove(discountId);
+        assertEquals(1, discountFacade.getVersions().ofDiscount(discountId));
     }
     
     @Test(expected = IllegalArgumentException.class)
@@ -447,6 +449,7 @@ public class DiscountFacadeTest {
         
         // Assert
         verify(mockDiscountRepository).remove(discountId);
+        assertEquals(1, discountFacade.getVersions().ofDiscount(discountId));
     }
     
     @Test(expected = IllegalArgumentException.class)
@@ -454,6 +457,33 @@ public class DiscountFacadeTest {
         discountFacade.removeDiscount((String) null);
     }
     
+    // ===========================================
+    // VERSION TESTS
+    // ===========================================
+    
+    @Test
+    public void testGetVersions_EveryDiscountChange_MovesTheDiscountsVersion() {
+        // Arrange
+        when(mockDiscountRepository.add(any(String.class), any(Discount.class))).thenReturn(true);
+        when(mockDiscountRepository.exists(any(String.class))).thenReturn(true);
+        when(mockItemFacade.getPriceVersion(testStoreId)).thenReturn(7L);
+        
+        // Act
+        SimpleDiscount created = discountFacade.createSimpleDiscount(testStoreId, 0.2f, new StoreQualifier(testStoreId), testCondition);
+        long afterCreate = discountFacade.getVersions().ofDiscount(created.getId());
+        discountFacade.updateDiscount(testStoreId, created);
+        long afterUpdate = discountFacade.getVersions().ofDiscount(created.getId());
+        when(mockDiscountRepository.getStoreDiscounts(testStoreId)).thenReturn(Arrays.asList(created));
+        discountFacade.removeDiscount(testStoreId, created.getId());
+        
+        // Assert
+        assertTrue(afterCreate > 0);
+        assertTrue(afterUpdate > afterCreate);
+        assertTrue(discountFacade.getVersions().ofDiscount(created.getId()) > afterUpdate);
+        assertEquals(0, discountFacade.getVersions().ofDiscount("unknown"));
+        assertEquals(7L, discountFacade.getVersions().ofPrices(testStoreId));
+    }
+    
     // ===========================================
     // DISCOUNT EXISTS TESTS
     // ===========================================
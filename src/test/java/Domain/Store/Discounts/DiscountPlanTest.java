@@ -0,0 +1,348 @@
+package Domain.Store.Discounts;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BiFunction;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import Domain.Pair;
+import Domain.Shopping.ShoppingBasket;
+import Domain.Store.Category;
+import Domain.Store.Item;
+import Domain.Store.Discounts.Discount.MergeType;
+import Domain.Store.Discounts.Conditions.AndCondition;
+import Domain.Store.Discounts.Conditions.Condition;
+import Domain.Store.Discounts.Conditions.MaxPriceCondition;
+import Domain.Store.Discounts.Conditions.MaxQuantityCondition;
+import Domain.Store.Discounts.Conditions.MinPriceCondition;
+import Domain.Store.Discounts.Conditions.MinQuantityCondition;
+import Domain.Store.Discounts.Conditions.OrCondition;
+import Domain.Store.Discounts.Conditions.TrueCondition;
+import Domain.Store.Discounts.Qualifiers.CategoryQualifier;
+import Domain.Store.Discounts.Qualifiers.ProductQualifier;
+import Domain.Store.Discounts.Qualifiers.StoreQualifier;
+
+/**
+ * Unit tests for Domain.Store.Discounts.DiscountPlan.
+ * The cached basket price must agree with evaluating every discount from scratch while the basket,
+ * the item prices and the discounts change.
+ */
+public class DiscountPlanTest {
+
+    private static final String STORE_ID = "storeA";
+    private static final String[] PRODUCT_IDS = {"p1", "p2", "p3", "p4", "p5"};
+
+    private Map<Pair<String, String>, Item> items;
+    private BiFunction<String, String, Item> itemGetter;
+    // The change counters the facades keep, written by the test where they would be
+    private Map<String, Long> discountVersions;
+    private Map<String, Long> priceVersions;
+    private DiscountPlan.Versions versions;
+    private Category action;
+    private Category family;
+    private Random random;
+
+    @Before
+    public void setUp() {
+        action = new Category("Action", "action games");
+        family = new Category("Family", "family games");
+        items = new HashMap<>();
+        for (int i = 0; i < PRODUCT_IDS.length; i++) {
+            Set<Category> categories = i % 2 == 0 ? Set.of(action) : Set.of(family, action);
+            items.put(new Pair<>(STORE_ID, PRODUCT_IDS[i]),
+                      new Item(STORE_ID, PRODUCT_IDS[i], 10 + 7 * i, 100, "item", "Game " + i, categories));
+        }
+        itemGetter = (storeId, productId) -> items.get(new Pair<>(storeId, productId));
+        discountVersions = new HashMap<>();
+        priceVersions = new HashMap<>();
+        versions = new DiscountPlan.Versions() {
+            @Override
+            public long ofDiscount(String discountId) {
+                return discountVersions.getOrDefault(discountId, 0L);
+            }
+
+            @Override
+            public long ofPrices(String storeId) {
+                return priceVersions.getOrDefault(storeId, 0L);
+            }
+        };
+        random = new Random(11);
+    }
+
+    private void discountChanged(String discountId) {
+        discountVersions.merge(discountId, 1L, Long::sum);
+    }
+
+    private void setPrice(Item item, float price) {
+        item.setPrice(price);
+        priceVersions.merge(item.getStoreId(), 1L, Long::sum);
+    }
+
+    private static String id() {
+        return UUID.randomUUID().toString();
+    }
+
+    private Condition randomCondition() {
+        switch (random.nextInt(7)) {
+            case 0:
+                return new MinQuantityCondition(id(), randomProduct(), 1 + random.nextInt(3));
+            case 1:
+                return new MaxQuantityCondition(id(), randomProduct(), 1 + random.nextInt(3));
+            case 2:
+                return new MinPriceCondition(id(), 20 + random.nextInt(100));
+            case 3:
+                return new MaxPriceCondition(id(), 20 + random.nextInt(100));
+            case 4:
+                return new AndCondition(id(), List.of(new MinQuantityCondition(id(), randomProduct(), 1),
+                                                      new MinPriceCondition(id(), 30)));
+            case 5:
+                return new OrCondition(id(), List.of(new MaxQuantityCondition(id(), randomProduct(), 1),
+                                                     new MaxPriceCondition(id(), 60)));
+            default:
+                return new TrueCondition(id());
+        }
+    }
+
+    private String randomProduct() {
+        return PRODUCT_IDS[random.nextInt(PRODUCT_IDS.length)];
+    }
+
+    private Discount randomDiscount(int depth) {
+        if (depth == 0) {
+            double percentage = 0.05 * (1 + random.nextInt(8));
+            switch (random.nextInt(3)) {
+                case 0:
+                    return new SimpleDiscount(id(), STORE_ID, percentage, new ProductQualifier(randomProduct()), randomCondition());
+                case 1:
+                    return new SimpleDiscount(id(), STORE_ID, percentage,
+                                              new CategoryQualifier(random.nextBoolean() ? action : family), randomCondition());
+                default:
+                    return new SimpleDiscount(id(), STORE_ID, percentage, new StoreQualifier(STORE_ID), randomCondition());
+            }
+        }
+        MergeType merge = random.nextBoolean() ? MergeType.MAX : MergeType.MUL;
+        Discount left = randomDiscount(depth - 1);
+        Discount right = randomDiscount(depth - 1);
+        switch (random.nextInt(3)) {
+            case 0:
+                return new AndDiscount(id(), STORE_ID, List.of(left, right), randomCondition(), merge);
+            case 1:
+                return new OrDiscount(id(), STORE_ID, List.of(left, right), randomCondition(), merge);
+            default:
+                return new XorDiscount(id(), STORE_ID, left, right, randomCondition(), merge);
+        }
+    }
+
+    /**
+     * Prices the basket the way it was priced before plans existed: every discount from scratch, lowest total wins.
+     */
+    private Map<String, ItemPriceBreakdown> priceFromScratch(ShoppingBasket basket, List<Discount> discounts) {
+        Map<String, ItemPriceBreakdown> best = new HashMap<>();
+        double bestTotal = Double.MAX_VALUE;
+        for (Discount discount : discounts) {
+            Map<String, ItemPriceBreakdown> prices = discount.calculatePrice(basket, itemGetter);
+            if (prices == null || prices.isEmpty()) {
+                continue;
+            }
+            double total = ItemPriceBreakdown.calculateFinalPrice(prices);
+            if (total < bestTotal) {
+                bestTotal = total;
+                best = prices;
+            }
+        }
+        return best;
+    }
+
+    private static void assertSamePrices(String message, Map<String, ItemPriceBreakdown> expected,
+                                         Map<String, ItemPriceBreakdown> actual) {
+        assertEquals(message, expected.keySet(), actual.keySet());
+        assertEquals(message, expected.isEmpty() ? 0 : ItemPriceBreakdown.calculateFinalPrice(expected),
+                     actual.isEmpty() ? 0 : ItemPriceBreakdown.calculateFinalPrice(actual), 1e-9);
+        for (String productId : expected.keySet()) {
+            assertEquals(message + " " + productId, expected.get(productId).getOriginalPrice(),
+                         actual.get(productId).getOriginalPrice(), 1e-9);
+        }
+    }
+
+    @Test
+    public void noDiscounts_returnsOriginalPrices() {
+        ShoppingBasket basket = new ShoppingBasket(STORE_ID, "client");
+        basket.addOrder("p1", 2);
+        Map<String, ItemPriceBreakdown> prices = basket.getBestPrice(itemGetter, List.of(), versions);
+        assertEquals(1, prices.size());
+        assertEquals(10.0, prices.get("p1").getFinalPrice(), 1e-9);
+    }
+
+    @Test
+    public void quantityChange_flipsCondition() {
+        Discount discount = new SimpleDiscount(id(), STORE_ID, 0.5, new ProductQualifier("p1"),
+                                               new MinQuantityCondition(id(), "p1", 3));
+        List<Discount> discounts = List.of(discount);
+        ShoppingBasket basket = new ShoppingBasket(STORE_ID, "client");
+        basket.addOrder("p1", 1);
+        assertEquals(10.0, basket.getBestPrice(itemGetter, discounts, versions).get("p1").getFinalPrice(), 1e-9);
+
+        basket.addOrder("p1", 2);
+        assertEquals(5.0, basket.getBestPrice(itemGetter, discounts, versions).get("p1").getFinalPrice(), 1e-9);
+
+        basket.removeItem("p1", 1);
+        assertEquals(10.0, basket.getBestPrice(itemGetter, discounts, versions).get("p1").getFinalPrice(), 1e-9);
+    }
+
+    @Test
+    public void priceChange_isPickedUp() {
+        Discount discount = new SimpleDiscount(id(), STORE_ID, 0.1, new StoreQualifier(STORE_ID), new TrueCondition(id()));
+        List<Discount> discounts = List.of(discount);
+        ShoppingBasket basket = new ShoppingBasket(STORE_ID, "client");
+        basket.addOrder("p2", 1);
+        assertEquals(17.0 * 0.9, basket.getBestPrice(itemGetter, discounts, versions).get("p2").getFinalPrice(), 1e-9);
+
+        setPrice(items.get(new Pair<>(STORE_ID, "p2")), 30);
+        assertEquals(27.0, basket.getBestPrice(itemGetter, discounts, versions).get("p2").getFinalPrice(), 1e-9);
+    }
+
+    @Test
+    public void unchangedBasket_doesNotReadItemsAgain() {
+        @SuppressWarnings("unchecked")
+        BiFunction<String, String, Item> countingGetter = mock(BiFunction.class);
+        when(countingGetter.apply(anyString(), anyString())).thenAnswer(inv -> itemGetter.apply(inv.getArgument(0), inv.getArgument(1)));
+        List<Discount> discounts = List.of(randomDiscount(2), randomDiscount(3));
+        ShoppingBasket basket = new ShoppingBasket(STORE_ID, "client");
+        basket.addOrder("p1", 1);
+        basket.addOrder("p3", 2);
+
+        basket.getBestPrice(countingGetter, discounts, versions);
+        basket.getBestPrice(countingGetter, discounts, versions);
+        basket.addOrder("p1", 1);
+        basket.getBestPrice(countingGetter, discounts, versions);
+        verify(countingGetter, times(1)).apply(STORE_ID, "p1");
+        verify(countingGetter, times(1)).apply(STORE_ID, "p3");
+    }
+
+    @Test
+    public void plan_matchesFreshInstancesOfUnchangedDiscounts() {
+        String childId = id();
+        String parentId = id();
+        Condition condition = new MinQuantityCondition(id(), "p1", 2);
+        Discount child = new SimpleDiscount(childId, STORE_ID, 0.2, new ProductQualifier("p1"), condition);
+        Discount parent = new AndDiscount(parentId, STORE_ID, List.of(child), new TrueCondition(id()), MergeType.MAX);
+        DiscountPlan plan = new DiscountPlan(STORE_ID, List.of(parent), versions);
+
+        // As a database read returns them: equal rows, new objects
+        Discount childAgain = new SimpleDiscount(childId, STORE_ID, 0.2, new ProductQualifier("p1"), condition);
+        Discount parentAgain = new AndDiscount(parentId, STORE_ID, List.of(childAgain), new TrueCondition(id()), MergeType.MAX);
+        assertTrue(plan.matches(List.of(parentAgain)));
+
+        discountChanged(childId);
+        assertFalse(plan.matches(List.of(parentAgain)));
+        assertFalse(plan.matches(List.of(parent)));
+    }
+
+    @Test
+    public void discountEdit_onlyRepricesTheEditedDiscount() {
+        SimpleDiscount kept = new SimpleDiscount(id(), STORE_ID, 0.1, new ProductQualifier("p1"), new TrueCondition(id()));
+        SimpleDiscount edited = new SimpleDiscount(id(), STORE_ID, 0.2, new ProductQualifier("p3"),
+                                                   new MinQuantityCondition(id(), "p3", 5));
+        List<Discount> discounts = List.of(kept, edited);
+        ShoppingBasket basket = new ShoppingBasket(STORE_ID, "client");
+        basket.addOrder("p1", 1);
+        basket.addOrder("p3", 2);
+        assertEquals(9.0, basket.getBestPrice(itemGetter, discounts, versions).get("p1").getFinalPrice(), 1e-9);
+
+        edited.setCondition(new TrueCondition(id()));
+        discountChanged(edited.getId());
+        Map<String, ItemPriceBreakdown> prices = basket.getBestPrice(itemGetter, discounts, versions);
+
+        assertSamePrices("after the edit", priceFromScratch(basket, discounts), prices);
+        assertEquals(24.0 * 0.8, prices.get("p3").getFinalPrice(), 1e-9);
+    }
+
+    @Test
+    public void priceChangeInAnotherStore_keepsCachedPrices() {
+        @SuppressWarnings("unchecked")
+        BiFunction<String, String, Item> countingGetter = mock(BiFunction.class);
+        when(countingGetter.apply(anyString(), anyString())).thenAnswer(inv -> itemGetter.apply(inv.getArgument(0), inv.getArgument(1)));
+        List<Discount> discounts = List.of(randomDiscount(2));
+        ShoppingBasket basket = new ShoppingBasket(STORE_ID, "client");
+        basket.addOrder("p1", 1);
+        basket.getBestPrice(countingGetter, discounts, versions);
+
+        setPrice(new Item("storeB", "p1", 10, 1, "item", "Game", Set.of()), 12);
+        basket.getBestPrice(countingGetter, discounts, versions);
+        verify(countingGetter, times(1)).apply(STORE_ID, "p1");
+    }
+
+    @Test
+    public void unknownDiscountType_isInterpreted() {
+        Discount custom = mock(Discount.class);
+        Map<String, ItemPriceBreakdown> fixed = new HashMap<>();
+        fixed.put("p1", new ItemPriceBreakdown(10, 0.9));
+        when(custom.calculatePrice(any(), any())).thenReturn(fixed);
+        ShoppingBasket basket = new ShoppingBasket(STORE_ID, "client");
+        basket.addOrder("p1", 1);
+        assertEquals(1.0, basket.getBestPrice(itemGetter, List.of(custom), versions).get("p1").getFinalPrice(), 1e-9);
+    }
+
+    @Test
+    public void lineChangesTheSeedOrALaterChangeHas_areIgnored() {
+        Discount discount = new SimpleDiscount(id(), STORE_ID, 0.5, new StoreQualifier(STORE_ID), new TrueCondition(id()));
+        DiscountPlan.Pricing pricing = new DiscountPlan(STORE_ID, List.of(discount), versions).newPricing();
+        ShoppingBasket basket = new ShoppingBasket(STORE_ID, "client");
+
+        pricing.lineChanged("p1", 2, 6);
+        pricing.seed(Map.of("p1", 1, "p2", 1), 5);
+        pricing.lineChanged("p2", null, 4);
+        pricing.lineChanged("p3", 1, 8);
+        pricing.lineChanged("p3", null, 7);
+        pricing.lineChanged("p4", 1, 9);
+        pricing.lineChanged("p4", null, 10);
+
+        assertEquals(Set.of("p1", "p2", "p3"), pricing.getBestPrice(basket, itemGetter).keySet());
+    }
+
+    @Test
+    public void plan_agreesWithDiscounts_underRandomChanges() {
+        for (int round = 0; round < 30; round++) {
+            List<Discount> discounts = new ArrayList<>();
+            for (int d = 0; d < 1 + random.nextInt(4); d++) {
+                discounts.add(randomDiscount(random.nextInt(4)));
+            }
+            ShoppingBasket basket = new ShoppingBasket(STORE_ID, "client" + round);
+            for (int step = 0; step < 40; step++) {
+                String productId = randomProduct();
+                int action = random.nextInt(10);
+                if (action < 5) {
+                    basket.addOrder(productId, 1 + random.nextInt(3));
+                } else if (action < 7 && basket.getProduct(productId) > 0) {
+                    basket.removeItem(productId, 1);
+                } else if (action == 7) {
+                    basket.removeItem(productId);
+                } else if (action == 8) {
+                    setPrice(items.get(new Pair<>(STORE_ID, productId)), 5 + random.nextInt(60));
+                } else if (random.nextInt(3) == 0) {
+                    discounts.set(random.nextInt(discounts.size()), randomDiscount(random.nextInt(4)));
+                } else if (random.nextBoolean()) {
+                    // Edited in place, as the memory repositories hand out the same instances
+                    Discount edited = discounts.get(random.nextInt(discounts.size()));
+                    edited.setCondition(randomCondition());
+                    discountChanged(edited.getId());
+                } else {
+                    basket.clear();
+                }
+                assertSamePrices("round " + round + " step " + step + " orders " + basket.getOrders(),
+                                 priceFromScratch(basket, discounts),
+                                 basket.getBestPrice(itemGetter, discounts, versions));
+            }
+        }
+    }
+}
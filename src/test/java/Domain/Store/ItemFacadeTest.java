@@ -1,12 +1,18 @@
 package Domain.Store;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import org.junit.Before;
 import org.junit.Test;
 import static org.mockito.ArgumentMatchers.any;
@@ -18,9 +24,12 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import Domain.Pair;
+import Domain.Events.DomainEvent;
+import Domain.Events.DomainEventBus;
 import Domain.Repos.IItemRepository;
 import Domain.Repos.IProductRepository;
 import Domain.Repos.IStoreRepository;
+import Infrastructure.MemoryRepositories.MemoryItemRepository;
 
 public class ItemFacadeTest {
 
@@ -28,13 +37,15 @@ public class ItemFacadeTest {
     private IItemRepository repo;
     private IProductRepository productRepo;
     private IStoreRepository storeRepo;
+    private DomainEventBus eventBus;
 
     @Before
     public void setUp() {
         repo = mock(IItemRepository.class);
         productRepo = mock(IProductRepository.class);
         storeRepo = mock(IStoreRepository.class);
-        facade = new ItemFacade(repo, productRepo, storeRepo);
+        eventBus = new DomainEventBus();
+        facade = new ItemFacade(repo, productRepo, storeRepo, eventBus);
     }
 
     @Test
@@ -170,4 +181,106 @@ public void givenExistingItem_whenAdd_thenReturnsFalseAndSkipsAdd() {
         facade.remove(id);
     }
 
+    private ItemFacade facadeWithItems(MemoryItemRepository items) {
+        when(storeRepo.get("s")).thenReturn(mock(Store.class));
+        items.add(new Pair<>("s", "a"), new Item("s", "a", 2.0, 5, "apple", "Apple", Set.of()));
+        items.add(new Pair<>("s", "b"), new Item("s", "b", 3.0, 1, "pear", "Pear", Set.of()));
+        return new ItemFacade(items, productRepo, storeRepo, eventBus);
+    }
+
+    @Test
+    public void givenUpdates_whenUpdateItems_thenAppliesAllAndPublishesOneEvent() throws InterruptedException {
+        MemoryItemRepository items = new MemoryItemRepository();
+        ItemFacade itemFacade = facadeWithItems(items);
+        List<DomainEvent> events = Collections.synchronizedList(new ArrayList<>());
+        DomainEventBus.Subscription subscription = eventBus.subscribe("item-facade-test", 16, batch ->
+                batch.stream().filter(event -> event.storeId().equals("s")).forEach(events::add));
+        try {
+            List<Item> updated = itemFacade.updateItems("s", List.of(
+                    ItemUpdate.price("a", 1.5f), ItemUpdate.stock("b", 4), new ItemUpdate("a", null, -5)));
+
+            assertEquals(3, updated.size());
+            assertEquals(1.5, items.get(new Pair<>("s", "a")).getPrice(), 0.0);
+            assertEquals(0, items.get(new Pair<>("s", "a")).getAmount());
+            assertEquals(5, items.get(new Pair<>("s", "b")).getAmount());
+            assertTrue(eventBus.awaitIdle(1000));
+            assertEquals(List.of(new DomainEvent.ItemsUpdated("s", List.of("a", "b"))), events);
+        } finally {
+            subscription.close();
+        }
+    }
+
+    @Test
+    public void givenTooLittleStock_whenUpdateItems_thenNothingChanges() {
+        MemoryItemRepository items = new MemoryItemRepository();
+        ItemFacade itemFacade = facadeWithItems(items);
+        try {
+            itemFacade.updateItems("s", List.of(ItemUpdate.price("a", 9f), ItemUpdate.stock("a", 3),
+                    ItemUpdate.stock("b", -2)));
+            fail("Expected the batch to be rejected");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("Not enough stock of b"));
+        }
+        Item apple = items.get(new Pair<>("s", "a"));
+        assertEquals(2.0, apple.getPrice(), 0.0);
+        assertEquals(5, apple.getAmount());
+        assertEquals(1, items.get(new Pair<>("s", "b")).getAmount());
+    }
+
+    @Test
+    public void givenPriceChanges_whenGetPriceVersion_thenMovesForThatStoreOnly() {
+        ItemFacade itemFacade = facadeWithItems(new MemoryItemRepository());
+        when(storeRepo.get("other")).thenReturn(mock(Store.class));
+        itemFacade.updateItems("s", List.of(ItemUpdate.stock("a", 1)));
+        assertEquals(0, itemFacade.getPriceVersion("s"));
+
+        itemFacade.changePrice("s", "a", 4f);
+        assertEquals(1, itemFacade.getPriceVersion("s"));
+        assertEquals(0, itemFacade.getPriceVersion("other"));
+        try {
+            itemFacade.updateItems("s", List.of(ItemUpdate.price("a", 9f), ItemUpdate.stock("b", -2)));
+            fail("Expected the batch to be rejected");
+        } catch (IllegalArgumentException e) {
+            // A rolled back price may have been read meanwhile
+            assertEquals(2, itemFacade.getPriceVersion("s"));
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void givenItemWriteLockHeld_whenRepositoryMutates_thenRunsInline() {
+        MemoryItemRepository items = new MemoryItemRepository();
+        facadeWithItems(items);
+        Pair<String, String> id = new Pair<>("s", "a");
+        // As accepting an offer does: the repository's mutators take the same lock the caller holds
+        items.withWriteLock(id, () -> {
+            Item item = items.get(id);
+            item.decreaseAmount(1);
+            items.update(id, item);
+            items.decreaseAmount(id, 1);
+        });
+        assertEquals(3, items.get(id).getAmount());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void givenUnsoldProduct_whenUpdateItems_thenThrows() {
+        facadeWithItems(new MemoryItemRepository()).updateItems("s", List.of(ItemUpdate.stock("missing", 1)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void givenNegativePrice_whenCreatingUpdate_thenThrows() {
+        ItemUpdate.price("a", -1f);
+    }
+
+    @Test
+    public void givenProductIds_whenGetItems_thenReturnsTheSoldOnesByProductId() {
+        MemoryItemRepository items = new MemoryItemRepository();
+        ItemFacade itemFacade = facadeWithItems(items);
+
+        Map<String, Item> found = itemFacade.getItems("s", List.of("a", "b", "missing"));
+
+        assertEquals(Set.of("a", "b"), found.keySet());
+        assertSame(items.get(new Pair<>("s", "a")), found.get("a"));
+        verify(storeRepo, times(1)).get("s");
+        verify(productRepo, times(0)).get(any());
+    }
 }
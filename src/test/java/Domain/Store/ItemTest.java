@@ -3,6 +3,7 @@ package Domain.Store;
 import java.util.HashSet;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -73,6 +74,59 @@ public class ItemTest {
         item.decreaseAmount(10);
     }
 
+    @Test
+    public void givenDecreaseUpToMoreThanStock_thenRemovesWhatIsLeft() {
+        assertEquals(2, item.decreaseAmountUpTo(2));
+        assertEquals(3, item.decreaseAmountUpTo(10));
+        assertEquals(0, item.getAmount());
+        assertEquals(0, item.decreaseAmountUpTo(1));
+    }
+
+    @Test
+    public void givenBoundStock_whenSetAmount_thenSalesMadeMeanwhileAreKept() {
+        // Two units are sold between the item reading the count and adding to it
+        StockCounter counter = new StockCounter() {
+            private int stock = 5;
+            private boolean saleDue = true;
+
+            @Override
+            public int get() {
+                return stock;
+            }
+
+            @Override
+            public boolean add(int delta) {
+                if (saleDue) {
+                    stock -= 2;
+                    saleDue = false;
+                }
+                if (stock + delta < 0) {
+                    return false;
+                }
+                stock += delta;
+                return true;
+            }
+        };
+        item.bindStock(counter);
+
+        item.setAmount(10);
+
+        assertEquals(8, item.getAmount());
+    }
+
+    @Test
+    public void givenSale_thenOnlyItsStoreVersionMoves() {
+        long store = CatalogVersions.ofStore("store1");
+        long other = CatalogVersions.ofStore("store2");
+        long total = CatalogVersions.total();
+
+        item.decreaseAmount(1);
+
+        assertEquals(store + 1, CatalogVersions.ofStore("store1"));
+        assertEquals(other, CatalogVersions.ofStore("store2"));
+        assertTrue(CatalogVersions.total() > total);
+    }
+
     @Test
     public void givenValidAddRating_thenRatesUpdatedAndGetRatingCorrect() {
         item.addRating(3);
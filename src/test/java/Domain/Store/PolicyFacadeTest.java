@@ -9,6 +9,7 @@ import java.util.NoSuchElementException;
 import org.junit.Before;
 import org.junit.Test;
 
+import Domain.Events.DomainEventBus;
 import Domain.Repos.IPolicyRepository;
 import Domain.Repos.IUserRepository;
 import Domain.Shopping.ShoppingBasket;
@@ -34,7 +35,7 @@ public class PolicyFacadeTest {
         itemFacadeMock    = mock(ItemFacade.class);
         productFacadeMock = mock(ProductFacade.class);
 
-        facade = new PolicyFacade(repoMock, userRepoMock, itemFacadeMock, productFacadeMock);
+        facade = new PolicyFacade(repoMock, userRepoMock, itemFacadeMock, productFacadeMock, new DomainEventBus());
     }
 
     @Test
@@ -0,0 +1,192 @@
+package Domain.Store;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import Domain.Shopping.ShoppingBasket;
+import Domain.User.Member;
+
+/**
+ * Unit tests for Domain.Store.PolicyPlan.
+ * The compiled plan must agree with Policy.isApplicable while the basket changes line by line.
+ */
+public class PolicyPlanTest {
+
+    private Map<String, Product> products;
+    private Function<String, Product> productLookup;
+    private Member adult;
+    private Member minor;
+
+    @Before
+    public void setUp() {
+        Category action = new Category("Action", "action games");
+        Category horror = new Category("Horror", "horror games");
+        Category family = new Category("Family", "family games");
+        products = new HashMap<>();
+        products.put("p1", new Product("p1", "Shooter", Set.of(action)));
+        products.put("p2", new Product("p2", "Haunted", Set.of(horror, action)));
+        products.put("p3", new Product("p3", "Party", Set.of(family)));
+        products.put("p4", new Product("p4", "Scary Party", Set.of(horror, family)));
+        productLookup = products::get;
+
+        adult = mock(Member.class);
+        when(adult.getAge()).thenReturn(30);
+        minor = mock(Member.class);
+        when(minor.getAge()).thenReturn(12);
+    }
+
+    private Policy.Builder builder(Policy.Type type, String id) {
+        return new Policy.Builder(type)
+                .policyId(id)
+                .storeId("storeA")
+                .productLookup(productLookup)
+                .itemLookup(pid -> null);
+    }
+
+    private List<Policy> allKinds() {
+        return List.of(
+            builder(Policy.Type.MIN_QUANTITY_ALL, "minAll").minItemsAll(1).build(),
+            builder(Policy.Type.MAX_QUANTITY_ALL, "maxAll").maxItemsAll(5).build(),
+            builder(Policy.Type.MIN_QUANTITY_PRODUCT, "minP1").targetProductId("p1").minItemsProduct(1).build(),
+            builder(Policy.Type.MAX_QUANTITY_PRODUCT, "maxP3").targetProductId("p3").maxItemsProduct(2).build(),
+            builder(Policy.Type.MIN_QUANTITY_CATEGORY, "minAction").targetCategory("action").minItemsCategory(2).build(),
+            builder(Policy.Type.MAX_QUANTITY_CATEGORY, "maxFamily").targetCategory("FAMILY").maxItemsCategory(3).build(),
+            builder(Policy.Type.CATEGORY_DISALLOW, "noHorror").disallowedCategory("Horror").build(),
+            builder(Policy.Type.CATEGORY_AGE, "ageAction").ageCategory("Action").minAge(18).build());
+    }
+
+    private List<Policy> expectedViolations(List<Policy> policies, ShoppingBasket basket, Member member) {
+        List<Policy> violated = new ArrayList<>();
+        for (Policy policy : policies) {
+            if (!policy.isApplicable(basket, member)) {
+                violated.add(policy);
+            }
+        }
+        return violated;
+    }
+
+    @Test
+    public void emptyPlan_hasNoViolations() {
+        PolicyPlan plan = new PolicyPlan("storeA", List.of(), productLookup);
+        ShoppingBasket basket = new ShoppingBasket("storeA", "client");
+        basket.addOrder("p1", 1);
+        assertTrue(plan.isApplicable(basket, adult));
+    }
+
+    @Test
+    public void disallowedCategory_caseInsensitive_isViolatedUntilLineRemoved() {
+        Policy noHorror = builder(Policy.Type.CATEGORY_DISALLOW, "noHorror").disallowedCategory("HORROR").build();
+        PolicyPlan plan = new PolicyPlan("storeA", List.of(noHorror), productLookup);
+        ShoppingBasket basket = new ShoppingBasket("storeA", "client");
+        basket.addOrder("p1", 1);
+        assertTrue(plan.isApplicable(basket, adult));
+
+        basket.addOrder("p2", 1);
+        assertEquals(List.of(noHorror), plan.getViolatedPolicies(basket, adult));
+
+        basket.removeItem("p2");
+        assertTrue(plan.isApplicable(basket, adult));
+    }
+
+    @Test
+    public void subPolicies_mustAllHold() {
+        Policy nested = builder(Policy.Type.MAX_QUANTITY_ALL, "outer").maxItemsAll(10)
+                .subPolicies(List.of(builder(Policy.Type.CATEGORY_DISALLOW, "inner").disallowedCategory("Family").build()))
+                .build();
+        PolicyPlan plan = new PolicyPlan("storeA", List.of(nested), productLookup);
+        ShoppingBasket basket = new ShoppingBasket("storeA", "client");
+        basket.addOrder("p1", 1);
+        assertTrue(plan.isApplicable(basket, adult));
+        assertTrue(nested.isApplicable(basket, adult));
+
+        basket.addOrder("p3", 1);
+        assertEquals(List.of(nested), plan.getViolatedPolicies(basket, adult));
+        assertFalse(nested.isApplicable(basket, adult));
+    }
+
+    @Test
+    public void productCategories_areResolvedOncePerPlan() {
+        @SuppressWarnings("unchecked")
+        Function<String, Product> countingLookup = mock(Function.class);
+        when(countingLookup.apply(anyString())).thenAnswer(inv -> products.get(inv.getArgument(0)));
+        Policy noHorror = builder(Policy.Type.CATEGORY_DISALLOW, "noHorror").disallowedCategory("Horror").build();
+        PolicyPlan plan = new PolicyPlan("storeA", List.of(noHorror), countingLookup);
+
+        ShoppingBasket basket = new ShoppingBasket("storeA", "client");
+        basket.addOrder("p1", 1);
+        for (int i = 0; i < 10; i++) {
+            plan.isApplicable(basket, adult);
+            basket.addOrder("p1", 1);
+        }
+        verify(countingLookup, times(1)).apply("p1");
+    }
+
+    @Test
+    public void plan_agreesWithPolicies_underRandomBasketChanges() {
+        List<Policy> policies = allKinds();
+        PolicyPlan plan = new PolicyPlan("storeA", policies, productLookup);
+        Random random = new Random(7);
+        String[] ids = {"p1", "p2", "p3", "p4"};
+
+        for (int round = 0; round < 20; round++) {
+            ShoppingBasket basket = new ShoppingBasket("storeA", "client" + round);
+            for (int step = 0; step < 50; step++) {
+                String productId = ids[random.nextInt(ids.length)];
+                int action = random.nextInt(4);
+                if (action < 2) {
+                    basket.addOrder(productId, 1 + random.nextInt(3));
+                } else if (action == 2 && basket.getProduct(productId) > 0) {
+                    basket.removeItem(productId, 1);
+                } else if (random.nextInt(10) == 0) {
+                    basket.clear();
+                } else {
+                    basket.removeItem(productId);
+                }
+                Member member = random.nextBoolean() ? adult : minor;
+                assertEquals("round " + round + " step " + step + " orders " + basket.getOrders(),
+                             expectedViolations(policies, basket, member),
+                             plan.getViolatedPolicies(basket, member));
+            }
+        }
+    }
+
+    @Test
+    public void lineChangesTheSeedOrALaterChangeHas_areNotCountedAgain() {
+        Policy noHorror = builder(Policy.Type.CATEGORY_DISALLOW, "noHorror").disallowedCategory("Horror").build();
+        PolicyPlan plan = new PolicyPlan("storeA", List.of(noHorror), productLookup);
+        PolicyPlan.Tracker tracker = plan.newTracker();
+
+        tracker.lineChanged("p4", 1, 6);
+        tracker.seed(Map.of("p2", 1, "p4", 2), 5);
+        tracker.lineChanged("p2", 1, 4);
+        tracker.lineChanged("p2", 1, 5);
+        assertEquals(2, tracker.linesIn(0));
+
+        tracker.lineChanged("p4", null, 8);
+        tracker.lineChanged("p4", 3, 7);
+        assertEquals(1, tracker.linesIn(0));
+    }
+
+    @Test
+    public void newPlan_reseedsBasketCounters() {
+        ShoppingBasket basket = new ShoppingBasket("storeA", "client");
+        basket.addOrder("p2", 1);
+        PolicyPlan lenient = new PolicyPlan("storeA", List.of(), productLookup);
+        assertTrue(lenient.isApplicable(basket, adult));
+
+        Policy noHorror = builder(Policy.Type.CATEGORY_DISALLOW, "noHorror").disallowedCategory("Horror").build();
+        PolicyPlan strict = new PolicyPlan("storeA", List.of(noHorror), productLookup);
+        assertFalse(strict.isApplicable(basket, adult));
+    }
+}
@@ -0,0 +1,71 @@
+package Domain.Store;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class RatingHistogramTest {
+
+    private RatingHistogram histogram;
+
+    @Before
+    public void setUp() {
+        histogram = new RatingHistogram();
+    }
+
+    @Test
+    public void whenEmpty_thenAverageIsZero() {
+        assertEquals(0.0, histogram.getAverage(), 0.0);
+        assertEquals(0, histogram.getCount());
+    }
+
+    @Test
+    public void givenRatings_thenCountsAndAverageAgree() {
+        histogram.add(1, 2);
+        histogram.add(4, 1);
+        histogram.add(5, 3);
+        assertEquals(2, histogram.getCount(1));
+        assertEquals(0, histogram.getCount(2));
+        assertEquals(6, histogram.getCount());
+        assertEquals(21.0 / 6.0, histogram.getAverage(), 1e-9);
+    }
+
+    @Test
+    public void givenManyRatings_thenSumDoesNotSpillIntoCount() {
+        histogram.add(5, 100_000_000L);
+        histogram.add(1, 1);
+        assertEquals(100_000_001L, histogram.getCount());
+        assertEquals(500_000_001.0 / 100_000_001.0, histogram.getAverage(), 1e-9);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void givenRatingZero_thenThrows() {
+        histogram.add(0, 1);
+    }
+
+    @Test
+    public void givenConcurrentRatings_thenNoneAreLost() throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int rating = t % 5 + 1;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.add(rating, 1);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(80_000, histogram.getCount());
+        assertEquals(20_000, histogram.getCount(1));
+        assertEquals((20_000 * 1 + 20_000 * 2 + 20_000 * 3 + 10_000 * 4 + 10_000 * 5) / 80_000.0,
+                histogram.getAverage(), 1e-9);
+    }
+}
@@ -0,0 +1,147 @@
+package Domain.Store;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+/**
+ * Unit tests for Domain.Store.StoreLocks.
+ */
+public class StoreLocksTest {
+
+    private StoreLocks locks;
+    private ExecutorService callers;
+
+    @Before
+    public void setUp() {
+        locks = new StoreLocks();
+        callers = Executors.newFixedThreadPool(8);
+    }
+
+    @After
+    public void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    public void mutationsOfOneStore_neverOverlap() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        int[] counter = {0};
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(callers.submit(() -> {
+                for (int j = 0; j < 500; j++) {
+                    locks.execute("store-1", () -> {
+                        if (running.incrementAndGet() > 1) {
+                            overlaps.incrementAndGet();
+                        }
+                        counter[0]++;
+                        running.decrementAndGet();
+                        return null;
+                    });
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        assertEquals(0, overlaps.get());
+        assertEquals(4000, counter[0]);
+    }
+
+    @Test
+    public void differentStores_runInParallel() throws Exception {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        Future<Boolean> a = callers.submit(() -> locks.execute("store-a", () -> awaitQuietly(bothStarted)));
+        Future<Boolean> b = callers.submit(() -> locks.execute("store-b", () -> awaitQuietly(bothStarted)));
+        assertTrue(a.get(10, TimeUnit.SECONDS));
+        assertTrue(b.get(10, TimeUnit.SECONDS));
+    }
+
+    private static boolean awaitQuietly(CountDownLatch latch) {
+        latch.countDown();
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            return false;
+        }
+    }
+
+    @Test
+    public void mutation_runsOnTheCallersThread() {
+        Thread caller = Thread.currentThread();
+        assertSame(caller, locks.execute("store-1", Thread::currentThread));
+    }
+
+    @Test
+    public void nestedMutationOfSameStore_runsInline() {
+        int result = locks.execute("store-1", () -> locks.execute("store-1", () -> 42));
+        assertEquals(42, result);
+    }
+
+    @Test
+    public void runtimeException_reachesCaller() {
+        try {
+            locks.execute("store-1", () -> {
+                throw new RuntimeException("Store is already open");
+            });
+            fail("Expected RuntimeException was not thrown");
+        } catch (RuntimeException e) {
+            assertEquals("Store is already open", e.getMessage());
+        }
+        assertEquals("free", locks.execute("store-1", () -> "free"));
+    }
+
+    @Test
+    public void executeAll_locksEveryStore() throws Exception {
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> owner = callers.submit(() -> locks.executeAll(List.of("store-a", "store-b"), () -> {
+            held.countDown();
+            return awaitQuietly(release);
+        }));
+        assertTrue(held.await(10, TimeUnit.SECONDS));
+        Future<String> next = callers.submit(() -> locks.execute("store-b", () -> "done"));
+        Thread.sleep(200);
+        assertFalse(next.isDone());
+
+        release.countDown();
+        owner.get(10, TimeUnit.SECONDS);
+        assertEquals("done", next.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void lock_isHeldUntilTheTransactionCompletes() throws Exception {
+        AtomicBoolean committed = new AtomicBoolean();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            locks.execute("store-1", () -> null);
+            Future<Boolean> next = callers.submit(() -> locks.execute("store-1", committed::get));
+            Thread.sleep(200);
+            assertFalse(next.isDone());
+
+            committed.set(true);
+            TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+                                                                  TransactionSynchronization.STATUS_COMMITTED);
+            assertTrue(next.get(10, TimeUnit.SECONDS));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package Domain.User;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Unit tests for Domain.User.CredentialHasher.
+ */
+public class CredentialHasherTest {
+
+    @Test
+    public void encode_isVerifiedByMatches() {
+        CredentialHasher hasher = new CredentialHasher(1, CredentialHasher.MIN_STRENGTH, 4, 0);
+        String encoded = hasher.encode("Secret123!").join();
+
+        assertTrue(encoded.startsWith("$2a$10$"));
+        assertTrue(hasher.matches("Secret123!", encoded).join());
+        assertFalse(hasher.matches("secret123!", encoded).join());
+        hasher.shutdown();
+    }
+
+    @Test
+    public void needsRehash_onlyForWeakerBcryptHashes() {
+        CredentialHasher hasher = new CredentialHasher(1, 12, 4, 0);
+
+        assertTrue(hasher.needsRehash(new BCryptPasswordEncoder(10).encode("pw")));
+        assertFalse(hasher.needsRehash("$2a$12$abcdefghijklmnopqrstuuLXLfoa3fCGcLJ9pjGDPzDnNTrYDuGOe"));
+        assertFalse(hasher.needsRehash("not-a-bcrypt-hash"));
+        hasher.shutdown();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void strengthOutOfRange_isRejected() {
+        new CredentialHasher(1, 4, 4, 0);
+    }
+
+    @Test
+    public void calibration_neverGoesBelowMinimum() {
+        CredentialHasher hasher = new CredentialHasher(1, 0, 4, 1);
+        assertEquals(CredentialHasher.MIN_STRENGTH, hasher.getStrength());
+        hasher.shutdown();
+    }
+
+    @Test
+    public void fullQueue_failsFast() throws Exception {
+        // One thread and one queue slot: a third concurrent hash has nowhere to go.
+        CredentialHasher hasher = new CredentialHasher(1, CredentialHasher.MIN_STRENGTH, 1, 0);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            CompletableFuture<Boolean> running = hasher.submit(() -> {
+                started.countDown();
+                return awaitQuietly(release);
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            CompletableFuture<Boolean> queued = hasher.submit(() -> awaitQuietly(release));
+            assertEquals(1, hasher.getQueued());
+            try {
+                hasher.encode("pw").join();
+                fail("Expected the full queue to reject the call");
+            } catch (CompletionException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+                assertTrue(e.getCause().getMessage().contains("Too many"));
+            }
+            release.countDown();
+            assertTrue(running.get(5, TimeUnit.SECONDS));
+            assertTrue(queued.get(5, TimeUnit.SECONDS));
+        } finally {
+            hasher.shutdown();
+        }
+    }
+
+    @Test
+    public void encode_returnsBeforeTheHashIsDone() throws Exception {
+        CredentialHasher hasher = new CredentialHasher(1, CredentialHasher.MIN_STRENGTH, 4, 0);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            hasher.submit(() -> awaitQuietly(release));
+            CompletableFuture<String> encoded = hasher.encode("pw");
+
+            assertFalse(encoded.isDone());
+            release.countDown();
+            assertTrue(encoded.get(5, TimeUnit.SECONDS).startsWith("$2a$10$"));
+        } finally {
+            hasher.shutdown();
+        }
+    }
+
+    private static boolean awaitQuietly(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package Domain.User;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for Domain.User.GuestSessions with a manual clock.
+ */
+public class GuestSessionsTest {
+
+    private static final long TIMEOUT = 60_000;
+
+    private long now;
+    private GuestSessions sessions;
+
+    @Before
+    public void setUp() {
+        now = 1_000_000;
+        sessions = new GuestSessions(TIMEOUT, 60, () -> now);
+    }
+
+    @Test
+    public void idleGuest_expiresAfterTimeout() {
+        sessions.track("g1");
+        now += TIMEOUT - 1_000;
+        assertTrue(sessions.expire(100).isEmpty());
+
+        now += 2_000;
+        assertEquals(List.of("g1"), sessions.expire(100));
+        assertFalse(sessions.isTracked("g1"));
+        assertEquals(0, sessions.size());
+    }
+
+    @Test
+    public void touchedGuest_isRescheduled() {
+        sessions.track("g1");
+        now += TIMEOUT / 2;
+        sessions.touch("g1");
+
+        now += TIMEOUT / 2 + 1_000;
+        assertTrue(sessions.expire(100).isEmpty());
+        assertTrue(sessions.isTracked("g1"));
+
+        now += TIMEOUT / 2;
+        assertEquals(List.of("g1"), sessions.expire(100));
+    }
+
+    @Test
+    public void untrackedAndUnknownIds_areIgnored() {
+        sessions.track("g1");
+        sessions.untrack("g1");
+        sessions.touch("member");
+        assertFalse(sessions.isTracked("member"));
+
+        now += 2 * TIMEOUT;
+        assertTrue(sessions.expire(100).isEmpty());
+    }
+
+    @Test
+    public void expire_respectsLimitAndResumes() {
+        for (int i = 0; i < 25; i++) {
+            sessions.track("g" + i);
+        }
+        now += TIMEOUT + 1_000;
+
+        assertEquals(10, sessions.expire(10).size());
+        assertEquals(10, sessions.expire(10).size());
+        assertEquals(5, sessions.expire(10).size());
+        assertTrue(sessions.expire(10).isEmpty());
+        assertEquals(0, sessions.size());
+    }
+
+    @Test
+    public void longPause_sweepsEveryGuestOnce() {
+        for (int i = 0; i < 120; i++) {
+            sessions.track("g" + i);
+            now += 500;
+        }
+        sessions.touch("g119");
+        now += 10 * TIMEOUT;
+        sessions.touch("g0");
+
+        List<String> expired = sessions.expire(1_000);
+        assertEquals(119, expired.size());
+        assertEquals(119, Set.copyOf(expired).size());
+        assertFalse(expired.contains("g0"));
+        assertTrue(sessions.isTracked("g0"));
+    }
+}
@@ -2,10 +2,20 @@ package Domain.User;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.UUID;
-
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -18,11 +28,15 @@ import org.mockito.Mock;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
 
 import Domain.Repos.IUserRepository;
 
@@ -36,11 +50,38 @@ public class LoginManagerTest {
     
    
 
+    private CredentialHasher hasher;
     private LoginManager loginManager;
 
     @Before
     public void setUp() {
-        loginManager = new LoginManager(userRepository);
+        hasher = new CredentialHasher(2, CredentialHasher.MIN_STRENGTH, 4, 0);
+        loginManager = newLoginManager(hasher);
+    }
+
+    @After
+    public void tearDown() {
+        hasher.shutdown();
+    }
+
+    private LoginManager newLoginManager(CredentialHasher credentials) {
+        return new LoginManager(userRepository, credentials, GuestSessions.withDefaults());
+    }
+
+    /**
+     * Waits for the future and throws what it failed with, as the synchronous calls did.
+     */
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new CompletionException(e.getCause());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
     }
 
     @Test
@@ -96,7 +137,7 @@ public class LoginManagerTest {
         when(mockGuest.register(anyString(), anyString(), anyString()))
             .thenReturn(fakeMember);
 
-        Member result = loginManager.register(guestId, username, rawPass, email);
+        Member result = await(loginManager.register(guestId, username, rawPass, email));
 
         assertSame(fakeMember, result);
         InOrder order = inOrder(userRepository);
@@ -153,7 +194,7 @@ public class LoginManagerTest {
         member.logout(loginManager);
         when(userRepository.getMemberByUsername(username)).thenReturn(member);
 
-        Member result = loginManager.login(username, rawPass);
+        Member result = await(loginManager.login(username, rawPass));
 
         assertSame(member, result);
         assertTrue(member.isLoggedIn());
@@ -167,7 +208,7 @@ public class LoginManagerTest {
         member.logout(loginManager);
         when(userRepository.getMemberByUsername(username)).thenReturn(member);
 
-        loginManager.login(username, "wrongPassword");
+        await(loginManager.login(username, "wrongPassword"));
     }
 
     @Test(expected = NoSuchElementException.class)
@@ -253,4 +294,172 @@ public class LoginManagerTest {
         }
     }
 
+    /**
+     * A hasher whose encode waits until released, so a registration can be held mid-hash.
+     */
+    private static CredentialHasher blockingHasher(CountDownLatch entered, CountDownLatch release) {
+        return new CredentialHasher(2, CredentialHasher.MIN_STRENGTH, 4, 0) {
+            @Override
+            public CompletableFuture<String> encode(String rawPassword) {
+                return submit(() -> {
+                    entered.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return "ENCODED";
+                });
+            }
+        };
+    }
+
+    private void stubRegistration(String guestId, String username) {
+        Guest guest = mock(Guest.class);
+        when(userRepository.getGuest(guestId)).thenReturn(guest);
+        when(userRepository.remove(guestId)).thenReturn(guest);
+        when(guest.register(eq(username), anyString(), anyString()))
+            .thenReturn(new Member(UUID.randomUUID(), username, "ENCODED", "e@x.com"));
+    }
+
+    @Test
+    public void testRegister_SameUsernameConcurrently_OnlyOneProceeds() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CredentialHasher blocking = blockingHasher(entered, release);
+        loginManager = newLoginManager(blocking);
+        String guestId = UUID.randomUUID().toString();
+        stubRegistration(guestId, "dave");
+        when(userRepository.add(anyString(), any(Member.class))).thenReturn(true);
+
+        try {
+            CompletableFuture<Member> first = loginManager.register(guestId, "dave", "StrongP@ss1", "d@x.com");
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            try {
+                loginManager.register(UUID.randomUUID().toString(), "dave", "StrongP@ss1", "d@x.com");
+                fail("Expected the pending username to be rejected");
+            } catch (IllegalArgumentException e) {
+                assertEquals("Username already exists", e.getMessage());
+            }
+            release.countDown();
+            assertEquals("dave", await(first).getName());
+        } finally {
+            blocking.shutdown();
+        }
+    }
+
+    @Test
+    public void testRegister_DifferentUsernames_HashConcurrently() throws Exception {
+        CountDownLatch entered = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        CredentialHasher blocking = blockingHasher(entered, release);
+        loginManager = newLoginManager(blocking);
+        String firstGuest = UUID.randomUUID().toString();
+        String secondGuest = UUID.randomUUID().toString();
+        stubRegistration(firstGuest, "erin");
+        stubRegistration(secondGuest, "frank");
+        when(userRepository.add(anyString(), any(Member.class))).thenReturn(true);
+
+        try {
+            // Both calls return while their hashes run: the caller's thread is not held
+            CompletableFuture<Member> first = loginManager.register(firstGuest, "erin", "StrongP@ss1", "e@x.com");
+            CompletableFuture<Member> second = loginManager.register(secondGuest, "frank", "StrongP@ss1", "f@x.com");
+            // Both registrations are inside encode at once: nothing serialises them.
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            assertFalse(first.isDone());
+            release.countDown();
+            assertEquals("erin", await(first).getName());
+            assertEquals("frank", await(second).getName());
+        } finally {
+            blocking.shutdown();
+        }
+    }
+
+    @Test
+    public void testRegister_GuestIsNotEvictedWhileHashing() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CredentialHasher blocking = blockingHasher(entered, release);
+        AtomicLong now = new AtomicLong(1_000_000);
+        GuestSessions sessions = new GuestSessions(1000, 10, now::get);
+        loginManager = new LoginManager(userRepository, blocking, sessions);
+        String guestId = UUID.randomUUID().toString();
+        sessions.track(guestId);
+        stubRegistration(guestId, "hank");
+        when(userRepository.add(anyString(), any(Member.class))).thenReturn(true);
+
+        try {
+            CompletableFuture<Member> registered = loginManager.register(guestId, "hank", "StrongP@ss1", "h@x.com");
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            now.addAndGet(5000);
+            assertEquals(List.of(), loginManager.evictIdleGuests(10));
+            release.countDown();
+            assertEquals("hank", await(registered).getName());
+            assertFalse(loginManager.isGuestSession(guestId));
+        } finally {
+            blocking.shutdown();
+        }
+    }
+
+    @Test
+    public void testRegister_MemberNotAdded_KeepsTheGuest() {
+        String guestId = UUID.randomUUID().toString();
+        stubRegistration(guestId, "ivy");
+        Guest guest = userRepository.getGuest(guestId);
+        when(userRepository.add(anyString(), any(Member.class))).thenReturn(false);
+
+        try {
+            await(loginManager.register(guestId, "ivy", "StrongP@ss1", "i@x.com"));
+            fail("Expected the registration to fail");
+        } catch (IllegalStateException e) {
+            assertEquals("Failed to add member to repository", e.getMessage());
+        }
+        verify(userRepository).add(guestId, guest);
+        assertTrue(loginManager.isGuestSession(guestId));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testRegister_SwapsGuestForMemberInOneTransaction() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        TransactionStatus status = mock(TransactionStatus.class);
+        when(transactionManager.getTransaction(any())).thenReturn(status);
+        ObjectProvider<PlatformTransactionManager> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(transactionManager);
+        loginManager = new LoginManager(userRepository, hasher, GuestSessions.withDefaults(), provider);
+        String guestId = UUID.randomUUID().toString();
+        stubRegistration(guestId, "jack");
+        when(userRepository.add(anyString(), any(Member.class))).thenReturn(false);
+
+        try {
+            await(loginManager.register(guestId, "jack", "StrongP@ss1", "j@x.com"));
+            fail("Expected the registration to fail");
+        } catch (IllegalStateException e) {
+            assertEquals("Failed to add member to repository", e.getMessage());
+        }
+        InOrder order = inOrder(transactionManager, userRepository);
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(userRepository).remove(guestId);
+        order.verify(userRepository).add(anyString(), any(Member.class));
+        order.verify(transactionManager).rollback(status);
+        verify(userRepository, never()).add(eq(guestId), any(Guest.class));
+    }
+
+    @Test
+    public void testLogin_WeakerHash_IsUpgraded() {
+        String encoded = new BCryptPasswordEncoder(CredentialHasher.MIN_STRENGTH).encode("openSesame");
+        Member member = new Member(UUID.randomUUID(), "gina", encoded, "g@x.com");
+        member.logout(loginManager);
+        when(userRepository.getMemberByUsername("gina")).thenReturn(member);
+        CredentialHasher stronger = new CredentialHasher(1, CredentialHasher.MIN_STRENGTH + 1, 4, 0);
+        loginManager = newLoginManager(stronger);
+
+        await(loginManager.login("gina", "openSesame"));
+        stronger.shutdown();
+
+        assertTrue(member.getPassword().startsWith("$2a$11$"));
+        assertTrue(new BCryptPasswordEncoder().matches("openSesame", member.getPassword()));
+        verify(userRepository).update(member.getId(), member);
+    }
+
 }
@@ -0,0 +1,14 @@
+package Domain.User;
+
+/**
+ * Lets tests outside the package read a member's encoded password, which has no public getter.
+ */
+public final class MemberPasswords {
+
+    private MemberPasswords() {
+    }
+
+    public static String encodedPasswordOf(Member member) {
+        return member.getPassword();
+    }
+}
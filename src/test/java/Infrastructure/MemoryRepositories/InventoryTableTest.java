@@ -0,0 +1,160 @@
+package Infrastructure.MemoryRepositories;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import Domain.Pair;
+import Domain.Store.Item;
+import Domain.Store.StockCounter;
+
+/**
+ * Unit tests for Infrastructure.MemoryRepositories.InventoryTable.
+ */
+public class InventoryTableTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path directory;
+    private InventoryTable table;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = folder.newFolder("journal").toPath();
+        table = InventoryTable.open(directory, 2);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        table.close();
+    }
+
+    private InventoryTable reopen() throws IOException {
+        table.close();
+        table = InventoryTable.open(directory, 2);
+        return table;
+    }
+
+    private static Item item(String storeId, String productId, int amount) {
+        return new Item(storeId, productId, 10, amount, "", productId, Set.of());
+    }
+
+    @Test
+    public void counts_surviveReopening() throws IOException {
+        StockCounter chess = table.claim("s1", "chess", 7);
+        table.claim("s1", "go", 3);
+        table.claim("s2", "chess", 1);
+        assertTrue(chess.add(-2));
+        assertFalse(chess.add(-6));
+
+        reopen();
+
+        assertEquals(5, table.claim("s1", "chess", 0).get());
+        assertEquals(3, table.claim("s1", "go", 0).get());
+        assertEquals(1, table.claim("s2", "chess", 0).get());
+        assertEquals(3, table.size());
+    }
+
+    @Test
+    public void unclaimedSlots_areReused() throws IOException {
+        table.claim("s1", "removed", 4);
+        table.claim("s1", "kept", 2);
+        reopen();
+        table.claim("s1", "kept", 0);
+        table.releaseUnclaimed();
+
+        long size = Files.size(directory.resolve(InventoryTable.FILE));
+        table.claim("s1", "new", 1);
+        assertEquals(size, Files.size(directory.resolve(InventoryTable.FILE)));
+        assertEquals(2, table.size());
+        assertEquals(9, table.claim("s1", "removed", 9).get());
+    }
+
+    @Test
+    public void longIds_areNotKept() {
+        assertNull(table.claim("s1", "x".repeat(InventoryTable.MAX_ID_BYTES + 1), 1));
+        assertNotNull(table.claim("s1", "x".repeat(InventoryTable.MAX_ID_BYTES), 1));
+    }
+
+    @Test
+    public void concurrentSales_neverOversell() throws InterruptedException {
+        StockCounter counter = table.claim("s1", "flash", 100_000);
+        AtomicInteger sold = new AtomicInteger();
+        List<Thread> buyers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread buyer = new Thread(() -> {
+                while (counter.add(-1)) {
+                    sold.incrementAndGet();
+                }
+            });
+            buyers.add(buyer);
+            buyer.start();
+        }
+        // Growing the file while counts change must not lose any of them
+        for (int i = 0; i < 1_000; i++) {
+            table.claim("s2", "p" + i, 0);
+        }
+        for (Thread buyer : buyers) {
+            buyer.join();
+        }
+        assertEquals(100_000, sold.get());
+        assertEquals(0, counter.get());
+    }
+
+    @Test
+    public void itemRepository_keepsStockInTheTable() throws IOException {
+        MemoryItemRepository items = new MemoryItemRepository();
+        items.add(new Pair<>("s1", "p1"), item("s1", "p1", 5));
+        items.keepStockIn(table);
+        Item added = item("s1", "p2", 8);
+        items.add(new Pair<>("s1", "p2"), added);
+
+        items.get(new Pair<>("s1", "p1")).decreaseAmount(2);
+        added.increaseAmount(1);
+        assertTrue(added.hasAtomicStock());
+
+        // As after a restart: the journal restores its older copies of the items, and the table corrects them
+        items.keepStockIn(null);
+        reopen();
+        MemoryItemRepository restarted = new MemoryItemRepository();
+        restarted.add(new Pair<>("s1", "p1"), item("s1", "p1", 5));
+        restarted.add(new Pair<>("s1", "p2"), item("s1", "p2", 8));
+        restarted.keepStockIn(table);
+
+        assertEquals(3, restarted.get(new Pair<>("s1", "p1")).getAmount());
+        assertEquals(9, restarted.get(new Pair<>("s1", "p2")).getAmount());
+
+        Item removed = restarted.remove(new Pair<>("s1", "p2"));
+        assertFalse(removed.hasAtomicStock());
+        assertEquals(9, removed.getAmount());
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    public void replacingAnItem_movesItsStock() {
+        MemoryItemRepository items = new MemoryItemRepository();
+        items.keepStockIn(table);
+        Item original = item("s1", "p1", 5);
+        items.add(new Pair<>("s1", "p1"), original);
+
+        items.update(new Pair<>("s1", "p1"), item("s1", "p1", 11));
+        items.get(new Pair<>("s1", "p1")).decreaseAmount(1);
+
+        assertEquals(10, items.get(new Pair<>("s1", "p1")).getAmount());
+        assertFalse(original.hasAtomicStock());
+        assertEquals(1, table.size());
+    }
+}
@@ -0,0 +1,132 @@
+package Infrastructure.MemoryRepositories;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import Domain.Pair;
+import Domain.Store.Item;
+
+/**
+ * Unit tests for Infrastructure.MemoryRepositories.LongKeyMap and IdDictionary.
+ */
+public class LongKeyMapTest {
+
+    @Test
+    public void dictionary_givesDenseStableCodes() {
+        IdDictionary ids = new IdDictionary();
+        String store = UUID.randomUUID().toString();
+
+        assertEquals(0, ids.find(store));
+        assertEquals(1, ids.codeOf(store));
+        assertEquals(2, ids.codeOf("other"));
+        assertEquals(1, ids.codeOf(new String(store)));
+        assertEquals(store, ids.idOf(1));
+        assertNull(ids.idOf(3));
+
+        long key = IdDictionary.key(ids.find(store), 2);
+        assertEquals(1, IdDictionary.first(key));
+        assertEquals(2, IdDictionary.second(key));
+    }
+
+    @Test
+    public void randomOperations_matchHashMap() {
+        LongKeyMap<Integer> map = new LongKeyMap<>();
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 200_000; i++) {
+            // Few distinct keys with shared high halves, so that runs collide, wrap and shift back often
+            long key = IdDictionary.key(1 + random.nextInt(4), 1 + random.nextInt(500));
+            switch (random.nextInt(4)) {
+                case 0 -> assertEquals(expected.put(key, i), map.put(key, i));
+                case 1 -> assertEquals(expected.putIfAbsent(key, i), map.putIfAbsent(key, i));
+                case 2 -> assertEquals(expected.remove(key), map.remove(key));
+                default -> assertEquals(expected.get(key), map.get(key));
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        Map<Long, Integer> actual = new HashMap<>();
+        map.forEach(actual::put);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void values_filterByKey() {
+        LongKeyMap<String> map = new LongKeyMap<>();
+        map.put(IdDictionary.key(1, 1), "a");
+        map.put(IdDictionary.key(1, 2), "b");
+        map.put(IdDictionary.key(2, 1), "c");
+
+        List<String> firstStore = new ArrayList<>(map.values(key -> IdDictionary.first(key) == 1));
+        firstStore.sort(null);
+
+        assertEquals(List.of("a", "b"), firstStore);
+        assertNull(map.replace(IdDictionary.key(3, 1), "d"));
+        assertEquals("c", map.replace(IdDictionary.key(2, 1), "e"));
+        map.clear();
+        assertEquals(0, map.size());
+        assertNull(map.get(IdDictionary.key(1, 1)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroKey_isRejected() {
+        new LongKeyMap<String>().put(0L, "a");
+    }
+
+    @Test
+    public void readers_neverMissAKeyWhileWritersResize() throws InterruptedException {
+        LongKeyMap<Long> map = new LongKeyMap<>();
+        long stable = IdDictionary.key(1, 1);
+        map.put(stable, stable);
+        AtomicBoolean missed = new AtomicBoolean();
+        AtomicBoolean done = new AtomicBoolean();
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                Long value = map.get(stable);
+                if (value == null || value != stable) {
+                    missed.set(true);
+                }
+            }
+        });
+        reader.start();
+        for (int round = 0; round < 20; round++) {
+            for (int i = 2; i < 5_000; i++) {
+                map.put(IdDictionary.key(1, i), 0L);
+            }
+            for (int i = 2; i < 5_000; i++) {
+                map.remove(IdDictionary.key(1, i));
+            }
+            map.clear();
+            map.put(stable, stable);
+        }
+        done.set(true);
+        reader.join();
+        assertFalse(missed.get());
+    }
+
+    @Test
+    public void itemRepository_findsItemsByEitherId() {
+        MemoryItemRepository items = new MemoryItemRepository();
+        items.add(new Pair<>("s1", "p1"), new Item("s1", "p1", 1, 1, "", "a", Set.of()));
+        items.add(new Pair<>("s1", "p2"), new Item("s1", "p2", 1, 0, "", "b", Set.of()));
+        items.add(new Pair<>("s2", "p1"), new Item("s2", "p1", 1, 1, "", "a", Set.of()));
+
+        assertFalse(items.add(new Pair<>("s1", "p1"), new Item("s1", "p1", 2, 2, "", "a", Set.of())));
+        assertEquals(2, items.getByStoreId("s1").size());
+        assertEquals(2, items.getByProductId("p1").size());
+        assertTrue(items.getByStoreId("p1").isEmpty());
+        assertNull(items.getItem("s2", "p2"));
+        assertEquals("s2", items.remove(new Pair<>("s2", "p1")).getStoreId());
+        assertNull(items.get(new Pair<>("s2", "p1")));
+        assertEquals(1, items.getAvailabeItems().size());
+    }
+}
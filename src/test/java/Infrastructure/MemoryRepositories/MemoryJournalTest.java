@@ -0,0 +1,297 @@
+package Infrastructure.MemoryRepositories;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import Domain.Pair;
+import Domain.Store.Category;
+import Domain.Store.Item;
+import Domain.Store.Product;
+import Domain.Store.Store;
+import Domain.User.Guest;
+import Domain.User.Member;
+import Domain.User.MemberPasswords;
+import Domain.User.User;
+import Domain.management.Permission;
+import Domain.management.PermissionType;
+import Domain.management.RoleType;
+
+/**
+ * Unit tests for Infrastructure.MemoryRepositories.MemoryJournal with the market tables.
+ */
+public class MemoryJournalTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path directory;
+    private Repositories repositories;
+    private MemoryJournal journal;
+
+    /**
+     * One set of repositories wired to a journal, as after a restart.
+     */
+    private static final class Repositories {
+        final MemoryUserRepository users = new MemoryUserRepository();
+        final MemoryStoreRepository stores = new MemoryStoreRepository();
+        final MemoryProductRepository products = new MemoryProductRepository();
+        final MemoryItemRepository items = new MemoryItemRepository();
+        final MemoryPermissionRepository permissions = new MemoryPermissionRepository();
+
+        MemoryJournal open(Path directory) {
+            MemoryJournal.Table<String, User> memberTable = MemoryJournalTables.members(users);
+            MemoryJournal.Table<String, Store> storeTable = MemoryJournalTables.stores(stores);
+            MemoryJournal.Table<String, Product> productTable = MemoryJournalTables.products(products);
+            MemoryJournal.Table<Pair<String, String>, Item> itemTable = MemoryJournalTables.items(items);
+            MemoryJournal.Table<Pair<String, String>, Permission> permissionTable = MemoryJournalTables.permissions(permissions);
+            MemoryJournal journal = new MemoryJournal(directory,
+                    List.of(memberTable, storeTable, productTable, itemTable, permissionTable));
+            journal.recover();
+            users.setJournal(journal.logFor(memberTable));
+            stores.setJournal(journal.logFor(storeTable));
+            products.setJournal(journal.logFor(productTable));
+            items.setJournal(journal.logFor(itemTable));
+            permissions.setJournal(journal.logFor(permissionTable));
+            return journal;
+        }
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        directory = folder.newFolder("journal").toPath();
+        repositories = new Repositories();
+        journal = repositories.open(directory);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        journal.close();
+    }
+
+    private Repositories restart() throws IOException {
+        journal.close();
+        Repositories restarted = new Repositories();
+        journal = restarted.open(directory);
+        return restarted;
+    }
+
+    private Member populate() {
+        Member member = new Member(UUID.randomUUID(), "alice", "ENCODED", "alice@example.com");
+        repositories.users.add(member.getId(), member);
+
+        Store store = new Store("s1", "Board Games", "tabletop", member.getId());
+        store.addOwner(member.getId());
+        repositories.stores.add("s1", store);
+
+        Set<Category> categories = Set.of(new Category("Strategy", "thinking games"));
+        repositories.products.add("p1", new Product("p1", "Chess", categories));
+
+        Item item = new Item("s1", "p1", 49.5, 7, "wooden set", "Chess", categories);
+        item.addRating(5);
+        item.addRating(4);
+        repositories.items.add(new Pair<>("s1", "p1"), item);
+
+        Permission permission = new Permission(member.getId(), "s1", member.getId());
+        permission.setRole(RoleType.STORE_FOUNDER);
+        permission.setPermissions(Set.of(PermissionType.ASSIGN_OR_REMOVE_OWNERS, PermissionType.SUPERVISE_MANAGERS));
+        repositories.permissions.add("s1", member.getId(), permission);
+        return member;
+    }
+
+    private static void assertMarketRestored(Repositories restored, Member member) {
+        Member restoredMember = restored.users.getMember(member.getId());
+        assertNotNull(restoredMember);
+        assertEquals("alice", restoredMember.getName());
+        assertEquals("ENCODED", MemberPasswords.encodedPasswordOf(restoredMember));
+        assertEquals("alice@example.com", restoredMember.getEmail());
+        assertEquals(member.getBirthDate(), restoredMember.getBirthDate());
+        assertFalse(restoredMember.isLoggedIn());
+
+        Store store = restored.stores.get("s1");
+        assertEquals("Board Games", store.getName());
+        assertEquals(member.getId(), store.getFounderId());
+        assertEquals(Set.of(member.getId()), store.getOwners());
+        assertTrue(store.isOpen());
+
+        Product product = restored.products.get("p1");
+        assertEquals("Chess", product.getName());
+        assertEquals("Strategy", product.getCategories().iterator().next().getName());
+
+        Item item = restored.items.get(new Pair<>("s1", "p1"));
+        assertEquals(49.5, item.getPrice(), 0.0);
+        assertEquals("wooden set", item.getDescription());
+        assertEquals(4.5, item.getRating(), 1e-9);
+
+        Permission permission = restored.permissions.get("s1", member.getId());
+        assertEquals("s1", permission.getStoreId());
+        assertEquals(member.getId(), permission.getMember());
+        assertEquals(RoleType.STORE_FOUNDER, permission.getRoleType());
+        assertEquals(Set.of(PermissionType.ASSIGN_OR_REMOVE_OWNERS, PermissionType.SUPERVISE_MANAGERS),
+                     permission.getPermissions());
+    }
+
+    @Test
+    public void logOnly_isReplayedOnRestart() throws IOException {
+        Member member = populate();
+        assertEquals(5, journal.getLogRecords());
+
+        Repositories restored = restart();
+        assertMarketRestored(restored, member);
+        assertEquals(7, restored.items.get(new Pair<>("s1", "p1")).getAmount());
+    }
+
+    @Test
+    public void snapshotAndLogTail_areCombined() throws IOException {
+        Member member = populate();
+        assertEquals(5, journal.checkpoint());
+        assertEquals(0, journal.getLogRecords());
+
+        repositories.items.decreaseAmount(new Pair<>("s1", "p1"), 2);
+        repositories.products.add("p2", new Product("p2", "Go"));
+        repositories.products.remove("p2");
+
+        Repositories restored = restart();
+        assertMarketRestored(restored, member);
+        assertEquals(5, restored.items.get(new Pair<>("s1", "p1")).getAmount());
+        assertNull(restored.products.get("p2"));
+    }
+
+    @Test
+    public void inPlaceChange_reachesDiskWithCheckpoint() throws IOException {
+        populate();
+        repositories.stores.get("s1").addManager("bob");
+        journal.checkpoint();
+
+        assertEquals(Set.of("bob"), restart().stores.get("s1").getManagers());
+    }
+
+    @Test
+    public void guests_areNotJournaled() throws IOException {
+        Guest guest = Guest.createGuest();
+        repositories.users.add(guest.getId(), guest);
+        assertEquals(0, journal.getLogRecords());
+        journal.checkpoint();
+
+        assertNull(restart().users.get(guest.getId()));
+    }
+
+    @Test
+    public void deleteAll_isJournaled() throws IOException {
+        populate();
+        journal.checkpoint();
+        repositories.items.deleteAll();
+
+        Repositories restored = restart();
+        assertNull(restored.items.get(new Pair<>("s1", "p1")));
+        assertNotNull(restored.stores.get("s1"));
+    }
+
+    @Test
+    public void tornLogTail_isDropped() throws IOException {
+        Member member = populate();
+        journal.close();
+        Path log = journal.getLogPath();
+        long validSize = Files.size(log);
+        Files.write(log, new byte[] {0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        Repositories restored = new Repositories();
+        journal = restored.open(directory);
+        assertMarketRestored(restored, member);
+        assertEquals(validSize, Files.size(log));
+
+        restored.products.add("p2", new Product("p2", "Go"));
+        assertNotNull(restart().products.get("p2"));
+    }
+
+    @Test
+    public void checkpoint_dropsTheSegmentsItCovers() throws IOException {
+        populate();
+        Path covered = journal.getLogPath();
+        byte[] coveredRecords = Files.readAllBytes(covered);
+        journal.checkpoint();
+        assertFalse(Files.exists(covered));
+        repositories.products.remove("p1");
+
+        // As if the process died after replacing the snapshot but before deleting the segment
+        Files.write(covered, coveredRecords);
+        Repositories restored = restart();
+        assertNull(restored.products.get("p1"));
+        assertFalse(Files.exists(covered));
+        assertNotNull(restored.stores.get("s1"));
+    }
+
+    @Test
+    public void corruptSnapshot_failsRecovery() throws IOException {
+        populate();
+        journal.checkpoint();
+        journal.close();
+        Path snapshot = directory.resolve(MemoryJournal.SNAPSHOT_FILE);
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length - 1] ^= 0x55;
+        Files.write(snapshot, bytes);
+
+        try {
+            new Repositories().open(directory);
+            fail("Expected recovery to fail on a corrupt snapshot");
+        } catch (RuntimeException e) {
+            assertTrue(e.getMessage().contains("memory journal"));
+        }
+        journal = new Repositories().open(folder.newFolder("fresh").toPath());
+    }
+
+    @Test
+    public void rejectedAdds_areNotJournaled() {
+        Member member = populate();
+        long records = journal.getLogRecords();
+
+        try {
+            repositories.stores.add("s1", repositories.stores.get("s1"));
+            fail("Expected the second store with the same id to be rejected");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        assertFalse(repositories.products.add("p1", new Product("p1", "Other chess")));
+        assertFalse(repositories.users.add(member.getId(), member));
+        assertEquals(records, journal.getLogRecords());
+    }
+
+    @Test
+    public void racingChangesToOnePermission_replayToWhatTheRepositoryHolds() throws Exception {
+        Member member = populate();
+        Permission permission = new Permission("bob", "s1", member.getId());
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            boolean adding = t % 2 == 0;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 2_000; i++) {
+                    if (adding) {
+                        repositories.permissions.add("s1", "bob", permission);
+                    } else {
+                        repositories.permissions.remove("s1", "bob");
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        boolean held = repositories.permissions.get("s1", "bob") != null;
+        assertEquals(held, restart().permissions.get("s1", "bob") != null);
+    }
+}
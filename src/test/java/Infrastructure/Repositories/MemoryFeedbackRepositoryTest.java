@@ -0,0 +1,92 @@
+package Infrastructure.Repositories;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import Domain.Repos.IFeedbackRepository;
+import Domain.Store.Feedback;
+import Domain.Store.FeedbackIndex;
+import Domain.Store.FeedbackPage;
+import Infrastructure.MemoryRepositories.MemoryFeedbackRepository;
+
+/**
+ * Test class for MemoryFeedbackRepository
+ */
+public class MemoryFeedbackRepositoryTest {
+
+    private MemoryFeedbackRepository repository;
+
+    @Before
+    public void setUp() {
+        repository = new MemoryFeedbackRepository();
+    }
+
+    private void addFeedback(String id, String customerId, String storeId, String productId) {
+        repository.add(id, new Feedback(id, customerId, storeId, productId, "comment " + id));
+    }
+
+    @Test
+    public void pages_walkAProductsFeedbackNewestFirst() {
+        for (int i = 1; i <= 25; i++) {
+            addFeedback("f" + i, "user" + (i % 3), i % 2 == 0 ? "storeA" : "storeB", "product");
+        }
+        addFeedback("other", "user1", "storeA", "otherProduct");
+
+        FeedbackPage first = repository.getFeedbackPage(FeedbackIndex.PRODUCT, "product", 0, 10);
+        assertEquals("f25", first.getFeedbacks().get(0).getFeedbackId());
+        assertEquals(25, first.getTotalCount());
+
+        FeedbackPage second = repository.getFeedbackPage(FeedbackIndex.PRODUCT, "product", first.getNextBefore(), 10);
+        assertEquals("f15", second.getFeedbacks().get(0).getFeedbackId());
+
+        FeedbackPage last = repository.getFeedbackPage(FeedbackIndex.PRODUCT, "product", second.getNextBefore(), 10);
+        assertEquals(5, last.getFeedbacks().size());
+        assertEquals("f1", last.getFeedbacks().get(4).getFeedbackId());
+        assertFalse(last.hasMore());
+    }
+
+    @Test
+    public void indexes_countAndFindByStoreAndCustomer() {
+        addFeedback("f1", "alice", "store1", "p1");
+        addFeedback("f2", "bob", "store1", "p2");
+        addFeedback("f3", "alice", "store2", "p1");
+
+        assertEquals(2, repository.count(FeedbackIndex.STORE, "store1"));
+        assertEquals(2, repository.count(FeedbackIndex.CUSTOMER, "alice"));
+        assertEquals(0, repository.count(FeedbackIndex.PRODUCT, "unknown"));
+        assertEquals(List.of("f1", "f3"),
+                repository.getAllFeedbacksByUserId("alice").stream().map(Feedback::getFeedbackId).toList());
+        assertTrue(repository.getAllFeedbacksByStoreId("unknown").isEmpty());
+    }
+
+    @Test
+    public void removeAndUpdate_keepIndexesInStep() {
+        addFeedback("f1", "alice", "store1", "p1");
+        addFeedback("f2", "alice", "store1", "p1");
+
+        repository.remove("f1");
+        assertEquals(1, repository.count(FeedbackIndex.PRODUCT, "p1"));
+
+        repository.update("f2", new Feedback("f2", "alice", "store1", "p2", "moved"));
+        assertEquals(0, repository.count(FeedbackIndex.PRODUCT, "p1"));
+        assertEquals("moved", repository.getSummary(FeedbackIndex.PRODUCT, "p2").getFeedbacks().get(0).getComment());
+        assertEquals(1, repository.count(FeedbackIndex.STORE, "store1"));
+    }
+
+    @Test
+    public void summary_holdsTheNewestFeedback() {
+        for (int i = 1; i <= 8; i++) {
+            addFeedback("f" + i, "alice", "store1", "p1");
+        }
+
+        FeedbackPage summary = repository.getSummary(FeedbackIndex.PRODUCT, "p1");
+        assertEquals(IFeedbackRepository.SUMMARY_SIZE, summary.getFeedbacks().size());
+        assertEquals("f8", summary.getFeedbacks().get(0).getFeedbackId());
+        assertEquals(8, summary.getTotalCount());
+        assertTrue(summary.hasMore());
+    }
+}
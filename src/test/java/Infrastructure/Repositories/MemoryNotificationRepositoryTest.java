@@ -0,0 +1,99 @@
+package Infrastructure.Repositories;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import Domain.Notification.Notification;
+import Domain.Notification.NotificationPage;
+import Infrastructure.MemoryRepositories.MemoryNotificationRepository;
+
+/**
+ * Test class for MemoryNotificationRepository
+ */
+public class MemoryNotificationRepositoryTest {
+
+    private static final String USER = "user1";
+
+    private MemoryNotificationRepository repository;
+
+    @Before
+    public void setUp() {
+        repository = new MemoryNotificationRepository();
+    }
+
+    private void appendMessages(int count) {
+        for (int i = 1; i <= count; i++) {
+            repository.addNotification(USER, "message " + i);
+        }
+    }
+
+    @Test
+    public void getNotifications_returnsUnreadOnceAndMovesCursor() {
+        appendMessages(3);
+        assertEquals(3, repository.getUnreadCount(USER));
+
+        assertEquals(List.of("message 1", "message 2", "message 3"), repository.getNotifications(USER));
+        assertEquals(0, repository.getUnreadCount(USER));
+        assertTrue(repository.getNotifications(USER).isEmpty());
+
+        repository.addNotification(USER, "message 4");
+        assertEquals(List.of("message 4"), repository.getNotifications(USER));
+        assertTrue(repository.getNotifications("unknown").isEmpty());
+    }
+
+    @Test
+    public void getNotifications_deliversAtMostOneBatch() {
+        appendMessages(250);
+        assertEquals(100, repository.getNotifications(USER).size());
+        assertEquals(150, repository.getUnreadCount(USER));
+        assertEquals("message 101", repository.getNotifications(USER).get(0));
+    }
+
+    @Test
+    public void pages_walkTheLogNewestFirst() {
+        appendMessages(25);
+
+        NotificationPage first = repository.getNotificationPage(USER, 0, 10);
+        assertEquals(25, first.getNotifications().get(0).getSequence());
+        assertEquals(16, first.getNotifications().get(9).getSequence());
+        assertEquals(25, first.getUnreadCount());
+
+        NotificationPage second = repository.getNotificationPage(USER, first.getNextBefore(), 10);
+        assertEquals("message 15", second.getNotifications().get(0).getContent());
+
+        NotificationPage last = repository.getNotificationPage(USER, second.getNextBefore(), 10);
+        assertEquals(5, last.getNotifications().size());
+        assertFalse(last.hasMore());
+    }
+
+    @Test
+    public void markRead_onlyMovesForward() {
+        appendMessages(5);
+        assertTrue(repository.markRead(USER, 3));
+        assertFalse(repository.markRead(USER, 2));
+        assertEquals(2, repository.getUnreadCount(USER));
+        assertTrue(repository.markRead(USER, 99));
+        assertEquals(0, repository.getUnreadCount(USER));
+    }
+
+    @Test
+    public void prune_keepsNewestAndCountsRemovedAsRead() {
+        appendMessages(10);
+        repository.markRead(USER, 2);
+
+        assertEquals(6, repository.prune(0, 4));
+        assertEquals(4, repository.getUnreadCount(USER));
+        List<Notification> page = repository.getPage(USER, Long.MAX_VALUE, 10);
+        assertEquals(4, page.size());
+        assertEquals(7, page.get(3).getSequence());
+
+        assertEquals(4, repository.prune(Long.MAX_VALUE, 100));
+        assertEquals(0, repository.getUnreadCount(USER));
+        assertEquals(11, repository.append(USER, "message 11"));
+        assertEquals(List.of("message 11"), repository.getNotifications(USER));
+    }
+}
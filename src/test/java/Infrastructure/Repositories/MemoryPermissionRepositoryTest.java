@@ -0,0 +1,68 @@
+package Infrastructure.Repositories;
+
+import static org.junit.Assert.*;
+
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import Domain.management.Permission;
+import Infrastructure.MemoryRepositories.MemoryPermissionRepository;
+
+/**
+ * Test class for MemoryPermissionRepository.
+ * Tests that the per-store view follows adds, updates and removals.
+ */
+public class MemoryPermissionRepositoryTest {
+
+    private MemoryPermissionRepository repository;
+
+    @Before
+    public void setUp() {
+        repository = new MemoryPermissionRepository();
+    }
+
+    @Test
+    public void testGetAllPermissionsForStore_ReturnsOnlyThatStore() {
+        Permission owner = new Permission("founder", "store1", "owner");
+        Permission manager = new Permission("owner", "store1", "manager");
+        repository.add("store1", "owner", owner);
+        repository.add("store1", "manager", manager);
+        repository.add("store2", "owner", new Permission("founder", "store2", "owner"));
+
+        assertEquals(Map.of("owner", owner, "manager", manager), repository.getAllPermissionsForStore("store1"));
+        assertTrue(repository.getAllPermissionsForStore("unknown").isEmpty());
+    }
+
+    @Test
+    public void testUpdateAndRemove_AreReflectedPerStore() {
+        repository.add("store1", "owner", new Permission("founder", "store1", "owner"));
+        Permission replaced = new Permission("founder", "store1", "owner");
+
+        assertSame(replaced, repository.update("store1", "owner", replaced));
+        assertNull(repository.update("store1", "nobody", replaced));
+        assertSame(replaced, repository.getAllPermissionsForStore("store1").get("owner"));
+
+        assertSame(replaced, repository.remove("store1", "owner"));
+        assertNull(repository.remove("store1", "owner"));
+        assertTrue(repository.getAllPermissionsForStore("store1").isEmpty());
+        assertFalse(repository.getAllPermissions().containsKey("store1"));
+    }
+
+    @Test
+    public void testGetAllPermissions_GroupsByStore() {
+        repository.add("store1", "owner", new Permission("founder", "store1", "owner"));
+        repository.add("store2", "owner", new Permission("founder", "store2", "owner"));
+        repository.add("store2", "manager", new Permission("owner", "store2", "manager"));
+
+        Map<String, Map<String, Permission>> all = repository.getAllPermissions();
+
+        assertEquals(2, all.size());
+        assertEquals(1, all.get("store1").size());
+        assertEquals(2, all.get("store2").size());
+
+        repository.deleteAll();
+        assertTrue(repository.getAllPermissions().isEmpty());
+    }
+}
@@ -10,6 +10,7 @@ import java.util.Map;
 import java.util.Set;
 
 import Domain.Pair;
+import Domain.Events.DomainEventBus;
 import Domain.Shopping.Receipt;
 import Domain.Store.Category;
 import Domain.Store.Product;
@@ -28,7 +29,7 @@ public class MemoryReceiptRepositoryTest {
     
     @Before
     public void setUp() {
-        repository = new MemoryReceiptRepository();
+        repository = new MemoryReceiptRepository(new DomainEventBus());
     }
     
     @Test
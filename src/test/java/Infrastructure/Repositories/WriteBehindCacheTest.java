@@ -0,0 +1,158 @@
+package Infrastructure.Repositories;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import Domain.Shopping.ShoppingBasket;
+import Infrastructure.JpaSpringRepositories.WriteBehindCache;
+
+/**
+ * Test class for WriteBehindCache.
+ * Tests read-through loading, dirty tracking, batched flushing and eviction.
+ */
+public class WriteBehindCacheTest {
+
+    private WriteBehindCache<String, String> cache;
+    private List<List<String>> writtenBatches;
+
+    @Before
+    public void setUp() {
+        cache = new WriteBehindCache<>(value -> value);
+        writtenBatches = new ArrayList<>();
+    }
+
+    @Test
+    public void testGet_LoadsOnMissAndCaches() {
+        int[] loads = {0};
+        String first = cache.get("k", id -> { loads[0]++; return "v"; });
+        String second = cache.get("k", id -> { loads[0]++; return "other"; });
+
+        assertEquals("v", first);
+        assertEquals("v", second);
+        assertEquals("Loader should run only once", 1, loads[0]);
+        assertEquals(0, cache.dirtyCount());
+    }
+
+    @Test
+    public void testGet_NullIsNotCached() {
+        assertNull(cache.get("k", id -> null));
+        assertFalse(cache.contains("k"));
+    }
+
+    @Test
+    public void testFlush_CoalescesRepeatedUpdates() {
+        cache.markDirty("a", "1");
+        cache.markDirty("a", "2");
+        cache.markDirty("b", "3");
+
+        int written = cache.flush(writtenBatches::add, 10);
+
+        assertEquals(2, written);
+        assertEquals(1, writtenBatches.size());
+        assertTrue(writtenBatches.get(0).contains("2"));
+        assertFalse(writtenBatches.get(0).contains("1"));
+        assertEquals(0, cache.dirtyCount());
+    }
+
+    @Test
+    public void testFlush_SplitsIntoBatches() {
+        for (int i = 0; i < 5; i++) {
+            cache.markDirty("k" + i, "v" + i);
+        }
+
+        cache.flush(writtenBatches::add, 2);
+
+        assertEquals(3, writtenBatches.size());
+    }
+
+    @Test
+    public void testFlush_WritesCopiesOfTheEntities() {
+        WriteBehindCache<String, ShoppingBasket> baskets = new WriteBehindCache<>(ShoppingBasket::copy);
+        ShoppingBasket basket = new ShoppingBasket("store", "client");
+        basket.addOrder("p1", 2);
+        baskets.markDirty("client", basket);
+        List<ShoppingBasket> written = new ArrayList<>();
+
+        baskets.flush(batch -> {
+            // A request thread changing the basket meanwhile does not reach the row being written
+            basket.addOrder("p2", 1);
+            written.addAll(batch);
+        }, 10);
+
+        assertNotSame(basket, written.get(0));
+        assertEquals(Map.of("p1", 2), written.get(0).getOrders());
+        assertEquals("store", written.get(0).getStoreId());
+    }
+
+    @Test
+    public void testFlush_FailedBatchIsRetried() {
+        cache.markDirty("a", "1");
+
+        int written = cache.flush(batch -> { throw new RuntimeException("db down"); }, 10);
+
+        assertEquals(0, written);
+        assertEquals("Failed entity should stay dirty", 1, cache.dirtyCount());
+        assertEquals(1, cache.flush(writtenBatches::add, 10));
+    }
+
+    @Test
+    public void testRemove_DropsPendingWrite() {
+        cache.markDirty("a", "1");
+        assertEquals("1", cache.remove("a"));
+
+        assertEquals(0, cache.flush(writtenBatches::add, 10));
+        assertTrue(writtenBatches.isEmpty());
+    }
+
+    @Test
+    public void testRemove_WaitsForTheBatchBeingWritten() throws Exception {
+        cache.markDirty("a", "1");
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch releaseWrite = new CountDownLatch(1);
+        Thread flusher = new Thread(() -> cache.flush(batch -> {
+            writing.countDown();
+            try {
+                releaseWrite.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writtenBatches.add(batch);
+        }, 10));
+        flusher.start();
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+        AtomicReference<String> removed = new AtomicReference<>();
+        Thread remover = new Thread(() -> removed.set(cache.remove("a")));
+        remover.start();
+        remover.join(200);
+        assertTrue("Removal should wait for the batch holding the entity", remover.isAlive());
+
+        releaseWrite.countDown();
+        flusher.join(5000);
+        remover.join(5000);
+        assertEquals("1", removed.get());
+        assertEquals(1, writtenBatches.size());
+        assertEquals("A later flush must not write the removed entity back", 0, cache.flush(writtenBatches::add, 10));
+    }
+
+    @Test
+    public void testEvictIdle_KeepsDirtyEntries() {
+        cache.get("clean", id -> "c");
+        cache.markDirty("dirty", "d");
+
+        int evicted = cache.evictIdle(-1);
+
+        assertEquals(1, evicted);
+        assertFalse(cache.contains("clean"));
+        assertTrue(cache.contains("dirty"));
+    }
+}
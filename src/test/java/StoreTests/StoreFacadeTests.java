@@ -18,6 +18,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import Application.utils.Response;
+import Domain.Events.DomainEventBus;
 import Domain.ExternalServices.IExternalPaymentService;
 import Domain.ExternalServices.IExternalSupplyService;
 import Domain.ExternalServices.INotificationService;
@@ -30,11 +31,13 @@ import Domain.Repos.IReceiptRepository;
 import Domain.Repos.IStoreRepository;
 import Domain.Repos.IUserRepository;
 import Domain.Store.Auction;
+import Domain.Store.CatalogVersions;
 import Domain.Store.Feedback;
 import Domain.Store.Item;
 import Domain.Store.Product;
 import Domain.Store.Store;
 import Domain.Store.StoreFacade;
+import Domain.Store.StoreLocks;
 import Domain.User.Member;
 
 public class StoreFacadeTests {
@@ -67,7 +70,9 @@ public class StoreFacadeTests {
             auctionRepository,
             notificationService,
             receiptRepository,
-            productRepository
+            productRepository,
+            new DomainEventBus(),
+            new StoreLocks()
         );
     }
     
@@ -165,11 +170,26 @@ public class StoreFacadeTests {
         when(storeRepository.get(storeId)).thenReturn(store);
         when(store.getId()).thenReturn(storeId);
         when(store.isOpen()).thenReturn(false);
-        when(storeRepository.getLock(storeId)).thenReturn(new Object());
         when(storeRepository.update(eq(storeId), any(Store.class))).thenReturn(store);
         assertTrue(storeFacade.openStore(storeId));
     }
 
+    @Test
+    public void givenCachedSnapshot_whenStoreChangesElsewhere_thenSnapshotIsReadAgain(){
+        String storeId = "snapshotStore";
+        Store store = new Store(storeId, "name", "description", "founder");
+        when(storeRepository.get(storeId)).thenReturn(store);
+        assertTrue(storeFacade.getStoreSnapshot(storeId).isOpen());
+
+        // As another facade or node changing the store: the cached snapshot goes stale with the store's fields version
+        store.setOpen(false);
+        assertTrue(storeFacade.getStoreSnapshot(storeId).isOpen());
+        CatalogVersions.changed(storeId);
+        assertTrue("a catalog change alone keeps the snapshot", storeFacade.getStoreSnapshot(storeId).isOpen());
+        CatalogVersions.storeChanged(storeId);
+        assertEquals(false, storeFacade.getStoreSnapshot(storeId).isOpen());
+    }
+
     @Test
     public void givenInitialaizedFacadeAndOpenStore_whenOpenStore_thenReturnError(){
         Store store = mock(Store.class);
@@ -177,7 +197,6 @@ public class StoreFacadeTests {
         when(storeRepository.get(storeId)).thenReturn(store);
         when(store.getId()).thenReturn(storeId);
         when(store.isOpen()).thenReturn(true);
-        when(storeRepository.getLock(storeId)).thenReturn(new Object());
         try {
             assertTrue(storeFacade.openStore(storeId) == false);
         } catch (Exception e) {
@@ -192,7 +211,6 @@ public class StoreFacadeTests {
         when(storeRepository.get(storeId)).thenReturn(store);
         when(store.getId()).thenReturn(storeId);
         when(store.isPermanentlyClosed()).thenReturn(true);
-        when(storeRepository.getLock(storeId)).thenReturn(new Object());
         try {
             storeFacade.closeStore(storeId);
             fail("Expected RuntimeException was not thrown");
@@ -243,7 +261,6 @@ public class StoreFacadeTests {
         when(userRepository.get(userId)).thenReturn(mock(Member.class));
         when(storeRepository.get(storeId)).thenReturn(mock(Store.class));
 
-        when(feedbackRepository.getLock(any(String.class))).thenReturn(new Object());
         when(feedbackRepository.get(any(String.class))).thenReturn(null);
 
         when(feedbackRepository.add(any(), any(Feedback.class))).thenReturn(true);
@@ -305,7 +322,6 @@ public class StoreFacadeTests {
         when(feedback.getStoreId()).thenReturn(storeId);
         when(feedback.getProductId()).thenReturn(productId);
 
-        when(feedbackRepository.getLock(feedbackId)).thenReturn(new Object());
         when(feedbackRepository.get(feedbackId)).thenReturn(feedback);
 
         when(feedbackRepository.remove(any(String.class))).thenReturn(feedback);
@@ -315,7 +331,6 @@ public class StoreFacadeTests {
     @Test
     public void givenInitializedFacadeAndNoFeedback_whenRemoveFeedback_thanReturnError(){
         String feedbackId = "nonexistingfeedback";
-        when(feedbackRepository.getLock(feedbackId)).thenReturn(new Object());
         when(feedbackRepository.get(feedbackId)).thenReturn(null);
         try {
             assertTrue(storeFacade.removeFeedback(feedbackId) == null);
@@ -409,7 +424,6 @@ public class StoreFacadeTests {
         when(auction.getStoreId()).thenReturn(storeId);
         when(auction.getProductId()).thenReturn(productId);
 
-        when(auctionRepository.getLock(any(String.class))).thenReturn(new Object());
         when(auctionRepository.get(any(String.class))).thenReturn(null);
 
 
@@ -483,7 +497,6 @@ public class StoreFacadeTests {
     public void givenInitializedFacadeAndNoAuction_whenGetAllStoreAuctions_thenReturnEmptyList(){
         String storeId = "storeId";
         when(storeRepository.get(storeId)).thenReturn(mock(Store.class));
-        when(storeRepository.getLock(storeId)).thenReturn(new Object());
         when(auctionRepository.getAllStoreAuctions(storeId)).thenReturn(new java.util.ArrayList<>());
         assertTrue(storeFacade.getAllStoreAuctions(storeId).isEmpty());
     }
@@ -504,7 +517,6 @@ public class StoreFacadeTests {
         auctions.add(auction);
         when(auctionRepository.getAllStoreAuctions(storeId)).thenReturn(auctions);
         when(storeRepository.get(storeId)).thenReturn(mock(Store.class));
-        when(storeRepository.getLock(storeId)).thenReturn(new Object());
         assertTrue(storeFacade.getAllStoreAuctions(storeId).size() == 1);
     }
 
@@ -526,7 +538,6 @@ public class StoreFacadeTests {
         when(auction.getAuctionId()).thenReturn(auctionId);
         when(auctionRepository.remove(auctionId)).thenReturn(auction);
         when(auctionRepository.get(auctionId)).thenReturn(auction);
-        when(auctionRepository.getLock(auctionId)).thenReturn(new Object());
         assertTrue(storeFacade.closeAuction(auctionId).getAuctionId().equals(auctionId));
     }
 
@@ -534,7 +545,6 @@ public class StoreFacadeTests {
     public void givenInitializedFacadeAndNoAuction_whenCloseAuction_thenReturnError(){
         String auctionId = "nonExistingAuctionId";
         when(auctionRepository.get(auctionId)).thenReturn(null);
-        when(auctionRepository.getLock(auctionId)).thenReturn(new Object());
         try {
             assertTrue(storeFacade.closeAuction(auctionId) == null);
         } catch (Exception e) {
@@ -607,7 +617,9 @@ public class StoreFacadeTests {
             auctionRepository,
             notificationService,
             receiptRepository,
-            productRepository
+            productRepository,
+            new DomainEventBus(),
+            new StoreLocks()
         );
 
         // Setup core domain objects
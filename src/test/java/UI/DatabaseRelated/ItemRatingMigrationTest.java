@@ -0,0 +1,119 @@
+package UI.DatabaseRelated;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+/**
+ * Runs ItemRatingMigration against a real Postgres, in a schema of its own that is dropped afterwards.
+ * Skipped unless a database is given, e.g.
+ * {@code mvn test -Dit.postgres.url=jdbc:postgresql://localhost:5432/postgres -Dit.postgres.user=postgres -Dit.postgres.password=...}
+ */
+public class ItemRatingMigrationTest {
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private String schema;
+
+    @Before
+    public void setUp() {
+        String url = System.getProperty("it.postgres.url");
+        assumeTrue("no it.postgres.url given", url != null && !url.isBlank());
+        dataSource = new SingleConnectionDataSource(url, System.getProperty("it.postgres.user"),
+                                                    System.getProperty("it.postgres.password"), true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        schema = "rating_migration_" + System.nanoTime();
+        jdbcTemplate.execute("CREATE SCHEMA " + schema);
+        jdbcTemplate.execute("SET search_path TO " + schema);
+        jdbcTemplate.execute("""
+                CREATE TABLE items (store_id varchar, product_id varchar,
+                                    rating1 integer default 0 not null, rating2 integer default 0 not null,
+                                    rating3 integer default 0 not null, rating4 integer default 0 not null,
+                                    rating5 integer default 0 not null,
+                                    PRIMARY KEY (store_id, product_id))
+                """);
+        jdbcTemplate.execute("CREATE TABLE item_rates (item_store_id varchar, item_product_id varchar, rates integer)");
+    }
+
+    @After
+    public void tearDown() {
+        if (dataSource != null) {
+            jdbcTemplate.execute("DROP SCHEMA " + schema + " CASCADE");
+            dataSource.destroy();
+        }
+    }
+
+    private void item(String productId, int... ratings) {
+        jdbcTemplate.update("INSERT INTO items VALUES ('s', ?, ?, ?, ?, ?, ?)", productId,
+                            ratings[0], ratings[1], ratings[2], ratings[3], ratings[4]);
+    }
+
+    private void oldRates(String productId, Integer... rates) {
+        for (Integer rate : rates) {
+            jdbcTemplate.update("INSERT INTO item_rates VALUES ('s', ?, ?)", productId, rate);
+        }
+    }
+
+    private List<Integer> ratings(String productId) {
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT rating1, rating2, rating3, rating4, rating5 FROM items WHERE product_id = ?", productId);
+        return row.values().stream().map(value -> ((Number) value).intValue()).toList();
+    }
+
+    private boolean exists(String table) {
+        return jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, table);
+    }
+
+    @Test
+    public void givenOnlyEqualCounts_thenTheyAreAddedToEveryStarAndTheOldTableIsKeptRenamed() {
+        item("unrated", 0, 0, 0, 0, 0);
+        item("even", 1, 0, 0, 0, 2);
+        oldRates("unrated", 0, 0, null, 0, 0);
+        oldRates("even", 3, 3, 3, 3, 3);
+
+        new ItemRatingMigration(jdbcTemplate).run();
+
+        assertEquals(List.of(0, 0, 0, 0, 0), ratings("unrated"));
+        assertEquals(List.of(4, 3, 3, 3, 5), ratings("even"));
+        assertFalse(exists("item_rates"));
+        assertEquals(Integer.valueOf(10), jdbcTemplate.queryForObject(
+                "SELECT COUNT(*)::int FROM " + ItemRatingMigration.MIGRATED_TABLE, Integer.class));
+
+        // Runs once
+        new ItemRatingMigration(jdbcTemplate).run();
+        assertEquals(List.of(4, 3, 3, 3, 5), ratings("even"));
+    }
+
+    @Test
+    public void givenCountsWhoseStarsCannotBeTold_thenNothingIsMigrated() {
+        item("unrated", 0, 0, 0, 0, 0);
+        item("rated", 0, 0, 0, 0, 0);
+        oldRates("unrated", 0, 0, 0, 0, 0);
+        oldRates("rated", 0, 0, 1, 0, 4);
+
+        new ItemRatingMigration(jdbcTemplate).run();
+
+        assertEquals(List.of(0, 0, 0, 0, 0), ratings("rated"));
+        assertTrue(exists("item_rates"));
+        assertFalse(exists(ItemRatingMigration.MIGRATED_TABLE));
+    }
+
+    @Test
+    public void givenAnItemWithoutFiveRows_thenNothingIsMigrated() {
+        item("extra", 0, 0, 0, 0, 0);
+        oldRates("extra", 2, 2, 2, 2, 2, 2);
+
+        new ItemRatingMigration(jdbcTemplate).run();
+
+        assertEquals(List.of(0, 0, 0, 0, 0), ratings("extra"));
+        assertTrue(exists("item_rates"));
+    }
+}
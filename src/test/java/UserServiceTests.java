@@ -1,4 +1,5 @@
 import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -15,6 +16,8 @@ import Application.TokenService;
 import Application.UserService;
 import Application.utils.Response;
 import Domain.Shopping.IShoppingCartFacade;
+import Domain.User.CredentialHasher;
+import Domain.User.GuestSessions;
 import Domain.User.LoginManager;
 import Infrastructure.MemoryRepositories.MemoryUserRepository;
 
@@ -28,8 +31,9 @@ public class UserServiceTests {
         // Initialize service and obtain a guest session token
         // Tom's fault
         shoppingCartFacade = mock(IShoppingCartFacade.class);
-        when(shoppingCartFacade.clearCart(anyString())).thenReturn(true);
-        userService = new UserService(new LoginManager(new MemoryUserRepository()), new TokenService(), shoppingCartFacade);
+        when(shoppingCartFacade.removeCart(anyString())).thenReturn(true);
+        userService = new UserService(new LoginManager(new MemoryUserRepository(),
+                new CredentialHasher(1, CredentialHasher.MIN_STRENGTH, 16, 0), GuestSessions.withDefaults()), new TokenService(), shoppingCartFacade);
         Response<UserDTO> guestResp = userService.guestEntry();
         assertFalse("Guest entry should succeed", guestResp.errorOccurred());
         guestToken = guestResp.getValue().getSessionToken();
@@ -97,6 +101,25 @@ public class UserServiceTests {
         assertNotNull("Login session token should be set", loginResp.getValue().getSessionToken());
     }
 
+    @Test
+    public void GivenRegisteredUser_WhenLoginAsync_ThenFutureCompletesAuthenticated() throws Exception {
+        Response<UserDTO> regResp = userService.register(guestToken, "erin", "Password1!", "erin@mail.com");
+        userService.exit(regResp.getValue().getSessionToken());
+
+        Response<UserDTO> loginResp = userService.loginAsync("erin", "Password1!").get(5, TimeUnit.SECONDS);
+
+        assertFalse("Login should succeed", loginResp.errorOccurred());
+        assertEquals("erin", loginResp.getValue().getUsername());
+    }
+
+    @Test
+    public void GivenUnknownUser_WhenLoginAsync_ThenFutureCompletesWithError() throws Exception {
+        Response<UserDTO> loginResp = userService.loginAsync("nobody", "Password1!").get(5, TimeUnit.SECONDS);
+
+        assertTrue(loginResp.errorOccurred());
+        assertTrue(loginResp.getErrorMessage().contains("Invalid username or password"));
+    }
+
     @Test
     public void GivenWrongCredentials_WhenLogin_ThenErrorInvalidCredentials() {
         Response<UserDTO> regResp = userService.register(guestToken, "dave", "Password1!", "dave@mail.com");